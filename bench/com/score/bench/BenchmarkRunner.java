@@ -0,0 +1,238 @@
+package com.score.bench;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 基准测试执行器（简化版JMH）：预热若干轮后正式测量若干轮，每轮在iterationMillis内反复调用被测代码，
+ * 按"调用次数 × 每次调用的操作数 / 耗时"计算吞吐量，取各轮平均值和标准差
+ * 所有结果可以输出为JSON（格式见writeJson），便于不同版本之间对比
+ * 参数可用系统属性覆盖：bench.warmup（预热轮数）、bench.iterations（测量轮数）、bench.iterationMillis（每轮毫秒数）
+ */
+public class BenchmarkRunner {
+    /**
+     * 被测代码（一次调用）
+     */
+    public interface Body {
+        void run() throws Exception;
+    }
+
+    // 防止JIT把被测代码的结果当成无用计算消除
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationMillis;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = Math.max(1, measurementIterations);
+        this.iterationMillis = Math.max(1, iterationMillis);
+    }
+
+    public static BenchmarkRunner fromSystemProperties() {
+        return new BenchmarkRunner(Integer.getInteger("bench.warmup", 3),
+                Integer.getInteger("bench.iterations", 5),
+                Long.getLong("bench.iterationMillis", 1000L));
+    }
+
+    /**
+     * 吞吐量测量
+     * @param params 本次测量的参数（如行数、列数），原样写入结果
+     * @param opsPerCall 一次调用包含的操作数（如解析的行数），吞吐量按操作数计算
+     * @param unit 吞吐量单位（如"rows/s"）
+     */
+    public Result measure(String suite, String benchmark, Map<String, Object> params, long opsPerCall, String unit, Body body)
+            throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            runIteration(body, opsPerCall);
+        }
+        double[] samples = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            samples[i] = runIteration(body, opsPerCall);
+        }
+        Result result = new Result(suite, benchmark, params, unit, samples, null);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * 记录非吞吐量的测量值（如每10万行占用的堆内存），samples为各轮测得的值
+     */
+    public Result record(String suite, String benchmark, Map<String, Object> params, String unit, double[] samples) {
+        Result result = new Result(suite, benchmark, params, unit, samples.clone(), null);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    /**
+     * 记录一个无法运行的测量（如数据库不可用），结果中保留原因
+     */
+    public void skip(String suite, String benchmark, Map<String, Object> params, String reason) {
+        Result result = new Result(suite, benchmark, params, null, new double[0], reason);
+        results.add(result);
+        System.out.println(result);
+    }
+
+    private double runIteration(Body body, long opsPerCall) throws Exception {
+        long deadline = System.nanoTime() + iterationMillis * 1_000_000L;
+        long start = System.nanoTime();
+        long calls = 0;
+        do {
+            body.run();
+            calls++;
+        } while (System.nanoTime() < deadline);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return calls * opsPerCall / seconds;
+    }
+
+    public static void consume(Object value) {
+        sink = value;
+    }
+
+    public int getMeasurementIterations() {
+        return measurementIterations;
+    }
+
+    public List<Result> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * 输出JSON：{"timestamp":..,"jvm":..,"warmupIterations":..,"measurementIterations":..,"iterationMillis":..,
+     * "results":[{"suite":..,"benchmark":..,"params":{..},"unit":..,"score":..,"scoreStdDev":..,"samples":[..]}]}
+     * 跳过的测量带"skipped"字段，没有score
+     */
+    public void writeJson(File file) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) Files.createDirectories(dir.toPath());
+        try (Writer out = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            out.write("{\n");
+            out.write("  \"timestamp\": " + quote(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)) + ",\n");
+            out.write("  \"jvm\": " + quote(System.getProperty("java.vm.name") + " " + System.getProperty("java.version")) + ",\n");
+            out.write("  \"warmupIterations\": " + warmupIterations + ",\n");
+            out.write("  \"measurementIterations\": " + measurementIterations + ",\n");
+            out.write("  \"iterationMillis\": " + iterationMillis + ",\n");
+            out.write("  \"results\": [");
+            for (int i = 0; i < results.size(); i++) {
+                out.write(i == 0 ? "\n" : ",\n");
+                out.write("    " + results.get(i).toJson());
+            }
+            out.write("\n  ]\n}\n");
+        }
+        System.out.println("基准测试结果已写入：" + file.getAbsolutePath());
+    }
+
+    static String quote(String text) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * 构造有序参数表：params("rows", 1000, "cols", 5)
+     */
+    public static Map<String, Object> params(Object... keyValues) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            params.put(String.valueOf(keyValues[i]), keyValues[i + 1]);
+        }
+        return params;
+    }
+
+    /**
+     * 一项测量的结果
+     */
+    public static class Result {
+        private final String suite;
+        private final String benchmark;
+        private final Map<String, Object> params;
+        private final String unit;
+        private final double[] samples;
+        private final String skipped;
+
+        Result(String suite, String benchmark, Map<String, Object> params, String unit, double[] samples, String skipped) {
+            this.suite = suite;
+            this.benchmark = benchmark;
+            this.params = params == null ? Collections.emptyMap() : params;
+            this.unit = unit;
+            this.samples = samples;
+            this.skipped = skipped;
+        }
+
+        public double getScore() {
+            double sum = 0;
+            for (double sample : samples) sum += sample;
+            return samples.length == 0 ? 0 : sum / samples.length;
+        }
+
+        public double getStdDev() {
+            if (samples.length < 2) return 0;
+            double mean = getScore();
+            double squares = 0;
+            for (double sample : samples) squares += (sample - mean) * (sample - mean);
+            return Math.sqrt(squares / (samples.length - 1));
+        }
+
+        String toJson() {
+            StringBuilder sb = new StringBuilder("{");
+            sb.append("\"suite\": ").append(quote(suite));
+            sb.append(", \"benchmark\": ").append(quote(benchmark));
+            sb.append(", \"params\": {");
+            int i = 0;
+            for (Map.Entry<String, Object> entry : params.entrySet()) {
+                if (i++ > 0) sb.append(", ");
+                sb.append(quote(entry.getKey())).append(": ");
+                Object value = entry.getValue();
+                sb.append(value instanceof Number || value instanceof Boolean ? value.toString() : quote(String.valueOf(value)));
+            }
+            sb.append("}");
+            if (skipped != null) {
+                return sb.append(", \"skipped\": ").append(quote(skipped)).append("}").toString();
+            }
+            sb.append(", \"unit\": ").append(quote(unit));
+            sb.append(String.format(Locale.ROOT, ", \"score\": %.3f, \"scoreStdDev\": %.3f, \"samples\": [", getScore(), getStdDev()));
+            for (int s = 0; s < samples.length; s++) {
+                if (s > 0) sb.append(", ");
+                sb.append(String.format(Locale.ROOT, "%.3f", samples[s]));
+            }
+            return sb.append("]}").toString();
+        }
+
+        @Override
+        public String toString() {
+            String name = String.format("%-18s %-28s %s", suite, benchmark, params);
+            if (skipped != null) return name + "  跳过：" + skipped;
+            return String.format("%s  %,.1f ± %,.1f %s", name, getScore(), getStdDev(), unit);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.score.bench;
+
+import com.score.util.DBUtil;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 列名过滤+去重（DBUtil.sanitizeColumnNames）：不同列数、不同重复比例下每秒处理的列数
+ * 列名混入中文、空格等需过滤的字符；duplicateRatio为过滤后与前面列重名的比例
+ * 用法：java com.score.bench.ColumnSanitizeBenchmark（结果写入bench-results/column-sanitize.json）
+ */
+public class ColumnSanitizeBenchmark {
+    static final String SUITE = "column-sanitize";
+    private static final int[] COLUMN_COUNTS = {10, 100, 1000};
+    private static final double[] DUPLICATE_RATIOS = {0.0, 0.5};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int cols : COLUMN_COUNTS) {
+            for (double ratio : DUPLICATE_RATIOS) {
+                List<String> headers = headers(cols, ratio);
+                runner.measure(SUITE, "sanitizeColumnNames", BenchmarkRunner.params("cols", cols, "duplicateRatio", ratio),
+                        cols, "columns/s", () -> BenchmarkRunner.consume(DBUtil.sanitizeColumnNames(headers)));
+            }
+        }
+    }
+
+    /**
+     * 生成表头：前(1-ratio)部分各不相同，其余重复使用少量基础名（触发_1、_2后缀）
+     */
+    static List<String> headers(int cols, double duplicateRatio) {
+        int distinct = Math.max(1, (int) Math.round(cols * (1 - duplicateRatio)));
+        List<String> headers = new ArrayList<>(cols);
+        for (int c = 0; c < cols; c++) {
+            int base = c < distinct ? c : c % Math.max(1, distinct / 10 + 1);
+            headers.add("成绩 score_" + base + (c % 7 == 0 ? " (期末)" : ""));
+        }
+        return headers;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package com.score.bench;
+
+import com.score.dao.ImportDao;
+import com.score.dao.User;
+import com.score.entity.CachingUserDao;
+import com.score.entity.UserDao;
+import com.score.entity.UserDaoImpl;
+import com.score.util.DBUtil;
+import java.io.File;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAO往返耗时：UserDaoImpl登录/按用户名查询（含缓存对比）、ImportDao批量插入
+ * 连接DBUtil配置的数据库，请指向本地测试库（会创建/删除用户bench_user和表bench_dao）；数据库不可用时记为跳过
+ * 用法：java com.score.bench.DaoBenchmark（结果写入bench-results/dao.json）
+ */
+public class DaoBenchmark {
+    static final String SUITE = "dao";
+    private static final String USERNAME = "bench_user";
+    private static final String PASSWORD = "bench_pwd";
+    private static final String TABLE = "bench_dao";
+    private static final List<String> HEADERS = Arrays.asList("student_no", "name", "subject", "score", "created_at");
+    private static final int[] BATCH_SIZES = {100, 1000};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        if (!databaseAvailable()) {
+            String reason = "数据库不可用";
+            runner.skip(SUITE, "login", null, reason);
+            runner.skip(SUITE, "getUserByUsername", null, reason);
+            runner.skip(SUITE, "importBatchInsert", null, reason);
+            return;
+        }
+
+        UserDao userDao = new UserDaoImpl();
+        boolean createdUser = ensureBenchUser(userDao);
+        try {
+            runner.measure(SUITE, "login", null, 1, "ops/s",
+                    () -> BenchmarkRunner.consume(userDao.login(USERNAME, PASSWORD)));
+            runner.measure(SUITE, "getUserByUsername", BenchmarkRunner.params("cached", false), 1, "ops/s",
+                    () -> BenchmarkRunner.consume(userDao.getUserByUsername(USERNAME)));
+            UserDao cached = new CachingUserDao(userDao);
+            runner.measure(SUITE, "getUserByUsername", BenchmarkRunner.params("cached", true), 1, "ops/s",
+                    () -> BenchmarkRunner.consume(cached.getUserByUsername(USERNAME)));
+        } finally {
+            if (createdUser) userDao.deleteUser(USERNAME);
+        }
+
+        ImportDao importDao = new ImportDao();
+        dropTable();
+        importDao.createTable(TABLE, HEADERS);
+        try {
+            for (int batch : BATCH_SIZES) {
+                List<Map<Integer, String>> rows = rows(batch);
+                runner.measure(SUITE, "importBatchInsert", BenchmarkRunner.params("rows", batch), batch, "rows/s",
+                        () -> importDao.batchInsert(TABLE, HEADERS, rows));
+            }
+        } finally {
+            dropTable();
+        }
+    }
+
+    private static boolean databaseAvailable() {
+        try (Connection conn = DBUtil.getConnection()) {
+            return conn != null && conn.isValid(2);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 确保测试用户存在
+     * @return 是否由本测试新建（结束后删除）
+     */
+    private static boolean ensureBenchUser(UserDao userDao) {
+        if (userDao.getUserByUsername(USERNAME) != null) return false;
+        User user = new User();
+        user.setUsername(USERNAME);
+        user.setPassword(PASSWORD);
+        user.setName("基准测试");
+        user.setSex("男");
+        user.setTitle("普通用户");
+        user.setTel("13800000000");
+        user.setEmail("bench@example.com");
+        return userDao.addUser(user);
+    }
+
+    private static List<Map<Integer, String>> rows(int count) {
+        List<Object[]> generated = InsertModeBenchmark.generateRows(count);
+        List<Map<Integer, String>> rows = new ArrayList<>(count);
+        for (Object[] values : generated) {
+            Map<Integer, String> row = new HashMap<>();
+            for (int c = 0; c < values.length; c++) {
+                row.put(c, String.valueOf(values[c]));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static void dropTable() throws Exception {
+        try (Connection conn = DBUtil.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + TABLE);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.score.bench;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 导入/DAO热点路径基准测试入口：依次运行各测试套件，结果写入一个JSON文件，不同版本的结果文件可直接对比
+ * 用法：java [-Dbench.warmup=3 -Dbench.iterations=5 -Dbench.iterationMillis=1000 -Dbench.out=文件]
+ *       com.score.bench.HotPathBenchmarks [套件名...]
+ * 套件名：excel-parse、sql-build、column-sanitize、row-buffer、ranking、search、dao（不指定时全部运行）
+ * 默认输出到bench-results/hot-paths-时间戳.json
+ */
+public class HotPathBenchmarks {
+    public static void main(String[] args) throws Exception {
+        List<String> suites = args.length > 0 ? Arrays.asList(args) : null;
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        if (selected(suites, SqlBuildBenchmark.SUITE)) SqlBuildBenchmark.run(runner);
+        if (selected(suites, ColumnSanitizeBenchmark.SUITE)) ColumnSanitizeBenchmark.run(runner);
+        if (selected(suites, ExcelParseBenchmark.SUITE)) ExcelParseBenchmark.run(runner);
+        if (selected(suites, RowBufferBenchmark.SUITE)) RowBufferBenchmark.run(runner);
+        if (selected(suites, RankingBenchmark.SUITE)) RankingBenchmark.run(runner);
+        if (selected(suites, SearchIndexBenchmark.SUITE)) SearchIndexBenchmark.run(runner);
+        if (selected(suites, DaoBenchmark.SUITE)) DaoBenchmark.run(runner);
+
+        String defaultOut = "bench-results/hot-paths-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json";
+        runner.writeJson(new File(System.getProperty("bench.out", defaultOut)));
+        System.exit(0); // 连接池后台线程不阻止退出
+    }
+
+    private static boolean selected(List<String> suites, String suite) {
+        return suites == null || suites.contains(suite);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.score.bench;
+
+import com.score.util.BatchInserter;
+import com.score.util.DBUtil;
+import com.score.util.InsertMode;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 插入方式对比测试：同样的数据分别用三种InsertMode写入临时表，输出行/秒和相对逐行插入的加速比
+ * 运行前确认DBUtil连接的是本地测试库（会创建并删除表bench_insert_mode）
+ * 用法：java com.score.bench.InsertModeBenchmark [行数，默认100000] [每批行数，默认5000]
+ */
+public class InsertModeBenchmark {
+    private static final String TABLE = "bench_insert_mode";
+    private static final List<String> COLUMNS = Arrays.asList("student_no", "name", "subject", "score", "created_at");
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        List<Object[]> rows = generateRows(rowCount);
+
+        System.out.printf("插入方式对比：%d 行，每批 %d 行%n", rowCount, chunkSize);
+        double baseline = 0;
+        // 逐行放在最前面作为基准
+        for (InsertMode mode : new InsertMode[]{InsertMode.PER_ROW, InsertMode.REWRITE_BATCHED, InsertMode.MULTI_ROW_VALUES}) {
+            recreateTable();
+            long start = System.nanoTime();
+            insertAll(rows, chunkSize, mode);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double rowsPerSecond = rowCount / seconds;
+            if (mode == InsertMode.PER_ROW) baseline = rowsPerSecond;
+            System.out.printf("%-12s 耗时 %8.2f s  速度 %10.0f 行/秒  加速比 %.1fx%n",
+                    mode.getLabel(), seconds, rowsPerSecond, rowsPerSecond / baseline);
+        }
+        dropTable();
+    }
+
+    private static void insertAll(List<Object[]> rows, int chunkSize, InsertMode mode) throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             BatchInserter inserter = new BatchInserter(conn, TABLE, COLUMNS, mode)) {
+            conn.setAutoCommit(false);
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                inserter.insert(BatchInserter.ofArrays(rows.subList(from, Math.min(rows.size(), from + chunkSize))));
+                conn.commit();
+            }
+        }
+    }
+
+    static List<Object[]> generateRows(int rowCount) {
+        String[] subjects = {"语文", "数学", "英语", "物理", "化学"};
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(new Object[]{
+                    String.valueOf(2024000000L + i / subjects.length),
+                    "学生" + (i / subjects.length),
+                    subjects[i % subjects.length],
+                    String.valueOf(40 + (i * 37) % 61),
+                    "2024-06-30"
+            });
+        }
+        return rows;
+    }
+
+    private static void recreateTable() throws SQLException {
+        dropTable();
+        try (Connection conn = DBUtil.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE " + TABLE + " (id INT AUTO_INCREMENT PRIMARY KEY, "
+                    + "student_no VARCHAR(255), name VARCHAR(255), subject VARCHAR(255), score VARCHAR(255), created_at VARCHAR(255)"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        }
+    }
+
+    private static void dropTable() throws SQLException {
+        try (Connection conn = DBUtil.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS " + TABLE);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.score.bench;
+
+import com.score.service.Ranking;
+import com.score.service.RankingEngine;
+import java.io.File;
+import java.util.Random;
+
+/**
+ * 排名计算（不含读库）：对内存中的成绩做并行排序，计算排名/密集排名/班级排名/百分位，再取分位数和前100名
+ * 数据：每个学生一条成绩，成绩为0~100的一位小数（大量并列），班级40个
+ * 用法：java com.score.bench.RankingBenchmark（结果写入bench-results/ranking.json）
+ */
+public class RankingBenchmark {
+    static final String SUITE = "ranking";
+    private static final int[] SIZES = {200_000, 2_000_000};
+    private static final int CLASSES = 40;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int size : SIZES) {
+            String[] ids = new String[size];
+            double[] scores = new double[size];
+            String[] classes = new String[size];
+            Random random = new Random(42);
+            for (int i = 0; i < size; i++) {
+                ids[i] = String.valueOf(2024000000L + i);
+                scores[i] = Math.round(Math.max(0, Math.min(100, 72 + random.nextGaussian() * 12)) * 10) / 10.0;
+                classes[i] = "高一" + (i % CLASSES + 1) + "班";
+            }
+            runner.measure(SUITE, "rank", BenchmarkRunner.params("scores", size), size, "scores/s", () -> {
+                Ranking ranking = RankingEngine.rank(ids, scores, classes);
+                BenchmarkRunner.consume(ranking.quantile(0.5) + ranking.topK(100).size());
+            });
+            runner.measure(SUITE, "rankNoClass", BenchmarkRunner.params("scores", size), size, "scores/s",
+                    () -> BenchmarkRunner.consume(RankingEngine.rank(ids, scores, null)));
+        }
+    }
+}
\ No newline at end of file
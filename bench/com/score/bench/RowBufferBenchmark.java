@@ -0,0 +1,227 @@
+package com.score.bench;
+
+import com.score.util.ColumnDictionary;
+import com.score.util.ColumnarRowBuffer;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 导入块数据结构对比：List<Map<Integer, String>>（EasyExcel按Map读取的结构）、ColumnarRowBuffer、带列字典的ColumnarRowBuffer
+ * 1. retainedHeap：持有10万行（每块1000行）时占用的堆内存（多次System.gc()后测量）
+ * 2. fillAndRead：逐行写入再逐格读出的吞吐量（两种结构都先构造每行的Map，与解析器一致）
+ * 3. gcCount/gcMillis：模拟流水线导入（始终有QUEUED_CHUNKS块在队列中等待写库），每处理10万行的GC次数和GC耗时
+ * 数据为学号/姓名/科目/成绩/录入时间风格的混合列，每个单元格都是新的String对象
+ * （学号、姓名为高基数列，字典溢出后按字符存储；科目、成绩、录入时间为低基数列，按字典编码）
+ * 用法：java com.score.bench.RowBufferBenchmark（结果写入bench-results/row-buffer.json）
+ */
+public class RowBufferBenchmark {
+    static final String SUITE = "row-buffer";
+    private static final int ROWS = 100_000;
+    private static final int[] COLUMN_COUNTS = {5, 20};
+    private static final int CHUNK_SIZE = 1000;
+    // 流水线默认队列容量4 + 写入线程2，再加正在解析的一块
+    private static final int QUEUED_CHUNKS = 7;
+    // GC测量时处理的总行数（10万行的倍数）
+    private static final int GC_ROUNDS = 10;
+    private static final String[] SUBJECTS = {"语文", "数学", "英语", "物理", "化学", "生物"};
+    private static final String[] STRUCTURES = {"maps", "columnar", "dictionary"};
+    // 与batch.dictionaryMaxSize默认值一致
+    private static final int DICTIONARY_MAX_SIZE = 4096;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        int iterations = runner.getMeasurementIterations();
+        for (int cols : COLUMN_COUNTS) {
+            for (String structure : STRUCTURES) {
+                double[] retained = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    retained[i] = retainedBytes(structure, cols);
+                }
+                runner.record(SUITE, "retainedHeap", BenchmarkRunner.params("structure", structure, "cols", cols),
+                        "bytes/100k rows", retained);
+
+                runner.measure(SUITE, "fillAndRead", BenchmarkRunner.params("structure", structure, "cols", cols),
+                        ROWS, "rows/s", () -> BenchmarkRunner.consume(fillAndRead(structure, cols)));
+
+                double[] gcCount = new double[iterations];
+                double[] gcMillis = new double[iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long[] gc = simulatePipeline(structure, cols);
+                    gcCount[i] = gc[0] / (double) GC_ROUNDS;
+                    gcMillis[i] = gc[1] / (double) GC_ROUNDS;
+                }
+                runner.record(SUITE, "gcCount", BenchmarkRunner.params("structure", structure, "cols", cols),
+                        "collections/100k rows", gcCount);
+                runner.record(SUITE, "gcMillis", BenchmarkRunner.params("structure", structure, "cols", cols),
+                        "ms/100k rows", gcMillis);
+            }
+        }
+    }
+
+    /**
+     * 持有10万行时增加的堆内存
+     */
+    private static long retainedBytes(String structure, int cols) {
+        long before = usedHeap();
+        List<Object> chunks = new ArrayList<>();
+        Chunker chunker = new Chunker(structure, cols, chunks::add);
+        for (int r = 0; r < ROWS; r++) {
+            chunker.add(parsedRow(r, cols));
+        }
+        chunker.flush();
+        long after = usedHeap();
+        Reference.reachabilityFence(chunks);
+        return after - before;
+    }
+
+    private static long fillAndRead(String structure, int cols) {
+        long[] chars = {0};
+        Chunker chunker = new Chunker(structure, cols, chunk -> chars[0] += readAll(chunk, cols));
+        for (int r = 0; r < ROWS; r++) {
+            chunker.add(parsedRow(r, cols));
+        }
+        chunker.flush();
+        return chars[0];
+    }
+
+    /**
+     * 模拟流水线：每块读出全部单元格（相当于绑定参数写库），队列中保留最近QUEUED_CHUNKS块
+     * @return {GC次数, GC耗时毫秒}
+     */
+    private static long[] simulatePipeline(String structure, int cols) {
+        usedHeap(); // 从干净的堆开始
+        long[] start = gcTotals();
+        ArrayDeque<Object> queue = new ArrayDeque<>();
+        long[] chars = {0};
+        Chunker chunker = new Chunker(structure, cols, chunk -> {
+            queue.addLast(chunk);
+            if (queue.size() > QUEUED_CHUNKS) {
+                chars[0] += readAll(queue.removeFirst(), cols);
+            }
+        });
+        for (int r = 0; r < ROWS * GC_ROUNDS; r++) {
+            chunker.add(parsedRow(r, cols));
+        }
+        chunker.flush();
+        BenchmarkRunner.consume(chars[0]);
+        long[] end = gcTotals();
+        return new long[]{end[0] - start[0], end[1] - start[1]};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long readAll(Object chunk, int cols) {
+        long chars = 0;
+        if (chunk instanceof ColumnarRowBuffer) {
+            ColumnarRowBuffer buffer = (ColumnarRowBuffer) chunk;
+            for (int r = 0; r < buffer.rowCount(); r++) {
+                for (int c = 0; c < cols; c++) {
+                    String value = buffer.value(r, c);
+                    if (value != null) chars += value.length();
+                }
+            }
+        } else {
+            for (Map<Integer, String> row : (List<Map<Integer, String>>) chunk) {
+                for (int c = 0; c < cols; c++) {
+                    String value = row.getOrDefault(c, "");
+                    if (value != null) chars += value.length();
+                }
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * 解析器交出的一行：LinkedHashMap（列号 → 新建的单元格文本）
+     */
+    private static Map<Integer, String> parsedRow(int r, int cols) {
+        Map<Integer, String> row = new LinkedHashMap<>(cols * 4 / 3 + 1);
+        for (int c = 0; c < cols; c++) {
+            String value;
+            switch (c % 5) {
+                case 0: value = String.valueOf(2024000000L + r); break;
+                case 1: value = "学生" + r; break;
+                case 2: value = new String(SUBJECTS[(r + c) % SUBJECTS.length]); break;
+                case 3: value = String.valueOf(40 + (r * 37 + c) % 61); break;
+                default: value = "2024-06-" + (10 + r % 20) + " 08:00:00"; break;
+            }
+            row.put(c, value);
+        }
+        return row;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    /**
+     * 按块收集行：maps模式保存Map列表，columnar/dictionary模式写入ColumnarRowBuffer（与ExcelDataListener两种流式模式一致）
+     */
+    private static class Chunker {
+        private final boolean columnar;
+        private final ColumnDictionary[] dictionaries;
+        private final int cols;
+        private final Consumer<Object> sink;
+        private List<Map<Integer, String>> maps;
+        private ColumnarRowBuffer buffer;
+
+        Chunker(String structure, int cols, Consumer<Object> sink) {
+            this.columnar = !structure.equals("maps");
+            this.dictionaries = structure.equals("dictionary") ? ColumnDictionary.forColumns(cols, DICTIONARY_MAX_SIZE) : null;
+            this.cols = cols;
+            this.sink = sink;
+            reset(null);
+        }
+
+        void add(Map<Integer, String> row) {
+            if (columnar) {
+                buffer.addRow(row);
+                if (buffer.rowCount() >= CHUNK_SIZE) flush();
+            } else {
+                maps.add(row);
+                if (maps.size() >= CHUNK_SIZE) flush();
+            }
+        }
+
+        void flush() {
+            if (columnar ? buffer.rowCount() == 0 : maps.isEmpty()) return;
+            Object chunk = columnar ? buffer : maps;
+            reset(buffer);
+            sink.accept(chunk);
+        }
+
+        private void reset(ColumnarRowBuffer previous) {
+            if (columnar) {
+                buffer = previous == null ? new ColumnarRowBuffer(cols, CHUNK_SIZE, dictionaries) : previous.nextBuffer();
+            } else {
+                maps = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+    }
+}
\ No newline at end of file
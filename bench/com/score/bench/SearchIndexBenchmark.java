@@ -0,0 +1,57 @@
+package com.score.bench;
+
+import com.score.service.StudentSearchIndex;
+import java.io.File;
+import java.util.Random;
+
+/**
+ * 成绩查找索引（不含读库）：在内存中建立索引后，测量学号前缀、姓名、拼音首字母、科目+姓名组合、模糊匹配各类查询的耗时
+ * 数据：每名学生8个科目各一条成绩，姓名由常见姓氏和名字随机组合
+ * 用法：java com.score.bench.SearchIndexBenchmark（结果写入bench-results/search.json）
+ */
+public class SearchIndexBenchmark {
+    static final String SUITE = "search";
+    private static final int[] SIZES = {100_000, 1_000_000};
+    private static final String[] SUBJECTS = {"语文", "数学", "英语", "物理", "化学", "生物", "历史", "地理"};
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗郑梁谢宋唐许韩冯邓曹彭曾肖田董袁潘于蒋蔡余杜叶程苏魏吕丁任沈姚卢姜崔钟谭陆汪范金石廖贾夏韦付方白邹孟熊秦邱江尹薛闫段雷侯龙史陶黎贺顾毛郝龚邵万钱严覃武戴莫孔向汤";
+    private static final String GIVEN = "伟芳娜敏静丽强磊军洋勇艳杰娟涛明超秀霞平刚桂英华玉兰萍红鹏辉建国文博宇浩然子轩梓涵欣怡雨晨思佳俊豪";
+    private static final String[][] QUERIES = {
+            {"studentPrefix", "2024012"},
+            {"studentExact", "20240123"},
+            {"nameHanzi", "张伟"},
+            {"nameInitials", "zw"},
+            {"subjectAndName", "科目:数学 王"},
+            {"fuzzyStudent", "2024x0123"},
+    };
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int size : SIZES) {
+            StudentSearchIndex index = new StudentSearchIndex("bench");
+            Random random = new Random(42);
+            long buildStart = System.nanoTime();
+            int students = size / SUBJECTS.length;
+            long id = 1;
+            for (int s = 0; s < students; s++) {
+                String studentId = String.valueOf(20240000 + s);
+                String name = SURNAMES.charAt(random.nextInt(SURNAMES.length())) + ""
+                        + GIVEN.charAt(random.nextInt(GIVEN.length()))
+                        + (random.nextBoolean() ? String.valueOf(GIVEN.charAt(random.nextInt(GIVEN.length()))) : "");
+                for (String subject : SUBJECTS) {
+                    index.add(id++, studentId, name, subject);
+                }
+            }
+            index.search("预热"); // 建立排序视图
+            System.out.printf("%d行索引建立耗时%dms%n", size, (System.nanoTime() - buildStart) / 1_000_000);
+            for (String[] query : QUERIES) {
+                runner.measure(SUITE, query[0], BenchmarkRunner.params("rows", size), 1, "queries/s",
+                        () -> BenchmarkRunner.consume(index.search(query[1]).getIds().length));
+            }
+        }
+    }
+}
\ No newline at end of file
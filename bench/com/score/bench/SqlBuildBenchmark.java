@@ -0,0 +1,54 @@
+package com.score.bench;
+
+import com.score.util.BatchInserter;
+import com.score.util.ColumnType;
+import com.score.util.DBUtil;
+import com.score.util.InsertMode;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL拼接：建表SQL（DBUtil.buildCreateTableSql）和批量插入/插入或更新SQL（BatchInserter.buildInsertSql）在不同列数/每条行数下的吞吐量
+ * 只拼接字符串，不访问数据库
+ * 用法：java com.score.bench.SqlBuildBenchmark（结果写入bench-results/sql-build.json）
+ */
+public class SqlBuildBenchmark {
+    static final String SUITE = "sql-build";
+    private static final int[] COLUMN_COUNTS = {5, 20, 100};
+    private static final int[] ROWS_PER_STATEMENT = {1, 100, 1000};
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        run(runner);
+        runner.writeJson(new File("bench-results/" + SUITE + ".json"));
+    }
+
+    static void run(BenchmarkRunner runner) throws Exception {
+        for (int cols : COLUMN_COUNTS) {
+            List<String> columns = columnNames(cols);
+            List<ColumnType> types = new ArrayList<>(Collections.nCopies(cols, ColumnType.DEFAULT_VARCHAR));
+            runner.measure(SUITE, "createTableSql", BenchmarkRunner.params("cols", cols), 1, "ops/s",
+                    () -> BenchmarkRunner.consume(DBUtil.buildCreateTableSql("bench_table", columns, types)));
+
+            // 构造执行器不访问连接，只用来拼接SQL
+            BatchInserter inserter = new BatchInserter(null, "bench_table", columns, InsertMode.MULTI_ROW_VALUES);
+            BatchInserter upserter = new BatchInserter(null, "bench_table", columns, InsertMode.MULTI_ROW_VALUES, columns.subList(0, 2));
+            for (int rows : ROWS_PER_STATEMENT) {
+                runner.measure(SUITE, "insertSql", BenchmarkRunner.params("cols", cols, "rowsPerStatement", rows), 1, "ops/s",
+                        () -> BenchmarkRunner.consume(inserter.buildInsertSql(rows)));
+                runner.measure(SUITE, "upsertSql", BenchmarkRunner.params("cols", cols, "rowsPerStatement", rows), 1, "ops/s",
+                        () -> BenchmarkRunner.consume(upserter.buildInsertSql(rows)));
+            }
+        }
+    }
+
+    static List<String> columnNames(int cols) {
+        List<String> columns = new ArrayList<>(cols);
+        for (int c = 0; c < cols; c++) {
+            columns.add("col_" + (c + 1));
+        }
+        return columns;
+    }
+}
\ No newline at end of file
@@ -1,27 +1,64 @@
 package com.score.dao;
 
+import com.score.util.BatchInserter;
 import com.score.util.DBUtil;
+import com.score.util.InsertMode;
+import com.score.util.BulkLoader;
+import com.score.util.ColumnType;
+import com.score.util.SchemaEnforcer;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
- * 数据库操作层：建表+批量插入
+ * 数据库操作层：建表+批量插入+LOAD DATA批量加载+增量导入（按键列插入或更新）
  */
 public class ImportDao {
+    // 类型不符的行隔离到"表名+后缀"表
+    public static final String QUARANTINE_SUFFIX = "_quarantine";
+    // 增量导入：每行内容摘要列（见prepareUpsertTable）
+    public static final String ROW_HASH_COLUMN = "row_hash";
+    // 查询已有摘要时每条SELECT的键数
+    private static final int HASH_LOOKUP_BATCH = 1000;
+
     /**
-     * 创建动态表（根据表头）
+     * 创建动态表（根据表头，所有列VARCHAR(255)）
      */
     public void createTable(String tableName, List<String> headers) throws SQLException {
+        createTable(tableName, headers, null);
+    }
+
+    /**
+     * 创建动态表（指定每列类型，types为null或某列为null时按VARCHAR(255)）
+     * 表头中没有id列时自动加自增主键id（InnoDB按主键顺序存储，追加写入不产生页分裂）
+     */
+    public void createTable(String tableName, List<String> headers, List<ColumnType> types) throws SQLException {
         StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(tableName).append(" (");
+        boolean hasIdHeader = false;
+        for (String header : headers) {
+            hasIdHeader |= header.equalsIgnoreCase("id");
+        }
+        if (!hasIdHeader) {
+            sql.append("id BIGINT AUTO_INCREMENT PRIMARY KEY, ");
+        }
         for (int i = 0; i < headers.size(); i++) {
             String field = headers.get(i);
-            sql.append("`").append(field).append("` VARCHAR(255)");
+            ColumnType type = types == null || types.get(i) == null ? ColumnType.DEFAULT_VARCHAR : types.get(i);
+            sql.append("`").append(field).append("` ").append(type.toSql());
             if (i < headers.size() - 1) sql.append(", ");
         }
-        sql.append(") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;");
+        sql.append(")").append(DBUtil.getDialect().getTableOptions());
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
@@ -30,35 +67,256 @@ public class ImportDao {
     }
 
     /**
-     * 批量插入Excel数据
+     * 表中缺少指定列时追加一列VARCHAR(255)（如多工作表合并导入的sheet_name列）
      */
-    public void batchInsert(String tableName, List<String> headers, List<Map<Integer, String>> dataList) throws SQLException {
-        if (dataList.isEmpty()) throw new SQLException("无有效数据！");
+    public void addColumnIfMissing(String tableName, String column) throws SQLException {
+        addColumnIfMissing(tableName, column, ColumnType.DEFAULT_VARCHAR.toSql());
+    }
 
-        // 拼接插入SQL
-        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-        for (int i = 0; i < headers.size(); i++) {
-            sql.append("`").append(headers.get(i)).append("`");
-            if (i < headers.size() - 1) sql.append(", ");
+    /**
+     * 表中缺少指定列时按给定类型追加
+     */
+    public void addColumnIfMissing(String tableName, String column, String typeSql) throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, tableName, column)) {
+                if (rs.next()) return;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE " + tableName + " ADD COLUMN `" + column + "` " + typeSql);
+            }
         }
-        sql.append(") VALUES (");
-        for (int i = 0; i < headers.size(); i++) {
-            sql.append("?");
-            if (i < headers.size() - 1) sql.append(", ");
+    }
+
+    /**
+     * 增量导入前的表准备：追加row_hash列，并确保键列上有唯一索引（插入或更新依赖唯一键判断行是否已存在）
+     * 已有数据的row_hash为NULL，第一次增量导入时会全部按"已修改"覆盖一次
+     * 建表/加列/建索引会隐式提交事务，需在写数据前调用
+     * @throws SQLException 键列已有重复值（无法建唯一索引）等
+     */
+    public void prepareUpsertTable(String tableName, List<String> keyColumns) throws SQLException {
+        addColumnIfMissing(tableName, ROW_HASH_COLUMN, "CHAR(32)");
+        try (Connection conn = DBUtil.getConnection()) {
+            if (hasUniqueIndex(conn, tableName, keyColumns)) return;
+            String indexName = "uk_" + tableName + "_upsert";
+            if (indexName.length() > 64) indexName = indexName.substring(0, 64);
+            String sql = "CREATE UNIQUE INDEX " + indexName + " ON " + tableName + " (" + String.join(", ", quoteColumns(keyColumns)) + ")";
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(sql);
+            } catch (SQLException e) {
+                throw new SQLException("无法在" + keyColumns + "上建唯一索引（表中可能已有重复的键）：" + e.getMessage(), e);
+            }
         }
-        sql.append(")");
+    }
 
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            conn.setAutoCommit(false);
-            for (Map<Integer, String> row : dataList) {
-                for (int i = 0; i < headers.size(); i++) {
-                    pstmt.setString(i + 1, row.getOrDefault(i, ""));
+    /**
+     * 表上是否已有恰好由keyColumns组成的唯一索引（列名不区分大小写，不要求顺序一致）
+     */
+    private boolean hasUniqueIndex(Connection conn, String tableName, List<String> keyColumns) throws SQLException {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String column : keyColumns) {
+            wanted.add(column.toLowerCase());
+        }
+        Map<String, Set<String>> indexes = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, tableName, true, false)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) continue;
+                indexes.computeIfAbsent(indexName, k -> new LinkedHashSet<>()).add(column.toLowerCase());
+            }
+        }
+        return indexes.containsValue(wanted);
+    }
+
+    /**
+     * 按键查询已有行的row_hash（在写入数据的连接上执行，能看到本事务未提交的写入）
+     * @param keys 每行的键列值（与keyColumns顺序一致）
+     * @return keyString(键值) → row_hash（表中没有的键不在结果中；row_hash为NULL的键映射到null）
+     */
+    public Map<String, String> loadRowHashes(Connection conn, String tableName, List<String> keyColumns, List<Object[]> keys) throws SQLException {
+        Map<String, String> hashes = new HashMap<>(keys.size() * 2);
+        QueryPatternLog.record(tableName, keyColumns.toArray(new String[0]));
+        List<String> quotedKeys = quoteColumns(keyColumns);
+        String select = "SELECT " + String.join(", ", quotedKeys) + ", " + ROW_HASH_COLUMN + " FROM " + tableName + " WHERE ";
+        String target = keyColumns.size() == 1 ? quotedKeys.get(0) : "(" + String.join(", ", quotedKeys) + ")";
+        StringBuilder tuple = new StringBuilder(keyColumns.size() == 1 ? "?" : "(");
+        if (keyColumns.size() > 1) {
+            for (int i = 0; i < keyColumns.size(); i++) {
+                tuple.append(i == 0 ? "?" : ", ?");
+            }
+            tuple.append(")");
+        }
+
+        for (int from = 0; from < keys.size(); from += HASH_LOOKUP_BATCH) {
+            int count = Math.min(HASH_LOOKUP_BATCH, keys.size() - from);
+            StringBuilder sql = new StringBuilder(select).append(target).append(" IN (");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) sql.append(", ");
+                sql.append(tuple);
+            }
+            sql.append(")");
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (int i = from; i < from + count; i++) {
+                    for (Object value : keys.get(i)) {
+                        pstmt.setObject(index++, value);
+                    }
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    Object[] key = new Object[keyColumns.size()];
+                    while (rs.next()) {
+                        for (int c = 0; c < key.length; c++) {
+                            key[c] = rs.getObject(c + 1);
+                        }
+                        hashes.put(keyString(key), rs.getString(key.length + 1));
+                    }
                 }
-                pstmt.addBatch();
             }
-            pstmt.executeBatch();
+        }
+        return hashes;
+    }
+
+    /**
+     * 键值的比较形式：各列转为文本后拼接（数值去掉末尾的0，使导入值与库中读回的值一致）
+     * 数据库文本比较不区分大小写时（MySQL _ci排序规则）文本转为小写：只差大小写的键在库中是同一行，否则查不到row_hash，每次都会重写
+     */
+    public static String keyString(Object[] key) {
+        boolean ignoreCase = DBUtil.getDialect().isTextCaseInsensitive();
+        StringBuilder sb = new StringBuilder();
+        for (Object value : key) {
+            if (value instanceof BigDecimal) {
+                value = ((BigDecimal) value).stripTrailingZeros().toPlainString();
+            } else if (ignoreCase && value instanceof String) {
+                value = ((String) value).toLowerCase(Locale.ROOT);
+            }
+            sb.append(value == null ? "\0" : value.toString()).append('\u001F');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 读取表中与表头同名列的类型（列名不区分大小写，表中没有的列返回null）
+     */
+    public List<ColumnType> loadColumnTypes(Connection conn, String tableName, List<String> headers) throws SQLException {
+        Map<String, ColumnType> byName = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, tableName, null)) {
+            while (rs.next()) {
+                byName.put(rs.getString("COLUMN_NAME").toLowerCase(),
+                        ColumnType.fromJdbc(rs.getString("TYPE_NAME"), rs.getInt("COLUMN_SIZE"), rs.getInt("DECIMAL_DIGITS")));
+            }
+        }
+        List<ColumnType> types = new ArrayList<>();
+        for (String header : headers) {
+            types.add(byName.get(header.toLowerCase()));
+        }
+        return types;
+    }
+
+    /**
+     * 创建隔离表"表名_quarantine"：原表各列改为TEXT原样保存，另加来源行号和原因
+     * 建表会隐式提交事务，需在写数据前用单独的连接调用
+     */
+    public String createQuarantineTable(String tableName, List<String> headers) throws SQLException {
+        String quarantineTable = tableName + QUARANTINE_SUFFIX;
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(quarantineTable)
+                .append(" (id BIGINT AUTO_INCREMENT PRIMARY KEY, source_row BIGINT, reason VARCHAR(500)");
+        for (String header : headers) {
+            sql.append(", `").append(header).append("` TEXT");
+        }
+        sql.append(")").append(DBUtil.getDialect().getTableOptions());
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql.toString());
+        }
+        return quarantineTable;
+    }
+
+    /**
+     * 把类型不符的原始行写入隔离表（与正常数据同一连接/事务）
+     */
+    public void insertQuarantine(Connection conn, String tableName, List<String> headers, BatchInserter.RowSource rows,
+                                 List<SchemaEnforcer.Mismatch> mismatches) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        columns.add("source_row");
+        columns.add("reason");
+        columns.addAll(headers);
+        List<Object[]> quarantined = new ArrayList<>();
+        for (SchemaEnforcer.Mismatch mismatch : mismatches) {
+            Object[] row = new Object[columns.size()];
+            row[0] = mismatch.getRowNumber();
+            String reason = mismatch.toString();
+            row[1] = reason.length() > 500 ? reason.substring(0, 500) : reason;
+            for (int c = 0; c < headers.size(); c++) {
+                row[c + 2] = rows.value(mismatch.getRowIndex(), c);
+            }
+            quarantined.add(row);
+        }
+        try (BatchInserter inserter = new BatchInserter(conn, tableName + QUARANTINE_SUFFIX, quoteColumns(columns), null)) {
+            inserter.insert(BatchInserter.ofArrays(quarantined));
+        }
+    }
+
+    /**
+     * 批量插入Excel数据（默认多行VALUES方式）
+     */
+    public void batchInsert(String tableName, List<String> headers, List<Map<Integer, String>> dataList) throws SQLException {
+        batchInsert(tableName, headers, dataList, InsertMode.MULTI_ROW_VALUES);
+    }
+
+    /**
+     * 批量插入Excel数据（指定插入方式）
+     */
+    public void batchInsert(String tableName, List<String> headers, List<Map<Integer, String>> dataList, InsertMode insertMode) throws SQLException {
+        batchInsert(tableName, headers, BatchInserter.ofMaps(dataList), insertMode);
+    }
+
+    /**
+     * 批量插入任意行结构（如流式导入的ColumnarRowBuffer，不必先转成Map）
+     */
+    public void batchInsert(String tableName, List<String> headers, BatchInserter.RowSource rows, InsertMode insertMode) throws SQLException {
+        if (rows.rowCount() == 0) throw new SQLException("无有效数据！");
+
+        try (Connection conn = DBUtil.getConnection();
+             BatchInserter inserter = newInserter(conn, tableName, headers, insertMode)) {
+            conn.setAutoCommit(false);
+            inserter.insert(rows);
             conn.commit();
         }
     }
+
+    /**
+     * 创建绑定到指定连接的插入执行器（列名加反引号，与建表一致）
+     * 供流水线导入在同一连接上反复写入多块数据
+     */
+    public BatchInserter newInserter(Connection conn, String tableName, List<String> headers, InsertMode insertMode) {
+        return new BatchInserter(conn, tableName, quoteColumns(headers), insertMode);
+    }
+
+    /**
+     * 用LOAD DATA LOCAL INFILE把CSV数据加载到表中（不提交事务）
+     * @param csv CsvRowWriter生成的数据，列顺序与headers一致
+     * @param warnings 接收服务器警告（被跳过/截断的行）
+     * @return 实际写入的行数
+     */
+    public long bulkLoad(Connection conn, String tableName, List<String> headers, InputStream csv, List<String> warnings) throws SQLException {
+        return BulkLoader.load(conn, tableName, quoteColumns(headers), csv, warnings);
+    }
+
+    /**
+     * 创建插入或更新执行器：写入headers各列和row_hash列，keyColumns上的键已存在时覆盖
+     */
+    public BatchInserter newUpserter(Connection conn, String tableName, List<String> headers, List<String> keyColumns,
+                                     InsertMode insertMode) {
+        List<String> columns = quoteColumns(headers);
+        columns.add(ROW_HASH_COLUMN);
+        return new BatchInserter(conn, tableName, columns, insertMode, quoteColumns(keyColumns));
+    }
+
+    private List<String> quoteColumns(List<String> headers) {
+        List<String> columns = new ArrayList<>();
+        for (String header : headers) {
+            columns.add("`" + header + "`");
+        }
+        return columns;
+    }
 }
\ No newline at end of file
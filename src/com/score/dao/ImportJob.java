@@ -0,0 +1,115 @@
+package com.score.dao;
+
+import java.sql.Timestamp;
+
+/**
+ * 导入任务（import_jobs表的一行）：记录一次断点续传导入的进度
+ * 同一文件内容（fileHash）+ 工作表 + 目标表只对应一个任务，重新导入时复用该行
+ * lastRow：已提交的数据行数（不含表头），续传时跳过这些行
+ */
+public class ImportJob {
+    public enum Status {
+        RUNNING,   // 导入中（进程被杀死等异常退出时也停留在此状态）
+        FAILED,    // 写入失败，已回滚到上一个检查点
+        DONE       // 全部导入完成
+    }
+
+    private long id;
+    private String fileName;
+    private String fileHash;
+    private String sheetName;
+    private String tableName;
+    private long lastRow;
+    private long totalRows;
+    private Status status;
+    private String errorMessage;
+    private Timestamp updatedAt;
+
+    public ImportJob() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public void setSheetName(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public long getLastRow() {
+        return lastRow;
+    }
+
+    public void setLastRow(long lastRow) {
+        this.lastRow = lastRow;
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Timestamp getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Timestamp updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return fileName + " [" + sheetName + "] → " + tableName + "：已提交" + lastRow + "行（" + status + "）";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.score.dao;
+
+import com.score.util.DBUtil;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 导入任务表（import_jobs）：断点续传导入的检查点
+ * 检查点（last_row）与该块数据在同一连接、同一事务中更新，提交成功即表示这些行已落库，不会出现"数据已提交但检查点未更新"
+ * 首次使用时自动建表
+ */
+public class ImportJobDao {
+    public static final String TABLE = "import_jobs";
+    // 错误信息列长度
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private volatile boolean tableReady = false;
+
+    /**
+     * 建表（已存在则跳过）：同一文件内容 + 工作表 + 目标表唯一
+     */
+    public void ensureTable() throws SQLException {
+        if (tableReady) return;
+        String sql = "CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "file_name VARCHAR(500) NOT NULL, "
+                + "file_hash CHAR(64) NOT NULL, "
+                + "sheet_name VARCHAR(255) NOT NULL, "
+                + "table_name VARCHAR(64) NOT NULL, "
+                + "last_row BIGINT NOT NULL DEFAULT 0, "
+                + "total_rows BIGINT NOT NULL DEFAULT 0, "
+                + "status VARCHAR(16) NOT NULL, "
+                + "error_message VARCHAR(" + MAX_ERROR_LENGTH + "), "
+                + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+                + "CONSTRAINT uk_import_job UNIQUE (file_hash, sheet_name, table_name))"
+                + DBUtil.getDialect().getTableOptions();
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+        tableReady = true;
+    }
+
+    /**
+     * 查找可续传的任务：同一文件内容写入同一表、未完成且至少提交过一块
+     * @return 任务；没有时返回null
+     */
+    public ImportJob findResumable(String fileHash, String sheetName, String tableName) throws SQLException {
+        ImportJob job = find(fileHash, sheetName, tableName);
+        return job != null && job.getStatus() != ImportJob.Status.DONE && job.getLastRow() > 0 ? job : null;
+    }
+
+    /**
+     * 开始新任务：没有记录时插入，已有记录（上次中断或已完成）时重置为从第0行开始
+     */
+    public ImportJob start(String fileName, String fileHash, String sheetName, String tableName) throws SQLException {
+        ensureTable();
+        String updateSql = "UPDATE " + TABLE + " SET file_name = ?, last_row = 0, total_rows = 0, status = ?, error_message = NULL, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE file_hash = ? AND sheet_name = ? AND table_name = ?";
+        String insertSql = "INSERT INTO " + TABLE + " (file_name, file_hash, sheet_name, table_name, status) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection()) {
+            int updated;
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                pstmt.setString(1, fileName);
+                pstmt.setString(2, ImportJob.Status.RUNNING.name());
+                pstmt.setString(3, fileHash);
+                pstmt.setString(4, sheetName);
+                pstmt.setString(5, tableName);
+                updated = pstmt.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                    pstmt.setString(1, fileName);
+                    pstmt.setString(2, fileHash);
+                    pstmt.setString(3, sheetName);
+                    pstmt.setString(4, tableName);
+                    pstmt.setString(5, ImportJob.Status.RUNNING.name());
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+        return find(fileHash, sheetName, tableName);
+    }
+
+    /**
+     * 续传：状态改回RUNNING，检查点保持不变
+     */
+    public void resume(long jobId) throws SQLException {
+        String sql = "UPDATE " + TABLE + " SET status = ?, error_message = NULL, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ImportJob.Status.RUNNING.name());
+            pstmt.setLong(2, jobId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 更新检查点：在写入数据的连接上执行，由调用方与该块数据一起提交
+     * @param lastRow 提交后已落库的数据行数
+     */
+    public void checkpoint(Connection conn, long jobId, long lastRow) throws SQLException {
+        String sql = "UPDATE " + TABLE + " SET last_row = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, lastRow);
+            pstmt.setLong(2, jobId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 导入完成
+     */
+    public void markDone(long jobId, long totalRows) throws SQLException {
+        String sql = "UPDATE " + TABLE + " SET status = ?, total_rows = ?, last_row = ?, error_message = NULL, "
+                + "updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ImportJob.Status.DONE.name());
+            pstmt.setLong(2, totalRows);
+            pstmt.setLong(3, totalRows);
+            pstmt.setLong(4, jobId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * 导入失败：记录错误信息，检查点停留在最后一次成功提交的位置
+     */
+    public void markFailed(long jobId, String error) throws SQLException {
+        String sql = "UPDATE " + TABLE + " SET status = ?, error_message = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        String message = error == null ? null : error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ImportJob.Status.FAILED.name());
+            pstmt.setString(2, message);
+            pstmt.setLong(3, jobId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private ImportJob find(String fileHash, String sheetName, String tableName) throws SQLException {
+        ensureTable();
+        String sql = "SELECT id, file_name, file_hash, sheet_name, table_name, last_row, total_rows, status, error_message, updated_at FROM "
+                + TABLE + " WHERE file_hash = ? AND sheet_name = ? AND table_name = ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, fileHash);
+            pstmt.setString(2, sheetName);
+            pstmt.setString(3, tableName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return null;
+                ImportJob job = new ImportJob();
+                job.setId(rs.getLong("id"));
+                job.setFileName(rs.getString("file_name"));
+                job.setFileHash(rs.getString("file_hash"));
+                job.setSheetName(rs.getString("sheet_name"));
+                job.setTableName(rs.getString("table_name"));
+                job.setLastRow(rs.getLong("last_row"));
+                job.setTotalRows(rs.getLong("total_rows"));
+                job.setStatus(ImportJob.Status.valueOf(rs.getString("status")));
+                job.setErrorMessage(rs.getString("error_message"));
+                job.setUpdatedAt(rs.getTimestamp("updated_at"));
+                return job;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.score.dao;
+
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 索引管理：导入完成后为声明的关键列建二级索引（先灌数据后建索引，比边插入边维护索引快得多），
+ * 并根据应用实际执行的查询模式（QueryPatternLog）和常用成绩查询列给出索引建议
+ */
+public class IndexManager {
+    private static final Log LOG = Log.get(IndexManager.class);
+
+    // 本系统常按这些列查成绩（学号、姓名、科目、班级），导入表里有这些列时即使还没记录到查询也会建议
+    private static final List<String> COMMON_LOOKUP_COLUMNS = Arrays.asList(
+            "学号", "student_no", "student_id", "姓名", "name", "科目", "subject", "班级", "class_name"
+    );
+    // TEXT列建索引时的前缀长度
+    private static final int TEXT_PREFIX_LENGTH = 64;
+    // 估算选择度时抽样的行数
+    private static final int SELECTIVITY_SAMPLE = 10000;
+
+    /**
+     * 为每个关键列建一个二级索引（已被某个索引以首列覆盖的跳过）
+     * @return 建好的索引及各自耗时
+     */
+    public List<IndexBuild> createIndexes(String tableName, List<String> keyColumns) throws SQLException {
+        List<IndexBuild> builds = new ArrayList<>();
+        if (keyColumns == null || keyColumns.isEmpty()) return builds;
+        try (Connection conn = DBUtil.getConnection()) {
+            Map<String, List<String>> existing = listIndexes(conn, tableName);
+            Map<String, String> columnTypes = loadColumnTypes(conn, tableName);
+            for (String column : keyColumns) {
+                if (!columnTypes.containsKey(column.toLowerCase())) {
+                    throw new SQLException("表" + tableName + "中没有列：" + column);
+                }
+                if (isCovered(existing, Arrays.asList(column))) continue;
+                String indexName = indexName(Arrays.asList(column));
+                builds.add(build(conn, tableName, indexName, Arrays.asList(column), columnTypes));
+                existing.put(indexName, Arrays.asList(column));
+            }
+        }
+        return builds;
+    }
+
+    /**
+     * 按建议创建索引
+     */
+    public IndexBuild createIndex(String tableName, IndexSuggestion suggestion) throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            return build(conn, tableName, suggestion.getIndexName(), suggestion.getColumns(), loadColumnTypes(conn, tableName));
+        }
+    }
+
+    /**
+     * 索引建议：该表记录到的查询模式 + 表中存在的常用查询列，去掉已被现有索引覆盖的，按查询次数和选择度排序
+     */
+    public List<IndexSuggestion> suggestIndexes(String tableName) throws SQLException {
+        List<IndexSuggestion> suggestions = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection()) {
+            Map<String, List<String>> existing = listIndexes(conn, tableName);
+            Map<String, String> columnTypes = loadColumnTypes(conn, tableName);
+            if (columnTypes.isEmpty()) {
+                throw new SQLException("表不存在：" + tableName);
+            }
+
+            Map<List<String>, Long> candidates = new LinkedHashMap<>();
+            for (QueryPatternLog.Pattern pattern : QueryPatternLog.patternsFor(tableName)) {
+                candidates.merge(pattern.getColumns(), pattern.getCount(), Long::sum);
+            }
+            for (String column : COMMON_LOOKUP_COLUMNS) {
+                if (columnTypes.containsKey(column.toLowerCase())) {
+                    candidates.putIfAbsent(Arrays.asList(column), 0L);
+                }
+            }
+
+            for (Map.Entry<List<String>, Long> candidate : candidates.entrySet()) {
+                List<String> columns = candidate.getKey();
+                if (!columnTypes.keySet().containsAll(lowerCase(columns)) || isCovered(existing, columns)) continue;
+                double selectivity = estimateSelectivity(conn, tableName, columns);
+                suggestions.add(new IndexSuggestion(indexName(columns), columns, candidate.getValue(), selectivity));
+            }
+        }
+        suggestions.sort((a, b) -> a.queryCount != b.queryCount
+                ? Long.compare(b.queryCount, a.queryCount)
+                : Double.compare(b.selectivity, a.selectivity));
+        return suggestions;
+    }
+
+    // ==================== 内部方法 ====================
+    private IndexBuild build(Connection conn, String tableName, String indexName, List<String> columns,
+                             Map<String, String> columnTypes) throws SQLException {
+        StringBuilder sql = new StringBuilder("CREATE INDEX `").append(indexName).append("` ON ").append(tableName).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i);
+            if (i > 0) sql.append(", ");
+            sql.append("`").append(column).append("`");
+            String type = columnTypes.get(column.toLowerCase());
+            if (type != null && type.endsWith("TEXT")) {
+                sql.append("(").append(TEXT_PREFIX_LENGTH).append(")");
+            }
+        }
+        sql.append(")");
+
+        long start = System.currentTimeMillis();
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql.toString());
+        }
+        long millis = System.currentTimeMillis() - start;
+        LOG.info("索引创建成功：{}.{}，耗时 {} ms", tableName, indexName, millis);
+        return new IndexBuild(indexName, columns, millis);
+    }
+
+    /**
+     * 现有索引：索引名 → 按序的列名
+     */
+    private Map<String, List<String>> listIndexes(Connection conn, String tableName) throws SQLException {
+        Map<String, TreeMap<Short, String>> ordered = new HashMap<>();
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, tableName, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) continue;
+                ordered.computeIfAbsent(indexName, k -> new TreeMap<>()).put(rs.getShort("ORDINAL_POSITION"), column);
+            }
+        }
+        Map<String, List<String>> indexes = new HashMap<>();
+        for (Map.Entry<String, TreeMap<Short, String>> entry : ordered.entrySet()) {
+            indexes.put(entry.getKey(), new ArrayList<>(entry.getValue().values()));
+        }
+        return indexes;
+    }
+
+    /**
+     * 列名（小写）→ 类型名
+     */
+    private Map<String, String> loadColumnTypes(Connection conn, String tableName) throws SQLException {
+        Map<String, String> types = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), null, tableName, null)) {
+            while (rs.next()) {
+                types.put(rs.getString("COLUMN_NAME").toLowerCase(), rs.getString("TYPE_NAME").toUpperCase());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 现有索引的前几列与columns相同时，该组合的查询已能走索引
+     */
+    private boolean isCovered(Map<String, List<String>> existing, List<String> columns) {
+        List<String> wanted = lowerCase(columns);
+        for (List<String> indexColumns : existing.values()) {
+            List<String> have = lowerCase(indexColumns);
+            if (have.size() >= wanted.size() && have.subList(0, wanted.size()).equals(wanted)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 抽样估算选择度：不同值组合数 / 行数（越接近1越适合建索引）
+     * 对抽样行GROUP BY计数（多列COUNT(DISTINCT a, b)只有MySQL支持）：组数为不同值组合数，各组行数之和为抽样行数
+     */
+    private double estimateSelectivity(Connection conn, String tableName, List<String> columns) throws SQLException {
+        StringBuilder quoted = new StringBuilder();
+        for (String column : columns) {
+            if (quoted.length() > 0) quoted.append(", ");
+            quoted.append("`").append(column).append("`");
+        }
+        String sql = "SELECT SUM(cnt), COUNT(*) FROM (SELECT COUNT(*) AS cnt FROM (SELECT " + quoted + " FROM " + tableName
+                + " LIMIT " + SELECTIVITY_SAMPLE + ") s GROUP BY " + quoted + ") g";
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next() && rs.getLong(1) > 0) {
+                return rs.getLong(2) / (double) rs.getLong(1);
+            }
+        }
+        return 0;
+    }
+
+    private static String indexName(List<String> columns) {
+        String name = "idx_" + String.join("_", columns);
+        return name.length() > 64 ? name.substring(0, 64) : name;
+    }
+
+    private static List<String> lowerCase(List<String> columns) {
+        List<String> result = new ArrayList<>();
+        for (String column : columns) {
+            result.add(column.toLowerCase());
+        }
+        return result;
+    }
+
+    /**
+     * 一次索引创建结果
+     */
+    public static class IndexBuild {
+        private final String indexName;
+        private final List<String> columns;
+        private final long millis;
+
+        IndexBuild(String indexName, List<String> columns, long millis) {
+            this.indexName = indexName;
+            this.columns = columns;
+            this.millis = millis;
+        }
+
+        public String getIndexName() { return indexName; }
+        public List<String> getColumns() { return columns; }
+        public long getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return indexName + columns + " " + millis + " ms";
+        }
+    }
+
+    /**
+     * 一条索引建议
+     */
+    public static class IndexSuggestion {
+        private final String indexName;
+        private final List<String> columns;
+        // 记录到的按这些列查询的次数（0表示来自常用查询列）
+        private final long queryCount;
+        // 抽样选择度（不同值占比）
+        private final double selectivity;
+
+        IndexSuggestion(String indexName, List<String> columns, long queryCount, double selectivity) {
+            this.indexName = indexName;
+            this.columns = columns;
+            this.queryCount = queryCount;
+            this.selectivity = selectivity;
+        }
+
+        public String getIndexName() { return indexName; }
+        public List<String> getColumns() { return columns; }
+        public long getQueryCount() { return queryCount; }
+        public double getSelectivity() { return selectivity; }
+
+        @Override
+        public String toString() {
+            String source = queryCount > 0 ? "查询 " + queryCount + " 次" : "常用查询列";
+            return String.format("%s%s（%s，选择度 %.2f）", indexName, columns, source, selectivity);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.score.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 查询模式记录：各DAO执行查询时登记"表 + WHERE条件列"（等值、IN、范围条件），供IndexManager给出索引建议
+ * 登记方：UserDaoImpl（user_data）、ScorePageDao/ScoreDao（成绩表分页、按id读写）、ImportDao（增量导入按键查row_hash）、
+ * RankingEngine（按科目取成绩）、StudentSearchIndex（按id补读）
+ * 只记录列名组合和次数，不记录参数值
+ */
+public class QueryPatternLog {
+    private static final Map<Pattern, LongAdder> COUNTS = new ConcurrentHashMap<>();
+
+    private QueryPatternLog() {}
+
+    /**
+     * 登记一次查询
+     * @param columns WHERE中的条件列（按出现顺序）
+     */
+    public static void record(String tableName, String... columns) {
+        if (tableName == null || columns.length == 0) return;
+        COUNTS.computeIfAbsent(new Pattern(tableName, Arrays.asList(columns)), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * 指定表的所有查询模式（按次数从高到低）
+     */
+    public static List<Pattern> patternsFor(String tableName) {
+        List<Pattern> result = new ArrayList<>();
+        for (Map.Entry<Pattern, LongAdder> entry : COUNTS.entrySet()) {
+            if (entry.getKey().tableName.equalsIgnoreCase(tableName)) {
+                result.add(entry.getKey().withCount(entry.getValue().sum()));
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.count, a.count));
+        return result;
+    }
+
+    /**
+     * 一种查询模式（表名 + 条件列），count仅在patternsFor返回的快照中有效
+     */
+    public static class Pattern {
+        private final String tableName;
+        private final List<String> columns;
+        private final long count;
+
+        Pattern(String tableName, List<String> columns) {
+            this(tableName, columns, 0);
+        }
+
+        private Pattern(String tableName, List<String> columns, long count) {
+            this.tableName = tableName;
+            this.columns = Collections.unmodifiableList(columns);
+            this.count = count;
+        }
+
+        private Pattern withCount(long count) {
+            return new Pattern(tableName, columns, count);
+        }
+
+        public String getTableName() { return tableName; }
+        public List<String> getColumns() { return columns; }
+        public long getCount() { return count; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Pattern)) return false;
+            Pattern other = (Pattern) o;
+            return tableName.equalsIgnoreCase(other.tableName) && columns.equals(other.columns);
+        }
+
+        @Override
+        public int hashCode() {
+            return tableName.toLowerCase().hashCode() * 31 + columns.hashCode();
+        }
+    }
+}
\ No newline at end of file
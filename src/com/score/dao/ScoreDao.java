@@ -0,0 +1,375 @@
+package com.score.dao;
+
+import com.score.util.DBUtil;
+import com.score.util.DbConfig;
+import com.score.util.Log;
+import java.sql.Connection;
+import java.sql.DataTruncation;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 成绩表写入（修改、删除）：修改和删除先记在工作单元中，flush时在一个事务里批量写库
+ * 1. 同一单元格的多次修改只保留最后一次；删除某行时丢弃该行未保存的修改
+ * 2. 删除合并为"DELETE ... WHERE id IN (...)"，每条最多batch.maxRowsPerStatement个id（删除1000行只需一次往返）
+ * 3. 修改按列合并为"UPDATE ... SET 列 = CASE id WHEN ? THEN ? ... END WHERE id IN (...)"，同一列的修改一条语句写完；
+ *    表中有row_hash列（增量导入）时同一条语句把被修改行的row_hash置为NULL，下次增量导入时按内容变化重新写入
+ * 4. 写库前在同一事务中读出受影响行的旧值（供成绩统计减去旧值）；写库失败时回滚，修改放回工作单元（期间又被修改的单元格以新值为准）
+ * 5. 批量修改因数据错误（值与列类型不符、超长、越界）被拒绝时，改为逐个单元格写入找出出错的单元格，
+ *    丢弃这些修改并在结果中列出（见FlushResult.getRejected），其余修改照常提交；重试也写不进去的值不放回工作单元
+ * 所有方法线程安全；同一时间只执行一次flush
+ */
+public class ScoreDao {
+    private static final Log LOG = Log.get(ScoreDao.class);
+
+    // 可修改的列（录入时间由导入生成）
+    public static final List<String> EDITABLE_COLUMNS = Collections.unmodifiableList(Arrays.asList("学号", "姓名", "科目", "成绩"));
+    // 单元格没有未保存的修改
+    public static final Object NO_CHANGE = new Object();
+    // 单条语句的占位符个数上限（MySQL协议限制）
+    private static final int MAX_PARAMETERS = 65535;
+    // MySQL的数据错误码（严格模式下报错，SQLState不是22类）：1264越界、1265截断、1366值不合法、1406超长
+    private static final Set<Integer> MYSQL_DATA_ERRORS = new LinkedHashSet<>(Arrays.asList(1264, 1265, 1366, 1406));
+
+    private final String tableName;
+    private final Object flushLock = new Object();
+    // id → (列名 → 新值)，按修改顺序
+    private final Map<Long, Map<String, Object>> pendingEdits = new LinkedHashMap<>();
+    private final Set<Long> pendingDeletes = new LinkedHashSet<>();
+
+    public ScoreDao(String tableName) {
+        this.tableName = tableName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 修改一个单元格（暂存，flush时写库）；已标记删除的行忽略
+     */
+    public synchronized void update(long id, String column, Object value) {
+        if (!EDITABLE_COLUMNS.contains(column)) {
+            throw new IllegalArgumentException("不能修改的列：" + column);
+        }
+        if (pendingDeletes.contains(id)) return;
+        pendingEdits.computeIfAbsent(id, k -> new LinkedHashMap<>()).put(column, value);
+    }
+
+    /**
+     * 删除若干行（暂存，flush时写库）
+     */
+    public synchronized void delete(long... ids) {
+        for (long id : ids) {
+            pendingEdits.remove(id);
+            pendingDeletes.add(id);
+        }
+    }
+
+    public synchronized boolean hasPendingChanges() {
+        return !pendingEdits.isEmpty() || !pendingDeletes.isEmpty();
+    }
+
+    /**
+     * 未保存的行数（修改的行 + 删除的行）
+     */
+    public synchronized int getPendingCount() {
+        return pendingEdits.size() + pendingDeletes.size();
+    }
+
+    /**
+     * 单元格未保存的新值；没有未保存的修改时返回NO_CHANGE
+     */
+    public synchronized Object pendingValue(long id, String column) {
+        Map<String, Object> edits = pendingEdits.get(id);
+        return edits != null && edits.containsKey(column) ? edits.get(column) : NO_CHANGE;
+    }
+
+    public synchronized boolean isPendingDelete(long id) {
+        return pendingDeletes.contains(id);
+    }
+
+    /**
+     * 把暂存的修改和删除写库（一个事务）
+     * @return 写入结果；没有暂存的修改时返回空结果
+     */
+    public FlushResult flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<Long, Map<String, Object>> edits;
+            Set<Long> deletes;
+            synchronized (this) {
+                edits = new LinkedHashMap<>(pendingEdits);
+                deletes = new LinkedHashSet<>(pendingDeletes);
+                pendingEdits.clear();
+                pendingDeletes.clear();
+            }
+            if (edits.isEmpty() && deletes.isEmpty()) {
+                return new FlushResult(Collections.emptyMap(), edits, deletes, 0, 0, Collections.emptyMap());
+            }
+            long start = System.currentTimeMillis();
+            try (Connection conn = DBUtil.getConnection()) {
+                conn.setAutoCommit(false);
+                List<Long> affected = new ArrayList<>(edits.keySet());
+                affected.addAll(deletes);
+                Map<Long, Map<String, Object>> before = findRows(conn, affected);
+                boolean clearRowHash = hasRowHash(before);
+                Map<Long, Map<String, String>> rejected = new LinkedHashMap<>();
+                int deleted = deleteRows(conn, new ArrayList<>(deletes));
+                int updated;
+                try {
+                    updated = updateCells(conn, edits, clearRowHash);
+                } catch (SQLException e) {
+                    if (!isDataError(e)) throw e;
+                    LOG.warn("成绩批量修改被拒绝（{}），改为逐个单元格写入", e.getMessage());
+                    conn.rollback();
+                    deleted = deleteRows(conn, new ArrayList<>(deletes));
+                    updated = updateCellsOneByOne(conn, edits, clearRowHash, rejected);
+                }
+                conn.commit();
+                Map<Long, Map<String, Object>> applied = rejected.isEmpty() ? edits : withoutRejected(edits, rejected);
+                LOG.info("成绩保存完成：{}，修改{}行（{}个单元格），删除{}行，拒绝{}行，耗时{}ms", tableName, applied.size(), updated, deleted,
+                        rejected.size(), System.currentTimeMillis() - start);
+                return new FlushResult(before, applied, deletes, updated, deleted, rejected);
+            } catch (SQLException | RuntimeException e) {
+                restore(edits, deletes);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 写库失败：把取出的修改放回工作单元，flush期间的新操作优先
+     */
+    private synchronized void restore(Map<Long, Map<String, Object>> edits, Set<Long> deletes) {
+        for (Map.Entry<Long, Map<String, Object>> entry : edits.entrySet()) {
+            if (pendingDeletes.contains(entry.getKey())) continue;
+            Map<String, Object> current = pendingEdits.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>());
+            for (Map.Entry<String, Object> cell : entry.getValue().entrySet()) {
+                current.putIfAbsent(cell.getKey(), cell.getValue());
+            }
+        }
+        for (long id : deletes) {
+            pendingEdits.remove(id);
+            pendingDeletes.add(id);
+        }
+    }
+
+    /**
+     * 读出若干行的当前值（含表中的全部列）
+     */
+    private Map<Long, Map<String, Object>> findRows(Connection conn, List<Long> ids) throws SQLException {
+        Map<Long, Map<String, Object>> rows = new LinkedHashMap<>();
+        int chunk = rowsPerStatement(1);
+        for (int from = 0; from < ids.size(); from += chunk) {
+            List<Long> part = ids.subList(from, Math.min(ids.size(), from + chunk));
+            String sql = "SELECT * FROM " + tableName + " WHERE id IN (" + placeholders(part.size()) + ")";
+            QueryPatternLog.record(tableName, "id");
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                int p = 1;
+                for (long id : part) {
+                    pstmt.setLong(p++, id);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    while (rs.next()) {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int c = 1; c <= meta.getColumnCount(); c++) {
+                            row.put(meta.getColumnLabel(c), rs.getObject(c));
+                        }
+                        rows.put(rs.getLong("id"), row);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    private int deleteRows(Connection conn, List<Long> ids) throws SQLException {
+        int deleted = 0;
+        int chunk = rowsPerStatement(1);
+        for (int from = 0; from < ids.size(); from += chunk) {
+            List<Long> part = ids.subList(from, Math.min(ids.size(), from + chunk));
+            QueryPatternLog.record(tableName, "id");
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "DELETE FROM " + tableName + " WHERE id IN (" + placeholders(part.size()) + ")")) {
+                int p = 1;
+                for (long id : part) {
+                    pstmt.setLong(p++, id);
+                }
+                deleted += pstmt.executeUpdate();
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 表中是否有增量导入的row_hash列（由读出的旧值判断，列名不区分大小写）
+     */
+    private static boolean hasRowHash(Map<Long, Map<String, Object>> before) {
+        for (Map<String, Object> row : before.values()) {
+            for (String column : row.keySet()) {
+                if (ImportDao.ROW_HASH_COLUMN.equalsIgnoreCase(column)) return true;
+            }
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * 按列写入修改：每列的修改合并为CASE语句（ELSE保留原值，也让数据库从列本身推断结果类型）
+     * @param clearRowHash 同时把被修改行的row_hash置为NULL（内容已与导入时不同）
+     * @return 写入的单元格数
+     */
+    private int updateCells(Connection conn, Map<Long, Map<String, Object>> edits, boolean clearRowHash) throws SQLException {
+        Map<String, List<Map.Entry<Long, Object>>> byColumn = new LinkedHashMap<>();
+        for (Map.Entry<Long, Map<String, Object>> row : edits.entrySet()) {
+            for (Map.Entry<String, Object> cell : row.getValue().entrySet()) {
+                byColumn.computeIfAbsent(cell.getKey(), k -> new ArrayList<>())
+                        .add(new AbstractMap.SimpleImmutableEntry<>(row.getKey(), cell.getValue()));
+            }
+        }
+        int updated = 0;
+        int chunk = rowsPerStatement(3);
+        for (Map.Entry<String, List<Map.Entry<Long, Object>>> column : byColumn.entrySet()) {
+            String quoted = "`" + column.getKey() + "`";
+            List<Map.Entry<Long, Object>> cells = column.getValue();
+            for (int from = 0; from < cells.size(); from += chunk) {
+                List<Map.Entry<Long, Object>> part = cells.subList(from, Math.min(cells.size(), from + chunk));
+                StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ").append(quoted).append(" = CASE id");
+                for (int i = 0; i < part.size(); i++) {
+                    sql.append(" WHEN ? THEN ?");
+                }
+                sql.append(" ELSE ").append(quoted).append(" END");
+                if (clearRowHash) sql.append(", ").append(ImportDao.ROW_HASH_COLUMN).append(" = NULL");
+                sql.append(" WHERE id IN (").append(placeholders(part.size())).append(")");
+                QueryPatternLog.record(tableName, "id");
+                try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                    int p = 1;
+                    for (Map.Entry<Long, Object> cell : part) {
+                        pstmt.setLong(p++, cell.getKey());
+                        pstmt.setObject(p++, cell.getValue());
+                    }
+                    for (Map.Entry<Long, Object> cell : part) {
+                        pstmt.setLong(p++, cell.getKey());
+                    }
+                    pstmt.executeUpdate();
+                }
+                updated += part.size();
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 逐个单元格写入（每个单元格一个保存点）：数据错误的单元格回滚到保存点并记入rejected，其他错误照常抛出
+     * @return 写入的单元格数
+     */
+    private int updateCellsOneByOne(Connection conn, Map<Long, Map<String, Object>> edits, boolean clearRowHash,
+                                    Map<Long, Map<String, String>> rejected) throws SQLException {
+        int updated = 0;
+        for (Map.Entry<Long, Map<String, Object>> row : edits.entrySet()) {
+            for (Map.Entry<String, Object> cell : row.getValue().entrySet()) {
+                String sql = "UPDATE " + tableName + " SET `" + cell.getKey() + "` = ?"
+                        + (clearRowHash ? ", " + ImportDao.ROW_HASH_COLUMN + " = NULL" : "") + " WHERE id = ?";
+                Savepoint savepoint = conn.setSavepoint();
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setObject(1, cell.getValue());
+                    pstmt.setLong(2, row.getKey());
+                    pstmt.executeUpdate();
+                    updated++;
+                } catch (SQLException e) {
+                    if (!isDataError(e)) throw e;
+                    conn.rollback(savepoint);
+                    LOG.warn("成绩修改被拒绝并丢弃：id={}，{}={}：{}", row.getKey(), cell.getKey(), cell.getValue(), e.getMessage());
+                    rejected.computeIfAbsent(row.getKey(), k -> new LinkedHashMap<>()).put(cell.getKey(), e.getMessage());
+                    continue;
+                }
+                conn.releaseSavepoint(savepoint);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 值本身写不进去（类型不符、超长、越界）的错误：重试也不会成功；连接、锁等待等其他错误可重试
+     */
+    private static boolean isDataError(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLDataException || e instanceof DataTruncation
+                || (state != null && state.startsWith("22")) || MYSQL_DATA_ERRORS.contains(e.getErrorCode());
+    }
+
+    private static Map<Long, Map<String, Object>> withoutRejected(Map<Long, Map<String, Object>> edits,
+                                                                  Map<Long, Map<String, String>> rejected) {
+        Map<Long, Map<String, Object>> applied = new LinkedHashMap<>();
+        for (Map.Entry<Long, Map<String, Object>> row : edits.entrySet()) {
+            Map<String, Object> cells = new LinkedHashMap<>(row.getValue());
+            Map<String, String> dropped = rejected.get(row.getKey());
+            if (dropped != null) cells.keySet().removeAll(dropped.keySet());
+            if (!cells.isEmpty()) applied.put(row.getKey(), cells);
+        }
+        return applied;
+    }
+
+    private static int rowsPerStatement(int parametersPerRow) {
+        return Math.max(1, Math.min(DbConfig.get().getMaxRowsPerStatement(), MAX_PARAMETERS / parametersPerRow));
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 3);
+        for (int i = 0; i < count; i++) {
+            sb.append(i == 0 ? "?" : ", ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 一次flush的结果
+     */
+    public static class FlushResult {
+        private final Map<Long, Map<String, Object>> before;
+        private final Map<Long, Map<String, Object>> edits;
+        private final Set<Long> deletes;
+        private final int updatedCells;
+        private final int deletedRows;
+        private final Map<Long, Map<String, String>> rejected;
+
+        FlushResult(Map<Long, Map<String, Object>> before, Map<Long, Map<String, Object>> edits, Set<Long> deletes,
+                    int updatedCells, int deletedRows, Map<Long, Map<String, String>> rejected) {
+            this.before = before;
+            this.edits = edits;
+            this.deletes = deletes;
+            this.updatedCells = updatedCells;
+            this.deletedRows = deletedRows;
+            this.rejected = rejected;
+        }
+
+        public boolean isEmpty() {
+            return edits.isEmpty() && deletes.isEmpty();
+        }
+
+        /** 写库前各行的值（id → 列名 → 值）；写库前已不存在的行不在其中 */
+        public Map<Long, Map<String, Object>> getBefore() { return before; }
+        /** 写入的修改（id → 列名 → 新值） */
+        public Map<Long, Map<String, Object>> getEdits() { return edits; }
+        /** 删除的id */
+        public Set<Long> getDeletes() { return deletes; }
+        public int getUpdatedCells() { return updatedCells; }
+        public int getDeletedRows() { return deletedRows; }
+        /** 因数据错误被拒绝并丢弃的修改（id → 列名 → 错误信息），不在getEdits中 */
+        public Map<Long, Map<String, String>> getRejected() { return rejected; }
+    }
+}
\ No newline at end of file
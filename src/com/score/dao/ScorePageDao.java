@@ -0,0 +1,198 @@
+package com.score.dao;
+
+import com.score.util.DBUtil;
+import com.score.util.H2Dialect;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 成绩表分页查询（键集分页）：按自增主键id排序，每页用"WHERE id >= 页首id ORDER BY id LIMIT n"读取
+ * 与LIMIT offset不同，翻到第100万行也只扫描一页的数据
+ * 成绩表结构：id + 学号/姓名/科目/成绩/录入时间（与批量导入的表头一致，可直接把Excel导入到score_data）
+ */
+public class ScorePageDao {
+    // 主界面展示的成绩表
+    public static final String DEFAULT_TABLE = "score_data";
+    public static final List<String> COLUMNS = Collections.unmodifiableList(Arrays.asList("学号", "姓名", "科目", "成绩", "录入时间"));
+
+    private final String tableName;
+    private final String selectColumns;
+
+    public ScorePageDao(String tableName) {
+        this.tableName = tableName;
+        StringBuilder columns = new StringBuilder("id");
+        for (String column : COLUMNS) {
+            columns.append(", `").append(column).append("`");
+        }
+        this.selectColumns = columns.toString();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public boolean tableExists() {
+        return DBUtil.isTableExists(tableName);
+    }
+
+    /**
+     * 读取页目录：每页第一行的id + 总行数
+     * 支持窗口函数（MySQL 8.0+、H2）时在服务端按主键顺序编号，一条语句只返回每页的首行（100万行、每页200行时只传回5000个id）；
+     * 更早的MySQL逐页按主键索引跳过pageSize行取下一页首行，每页一次往返
+     */
+    public PageDirectory loadPageDirectory(int pageSize) throws SQLException {
+        String countSql = "SELECT COUNT(*) FROM " + tableName;
+        try (Connection conn = DBUtil.getConnection()) {
+            long rowCount;
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(countSql)) {
+                rs.next();
+                rowCount = rs.getLong(1);
+            }
+            long[] firstIds = new long[(int) ((rowCount + pageSize - 1) / pageSize)];
+            int page = supportsRowNumber(conn)
+                    ? loadFirstIdsByRowNumber(conn, pageSize, firstIds)
+                    : loadFirstIdsByKeyset(conn, pageSize, firstIds);
+            if (page < firstIds.length) {
+                firstIds = Arrays.copyOf(firstIds, page); // 统计后有行被删除
+                rowCount = Math.min(rowCount, (long) page * pageSize);
+            }
+            return new PageDirectory(firstIds, rowCount);
+        }
+    }
+
+    // ROW_NUMBER()需要MySQL 8.0+；H2（2.x）也支持
+    private static boolean supportsRowNumber(Connection conn) throws SQLException {
+        return DBUtil.getDialect() instanceof H2Dialect || conn.getMetaData().getDatabaseMajorVersion() >= 8;
+    }
+
+    /**
+     * 窗口函数编号，一次取回各页首行id
+     * @return 实际读到的页数
+     */
+    private int loadFirstIdsByRowNumber(Connection conn, int pageSize, long[] firstIds) throws SQLException {
+        String sql = "SELECT id FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS rn FROM " + tableName
+                + ") t WHERE MOD(rn - 1, ?) = 0 ORDER BY id";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DBUtil.applyFetchSize(pstmt);
+            pstmt.setInt(1, pageSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int page = 0;
+                while (rs.next() && page < firstIds.length) {
+                    firstIds[page++] = rs.getLong(1);
+                }
+                return page;
+            }
+        }
+    }
+
+    /**
+     * 键集逐页：下一页首行 = 本页首行起第pageSize+1行（只走主键索引）
+     * @return 实际读到的页数
+     */
+    private int loadFirstIdsByKeyset(Connection conn, int pageSize, long[] firstIds) throws SQLException {
+        if (firstIds.length == 0) return 0;
+        String sql = "SELECT id FROM " + tableName + " WHERE id >= ? ORDER BY id LIMIT 1 OFFSET ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            long fromId = Long.MIN_VALUE;
+            int offset = 0; // 第一页取最小id
+            int page = 0;
+            while (page < firstIds.length) {
+                pstmt.setLong(1, fromId);
+                pstmt.setInt(2, offset);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (!rs.next()) break;
+                    fromId = rs.getLong(1);
+                }
+                firstIds[page++] = fromId;
+                offset = pageSize;
+            }
+            return page;
+        }
+    }
+
+    /**
+     * 读取一页：fromId <= id < toId 的前limit行
+     * 以下一页首行id为上界：目录加载后有行被删除时这一页提前结束，不会读入下一页的行（否则同一行在两页各显示一次）
+     * @param toId 下一页首行的id；最后一页传Long.MAX_VALUE
+     * @return 每行为 [id, 学号, 姓名, 科目, 成绩, 录入时间]
+     */
+    public List<Object[]> fetchPage(long fromId, long toId, int limit) throws SQLException {
+        String sql = "SELECT " + selectColumns + " FROM " + tableName + " WHERE id >= ? AND id < ? ORDER BY id LIMIT ?";
+        QueryPatternLog.record(tableName, "id");
+        List<Object[]> rows = new ArrayList<>(limit);
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, fromId);
+            pstmt.setLong(2, toId);
+            pstmt.setInt(3, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int columnCount = COLUMNS.size() + 1;
+                while (rs.next()) {
+                    Object[] row = new Object[columnCount];
+                    row[0] = rs.getLong(1);
+                    for (int c = 1; c < columnCount; c++) {
+                        row[c] = rs.getObject(c + 1);
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 按主键读取若干行（查找结果的一页）
+     * @return 每行为 [id, 学号, 姓名, 科目, 成绩, 录入时间]，按id升序；已删除的行不返回
+     */
+    public List<Object[]> fetchByIds(long[] ids) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(ids.length);
+        if (ids.length == 0) return rows;
+        QueryPatternLog.record(tableName, "id");
+        StringBuilder sql = new StringBuilder("SELECT ").append(selectColumns).append(" FROM ").append(tableName).append(" WHERE id IN (");
+        for (int i = 0; i < ids.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY id");
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.length; i++) {
+                pstmt.setLong(i + 1, ids[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int columnCount = COLUMNS.size() + 1;
+                while (rs.next()) {
+                    Object[] row = new Object[columnCount];
+                    row[0] = rs.getLong(1);
+                    for (int c = 1; c < columnCount; c++) {
+                        row[c] = rs.getObject(c + 1);
+                    }
+                    rows.add(row);
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 页目录：firstIds[p]为第p页第一行的id
+     */
+    public static class PageDirectory {
+        private final long[] firstIds;
+        private final long rowCount;
+
+        PageDirectory(long[] firstIds, long rowCount) {
+            this.firstIds = firstIds;
+            this.rowCount = rowCount;
+        }
+
+        public long[] getFirstIds() { return firstIds; }
+        public long getRowCount() { return rowCount; }
+    }
+}
\ No newline at end of file
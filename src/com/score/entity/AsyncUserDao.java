@@ -0,0 +1,53 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.DbTaskScheduler;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * 用户数据访问层异步接口：方法与UserDao一一对应，数据库操作在后台线程执行，立即返回CompletableFuture
+ * 1. 任务统一提交到DbTaskScheduler；每个Future自带超时（超时后以TimeoutException结束），cancel(true)会中断尚未完成的数据库操作
+ * 2. 界面代码用onEdt()在事件调度线程上接收结果，不要在EDT上调用join()/get()
+ */
+public interface AsyncUserDao {
+    /**
+     * 在事件调度线程上执行回调的Executor（配合thenAcceptAsync/whenCompleteAsync使用）
+     */
+    Executor EDT = DbTaskScheduler.EDT;
+
+    CompletableFuture<User> login(String username, String password);
+
+    CompletableFuture<Boolean> addUser(User user);
+
+    CompletableFuture<User> getUserByUsername(String username);
+
+    CompletableFuture<Boolean> updateUser(User user);
+
+    CompletableFuture<Boolean> deleteUser(String username);
+
+    CompletableFuture<List<User>> listAllUsers();
+
+    CompletableFuture<User> getUserByUsernameAndEmail(String username, String email);
+
+    CompletableFuture<User> getUserByUsernameEmailTel(String username, String email, String tel);
+
+    CompletableFuture<Boolean> resetPassword(String username, String newPassword);
+
+    /**
+     * 在EDT上接收结果：成功调用onSuccess，失败（含超时）调用onError；被取消时两者都不调用
+     * @return 传入的future本身（窗口关闭时对它cancel(true)即可取消后台任务）
+     */
+    static <T> CompletableFuture<T> onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        return DbTaskScheduler.onEdt(future, onSuccess, onError);
+    }
+
+    /**
+     * 把异步失败原因转成给用户看的提示
+     */
+    static String describeFailure(Throwable ex) {
+        return DbTaskScheduler.describeFailure(ex);
+    }
+}
\ No newline at end of file
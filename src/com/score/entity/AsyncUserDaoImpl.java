@@ -0,0 +1,77 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.DbTaskScheduler;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncUserDao实现：把同步UserDao的调用提交到全局DbTaskScheduler（并发数受连接池上限约束，支持时使用虚拟线程）
+ * 超时或取消时中断执行中的任务；尚未开始的任务直接跳过
+ */
+public class AsyncUserDaoImpl implements AsyncUserDao {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    private final UserDao delegate;
+    private final long timeoutMillis;
+    private final DbTaskScheduler scheduler = DbTaskScheduler.getInstance();
+
+    public AsyncUserDaoImpl(UserDao delegate) {
+        this(delegate, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public AsyncUserDaoImpl(UserDao delegate, long timeoutMillis) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<User> login(String username, String password) {
+        return supply(() -> delegate.login(username, password));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> addUser(User user) {
+        return supply(() -> delegate.addUser(user));
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByUsername(String username) {
+        return supply(() -> delegate.getUserByUsername(username));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateUser(User user) {
+        return supply(() -> delegate.updateUser(user));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deleteUser(String username) {
+        return supply(() -> delegate.deleteUser(username));
+    }
+
+    @Override
+    public CompletableFuture<List<User>> listAllUsers() {
+        return supply(delegate::listAllUsers);
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByUsernameAndEmail(String username, String email) {
+        return supply(() -> delegate.getUserByUsernameAndEmail(username, email));
+    }
+
+    @Override
+    public CompletableFuture<User> getUserByUsernameEmailTel(String username, String email, String tel) {
+        return supply(() -> delegate.getUserByUsernameEmailTel(username, email, tel));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> resetPassword(String username, String newPassword) {
+        return supply(() -> delegate.resetPassword(username, newPassword));
+    }
+
+    private <T> CompletableFuture<T> supply(Callable<T> work) {
+        return scheduler.submit("UserDao", work, timeoutMillis);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,234 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.Log;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserDao缓存装饰器：缓存getUserByUsername的结果（同一登录用户的信息被多个窗口反复查询）
+ * 1. 容量有上限，超出时淘汰最久未访问的用户（LRU）；每条缓存超过ttl后失效，下次查询重新读库
+ * 2. updateUser/resetPassword/deleteUser/addUser成功后立即清除该用户的缓存
+ * 3. getUserByUsername/login返回的User都不含密码（无论是否命中缓存，结果一致）；缓存里同样不保存密码
+ *    返回给调用方的是副本，调用方修改User对象不会污染缓存
+ * 用户名按MySQL默认排序规则不区分大小写，缓存键统一转小写
+ */
+public class CachingUserDao implements UserDao {
+    private static final Log LOG = Log.get(CachingUserDao.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000L;
+
+    private final UserDao delegate;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachingUserDao(UserDao delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS);
+    }
+
+    public CachingUserDao(UserDao delegate, int maxEntries, long ttlMillis) {
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // ========== 读：走缓存 ==========
+    @Override
+    public User getUserByUsername(String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return withoutPassword(delegate.getUserByUsername(username));
+        }
+        String key = key(username);
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return withoutPassword(entry.user);
+            }
+            if (entry != null) {
+                cache.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        User user = delegate.getUserByUsername(username);
+        if (user != null) {
+            put(key, user); // 不存在的用户不缓存，避免注册后仍查不到
+        }
+        return withoutPassword(user);
+    }
+
+    /**
+     * 登录必须读库校验密码；登录成功顺便把用户信息放入缓存（后续个人信息、反馈窗口直接命中）
+     */
+    @Override
+    public User login(String username, String password) {
+        User user = delegate.login(username, password);
+        if (user != null) {
+            put(key(username), user);
+        }
+        return withoutPassword(user);
+    }
+
+    /**
+     * 用户名已在缓存中说明肯定重复，直接返回失败，省去一次查询
+     */
+    @Override
+    public boolean addUser(User user) {
+        if (user != null && user.getUsername() != null && getCached(key(user.getUsername())) != null) {
+            hits.incrementAndGet();
+            LOG.warn("注册失败：用户名{}已存在", user.getUsername());
+            return false;
+        }
+        boolean added = delegate.addUser(user);
+        if (added) invalidate(user.getUsername());
+        return added;
+    }
+
+    @Override
+    public List<User> listAllUsers() {
+        return delegate.listAllUsers();
+    }
+
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        return delegate.getUserByUsernameAndEmail(username, email);
+    }
+
+    @Override
+    public User getUserByUsernameEmailTel(String username, String email, String tel) {
+        return delegate.getUserByUsernameEmailTel(username, email, tel);
+    }
+
+    // ========== 写：成功后清除缓存 ==========
+    @Override
+    public boolean updateUser(User user) {
+        boolean updated = delegate.updateUser(user);
+        if (user != null) invalidate(user.getUsername());
+        return updated;
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        boolean deleted = delegate.deleteUser(username);
+        invalidate(username);
+        return deleted;
+    }
+
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        boolean reset = delegate.resetPassword(username, newPassword);
+        invalidate(username);
+        return reset;
+    }
+
+    // ========== 缓存管理 ==========
+    /**
+     * 清除指定用户的缓存
+     */
+    public void invalidate(String username) {
+        if (username == null) return;
+        synchronized (cache) {
+            cache.remove(key(username));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public Stats getStats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return new Stats(hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    private User getCached(String key) {
+        synchronized (cache) {
+            Entry entry = cache.get(key);
+            return entry != null && entry.expiresAt > System.currentTimeMillis() ? entry.user : null;
+        }
+    }
+
+    private void put(String key, User user) {
+        User cached = withoutPassword(user);
+        synchronized (cache) {
+            cache.put(key, new Entry(cached, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private static String key(String username) {
+        return username.trim().toLowerCase();
+    }
+
+    /**
+     * 不含密码的副本
+     */
+    private static User withoutPassword(User user) {
+        if (user == null) return null;
+        return new User(user.getId(), user.getName(), user.getSex(), user.getTitle(), user.getTel(), user.getEmail(),
+                user.getUsername(), null);
+    }
+
+    private static class Entry {
+        private final User user;
+        private final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 缓存命中统计
+     */
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getSize() { return size; }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : hits / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("命中 %d 次，未命中 %d 次，命中率 %.1f%%，淘汰 %d 条，当前缓存 %d 个用户",
+                    hits, misses, getHitRate() * 100, evictions, size);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.score.entity;
+
+import com.score.dao.User;
+import com.score.util.Metrics;
+import java.util.List;
+
+/**
+ * UserDao计时装饰器：每个方法记录一个计时器userDao.方法名（次数+耗时分布），
+ * 返回null/false（登录失败、用户不存在等）时另计userDao.方法名.empty
+ * 包在UserDaoImpl外层，统计的是实际访问数据库的调用（缓存命中不经过这里，见CachingUserDao.Stats）
+ */
+public class InstrumentedUserDao implements UserDao {
+    private static final Metrics.Timer LOGIN = Metrics.timer("userDao.login");
+    private static final Metrics.Timer ADD_USER = Metrics.timer("userDao.addUser");
+    private static final Metrics.Timer GET_BY_USERNAME = Metrics.timer("userDao.getUserByUsername");
+    private static final Metrics.Timer UPDATE_USER = Metrics.timer("userDao.updateUser");
+    private static final Metrics.Timer DELETE_USER = Metrics.timer("userDao.deleteUser");
+    private static final Metrics.Timer LIST_ALL = Metrics.timer("userDao.listAllUsers");
+    private static final Metrics.Timer GET_BY_EMAIL = Metrics.timer("userDao.getUserByUsernameAndEmail");
+    private static final Metrics.Timer GET_BY_EMAIL_TEL = Metrics.timer("userDao.getUserByUsernameEmailTel");
+    private static final Metrics.Timer RESET_PASSWORD = Metrics.timer("userDao.resetPassword");
+
+    private final UserDao delegate;
+
+    public InstrumentedUserDao(UserDao delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public User login(String username, String password) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.login", delegate.login(username, password));
+        } finally {
+            LOGIN.stop(start);
+        }
+    }
+
+    @Override
+    public boolean addUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.addUser", delegate.addUser(user));
+        } finally {
+            ADD_USER.stop(start);
+        }
+    }
+
+    @Override
+    public User getUserByUsername(String username) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.getUserByUsername", delegate.getUserByUsername(username));
+        } finally {
+            GET_BY_USERNAME.stop(start);
+        }
+    }
+
+    @Override
+    public boolean updateUser(User user) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.updateUser", delegate.updateUser(user));
+        } finally {
+            UPDATE_USER.stop(start);
+        }
+    }
+
+    @Override
+    public boolean deleteUser(String username) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.deleteUser", delegate.deleteUser(username));
+        } finally {
+            DELETE_USER.stop(start);
+        }
+    }
+
+    @Override
+    public List<User> listAllUsers() {
+        long start = System.nanoTime();
+        try {
+            return delegate.listAllUsers();
+        } finally {
+            LIST_ALL.stop(start);
+        }
+    }
+
+    @Override
+    public User getUserByUsernameAndEmail(String username, String email) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.getUserByUsernameAndEmail", delegate.getUserByUsernameAndEmail(username, email));
+        } finally {
+            GET_BY_EMAIL.stop(start);
+        }
+    }
+
+    @Override
+    public User getUserByUsernameEmailTel(String username, String email, String tel) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.getUserByUsernameEmailTel", delegate.getUserByUsernameEmailTel(username, email, tel));
+        } finally {
+            GET_BY_EMAIL_TEL.stop(start);
+        }
+    }
+
+    @Override
+    public boolean resetPassword(String username, String newPassword) {
+        long start = System.nanoTime();
+        try {
+            return countEmpty("userDao.resetPassword", delegate.resetPassword(username, newPassword));
+        } finally {
+            RESET_PASSWORD.stop(start);
+        }
+    }
+
+    private static User countEmpty(String name, User result) {
+        if (result == null) Metrics.counter(name + ".empty").inc();
+        return result;
+    }
+
+    private static boolean countEmpty(String name, boolean result) {
+        if (!result) Metrics.counter(name + ".empty").inc();
+        return result;
+    }
+}
\ No newline at end of file
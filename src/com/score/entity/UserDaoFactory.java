@@ -0,0 +1,39 @@
+package com.score.entity;
+
+import com.score.util.Metrics;
+
+/**
+ * UserDao获取入口：全局共用一个带缓存的UserDao，各窗口的查询共享同一份缓存
+ * 界面代码使用getAsyncUserDao()，避免在事件调度线程上阻塞等待数据库
+ * 结构：缓存 → 计时（只统计实际读库的调用） → UserDaoImpl；缓存命中数等注册为指标userDao.cache.*
+ */
+public class UserDaoFactory {
+    private static final CachingUserDao INSTANCE = new CachingUserDao(new InstrumentedUserDao(new UserDaoImpl()));
+    private static final AsyncUserDaoImpl ASYNC_INSTANCE = new AsyncUserDaoImpl(INSTANCE);
+
+    static {
+        Metrics.gauge("userDao.cache.hits", () -> INSTANCE.getStats().getHits());
+        Metrics.gauge("userDao.cache.misses", () -> INSTANCE.getStats().getMisses());
+        Metrics.gauge("userDao.cache.size", () -> INSTANCE.getStats().getSize());
+    }
+
+    private UserDaoFactory() {}
+
+    public static UserDao getUserDao() {
+        return INSTANCE;
+    }
+
+    /**
+     * 异步版本（与getUserDao()共用缓存）
+     */
+    public static AsyncUserDao getAsyncUserDao() {
+        return ASYNC_INSTANCE;
+    }
+
+    /**
+     * 用户缓存命中统计
+     */
+    public static CachingUserDao.Stats getCacheStats() {
+        return INSTANCE.getStats();
+    }
+}
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.score.entity;
 
+import com.score.dao.QueryPatternLog;
 import com.score.dao.User;
 import com.score.util.DBUtil;
+import com.score.util.Log;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -14,17 +16,19 @@ import java.util.List;
  * 3. 统一日志格式，便于调试
  */
 public class UserDaoImpl implements UserDao {
+    private static final Log LOG = Log.get(UserDaoImpl.class);
 
     // ========== 1. 用户登录验证 ==========
     @Override
     public User login(String username, String password) {
         // 前置参数校验（防御性编程）
         if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 登录失败：用户名/密码为空");
+            LOG.warn("登录失败：用户名/密码为空");
             return null;
         }
 
         String sql = "SELECT * FROM user_data WHERE username = ? AND password = ?";
+        QueryPatternLog.record("user_data", "username", "password");
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -36,22 +40,20 @@ public class UserDaoImpl implements UserDao {
             pstmt.setString(1, username.trim());
             pstmt.setString(2, password.trim());
 
-            System.out.println("[UserDaoImpl] 执行登录SQL：" + sql);
+            LOG.debug("执行登录SQL：{}", sql);
             rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 User user = buildUserFromResultSet(rs);
                 // 补充密码字段（build方法未包含，仅登录场景需要）
                 user.setPassword(rs.getString("password"));
-                System.out.println("[UserDaoImpl] 登录成功：用户名=" + username);
+                LOG.debug("登录成功：用户名={}", username);
                 return user;
             } else {
-                System.err.println("[UserDaoImpl] 登录失败：用户名/密码不匹配");
+                LOG.warn("登录失败：用户名/密码不匹配");
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 登录SQL异常：" + e.getMessage());
-            // 打印异常栈（调试阶段保留，生产环境可移除）
-            e.printStackTrace();
+            LOG.error("登录SQL异常：{}", e.getMessage(), e);
         } finally {
             // 调用DBUtil关闭资源，适配PreparedStatement
             DBUtil.close(conn, pstmt, rs);
@@ -64,12 +66,12 @@ public class UserDaoImpl implements UserDao {
     public boolean addUser(User user) {
         // 前置校验：用户对象为空直接返回失败
         if (user == null) {
-            System.err.println("[UserDaoImpl] 注册失败：用户对象为空");
+            LOG.warn("注册失败：用户对象为空");
             return false;
         }
         // 校验用户名是否重复
         if (getUserByUsername(user.getUsername()) != null) {
-            System.err.println("[UserDaoImpl] 注册失败：用户名" + user.getUsername() + "已存在");
+            LOG.warn("注册失败：用户名{}已存在", user.getUsername());
             return false;
         }
 
@@ -89,18 +91,17 @@ public class UserDaoImpl implements UserDao {
             pstmt.setString(6, user.getTel() == null ? "" : user.getTel().trim());
             pstmt.setString(7, user.getEmail() == null ? "" : user.getEmail().trim());
 
-            System.out.println("[UserDaoImpl] 执行注册SQL：" + sql);
+            LOG.debug("执行注册SQL：{}", sql);
             int affectedRows = pstmt.executeUpdate();
 
             if (affectedRows > 0) {
-                System.out.println("[UserDaoImpl] 注册成功：用户名=" + user.getUsername());
+                LOG.debug("注册成功：用户名={}", user.getUsername());
                 return true;
             } else {
-                System.err.println("[UserDaoImpl] 注册失败：无数据插入");
+                LOG.warn("注册失败：无数据插入");
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 注册SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("注册SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt);
         }
@@ -111,11 +112,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public User getUserByUsername(String username) {
         if (username == null || username.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 查询用户失败：用户名为空");
+            LOG.warn("查询用户失败：用户名为空");
             return null;
         }
 
         String sql = "SELECT * FROM user_data WHERE username = ?";
+        QueryPatternLog.record("user_data", "username");
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -129,11 +131,10 @@ public class UserDaoImpl implements UserDao {
             if (rs.next()) {
                 return buildUserFromResultSet(rs);
             } else {
-                System.err.println("[UserDaoImpl] 查询用户失败：用户名" + username + "不存在");
+                LOG.debug("查询用户失败：用户名{}不存在", username);
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 查询用户SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("查询用户SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt, rs);
         }
@@ -144,11 +145,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean updateUser(User user) {
         if (user == null || user.getUsername() == null || user.getUsername().trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 修改用户失败：用户对象/用户名为空");
+            LOG.warn("修改用户失败：用户对象/用户名为空");
             return false;
         }
 
         String sql = "UPDATE user_data SET title=?, name=?, sex=?, tel=?, email=? WHERE username=?";
+        QueryPatternLog.record("user_data", "username");
         Connection conn = null;
         PreparedStatement pstmt = null;
 
@@ -165,14 +167,13 @@ public class UserDaoImpl implements UserDao {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("[UserDaoImpl] 修改用户成功：用户名=" + user.getUsername());
+                LOG.debug("修改用户成功：用户名={}", user.getUsername());
                 return true;
             } else {
-                System.err.println("[UserDaoImpl] 修改用户失败：用户名" + user.getUsername() + "不存在");
+                LOG.warn("修改用户失败：用户名{}不存在", user.getUsername());
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 修改用户SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("修改用户SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt);
         }
@@ -183,11 +184,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean deleteUser(String username) {
         if (username == null || username.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 删除用户失败：用户名为空");
+            LOG.warn("删除用户失败：用户名为空");
             return false;
         }
 
         String sql = "DELETE FROM user_data WHERE username = ?";
+        QueryPatternLog.record("user_data", "username");
         Connection conn = null;
         PreparedStatement pstmt = null;
 
@@ -198,14 +200,13 @@ public class UserDaoImpl implements UserDao {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("[UserDaoImpl] 删除用户成功：用户名=" + username);
+                LOG.debug("删除用户成功：用户名={}", username);
                 return true;
             } else {
-                System.err.println("[UserDaoImpl] 删除用户失败：用户名" + username + "不存在");
+                LOG.warn("删除用户失败：用户名{}不存在", username);
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 删除用户SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("删除用户SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt);
         }
@@ -229,10 +230,9 @@ public class UserDaoImpl implements UserDao {
             while (rs.next()) {
                 userList.add(buildUserFromResultSet(rs));
             }
-            System.out.println("[UserDaoImpl] 查询所有用户成功：共查询到" + userList.size() + "条数据");
+            LOG.debug("查询所有用户成功：共查询到{}条数据", userList.size());
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 查询所有用户SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("查询所有用户SQL异常：{}", e.getMessage(), e);
         } finally {
             // 手动关闭Statement资源（DBUtil未适配，补充关闭逻辑）
             try {
@@ -240,7 +240,7 @@ public class UserDaoImpl implements UserDao {
                 if (stmt != null) stmt.close();
                 if (conn != null) conn.close();
             } catch (SQLException e) {
-                System.err.println("[UserDaoImpl] 关闭Statement资源失败：" + e.getMessage());
+                LOG.warn("关闭Statement资源失败：{}", e.getMessage());
             }
         }
         return userList;
@@ -250,11 +250,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public User getUserByUsernameAndEmail(String username, String email) {
         if (username == null || username.trim().isEmpty() || email == null || email.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 验证失败：用户名/邮箱为空");
+            LOG.warn("验证失败：用户名/邮箱为空");
             return null;
         }
 
         String sql = "SELECT * FROM user_data WHERE username = ? AND email = ?";
+        QueryPatternLog.record("user_data", "username", "email");
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -271,14 +272,13 @@ public class UserDaoImpl implements UserDao {
                 user.setUsername(rs.getString("username"));
                 user.setEmail(rs.getString("email"));
                 user.setSex(rs.getString("sex") == null ? "" : rs.getString("sex"));
-                System.out.println("[UserDaoImpl] 用户名+邮箱验证成功：用户名=" + username);
+                LOG.debug("用户名+邮箱验证成功：用户名={}", username);
                 return user;
             } else {
-                System.err.println("[UserDaoImpl] 验证失败：用户名/邮箱不匹配");
+                LOG.warn("验证失败：用户名/邮箱不匹配");
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 验证SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("验证SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt, rs);
         }
@@ -289,11 +289,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public User getUserByUsernameEmailTel(String username, String email, String tel) {
         if (username == null || username.trim().isEmpty() || email == null || email.trim().isEmpty() || tel == null || tel.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 三重验证失败：参数为空");
+            LOG.warn("三重验证失败：参数为空");
             return null;
         }
 
         String sql = "SELECT * FROM user_data WHERE username = ? AND email = ? AND tel = ?";
+        QueryPatternLog.record("user_data", "username", "email", "tel");
         Connection conn = null;
         PreparedStatement pstmt = null;
         ResultSet rs = null;
@@ -309,14 +310,13 @@ public class UserDaoImpl implements UserDao {
             if (rs.next()) {
                 User user = new User();
                 user.setUsername(rs.getString("username"));
-                System.out.println("[UserDaoImpl] 三重验证成功：用户名=" + username);
+                LOG.debug("三重验证成功：用户名={}", username);
                 return user;
             } else {
-                System.err.println("[UserDaoImpl] 三重验证失败：参数不匹配");
+                LOG.warn("三重验证失败：参数不匹配");
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 三重验证SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("三重验证SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt, rs);
         }
@@ -327,11 +327,12 @@ public class UserDaoImpl implements UserDao {
     @Override
     public boolean resetPassword(String username, String newPassword) {
         if (username == null || username.trim().isEmpty() || newPassword == null || newPassword.trim().isEmpty()) {
-            System.err.println("[UserDaoImpl] 重置密码失败：参数为空");
+            LOG.warn("重置密码失败：参数为空");
             return false;
         }
 
         String sql = "UPDATE user_data SET password = ? WHERE username = ?";
+        QueryPatternLog.record("user_data", "username");
         Connection conn = null;
         PreparedStatement pstmt = null;
 
@@ -343,14 +344,13 @@ public class UserDaoImpl implements UserDao {
 
             int affectedRows = pstmt.executeUpdate();
             if (affectedRows > 0) {
-                System.out.println("[UserDaoImpl] 重置密码成功：用户名=" + username);
+                LOG.debug("重置密码成功：用户名={}", username);
                 return true;
             } else {
-                System.err.println("[UserDaoImpl] 重置密码失败：用户名" + username + "不存在");
+                LOG.warn("重置密码失败：用户名{}不存在", username);
             }
         } catch (SQLException e) {
-            System.err.println("[UserDaoImpl] 重置密码SQL异常：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("重置密码SQL异常：{}", e.getMessage(), e);
         } finally {
             DBUtil.close(conn, pstmt);
         }
@@ -0,0 +1,136 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.score.dao.ImportDao;
+import com.score.util.BatchInserter;
+import com.score.util.BulkLoader;
+import com.score.util.CsvRowWriter;
+import com.score.util.DBUtil;
+import com.score.util.ExcelDataListener;
+import com.score.util.Log;
+import com.score.util.SchemaEnforcer;
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * LOAD DATA批量加载导入：解析出的块逐块追加到临时CSV文件（堆内存只保留一块），解析完后一次LOAD DATA LOCAL INFILE入库
+ * 写CSV前按目标表列类型检查每块数据（见SchemaGuard），整个文件（含隔离的行）在一个事务中加载；服务器未开启local_infile或拒绝加载时返回null，由ImportService回退到批量插入
+ */
+class BulkLoadImporter {
+    private static final Log LOG = Log.get(BulkLoadImporter.class);
+
+    private final ImportDao importDao;
+    private final String tableName;
+    private final ImportOptions options;
+    private final ImportReport report;
+
+    BulkLoadImporter(ImportDao importDao, String tableName, ImportOptions options, ImportReport report) {
+        this.importDao = importDao;
+        this.tableName = tableName;
+        this.options = options;
+        this.report = report;
+    }
+
+    /**
+     * 执行导入
+     * @return 解析监听器；服务器不支持本地文件加载时返回null（此时未写入任何数据）
+     */
+    ExcelDataListener<Map<Integer, String>> run(File file, Set<String> requiredHeaders) throws Exception {
+        Connection conn = DBUtil.getConnection();
+        File csvFile = null;
+        try {
+            // 先确认服务器允许，避免白白解析一遍
+            if (!BulkLoader.isLocalInfileEnabled(conn)) {
+                LOG.info("本地文件加载不可用（连接或服务器未开启local_infile），回退到批量插入");
+                return null;
+            }
+
+            conn.setAutoCommit(false);
+            csvFile = File.createTempFile("score-import-", ".csv");
+            List<List<String>> headerHolder = new ArrayList<>();
+            SchemaGuard[] guard = new SchemaGuard[1];
+            long[] nextRow = {1};
+            int[] schemaIssues = new int[2];
+            ExcelDataListener<Map<Integer, String>> listener;
+            try (InputStream inputStream = new FileInputStream(file);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8))) {
+                CsvRowWriter[] csv = new CsvRowWriter[1];
+                listener = ExcelDataListener.columnar(requiredHeaders, options.getChunkSize(), (headers, chunk) -> {
+                    if (csv[0] == null) {
+                        csv[0] = new CsvRowWriter(writer, headers.size());
+                        headerHolder.add(headers);
+                        guard[0] = SchemaGuard.open(importDao, conn, tableName, headers, options.getMismatchPolicy());
+                    }
+                    SchemaEnforcer.Result result = guard[0].apply(conn, chunk, nextRow[0]);
+                    nextRow[0] += chunk.rowCount();
+                    schemaIssues[0] += result.getCoercedValues();
+                    schemaIssues[1] += result.getMismatches().size();
+                    csv[0].writeRows(result.getAccepted());
+                    report.recordRows(headers, result.getAccepted(), true); // 整个文件一次加载，提交后才计入统计
+                });
+                EasyExcel.read(inputStream, listener)
+                        .sheet()
+                        .headRowNumber(1)
+                        .doRead();
+            }
+            if (!listener.isHeaderValid() || listener.getTotalRows() == 0) {
+                return listener; // 由ImportService给出表头缺失/无数据提示
+            }
+
+            long start = System.currentTimeMillis();
+            long parsedRows = listener.getTotalRows() - schemaIssues[1]; // 隔离的行不进CSV
+            List<String> warnings = new ArrayList<>();
+            long loadedRows;
+            try (InputStream csvStream = new BufferedInputStream(new FileInputStream(csvFile))) {
+                loadedRows = importDao.bulkLoad(conn, tableName, headerHolder.get(0), csvStream, warnings);
+            } catch (SQLException e) {
+                conn.rollback();
+                if (BulkLoader.isRefused(e)) {
+                    LOG.info("服务器拒绝LOAD DATA LOCAL INFILE，回退到批量插入：{}", e.getMessage());
+                    return null;
+                }
+                throw e;
+            }
+
+            // LOAD DATA LOCAL遇到坏数据只警告并跳过，行数对不上时按提交方式处理
+            if (loadedRows != parsedRows) {
+                String message = "解析" + parsedRows + "行，实际加载" + loadedRows + "行"
+                        + (warnings.isEmpty() ? "" : "，服务器提示：" + String.join("；", warnings));
+                if (options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING) {
+                    conn.rollback();
+                    report.addError(1, message);
+                    return listener;
+                }
+                report.addError(1, message);
+            }
+            conn.commit();
+            report.recordSchemaIssues(schemaIssues[0], schemaIssues[1]);
+            report.recordChunk((int) loadedRows, System.currentTimeMillis() - start);
+            if (loadedRows == parsedRows) {
+                report.commitPending();
+            } else {
+                ScoreAnalytics.tableChanged(tableName); // 不知道服务器跳过了哪些行
+            }
+            return listener;
+        } finally {
+            if (csvFile != null && !csvFile.delete()) {
+                csvFile.deleteOnExit();
+            }
+            DBUtil.close(conn, (PreparedStatement) null);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.score.service;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+    // Excel工作簿：EasyExcel底层为SXSSF，只在内存中保留最近写入的少量行，其余行写入临时文件
+    XLSX(".xlsx", "Excel工作簿"),
+    // 通用CSV：UTF-8带BOM（Excel打开不乱码），逗号分隔
+    CSV(".csv", "CSV（UTF-8）");
+
+    private final String extension;
+    private final String label;
+
+    ExportFormat(String extension, String label) {
+        this.extension = extension;
+        this.label = label;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
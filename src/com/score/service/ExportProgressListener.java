@@ -0,0 +1,24 @@
+package com.score.service;
+
+/**
+ * 导出进度回调（在导出线程中调用，界面更新需自行切回EDT）
+ * tableIndex为表在导出列表中的序号（从0开始）
+ */
+public interface ExportProgressListener {
+    /**
+     * @param totalRows 开始导出时表中的行数（导出期间新增的行也会导出，最终行数可能更多）
+     */
+    void onTableStarted(int tableIndex, String tableName, long totalRows);
+
+    /**
+     * 每写完一块调用一次
+     * @param exportedRows 该表累计已导出的行数
+     */
+    void onTableProgress(int tableIndex, String tableName, long exportedRows);
+
+    /**
+     * 表导出结束
+     * @param error 失败原因，成功时为null
+     */
+    void onTableFinished(int tableIndex, String tableName, long exportedRows, Exception error);
+}
\ No newline at end of file
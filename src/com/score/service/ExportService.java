@@ -0,0 +1,405 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import com.score.dao.ImportDao;
+import com.score.dao.ImportJobDao;
+import com.score.util.BatchInserter;
+import com.score.util.CsvRowWriter;
+import com.score.util.DBUtil;
+import com.score.util.DbConfig;
+import com.score.util.Log;
+import com.score.util.Metrics;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 成绩表导出（Excel/CSV），内存占用与表的行数无关：
+ * 1. 只读、单向游标按方言的流式fetchSize逐批取行（MySQL逐行流式读取，不把整个结果集读入内存）
+ * 2. 每攒够batch.chunkSize行写出一块后丢弃；Excel由EasyExcel（SXSSF）写出，超过单个工作表的行数上限时续写到下一个工作表
+ * 3. 多张表导出到ZIP：有界线程池中每张表一个任务，各自用独立连接写到临时文件，全部成功后按列表顺序打包
+ *    线程数见zipThreads；通过DbTaskScheduler提交时按该数占用许可（submit的connections参数），与其他数据库任务共用并发上限
+ * 导入时生成的自增主键id和行哈希列（row_hash）不导出；表头自带的id列（非自增）是用户数据，照常导出
+ */
+public class ExportService {
+    private static final Log LOG = Log.get(ExportService.class);
+    private static final Metrics.Timer EXPORT_TIMER = Metrics.timer("export.table");
+    private static final Metrics.Counter ROWS = Metrics.counter("export.rows");
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+
+    // 单个工作表最多1048576行，其中一行是表头
+    static final int MAX_SHEET_ROWS = 1_048_575;
+    // Excel工作表名最长31个字符
+    private static final int MAX_SHEET_NAME = 31;
+    private static final char BOM = '\uFEFF';
+    // 系统表（账号、导入任务、反馈）不在导出列表中
+    private static final Set<String> SYSTEM_TABLES = new HashSet<>(Arrays.asList(
+            "user_data", ImportJobDao.TABLE, "add_supplement", "report_problem", "put_suggestions"));
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * 可导出的表（按表名排序）
+     */
+    public List<String> listTables() throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Connection conn = DBUtil.getConnection();
+             ResultSet rs = conn.getMetaData().getTables(conn.getCatalog(), null, "%", null)) {
+            while (rs.next()) {
+                String schema = rs.getString("TABLE_SCHEM");
+                String type = rs.getString("TABLE_TYPE");
+                String name = rs.getString("TABLE_NAME");
+                if ("INFORMATION_SCHEMA".equalsIgnoreCase(schema) || type == null
+                        || !type.toUpperCase(Locale.ROOT).endsWith("TABLE") || type.toUpperCase(Locale.ROOT).contains("SYSTEM")) {
+                    continue;
+                }
+                if (!SYSTEM_TABLES.contains(name.toLowerCase(Locale.ROOT))) {
+                    tables.add(name);
+                }
+            }
+        }
+        Collections.sort(tables);
+        return tables;
+    }
+
+    /**
+     * 取消正在进行的导出（在写完当前块后停止，已写出的文件会被删除）；取消后该实例不能再用于导出
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * 导出一张表到文件（读写数据库和文件，应在后台线程调用）
+     * @return 导出的行数
+     */
+    public long exportTable(String tableName, File target, ExportFormat format, ExportProgressListener listener)
+            throws SQLException, IOException {
+        boolean done = false;
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(target))) {
+            long rows = exportTo(0, tableName, out, format, listener);
+            done = true;
+            return rows;
+        } finally {
+            if (!done) deleteQuietly(target);
+        }
+    }
+
+    /**
+     * ZIP导出的线程数（即同时占用的连接数）= min(parallelism, 表数, 连接池最大连接数)
+     */
+    public static int zipThreads(int tableCount, int parallelism) {
+        return Math.max(1, Math.min(parallelism, Math.min(tableCount, DBUtil.getPoolMaxSize())));
+    }
+
+    /**
+     * 并行导出多张表，打包为一个ZIP（每张表一个文件，文件名为"表名.扩展名"）
+     * 并行度见zipThreads，调用方在DbTaskScheduler上提交时应按此占用许可；任意一张表失败则整个导出失败，不生成ZIP
+     * @return 导出的总行数
+     */
+    public long exportToZip(List<String> tableNames, File zipFile, ExportFormat format, int parallelism,
+                            ExportProgressListener listener) throws Exception {
+        List<String> tables = new ArrayList<>(new LinkedHashSet<>(tableNames));
+        if (tables.isEmpty()) {
+            throw new IllegalArgumentException("没有要导出的表！");
+        }
+        int threads = zipThreads(tables.size(), parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "export-table-" + THREAD_SEQ.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.currentTimeMillis();
+        List<File> parts = new ArrayList<>();
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < tables.size(); i++) {
+                int index = i;
+                File part = File.createTempFile("export-", format.getExtension());
+                parts.add(part);
+                futures.add(executor.submit(() -> {
+                    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(part))) {
+                        return exportTo(index, tables.get(index), out, format, listener);
+                    }
+                }));
+            }
+            long total = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    total += future.get();
+                } catch (ExecutionException e) {
+                    // 一张表失败后不再等其余的表
+                    cancel();
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+            writeZip(zipFile, tables, parts, format);
+            LOG.info("导出完成：{}张表，{}行 → {}，并行度{}，耗时{}ms", tables.size(), total, zipFile, threads,
+                    System.currentTimeMillis() - start);
+            return total;
+        } finally {
+            executor.shutdownNow();
+            // 失败时其余的表在写完当前块后停止，等它们关闭临时文件再删除
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            for (File part : parts) {
+                deleteQuietly(part);
+            }
+        }
+    }
+
+    /**
+     * 各表的临时文件依次写入ZIP；xlsx本身已经压缩，只存储不再压缩
+     */
+    private void writeZip(File zipFile, List<String> tables, List<File> parts, ExportFormat format) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        boolean done = false;
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)), StandardCharsets.UTF_8)) {
+            zip.setLevel(format == ExportFormat.XLSX ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+            for (int i = 0; i < tables.size(); i++) {
+                zip.putNextEntry(new ZipEntry(tables.get(i) + format.getExtension()));
+                try (InputStream in = new FileInputStream(parts.get(i))) {
+                    int n;
+                    while ((n = in.read(buffer)) > 0) {
+                        zip.write(buffer, 0, n);
+                    }
+                }
+                zip.closeEntry();
+            }
+            done = true;
+        } finally {
+            if (!done) deleteQuietly(zipFile);
+        }
+    }
+
+    /**
+     * 导出一张表到输出流（不关闭输出流）：先取行数供显示进度，再用流式游标逐块写出
+     */
+    private long exportTo(int index, String tableName, OutputStream out, ExportFormat format, ExportProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Connection conn = DBUtil.getConnection()) {
+            // 流式读取期间该连接不能执行其他语句，行数要先查
+            long totalRows = countRows(conn, tableName);
+            if (listener != null) listener.onTableStarted(index, tableName, totalRows);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                DBUtil.applyStreaming(stmt);
+                try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + DBUtil.getDialect().quoteIdentifier(tableName))) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    List<Integer> columns = new ArrayList<>();
+                    List<String> headers = new ArrayList<>();
+                    for (int c = 1; c <= meta.getColumnCount(); c++) {
+                        String label = meta.getColumnLabel(c);
+                        if (("id".equalsIgnoreCase(label) && meta.isAutoIncrement(c))
+                                || ImportDao.ROW_HASH_COLUMN.equalsIgnoreCase(label)) continue;
+                        columns.add(c);
+                        headers.add(label);
+                    }
+                    int chunkSize = DbConfig.get().getChunkSize();
+                    List<Object[]> chunk = new ArrayList<>(Math.min(chunkSize, 10_000));
+                    try (RowSink sink = format == ExportFormat.XLSX ? new ExcelSink(out, headers, tableName) : new CsvSink(out, headers)) {
+                        while (rs.next()) {
+                            Object[] row = new Object[columns.size()];
+                            for (int i = 0; i < row.length; i++) {
+                                row[i] = rs.getObject(columns.get(i));
+                            }
+                            chunk.add(row);
+                            if (chunk.size() >= chunkSize) {
+                                rows += writeChunk(sink, chunk);
+                                if (listener != null) listener.onTableProgress(index, tableName, rows);
+                            }
+                        }
+                        if (!chunk.isEmpty()) {
+                            rows += writeChunk(sink, chunk);
+                            if (listener != null) listener.onTableProgress(index, tableName, rows);
+                        }
+                    }
+                }
+            }
+            EXPORT_TIMER.stop(start);
+            LOG.info("表{}导出完成：{}行，格式{}，耗时{}ms", tableName, rows, format, (System.nanoTime() - start) / 1_000_000);
+            if (listener != null) listener.onTableFinished(index, tableName, rows, null);
+            return rows;
+        } catch (SQLException | IOException | RuntimeException e) {
+            LOG.warn("表{}导出失败（已导出{}行）：{}", tableName, rows, e.getMessage());
+            if (listener != null) listener.onTableFinished(index, tableName, rows, e);
+            throw e;
+        }
+    }
+
+    private int writeChunk(RowSink sink, List<Object[]> chunk) throws IOException {
+        if (cancelled.get()) {
+            throw new IOException("导出已取消");
+        }
+        int size = chunk.size();
+        sink.write(chunk);
+        chunk.clear();
+        ROWS.add(size);
+        return size;
+    }
+
+    private static long countRows(Connection conn, String tableName) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + DBUtil.getDialect().quoteIdentifier(tableName))) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("临时文件删除失败：{}", file);
+        }
+    }
+
+    /**
+     * 导出文件的写入端：逐块写出，close时写完文件尾（不关闭底层输出流）
+     */
+    private interface RowSink extends AutoCloseable {
+        void write(List<Object[]> rows) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * CSV：UTF-8带BOM，第一行为表头
+     */
+    private static class CsvSink implements RowSink {
+        private final Writer writer;
+        private final CsvRowWriter csv;
+
+        CsvSink(OutputStream out, List<String> headers) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            this.csv = CsvRowWriter.forExport(writer, headers.size());
+            writer.write(BOM);
+            csv.writeHeader(headers.toArray());
+        }
+
+        @Override
+        public void write(List<Object[]> rows) throws IOException {
+            csv.writeRows(new BatchInserter.RowSource() {
+                @Override
+                public int rowCount() {
+                    return rows.size();
+                }
+
+                @Override
+                public Object value(int row, int col) {
+                    return rows.get(row)[col];
+                }
+            });
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Excel：工作表名为表名，超过MAX_SHEET_ROWS行时续写到"表名_2"、"表名_3"……
+     */
+    private static class ExcelSink implements RowSink {
+        private final ExcelWriter writer;
+        private final List<List<String>> head = new ArrayList<>();
+        private final String sheetName;
+        private WriteSheet sheet;
+        private int sheetCount;
+        private int sheetRows;
+
+        ExcelSink(OutputStream out, List<String> headers, String sheetName) {
+            for (String header : headers) {
+                head.add(Collections.singletonList(header));
+            }
+            this.sheetName = sheetName;
+            this.writer = EasyExcel.write(out).head(head).autoCloseStream(false).build();
+            nextSheet();
+        }
+
+        private void nextSheet() {
+            sheetCount++;
+            String suffix = sheetCount == 1 ? "" : "_" + sheetCount;
+            String name = sheetName.length() + suffix.length() > MAX_SHEET_NAME
+                    ? sheetName.substring(0, MAX_SHEET_NAME - suffix.length()) + suffix : sheetName + suffix;
+            sheet = EasyExcel.writerSheet(sheetCount - 1, name).build();
+            sheetRows = 0;
+        }
+
+        @Override
+        public void write(List<Object[]> rows) {
+            int from = 0;
+            while (from < rows.size()) {
+                if (sheetRows == MAX_SHEET_ROWS) nextSheet();
+                int to = Math.min(rows.size(), from + MAX_SHEET_ROWS - sheetRows);
+                List<List<Object>> data = new ArrayList<>(to - from);
+                for (int r = from; r < to; r++) {
+                    Object[] row = rows.get(r);
+                    List<Object> cells = new ArrayList<>(row.length);
+                    for (Object value : row) {
+                        cells.add(cellValue(value));
+                    }
+                    data.add(cells);
+                }
+                writer.write(data, sheet);
+                sheetRows += to - from;
+                from = to;
+            }
+        }
+
+        /**
+         * 数字、文本、布尔、日期按原类型写入单元格，其他类型按文本写入
+         */
+        private static Object cellValue(Object value) {
+            if (value == null || value instanceof Number || value instanceof String || value instanceof Boolean
+                    || value instanceof Date || value instanceof LocalDate || value instanceof LocalDateTime) {
+                return value;
+            }
+            return value.toString();
+        }
+
+        @Override
+        public void close() {
+            writer.finish();
+        }
+    }
+}
\ No newline at end of file
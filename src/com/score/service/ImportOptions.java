@@ -0,0 +1,122 @@
+package com.score.service;
+
+import com.score.util.DbConfig;
+import com.score.util.InsertMode;
+import com.score.util.MismatchPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 导入参数：分块大小、写入线程数、队列容量、提交方式、插入方式、是否优先LOAD DATA批量加载
+ * 多工作表导入另有：工作表写入目标、并行导入的工作表数
+ * 类型检查：值与目标表列类型不符时的处理方式；导入时新建的表是否按样本推断列类型
+ * 索引：导入完成后建二级索引的关键列
+ * 增量导入：按键列（如学号+科目）插入或更新，只写入新增和内容有变化的行
+ */
+public class ImportOptions {
+    /**
+     * 提交方式
+     * ALL_OR_NOTHING：全部成功才提交，任意一块失败则全部回滚（只用一个写入线程，workerCount不生效）
+     * PER_CHUNK：每块单独提交，失败的块回滚并记录，其余块照常写入
+     */
+    public enum CommitMode {
+        ALL_OR_NOTHING,
+        PER_CHUNK
+    }
+
+    private int chunkSize = DbConfig.get().getChunkSize();
+    private int workerCount = 2;
+    private int queueCapacity = 4;
+    private CommitMode commitMode = CommitMode.PER_CHUNK;
+    /**
+     * 多工作表导入的写入目标
+     * PER_SHEET_TABLE：每个工作表写入"表名_工作表名"，按各自表头建表
+     * SHARED_TABLE：全部写入同一张表，额外的sheet_name列记录来源工作表（各工作表列名须相同，否则导入前报错）
+     */
+    public enum SheetTarget {
+        PER_SHEET_TABLE,
+        SHARED_TABLE
+    }
+
+    private InsertMode insertMode = InsertMode.MULTI_ROW_VALUES;
+    private boolean bulkLoad = false;
+    private SheetTarget sheetTarget = SheetTarget.PER_SHEET_TABLE;
+    private int sheetParallelism = Runtime.getRuntime().availableProcessors();
+    private MismatchPolicy mismatchPolicy = MismatchPolicy.REJECT;
+    private boolean inferTypes = false;
+    private List<String> keyColumns = Collections.emptyList();
+    private List<String> upsertKeys = Collections.emptyList();
+
+    public ImportOptions() {}
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("每批行数必须大于0！");
+        this.chunkSize = chunkSize;
+    }
+    public int getWorkerCount() { return workerCount; }
+    public void setWorkerCount(int workerCount) {
+        if (workerCount <= 0) throw new IllegalArgumentException("写入线程数必须大于0！");
+        this.workerCount = workerCount;
+    }
+    // 队列中最多堆积的块数：写库跟不上时解析线程阻塞等待（背压），内存上限约为(队列容量+线程数)×每批行数
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) throw new IllegalArgumentException("队列容量必须大于0！");
+        this.queueCapacity = queueCapacity;
+    }
+    public CommitMode getCommitMode() { return commitMode; }
+    public void setCommitMode(CommitMode commitMode) {
+        if (commitMode == null) throw new IllegalArgumentException("提交方式不能为空！");
+        this.commitMode = commitMode;
+    }
+    public InsertMode getInsertMode() { return insertMode; }
+    public void setInsertMode(InsertMode insertMode) {
+        if (insertMode == null) throw new IllegalArgumentException("插入方式不能为空！");
+        this.insertMode = insertMode;
+    }
+    // true=先尝试LOAD DATA LOCAL INFILE（服务器不支持时自动回退到insertMode批量插入）
+    public boolean isBulkLoad() { return bulkLoad; }
+    public void setBulkLoad(boolean bulkLoad) { this.bulkLoad = bulkLoad; }
+    public SheetTarget getSheetTarget() { return sheetTarget; }
+    public void setSheetTarget(SheetTarget sheetTarget) {
+        if (sheetTarget == null) throw new IllegalArgumentException("工作表写入目标不能为空！");
+        this.sheetTarget = sheetTarget;
+    }
+    // 同时导入的工作表数（默认CPU核数，实际还受工作表数和连接池大小限制）
+    public int getSheetParallelism() { return sheetParallelism; }
+    public void setSheetParallelism(int sheetParallelism) {
+        if (sheetParallelism <= 0) throw new IllegalArgumentException("并行工作表数必须大于0！");
+        this.sheetParallelism = sheetParallelism;
+    }
+    public MismatchPolicy getMismatchPolicy() { return mismatchPolicy; }
+    public void setMismatchPolicy(MismatchPolicy mismatchPolicy) {
+        if (mismatchPolicy == null) throw new IllegalArgumentException("类型不符处理方式不能为空！");
+        this.mismatchPolicy = mismatchPolicy;
+    }
+    // true=导入过程中新建的表（如多工作表单独建表）按第一块数据推断列类型，否则全部VARCHAR(255)
+    public boolean isInferTypes() { return inferTypes; }
+    public void setInferTypes(boolean inferTypes) { this.inferTypes = inferTypes; }
+    // 关键列（如学号、科目）：数据全部写入后再逐列建二级索引，导入过程中不维护这些索引
+    public List<String> getKeyColumns() { return keyColumns; }
+    public void setKeyColumns(List<String> keyColumns) {
+        this.keyColumns = keyColumns == null ? Collections.emptyList() : new ArrayList<>(keyColumns);
+    }
+    // 增量导入的键列：非空时单表导入改为"插入或更新"，按行内容摘要跳过未变化的行（为空=追加导入）
+    public boolean isIncremental() { return !upsertKeys.isEmpty(); }
+    public List<String> getUpsertKeys() { return upsertKeys; }
+    public void setUpsertKeys(List<String> upsertKeys) {
+        this.upsertKeys = upsertKeys == null ? Collections.emptyList() : new ArrayList<>(upsertKeys);
+    }
+
+    // 单表导入最多同时占用的连接数：写入连接（增量导入和ALL_OR_NOTHING只用1个，否则workerCount个）+ 建表/建索引的控制连接
+    public int getConnectionCount() {
+        boolean singleWriter = isIncremental() || commitMode == CommitMode.ALL_OR_NOTHING;
+        return (singleWriter ? 1 : workerCount) + 1;
+    }
+    // 多工作表导入最多同时占用的连接数：每个并行导入的工作表一个写入连接 + 建表/建索引的控制连接
+    public int getWorkbookConnectionCount() {
+        return sheetParallelism + 1;
+    }
+}
\ No newline at end of file
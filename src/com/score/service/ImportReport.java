@@ -0,0 +1,281 @@
+package com.score.service;
+
+import com.score.util.BatchInserter;
+import com.score.util.TableVersions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 导入结果报告：记录流式导入的行数、分块数、耗时和错误
+ * 流水线导入时由多个写入线程同时更新，所有修改方法均已同步
+ */
+public class ImportReport {
+    private final String tableName;
+    private long totalRows;
+    // 已写入但尚未提交的行数（ALL_OR_NOTHING模式，最终提交后计入totalRows）
+    private long pendingRows;
+    private int chunkCount;
+    private long elapsedMillis;
+    // 单块写入数据库的最大耗时（毫秒）
+    private long peakChunkMillis;
+    // 错误信息（按出错块的起始行号排序输出）
+    private final List<ErrorEntry> errors = new ArrayList<>();
+    // 类型不符：被修正的值个数（COERCE）、被隔离的行数（QUARANTINE）
+    private long coercedValues;
+    private long quarantinedRows;
+    // 导入后创建的索引及总耗时
+    private final List<String> builtIndexes = new ArrayList<>();
+    private long indexBuildMillis;
+    // 写入方式说明（如"LOAD DATA批量加载"、回退原因），为空时不输出
+    private String writeMethod;
+    // 断点续传：上次已提交、本次跳过的行数（不计入totalRows）
+    private long resumedFromRow;
+    // 增量导入：新增、更新、内容未变化（跳过）的行数，文件内重复的键（以最后一行为准）
+    private boolean incremental;
+    private long insertedRows;
+    private long updatedRows;
+    private long unchangedRows;
+    private long duplicateKeys;
+    // 成绩统计（目标表有统计时非null，见ScoreAnalytics）：版本号在导入开始时记下；未提交块的增量暂存到整体提交
+    private final ScoreAnalytics scoreAnalytics;
+    private final long scoreGeneration;
+    private ScoreAnalytics.Delta pendingScores;
+
+    public ImportReport(String tableName) {
+        this.tableName = tableName;
+        this.scoreAnalytics = ScoreAnalytics.forTable(tableName);
+        this.scoreGeneration = scoreAnalytics == null ? 0 : scoreAnalytics.generation();
+    }
+
+    /**
+     * 记录一块数据的写入结果
+     * @param rows 本块行数
+     * @param chunkMillis 本块写入耗时（毫秒）
+     */
+    public void recordChunk(int rows, long chunkMillis) {
+        recordChunk(rows, chunkMillis, false);
+    }
+
+    /**
+     * 记录一块数据的写入结果
+     * @param pending true=已写入但事务未提交（提交后调用commitPending）
+     */
+    public synchronized void recordChunk(int rows, long chunkMillis, boolean pending) {
+        if (pending) {
+            pendingRows += rows;
+        } else {
+            totalRows += rows;
+            TableVersions.bump(tableName);
+        }
+        chunkCount++;
+        peakChunkMillis = Math.max(peakChunkMillis, chunkMillis);
+    }
+
+    /**
+     * 整体提交成功：未提交行计入导入行数
+     */
+    public synchronized void commitPending() {
+        totalRows += pendingRows;
+        pendingRows = 0;
+        TableVersions.bump(tableName);
+        if (pendingScores != null) {
+            scoreAnalytics.apply(pendingScores);
+            pendingScores = null;
+        }
+    }
+
+    /**
+     * 把写入成功的一块数据计入成绩统计（目标表没有统计或统计尚未建立时忽略）
+     * @param headers 列名（按列名找学号/科目/成绩/班级）
+     * @param pending true=事务未提交，整体提交（commitPending）后才计入
+     */
+    public void recordRows(List<String> headers, BatchInserter.RowSource rows, boolean pending) {
+        if (scoreAnalytics == null || !scoreAnalytics.isLoaded()) return;
+        ScoreAnalytics.Delta delta = scoreAnalytics.newDelta(scoreGeneration);
+        delta.add(headers, rows);
+        if (!pending) {
+            scoreAnalytics.apply(delta);
+            return;
+        }
+        synchronized (this) {
+            if (pendingScores == null) {
+                pendingScores = delta;
+            } else {
+                pendingScores.merge(delta);
+            }
+        }
+    }
+
+    /**
+     * 记录一块数据中类型不符的处理结果
+     */
+    public synchronized void recordSchemaIssues(int coerced, int quarantined) {
+        coercedValues += coerced;
+        quarantinedRows += quarantined;
+    }
+
+    /**
+     * 记录一块增量导入的结果（写入的行数另由recordChunk记录）
+     */
+    public synchronized void recordUpsert(int inserted, int updated, int unchanged, int duplicates) {
+        incremental = true;
+        insertedRows += inserted;
+        updatedRows += updated;
+        unchangedRows += unchanged;
+        duplicateKeys += duplicates;
+    }
+
+    public synchronized long getInsertedRows() {
+        return insertedRows;
+    }
+
+    public synchronized long getUpdatedRows() {
+        return updatedRows;
+    }
+
+    public synchronized long getUnchangedRows() {
+        return unchangedRows;
+    }
+
+    /**
+     * 记录导入后建好的一个索引
+     */
+    public synchronized void recordIndexBuild(String indexName, long millis) {
+        builtIndexes.add(indexName);
+        indexBuildMillis += millis;
+    }
+
+    public synchronized List<String> getBuiltIndexes() {
+        return new ArrayList<>(builtIndexes);
+    }
+
+    public synchronized long getIndexBuildMillis() {
+        return indexBuildMillis;
+    }
+
+    public synchronized long getCoercedValues() {
+        return coercedValues;
+    }
+
+    public synchronized long getQuarantinedRows() {
+        return quarantinedRows;
+    }
+
+    /**
+     * 记录错误
+     * @param firstRow 出错块的起始行号（用于排序）
+     */
+    public synchronized void addError(long firstRow, String message) {
+        errors.add(new ErrorEntry(firstRow, message));
+    }
+
+    public synchronized boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+
+    /**
+     * 按行号顺序返回错误信息
+     */
+    public synchronized List<String> getErrors() {
+        List<ErrorEntry> sorted = new ArrayList<>(errors);
+        sorted.sort(Comparator.comparingLong(e -> e.firstRow));
+        List<String> messages = new ArrayList<>();
+        for (ErrorEntry entry : sorted) {
+            messages.add(entry.message);
+        }
+        return messages;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public void setWriteMethod(String writeMethod) {
+        this.writeMethod = writeMethod;
+    }
+
+    public void setResumedFromRow(long resumedFromRow) {
+        this.resumedFromRow = resumedFromRow;
+    }
+
+    public long getResumedFromRow() {
+        return resumedFromRow;
+    }
+
+    public String getWriteMethod() {
+        return writeMethod;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public synchronized long getTotalRows() {
+        return totalRows;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getPeakChunkMillis() {
+        return peakChunkMillis;
+    }
+
+    /**
+     * 导入速度（行/秒），耗时为0时按1毫秒计算
+     */
+    public synchronized double getRowsPerSecond() {
+        return totalRows * 1000.0 / Math.max(1, elapsedMillis);
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder(String.format("表名：%s\n导入行数：%d\n分块数：%d\n总耗时：%d ms\n导入速度：%.0f 行/秒\n单块最大耗时：%d ms",
+                tableName, totalRows, chunkCount, elapsedMillis, getRowsPerSecond(), peakChunkMillis));
+        if (incremental) {
+            sb.append("\n增量导入：新增 ").append(insertedRows).append(" 行，更新 ").append(updatedRows)
+                    .append(" 行，未变化 ").append(unchangedRows).append(" 行");
+            if (duplicateKeys > 0) {
+                sb.append("\n文件内重复的键：").append(duplicateKeys).append(" 处（以最后一行为准）");
+            }
+        }
+        if (coercedValues > 0) {
+            sb.append("\n已修正类型不符的值：").append(coercedValues).append(" 个");
+        }
+        if (quarantinedRows > 0) {
+            sb.append("\n已隔离类型不符的行：").append(quarantinedRows).append(" 行（见").append(tableName).append("_quarantine表）");
+        }
+        if (!builtIndexes.isEmpty()) {
+            sb.append("\n已建索引：").append(String.join("、", builtIndexes)).append("（耗时 ").append(indexBuildMillis).append(" ms）");
+        }
+        if (resumedFromRow > 0) {
+            sb.append("\n断点续传：跳过上次已提交的前 ").append(resumedFromRow).append(" 行");
+        }
+        if (writeMethod != null) {
+            sb.append("\n写入方式：").append(writeMethod);
+        }
+        if (!errors.isEmpty()) {
+            sb.append("\n失败：").append(errors.size()).append(" 处");
+            for (String message : getErrors()) {
+                sb.append("\n  ").append(message);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static class ErrorEntry {
+        private final long firstRow;
+        private final String message;
+
+        ErrorEntry(long firstRow, String message) {
+            this.firstRow = firstRow;
+            this.message = message;
+        }
+    }
+}
\ No newline at end of file
@@ -2,22 +2,45 @@ package com.score.service;
 
 import com.alibaba.excel.EasyExcel;
 import com.score.dao.ImportDao;
+import com.score.dao.ImportJob;
+import com.score.dao.ImportJobDao;
+import com.score.dao.IndexManager;
+import com.score.util.BatchInserter;
+import com.score.util.ColumnType;
+import com.score.util.ColumnTypeInferrer;
+import com.score.util.DbConfig;
 import com.score.util.ExcelDataListener;
+import com.score.util.InsertMode;
+import com.score.util.TableVersions;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 public class ImportService {
+    // 推断列类型默认抽样行数
+    public static final int DEFAULT_SAMPLE_ROWS = 1000;
+
     private final ImportDao importDao = new ImportDao();
+    private final IndexManager indexManager = new IndexManager();
+    private final ImportJobDao importJobDao = new ImportJobDao();
 
     /**
      * 步骤1：创建数据库表单
      */
     public void createFormTable(String tableName, List<String> headers) {
+        createFormTable(tableName, headers, null);
+    }
+
+    /**
+     * 步骤1：创建数据库表单（指定列类型，types为null时全部VARCHAR(255)）
+     */
+    public void createFormTable(String tableName, List<String> headers, List<ColumnType> types) {
         if (tableName == null || tableName.trim().isEmpty()) {
             throw new IllegalArgumentException("表单名称不能为空！");
         }
@@ -26,33 +49,50 @@ public class ImportService {
         }
 
         try {
-            importDao.createTable(tableName, headers);
+            importDao.createTable(tableName, headers, types);
         } catch (Exception e) {
             throw new RuntimeException("创建表失败：" + e.getMessage());
         }
     }
 
     /**
-     * 步骤2：导入Excel数据
+     * 抽样推断列类型：读取Excel第一个工作表的前sampleRows行，为每列选出INT/BIGINT/DECIMAL/DATE/VARCHAR(n)/TEXT
+     * @return 表头 → 推断出的类型（按Excel列顺序），可直接用于createFormTable
      */
-    public void importExcelData(File file, String tableName, Set<String> requiredHeaders) {
+    public LinkedHashMap<String, ColumnType> inferColumnTypes(File file, int sampleRows) {
         if (file == null || !file.exists()) {
             throw new RuntimeException("Excel文件不存在！");
         }
-        if (tableName == null || tableName.trim().isEmpty()) {
-            throw new RuntimeException("目标表名不能为空！");
-        }
-        if (requiredHeaders == null || requiredHeaders.isEmpty()) {
-            throw new RuntimeException("必填表头不能为空！");
-        }
-
         try (InputStream inputStream = new FileInputStream(file)) {
-            // 校验文件格式
-            String fileName = file.getName().toLowerCase();
-            if (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls")) {
-                throw new RuntimeException("请选择Excel文件（.xlsx/.xls）！");
+            ExcelDataListener<Map<Integer, String>> listener = new ExcelDataListener<>(null);
+            listener.setRowLimit(sampleRows > 0 ? sampleRows : DEFAULT_SAMPLE_ROWS);
+            EasyExcel.read(inputStream, listener)
+                    .sheet()
+                    .headRowNumber(1)
+                    .doRead();
+
+            List<String> headers = listener.getActualHeaders();
+            if (headers == null || headers.isEmpty()) {
+                throw new RuntimeException("未读取到表头！");
+            }
+            List<ColumnType> types = ColumnTypeInferrer.infer(BatchInserter.ofMaps(listener.getDataList()), headers.size());
+            LinkedHashMap<String, ColumnType> result = new LinkedHashMap<>();
+            for (int i = 0; i < headers.size(); i++) {
+                result.put(headers.get(i), types.get(i));
             }
+            return result;
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 步骤2：导入Excel数据
+     */
+    public void importExcelData(File file, String tableName, Set<String> requiredHeaders) {
+        checkImportArgs(file, tableName, requiredHeaders);
 
+        try (InputStream inputStream = new FileInputStream(file)) {
             // 解析Excel+校验表头
             ExcelDataListener<Map<Integer, String>> listener = new ExcelDataListener<>(requiredHeaders);
             EasyExcel.read(inputStream, listener)
@@ -65,11 +105,324 @@ public class ImportService {
             }
 
             // 批量插入数据
+            ScoreAnalytics analytics = ScoreAnalytics.forTable(tableName);
+            ScoreAnalytics.Delta delta = analytics == null ? null : analytics.newDelta();
             importDao.batchInsert(tableName, listener.getActualHeaders(), listener.getDataList());
+            TableVersions.bump(tableName);
+            if (delta != null && analytics.isLoaded()) {
+                delta.add(listener.getActualHeaders(), BatchInserter.ofMaps(listener.getDataList()));
+                analytics.apply(delta);
+            }
         } catch (IOException e) {
             throw new RuntimeException("读取文件失败：" + e.getMessage());
         } catch (Exception e) {
             throw new RuntimeException("导入失败：" + e.getMessage());
         }
     }
+
+    /**
+     * 步骤2（流式模式）：边解析边分块写入数据库，堆内存只保留一块数据，与文件大小无关
+     * 注意：每块单独提交事务，中途失败时已提交的块不会回滚
+     * @param chunkSize 每块行数（<=0时使用配置项batch.chunkSize）
+     * @return 导入报告（行数、速度、单块最大耗时）
+     */
+    public ImportReport importExcelDataStreaming(File file, String tableName, Set<String> requiredHeaders, int chunkSize) {
+        checkImportArgs(file, tableName, requiredHeaders);
+        int size = chunkSize > 0 ? chunkSize : DbConfig.get().getChunkSize();
+        ImportReport report = new ImportReport(tableName);
+        long start = System.currentTimeMillis();
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            ExcelDataListener<Map<Integer, String>> listener = ExcelDataListener.columnar(requiredHeaders, size, (headers, chunk) -> {
+                long chunkStart = System.currentTimeMillis();
+                importDao.batchInsert(tableName, headers, chunk, InsertMode.MULTI_ROW_VALUES);
+                report.recordChunk(chunk.rowCount(), System.currentTimeMillis() - chunkStart);
+                report.recordRows(headers, chunk, false);
+            });
+            EasyExcel.read(inputStream, listener)
+                    .sheet()
+                    .headRowNumber(1)
+                    .doRead();
+
+            if (!listener.isHeaderValid()) {
+                throw new RuntimeException("表头缺失！需要包含：" + requiredHeaders);
+            }
+            if (report.getTotalRows() == 0) {
+                throw new RuntimeException("无有效数据！");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("导入失败（已提交" + report.getTotalRows() + "行）：" + e.getMessage());
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * 步骤2（流水线模式）：解析线程与写库线程并行，适合大文件
+     * 解析出的块放入有界队列，options.workerCount个写入线程各用一个连接并发批量写入（插入方式见options.insertMode）
+     * 提交方式：ALL_OR_NOTHING只用一个写入连接，全部成功才在一个事务中提交；PER_CHUNK逐块提交，失败块记录在报告中
+     * options.bulkLoad=true时先尝试LOAD DATA LOCAL INFILE，服务器未开启local_infile则回退到上述流水线写入
+     * 数据全部写入后再为options.keyColumns建二级索引，耗时计入报告
+     * options.upsertKeys非空时改为增量导入（见importExcelDataIncremental）
+     * @return 导入报告（含按行号排序的错误信息）
+     */
+    public ImportReport importExcelData(File file, String tableName, Set<String> requiredHeaders, ImportOptions options) {
+        checkImportArgs(file, tableName, requiredHeaders);
+        if (options.isIncremental()) {
+            return importExcelDataIncremental(file, tableName, requiredHeaders, options);
+        }
+        ImportReport report = new ImportReport(tableName);
+        long start = System.currentTimeMillis();
+
+        if (options.isBulkLoad()) {
+            ImportReport bulkReport = tryBulkLoad(file, tableName, requiredHeaders, options, start);
+            if (bulkReport != null) {
+                return bulkReport;
+            }
+            report.setWriteMethod(options.getInsertMode().getLabel() + "（服务器不支持LOAD DATA LOCAL INFILE，已回退）");
+        }
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            PipelinedImporter importer = new PipelinedImporter(importDao, tableName, options, report);
+            ExcelDataListener<Map<Integer, String>> listener = importer.run(inputStream, requiredHeaders);
+
+            if (!listener.isHeaderValid()) {
+                throw new RuntimeException("表头缺失！需要包含：" + requiredHeaders);
+            }
+            if (listener.getTotalRows() == 0) {
+                throw new RuntimeException("无有效数据！");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("导入失败（已提交" + report.getTotalRows() + "行）：" + e.getMessage());
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        if (report.hasErrors() && options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING) {
+            throw new RuntimeException("导入失败，已全部回滚：" + report.getErrors().get(0));
+        }
+        buildKeyIndexes(tableName, options.getKeyColumns(), report);
+        return report;
+    }
+
+    /**
+     * 增量导入：按options.upsertKeys（如学号+科目）与表中已有数据比对，只插入新键、更新内容有变化的行，未变化的行不写库
+     * 首次增量导入时给表加row_hash列并在键列上建唯一索引（已有重复键时失败）
+     * 单连接顺序写入，写入线程数和批量加载不生效
+     * @return 导入报告（含新增/更新/未变化行数）
+     */
+    private ImportReport importExcelDataIncremental(File file, String tableName, Set<String> requiredHeaders, ImportOptions options) {
+        ImportReport report = new ImportReport(tableName);
+        report.setWriteMethod(options.getInsertMode().getLabel() + "（按" + String.join("+", options.getUpsertKeys()) + "插入或更新）");
+        long start = System.currentTimeMillis();
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            ExcelDataListener<Map<Integer, String>> listener;
+            try {
+                listener = new IncrementalImporter(importDao, tableName, options, report).run(inputStream, requiredHeaders);
+            } finally {
+                ScoreAnalytics.tableChanged(tableName); // 更新的行不知道旧值，统计整体过期
+            }
+            if (!listener.isHeaderValid()) {
+                throw new RuntimeException("表头缺失！需要包含：" + requiredHeaders);
+            }
+            if (listener.getTotalRows() == 0) {
+                throw new RuntimeException("无有效数据！");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("导入失败（已提交" + report.getTotalRows() + "行）：" + e.getMessage());
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        buildKeyIndexes(tableName, options.getKeyColumns(), report);
+        return report;
+    }
+
+    /**
+     * 查找该文件（按内容识别）导入到tableName时中断的任务
+     * @return 可续传的任务（getLastRow()为已提交行数）；没有时返回null
+     */
+    public ImportJob findResumableJob(File file, String tableName) {
+        if (file == null || !file.exists()) {
+            throw new RuntimeException("Excel文件不存在！");
+        }
+        try {
+            return importJobDao.findResumable(ResumableImporter.fileHash(file), ResumableImporter.firstSheetName(file), tableName);
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (SQLException e) {
+            throw new RuntimeException("查询导入任务失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 步骤2（断点续传模式）：每块数据与检查点（import_jobs表）在同一事务中提交，中途失败后可从最后一个检查点继续
+     * 固定单连接逐块提交，options中的提交方式、写入线程数和批量加载不生效
+     * @param resumeFrom findResumableJob返回的任务：非null时跳过已提交的行继续导入；null时从头导入（已有任务的进度清零）
+     * @return 导入报告（续传时注明跳过的行数，导入行数只含本次写入的行）
+     */
+    public ImportReport importExcelDataResumable(File file, String tableName, Set<String> requiredHeaders,
+                                                 ImportOptions options, ImportJob resumeFrom) {
+        checkImportArgs(file, tableName, requiredHeaders);
+        if (options.isIncremental()) {
+            throw new RuntimeException("断点续传导入不支持增量导入键列，请清空键列或使用普通导入！");
+        }
+        ImportReport report = new ImportReport(tableName);
+        report.setWriteMethod(options.getInsertMode().getLabel() + "（逐块提交并记录检查点）");
+        long start = System.currentTimeMillis();
+
+        ImportJob job;
+        try {
+            String fileHash = ResumableImporter.fileHash(file);
+            String sheetName = ResumableImporter.firstSheetName(file);
+            if (resumeFrom != null) {
+                if (!fileHash.equals(resumeFrom.getFileHash()) || !tableName.equals(resumeFrom.getTableName())) {
+                    throw new RuntimeException("文件内容或目标表已变化，无法从断点继续，请重新导入！");
+                }
+                importJobDao.resume(resumeFrom.getId());
+                job = resumeFrom;
+            } else {
+                job = importJobDao.start(file.getName(), fileHash, sheetName, tableName);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (SQLException e) {
+            throw new RuntimeException("创建导入任务失败：" + e.getMessage());
+        }
+        report.setResumedFromRow(job.getLastRow());
+
+        try {
+            ExcelDataListener<Map<Integer, String>> listener = new ResumableImporter(importDao, importJobDao, tableName, options, report)
+                    .run(file, requiredHeaders, job);
+            if (!listener.isHeaderValid()) {
+                throw new RuntimeException("表头缺失！需要包含：" + requiredHeaders);
+            }
+            if (listener.getTotalRows() == 0 && listener.getSkippedRows() == 0) {
+                throw new RuntimeException("无有效数据！");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (Exception e) {
+            long committed = job.getLastRow() + report.getTotalRows();
+            throw new RuntimeException((committed > 0 ? "导入失败（已提交至第" + committed + "行，可从断点继续）：" : "导入失败：")
+                    + e.getMessage());
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        buildKeyIndexes(tableName, options.getKeyColumns(), report);
+        return report;
+    }
+
+    /**
+     * 步骤2（多工作表模式）：导入工作簿中的所有工作表，各工作表在有界线程池中并行解析和写库
+     * options.sheetTarget决定每个工作表单独建表还是合并到一张带sheet_name列的表；提交方式按工作表生效
+     * @param progress 每个工作表的进度回调（可为null）
+     * @return 按工作表顺序的导入报告
+     */
+    public WorkbookImportReport importWorkbook(File file, String tableName, Set<String> requiredHeaders,
+                                               ImportOptions options, SheetProgressListener progress) {
+        checkImportArgs(file, tableName, requiredHeaders);
+        if (options.isIncremental()) {
+            throw new RuntimeException("多工作表导入不支持增量导入键列，请逐个工作表导入！");
+        }
+        try {
+            return new MultiSheetImporter(this, importDao, file, tableName, requiredHeaders, options, progress).run();
+        } catch (Exception e) {
+            throw new RuntimeException("导入失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * LOAD DATA批量加载
+     * @return 导入报告；服务器不支持本地文件加载时返回null（未写入任何数据，可回退）
+     */
+    private ImportReport tryBulkLoad(File file, String tableName, Set<String> requiredHeaders, ImportOptions options, long start) {
+        ImportReport report = new ImportReport(tableName);
+        report.setWriteMethod("LOAD DATA批量加载");
+        try {
+            ExcelDataListener<Map<Integer, String>> listener = new BulkLoadImporter(importDao, tableName, options, report)
+                    .run(file, requiredHeaders);
+            if (listener == null) {
+                return null;
+            }
+            if (!listener.isHeaderValid()) {
+                throw new RuntimeException("表头缺失！需要包含：" + requiredHeaders);
+            }
+            if (listener.getTotalRows() == 0) {
+                throw new RuntimeException("无有效数据！");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取文件失败：" + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException("导入失败（已提交" + report.getTotalRows() + "行）：" + e.getMessage());
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        if (report.hasErrors() && options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING) {
+            throw new RuntimeException("导入失败，已全部回滚：" + report.getErrors().get(0));
+        }
+        buildKeyIndexes(tableName, options.getKeyColumns(), report);
+        return report;
+    }
+
+    /**
+     * 导入完成后为关键列建二级索引（失败只记入报告，已导入的数据不受影响）
+     */
+    void buildKeyIndexes(String tableName, List<String> keyColumns, ImportReport report) {
+        if (keyColumns.isEmpty()) return;
+        try {
+            for (IndexManager.IndexBuild build : indexManager.createIndexes(tableName, keyColumns)) {
+                report.recordIndexBuild(build.getIndexName(), build.getMillis());
+            }
+        } catch (SQLException e) {
+            report.addError(Long.MAX_VALUE, "建索引失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 索引建议：根据应用记录到的查询模式和常用成绩查询列，列出该表值得建的索引
+     */
+    public List<IndexManager.IndexSuggestion> suggestIndexes(String tableName) {
+        try {
+            return indexManager.suggestIndexes(tableName);
+        } catch (SQLException e) {
+            throw new RuntimeException("生成索引建议失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 按建议建索引
+     */
+    public IndexManager.IndexBuild createIndex(String tableName, IndexManager.IndexSuggestion suggestion) {
+        try {
+            return indexManager.createIndex(tableName, suggestion);
+        } catch (SQLException e) {
+            throw new RuntimeException("创建索引失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 导入参数校验（文件存在、格式、表名、必填表头）
+     */
+    private void checkImportArgs(File file, String tableName, Set<String> requiredHeaders) {
+        if (file == null || !file.exists()) {
+            throw new RuntimeException("Excel文件不存在！");
+        }
+        if (tableName == null || tableName.trim().isEmpty()) {
+            throw new RuntimeException("目标表名不能为空！");
+        }
+        if (requiredHeaders == null || requiredHeaders.isEmpty()) {
+            throw new RuntimeException("必填表头不能为空！");
+        }
+        String fileName = file.getName().toLowerCase();
+        if (!fileName.endsWith(".xlsx") && !fileName.endsWith(".xls")) {
+            throw new RuntimeException("请选择Excel文件（.xlsx/.xls）！");
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.score.dao.ImportDao;
+import com.score.util.BatchInserter;
+import com.score.util.ColumnarRowBuffer;
+import com.score.util.DBUtil;
+import com.score.util.ExcelDataListener;
+import com.score.util.Log;
+import com.score.util.SchemaEnforcer;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 增量导入：按键列（options.upsertKeys）把Excel与表中已有数据比对，只写入新增和内容有变化的行
+ * 每块数据：类型检查（见SchemaGuard）→ 算每行内容摘要（MD5）→ 按键一次查出已有行的row_hash → 摘要相同的行跳过，其余行用"插入或更新"语句写入
+ * 大部分行未变化时，每块只有一次按唯一索引的查询，几乎没有写入
+ * 单连接顺序写入（同一键的新旧行不会被不同线程交错写入）；提交方式同ImportOptions.CommitMode
+ */
+class IncrementalImporter {
+    private static final Log LOG = Log.get(IncrementalImporter.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ImportDao importDao;
+    private final String tableName;
+    private final ImportOptions options;
+    private final ImportReport report;
+    private final MessageDigest digest;
+    private Connection conn;
+    private SchemaGuard guard;
+    private BatchInserter upserter;
+    // 键列在表头中的位置（与options.upsertKeys顺序一致）
+    private int[] keyIndexes;
+
+    IncrementalImporter(ImportDao importDao, String tableName, ImportOptions options, ImportReport report) {
+        this.importDao = importDao;
+        this.tableName = tableName;
+        this.options = options;
+        this.report = report;
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 执行导入
+     * @return 解析监听器（供调用方检查表头校验结果）
+     */
+    ExcelDataListener<Map<Integer, String>> run(InputStream inputStream, Set<String> requiredHeaders) throws Exception {
+        long[] nextRow = {1};
+        ExcelDataListener<Map<Integer, String>> listener = ExcelDataListener.columnar(requiredHeaders, options.getChunkSize(),
+                (headers, chunk) -> {
+                    write(headers, chunk, nextRow[0]);
+                    nextRow[0] += chunk.rowCount();
+                });
+        try {
+            EasyExcel.read(inputStream, listener)
+                    .sheet()
+                    .headRowNumber(1)
+                    .doRead();
+            if (conn != null && options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING) {
+                conn.commit();
+                report.commitPending();
+            }
+        } catch (Exception e) {
+            rollbackQuietly();
+            throw e;
+        } finally {
+            if (upserter != null) upserter.close();
+            DBUtil.close(conn, (PreparedStatement) null);
+        }
+        return listener;
+    }
+
+    /**
+     * 第一块数据到达时准备表（row_hash列、键列唯一索引）并打开写入连接
+     */
+    private void open(List<String> headers) throws SQLException {
+        List<String> keys = options.getUpsertKeys();
+        keyIndexes = new int[keys.size()];
+        for (int k = 0; k < keys.size(); k++) {
+            keyIndexes[k] = -1;
+            for (int c = 0; c < headers.size(); c++) {
+                if (headers.get(c).equalsIgnoreCase(keys.get(k))) keyIndexes[k] = c;
+            }
+            if (keyIndexes[k] < 0) {
+                throw new IllegalArgumentException("增量导入的键列不在表头中：" + keys.get(k));
+            }
+        }
+        // 加列/建索引会隐式提交，必须在写入连接开始事务之前完成
+        importDao.prepareUpsertTable(tableName, keys);
+
+        Connection newConn = DBUtil.getConnection();
+        try {
+            newConn.setAutoCommit(false);
+        } catch (SQLException e) {
+            DBUtil.close(newConn, (PreparedStatement) null);
+            throw e;
+        }
+        conn = newConn;
+        guard = SchemaGuard.open(importDao, conn, tableName, headers, options.getMismatchPolicy());
+        upserter = importDao.newUpserter(conn, tableName, headers, keys, options.getInsertMode());
+    }
+
+    private void write(List<String> headers, ColumnarRowBuffer chunk, long firstRow) throws SQLException {
+        if (conn == null) {
+            open(headers); // 表准备失败时所有块都无法写入，直接终止导入
+        }
+        long start = System.currentTimeMillis();
+        boolean perChunk = options.getCommitMode() == ImportOptions.CommitMode.PER_CHUNK;
+        try {
+            SchemaEnforcer.Result result = guard.apply(conn, chunk, firstRow);
+            BatchInserter.RowSource rows = result.getAccepted();
+
+            // 文件内同一键（按ImportDao.keyString比较，与数据库一样不区分大小写）出现多次时以最后一行为准；键列为空的行无法比对（唯一索引允许多个NULL），跳过
+            Map<String, Integer> lastRowByKey = new LinkedHashMap<>();
+            List<Object[]> keys = new ArrayList<>();
+            int duplicates = 0;
+            int nullKeys = 0;
+            for (int r = 0; r < rows.rowCount(); r++) {
+                Object[] key = keyOf(rows, r);
+                if (key == null) {
+                    nullKeys++;
+                    continue;
+                }
+                if (lastRowByKey.put(ImportDao.keyString(key), r) == null) {
+                    keys.add(key);
+                } else {
+                    duplicates++;
+                }
+            }
+
+            Map<String, String> stored = importDao.loadRowHashes(conn, tableName, options.getUpsertKeys(), keys);
+            int colCount = headers.size();
+            List<Object[]> changed = new ArrayList<>();
+            int inserted = 0;
+            int updated = 0;
+            int unchanged = 0;
+            for (Map.Entry<String, Integer> entry : lastRowByKey.entrySet()) {
+                int r = entry.getValue();
+                String hash = rowHash(rows, r, colCount);
+                if (!stored.containsKey(entry.getKey())) {
+                    inserted++;
+                } else if (hash.equals(stored.get(entry.getKey()))) {
+                    unchanged++;
+                    continue;
+                } else {
+                    updated++;
+                }
+                Object[] row = new Object[colCount + 1];
+                for (int c = 0; c < colCount; c++) {
+                    row[c] = rows.value(r, c);
+                }
+                row[colCount] = hash;
+                changed.add(row);
+            }
+
+            int written = upserter.insert(BatchInserter.ofArrays(changed));
+            if (perChunk) {
+                conn.commit();
+            }
+            report.recordSchemaIssues(result.getCoercedValues(), result.getMismatches().size());
+            report.recordUpsert(inserted, updated, unchanged, duplicates);
+            report.recordChunk(written, System.currentTimeMillis() - start, !perChunk);
+            if (nullKeys > 0) {
+                report.addError(firstRow, "第" + firstRow + "-" + (firstRow + chunk.rowCount() - 1) + "行中有" + nullKeys + "行键列为空，已跳过");
+            }
+            LOG.debug("增量导入第{}行起：新增{}，更新{}，未变化{}", firstRow, inserted, updated, unchanged);
+        } catch (Exception e) {
+            String message = "第" + firstRow + "-" + (firstRow + chunk.rowCount() - 1) + "行写入失败：" + e.getMessage();
+            if (!perChunk) {
+                throw new RuntimeException(message, e); // 停止解析，由run整体回滚
+            }
+            report.addError(firstRow, message);
+            rollbackQuietly();
+        }
+    }
+
+    /**
+     * 取一行的键列值（任一键列为NULL时返回null）
+     */
+    private Object[] keyOf(BatchInserter.RowSource rows, int r) {
+        Object[] key = new Object[keyIndexes.length];
+        for (int k = 0; k < keyIndexes.length; k++) {
+            key[k] = rows.value(r, keyIndexes[k]);
+            if (key[k] == null) return null;
+        }
+        return key;
+    }
+
+    /**
+     * 行内容摘要：各列转换后的值依次写入MD5（NULL与空字符串区分），32位十六进制
+     */
+    private String rowHash(BatchInserter.RowSource rows, int r, int colCount) {
+        for (int c = 0; c < colCount; c++) {
+            Object value = rows.value(r, c);
+            if (value == null) {
+                digest.update((byte) 0);
+            } else {
+                digest.update(value.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0x1F);
+        }
+        byte[] bytes = digest.digest();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (conn != null) conn.rollback();
+        } catch (SQLException e) {
+            LOG.warn("回滚失败：{}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
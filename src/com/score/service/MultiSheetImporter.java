@@ -0,0 +1,344 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelReader;
+import com.alibaba.excel.read.metadata.ReadSheet;
+import com.score.dao.ImportDao;
+import com.score.util.BatchInserter;
+import com.score.util.ColumnType;
+import com.score.util.ColumnarRowBuffer;
+import com.score.util.DBUtil;
+import com.score.util.ColumnTypeInferrer;
+import com.score.util.ExcelDataListener;
+import com.score.util.SchemaEnforcer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多工作表并行导入：列出工作簿中所有工作表，在有界线程池中每个工作表一个任务，各自打开文件解析并用独立连接写库
+ * 并行度 = min(options.sheetParallelism, 工作表数, 连接池最大连接数)
+ * 提交方式按工作表生效：ALL_OR_NOTHING时每个工作表一个事务，一个工作表失败不影响其他工作表
+ * options.inferTypes=true时新建的表按该工作表第一块数据推断列类型；全部工作表导入完后再为各目标表的关键列建索引
+ * 合并导入时先只读各工作表的表头核对一遍（见checkSharedHeaders），列名不一致则不写入任何数据
+ */
+class MultiSheetImporter {
+    // 合并导入时记录来源工作表的列
+    static final String SHEET_NAME_COLUMN = "sheet_name";
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+
+    private final ImportService importService;
+    private final ImportDao importDao;
+    private final File file;
+    private final String tableName;
+    private final Set<String> requiredHeaders;
+    private final ImportOptions options;
+    private final SheetProgressListener progress;
+    // 合并导入：共享表只需建一次
+    private volatile boolean sharedTableReady = false;
+
+    MultiSheetImporter(ImportService importService, ImportDao importDao, File file, String tableName, Set<String> requiredHeaders,
+                       ImportOptions options, SheetProgressListener progress) {
+        this.importService = importService;
+        this.importDao = importDao;
+        this.file = file;
+        this.tableName = tableName;
+        this.requiredHeaders = requiredHeaders;
+        this.options = options;
+        this.progress = progress;
+    }
+
+    WorkbookImportReport run() throws Exception {
+        List<ReadSheet> sheets = listSheets();
+        if (sheets.isEmpty()) {
+            throw new RuntimeException("工作簿中没有工作表！");
+        }
+        List<String> targetTables = resolveTargetTables(sheets);
+        if (isShared()) {
+            checkSharedHeaders(sheets);
+        }
+
+        int parallelism = Math.min(options.getSheetParallelism(), Math.min(sheets.size(), DBUtil.getPoolMaxSize()));
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "import-sheet-" + THREAD_SEQ.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        WorkbookImportReport workbookReport = new WorkbookImportReport();
+        workbookReport.setParallelism(parallelism);
+        long start = System.currentTimeMillis();
+        try {
+            List<Future<ImportReport>> futures = new ArrayList<>();
+            for (int i = 0; i < sheets.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> importSheet(index, sheets.get(index), targetTables.get(index))));
+            }
+            for (int i = 0; i < sheets.size(); i++) {
+                workbookReport.addSheet(sheetName(sheets.get(i), i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        buildIndexes(workbookReport);
+        workbookReport.setElapsedMillis(System.currentTimeMillis() - start);
+        return workbookReport;
+    }
+
+    /**
+     * 每张有数据的目标表建一次索引，结果记在写入该表的第一个工作表的报告里
+     */
+    private void buildIndexes(WorkbookImportReport workbookReport) {
+        if (options.getKeyColumns().isEmpty()) return;
+        Set<String> done = new HashSet<>();
+        for (ImportReport report : workbookReport.getSheetReports()) {
+            if (report.getTotalRows() > 0 && done.add(report.getTableName())) {
+                importService.buildKeyIndexes(report.getTableName(), options.getKeyColumns(), report);
+            }
+        }
+    }
+
+    private List<ReadSheet> listSheets() {
+        ExcelReader reader = EasyExcel.read(file).build();
+        try {
+            return new ArrayList<>(reader.excelExecutor().sheetList());
+        } finally {
+            reader.finish();
+        }
+    }
+
+    /**
+     * 合并导入：各工作表的列名（不区分大小写和顺序）须与第一个有表头的工作表相同，否则列会错位写入共享表，直接拒绝
+     * 每个工作表只解析表头行
+     */
+    private void checkSharedHeaders(List<ReadSheet> sheets) throws IOException {
+        Set<String> firstColumns = null;
+        String firstSheet = null;
+        List<String> mismatches = new ArrayList<>();
+        for (int i = 0; i < sheets.size(); i++) {
+            List<String> headers = readHeaders(sheets.get(i));
+            if (headers == null) continue; // 空工作表导入时报"无有效数据"
+            Set<String> columns = new LinkedHashSet<>();
+            for (String header : headers) {
+                columns.add(header == null ? "" : header.trim().toLowerCase(Locale.ROOT));
+            }
+            if (firstColumns == null) {
+                firstColumns = columns;
+                firstSheet = sheetName(sheets.get(i), i);
+                continue;
+            }
+            Set<String> missing = new LinkedHashSet<>(firstColumns);
+            missing.removeAll(columns);
+            Set<String> extra = new LinkedHashSet<>(columns);
+            extra.removeAll(firstColumns);
+            if (!missing.isEmpty() || !extra.isEmpty()) {
+                mismatches.add("工作表\"" + sheetName(sheets.get(i), i) + "\"" + (missing.isEmpty() ? "" : "缺少" + missing)
+                        + (extra.isEmpty() ? "" : "多出" + extra));
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            throw new RuntimeException("合并到一张表时各工作表的表头须与工作表\"" + firstSheet + "\"相同："
+                    + String.join("；", mismatches) + "。请改为每个工作表单独建表，或统一表头后再导入");
+        }
+    }
+
+    private List<String> readHeaders(ReadSheet sheet) throws IOException {
+        ExcelDataListener<Map<Integer, String>> listener = new ExcelDataListener<>(null);
+        listener.setHeaderOnly(true);
+        try (InputStream inputStream = new FileInputStream(file)) {
+            EasyExcel.read(inputStream, listener)
+                    .sheet(sheet.getSheetNo())
+                    .headRowNumber(1)
+                    .doRead();
+        }
+        return listener.getActualHeaders();
+    }
+
+    /**
+     * 每个工作表的目标表名：合并导入都是tableName；单独建表为"tableName_工作表名"（非字母数字替换为_，重名加序号）
+     */
+    private List<String> resolveTargetTables(List<ReadSheet> sheets) {
+        List<String> tables = new ArrayList<>();
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < sheets.size(); i++) {
+            if (options.getSheetTarget() == ImportOptions.SheetTarget.SHARED_TABLE) {
+                tables.add(tableName);
+                continue;
+            }
+            StringBuilder suffix = new StringBuilder();
+            for (char ch : sheetName(sheets.get(i), i).toCharArray()) {
+                suffix.append(Character.isLetterOrDigit(ch) ? ch : '_');
+            }
+            String table = tableName + "_" + suffix;
+            if (!used.add(table.toLowerCase())) {
+                table = table + "_" + (i + 1);
+                used.add(table.toLowerCase());
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    static String sheetName(ReadSheet sheet, int index) {
+        String name = sheet.getSheetName();
+        return name == null || name.trim().isEmpty() ? "Sheet" + (index + 1) : name.trim();
+    }
+
+    /**
+     * 导入单个工作表：本线程解析，逐块写入自己的连接（异常都记录到报告，不向外抛出）
+     */
+    private ImportReport importSheet(int index, ReadSheet sheet, String targetTable) {
+        String name = sheetName(sheet, index);
+        ImportReport report = new ImportReport(targetTable);
+        long start = System.currentTimeMillis();
+        if (progress != null) progress.onSheetStarted(index, name, targetTable);
+
+        SheetWriter writer = new SheetWriter(index, name, targetTable, report);
+        try (InputStream inputStream = new FileInputStream(file)) {
+            ExcelDataListener<Map<Integer, String>> listener = ExcelDataListener.columnar(requiredHeaders, options.getChunkSize(), writer::write);
+            EasyExcel.read(inputStream, listener)
+                    .sheet(sheet.getSheetNo())
+                    .headRowNumber(1)
+                    .doRead();
+
+            if (!listener.isHeaderValid()) {
+                report.addError(0, "表头缺失！需要包含：" + requiredHeaders);
+            } else if (listener.getTotalRows() == 0) {
+                report.addError(0, "无有效数据！");
+            } else if (options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING && !report.hasErrors()) {
+                writer.conn.commit();
+                report.commitPending();
+            }
+        } catch (Exception e) {
+            if (!report.hasErrors()) {
+                report.addError(0, "导入失败：" + e.getMessage());
+            }
+        } finally {
+            writer.close();
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        if (progress != null) progress.onSheetFinished(index, name, report);
+        return report;
+    }
+
+    /**
+     * 单个工作表的写入端：第一块到达时建表、借连接，之后复用同一个插入执行器
+     */
+    private class SheetWriter {
+        private final int index;
+        private final String sheetName;
+        private final String targetTable;
+        private final ImportReport report;
+        private long nextRow = 1;
+        private Connection conn;
+        private BatchInserter inserter;
+        private SchemaGuard guard;
+
+        SheetWriter(int index, String sheetName, String targetTable, ImportReport report) {
+            this.index = index;
+            this.sheetName = sheetName;
+            this.targetTable = targetTable;
+            this.report = report;
+        }
+
+        void write(List<String> headers, ColumnarRowBuffer chunk) throws Exception {
+            long firstRow = nextRow;
+            nextRow += chunk.rowCount();
+            long chunkStart = System.currentTimeMillis();
+            boolean perChunk = options.getCommitMode() == ImportOptions.CommitMode.PER_CHUNK;
+            try {
+                BatchInserter.RowSource rows = chunk;
+                if (isShared()) {
+                    rows = withSheetName(rows, headers.size());
+                }
+                if (conn == null) {
+                    open(headers, rows);
+                }
+                SchemaEnforcer.Result result = guard.apply(conn, rows, firstRow);
+                int written = inserter.insert(result.getAccepted());
+                if (perChunk) {
+                    conn.commit();
+                }
+                report.recordSchemaIssues(result.getCoercedValues(), result.getMismatches().size());
+                report.recordChunk(written, System.currentTimeMillis() - chunkStart, !perChunk);
+                report.recordRows(headers, result.getAccepted(), !perChunk);
+            } catch (Exception e) {
+                report.addError(firstRow, "第" + firstRow + "-" + (firstRow + chunk.rowCount() - 1) + "行写入失败：" + e.getMessage());
+                if (conn != null) conn.rollback();
+                if (!perChunk) throw e; // 整个工作表回滚，停止解析
+            }
+            if (progress != null) progress.onSheetProgress(index, sheetName, report.getTotalRows());
+        }
+
+        private void open(List<String> headers, BatchInserter.RowSource firstChunk) throws SQLException {
+            List<String> columns = new ArrayList<>(headers);
+            if (isShared()) {
+                columns.add(SHEET_NAME_COLUMN);
+            }
+            List<ColumnType> types = options.isInferTypes() ? ColumnTypeInferrer.infer(firstChunk, columns.size()) : null;
+            if (isShared()) {
+                ensureSharedTable(columns, types);
+            } else {
+                importDao.createTable(targetTable, columns, types);
+            }
+            Connection newConn = DBUtil.getConnection();
+            try {
+                newConn.setAutoCommit(false);
+            } catch (SQLException e) {
+                DBUtil.close(newConn, (PreparedStatement) null);
+                throw e;
+            }
+            conn = newConn;
+            guard = SchemaGuard.open(importDao, conn, targetTable, columns, options.getMismatchPolicy());
+            inserter = importDao.newInserter(conn, targetTable, columns, options.getInsertMode());
+        }
+
+        private BatchInserter.RowSource withSheetName(BatchInserter.RowSource rows, int sheetColumn) {
+            return new BatchInserter.RowSource() {
+                @Override
+                public int rowCount() {
+                    return rows.rowCount();
+                }
+
+                @Override
+                public Object value(int row, int col) {
+                    return col == sheetColumn ? sheetName : rows.value(row, col);
+                }
+            };
+        }
+
+        void close() {
+            if (inserter != null) inserter.close();
+            if (conn != null) DBUtil.close(conn, (PreparedStatement) null); // 归还时未提交的部分自动回滚
+        }
+    }
+
+    private boolean isShared() {
+        return options.getSheetTarget() == ImportOptions.SheetTarget.SHARED_TABLE;
+    }
+
+    /**
+     * 合并导入：首个到达的工作表按自己的表头建表，已存在的表补上sheet_name列
+     */
+    private synchronized void ensureSharedTable(List<String> columns, List<ColumnType> types) throws SQLException {
+        if (sharedTableReady) return;
+        importDao.createTable(tableName, columns, types);
+        importDao.addColumnIfMissing(tableName, SHEET_NAME_COLUMN);
+        sharedTableReady = true;
+    }
+}
\ No newline at end of file
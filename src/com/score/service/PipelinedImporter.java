@@ -0,0 +1,232 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.score.dao.ImportDao;
+import com.score.util.BatchInserter;
+import com.score.util.ColumnarRowBuffer;
+import com.score.util.DBUtil;
+import com.score.util.ExcelDataListener;
+import com.score.util.Log;
+import com.score.util.SchemaEnforcer;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 流水线导入引擎：解析和写库并行
+ * 生产者：EasyExcel解析线程通过ExcelDataListener把每块数据（列式缓冲，见ColumnarRowBuffer）放入有界队列（队列满时阻塞=背压）
+ * 消费者：workerCount个写入线程各自持有一个连接，从队列取块做类型检查（见SchemaGuard）后按options.insertMode批量写入
+ * 提交方式见ImportOptions.CommitMode：ALL_OR_NOTHING只用一个写入线程，全部数据在同一个连接的一个事务中提交或回滚
+ * （多个连接依次提交时，后面的提交失败或进程中途退出会留下前面已提交的数据）；错误按块的起始行号排序后写入ImportReport
+ */
+class PipelinedImporter {
+    private static final Log LOG = Log.get(PipelinedImporter.class);
+
+    // 队列结束标记：每个写入线程收到一个后退出
+    private static final Chunk POISON = new Chunk(0, null, null);
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+
+    private final ImportDao importDao;
+    private final String tableName;
+    private final ImportOptions options;
+    private final ImportReport report;
+    private final BlockingQueue<Chunk> queue;
+    // ALL_OR_NOTHING模式下出现错误后置为true，生产者停止解析，消费者跳过剩余块
+    private volatile boolean aborted = false;
+
+    PipelinedImporter(ImportDao importDao, String tableName, ImportOptions options, ImportReport report) {
+        this.importDao = importDao;
+        this.tableName = tableName;
+        this.options = options;
+        this.report = report;
+        this.queue = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    }
+
+    /**
+     * 执行导入
+     * @return 解析监听器（供调用方检查表头校验结果）
+     */
+    ExcelDataListener<Map<Integer, String>> run(InputStream inputStream, Set<String> requiredHeaders) throws Exception {
+        // ALL_OR_NOTHING只用一个写入连接，保证一个事务；解析与写库仍然并行
+        int workerCount = options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING ? 1 : options.getWorkerCount();
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "import-writer-" + THREAD_SEQ.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        List<Worker> workerList = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker();
+            workerList.add(worker);
+            futures.add(workers.submit(worker));
+        }
+
+        long[] nextRow = {1};
+        ExcelDataListener<Map<Integer, String>> listener = ExcelDataListener.columnar(requiredHeaders, options.getChunkSize(),
+                (headers, chunk) -> {
+                    enqueue(new Chunk(nextRow[0], headers, chunk));
+                    nextRow[0] += chunk.rowCount();
+                });
+
+        Exception parseError = null;
+        try {
+            EasyExcel.read(inputStream, listener)
+                    .sheet()
+                    .headRowNumber(1)
+                    .doRead();
+        } catch (Exception e) {
+            // 写入失败导致的中止已记录在report中，这里只保留真正的解析异常
+            if (!aborted) {
+                parseError = e;
+                aborted = true;
+            }
+        } finally {
+            for (int i = 0; i < workerCount; i++) {
+                queue.put(POISON);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            workers.shutdown();
+            finish(workerList);
+        }
+
+        if (parseError != null) {
+            throw parseError;
+        }
+        return listener;
+    }
+
+    /**
+     * 生产者放入队列：队列满则等待；写入线程已中止时停止解析
+     */
+    private void enqueue(Chunk chunk) throws InterruptedException {
+        while (!queue.offer(chunk, 200, TimeUnit.MILLISECONDS)) {
+            if (aborted) break;
+        }
+        if (aborted) {
+            throw new IllegalStateException("写入失败，已停止解析");
+        }
+    }
+
+    /**
+     * 所有块处理完后统一收尾：ALL_OR_NOTHING模式在此决定整体提交还是回滚
+     */
+    private void finish(List<Worker> workerList) {
+        boolean commitAll = options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING && !aborted;
+        for (Worker worker : workerList) {
+            if (worker.conn == null) continue;
+            try {
+                if (commitAll) {
+                    worker.conn.commit();
+                } else {
+                    worker.conn.rollback(); // PER_CHUNK模式下已逐块提交，这里只会回滚未提交的部分
+                }
+            } catch (SQLException e) {
+                report.addError(Long.MAX_VALUE, "事务" + (commitAll ? "提交" : "回滚") + "失败：" + e.getMessage());
+            } finally {
+                if (worker.inserter != null) worker.inserter.close();
+                DBUtil.close(worker.conn, (PreparedStatement) null);
+            }
+        }
+        if (commitAll) {
+            report.commitPending();
+        }
+    }
+
+    /**
+     * 写入线程：持有一个连接和插入执行器（缓存预编译语句），循环取块写入
+     */
+    private class Worker implements Runnable {
+        private Connection conn;
+        private BatchInserter inserter;
+        private SchemaGuard guard;
+
+        @Override
+        public void run() {
+            while (true) {
+                Chunk chunk;
+                try {
+                    chunk = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (chunk == POISON) return;
+                if (aborted) continue; // 继续消费直到结束标记，避免生产者阻塞
+                write(chunk);
+            }
+        }
+
+        private void write(Chunk chunk) {
+            long start = System.currentTimeMillis();
+            try {
+                if (conn == null) {
+                    Connection newConn = DBUtil.getConnection();
+                    try {
+                        newConn.setAutoCommit(false);
+                    } catch (SQLException e) {
+                        DBUtil.close(newConn, (PreparedStatement) null);
+                        throw e;
+                    }
+                    conn = newConn;
+                    guard = SchemaGuard.open(importDao, conn, tableName, chunk.headers, options.getMismatchPolicy());
+                    inserter = importDao.newInserter(conn, tableName, chunk.headers, options.getInsertMode());
+                }
+                SchemaEnforcer.Result result = guard.apply(conn, chunk.rows, chunk.firstRow);
+                int written = inserter.insert(result.getAccepted());
+                boolean perChunk = options.getCommitMode() == ImportOptions.CommitMode.PER_CHUNK;
+                if (perChunk) {
+                    conn.commit();
+                }
+                report.recordSchemaIssues(result.getCoercedValues(), result.getMismatches().size());
+                report.recordChunk(written, System.currentTimeMillis() - start, !perChunk);
+                report.recordRows(chunk.headers, result.getAccepted(), !perChunk);
+            } catch (Exception e) {
+                report.addError(chunk.firstRow, "第" + chunk.firstRow + "-" + (chunk.firstRow + chunk.rows.rowCount() - 1)
+                        + "行写入失败：" + e.getMessage());
+                if (options.getCommitMode() == ImportOptions.CommitMode.ALL_OR_NOTHING) {
+                    aborted = true;
+                } else {
+                    rollbackQuietly();
+                }
+            }
+        }
+
+        private void rollbackQuietly() {
+            try {
+                if (conn != null) conn.rollback();
+            } catch (SQLException e) {
+                LOG.warn("回滚失败：{}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 队列中的一块数据（firstRow为该块第一行在Excel数据区中的行号，从1开始）
+     */
+    private static class Chunk {
+        private final long firstRow;
+        private final List<String> headers;
+        private final ColumnarRowBuffer rows;
+
+        Chunk(long firstRow, List<String> headers, ColumnarRowBuffer rows) {
+            this.firstRow = firstRow;
+            this.headers = headers;
+            this.rows = rows;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.score.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次排名计算的结果（不可变，可被多个线程同时读取）：按成绩从高到低的顺序，及每个位置的排名、密集排名、班级排名、百分位
+ * 数据全部为基本类型数组：学号/班级按字典编码为int，成绩为double；位置p对应第p高的成绩
+ * 排序键为"成绩×SCORE_SCALE取整"，即按两位小数比较成绩（相差不到0.01的成绩视为并列）
+ */
+public final class Ranking {
+    public static final int SCORE_SCALE = 100;
+
+    private final String tableName;
+    private final String subject;
+    private final long version;
+    private final int size;
+    // 按行（读取顺序）保存
+    private final int[] studentCodes;
+    private final String[] studentIds;
+    private final double[] scores;
+    private final int[] classCodes;
+    private final String[] classNames;
+    // 按位置（成绩从高到低）保存
+    private final int[] order;
+    private final int[] rank;
+    private final int[] denseRank;
+    private final int[] classRank;
+    private final int[] below;
+    private final long computeNanos;
+    // 学号 → 该学生最好成绩的位置（首次按学号查询时建立）
+    private volatile Map<String, Integer> positionOfStudent;
+
+    /**
+     * @param studentCodes 每行的学号编码（studentIds的下标）
+     * @param classCodes 每行的班级编码（classNames的下标，-1表示无班级）；为null时不计算班级排名
+     */
+    Ranking(String tableName, String subject, long version, int size, int[] studentCodes, String[] studentIds,
+            double[] scores, int[] classCodes, String[] classNames) {
+        long start = System.nanoTime();
+        this.tableName = tableName;
+        this.subject = subject;
+        this.version = version;
+        this.size = size;
+        this.studentCodes = studentCodes;
+        this.studentIds = studentIds;
+        this.scores = scores;
+        this.classCodes = classCodes;
+        this.classNames = classNames == null ? new String[0] : classNames;
+
+        // 排序键：高32位为成绩取反（降序），低32位为行号（同分按读取顺序）；基本类型数组用fork-join并行排序
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) -scaled(scores[i]) << 32) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        this.order = new int[size];
+        this.rank = new int[size];
+        this.denseRank = new int[size];
+        this.classRank = new int[size];
+        this.below = new int[size];
+        int groupStart = 0;
+        int dense = 0;
+        int[] classCount = new int[this.classNames.length];
+        int[] classGroupRank = new int[this.classNames.length];
+        long[] classLastKey = new long[this.classNames.length];
+        for (int p = 0; p < size; p++) {
+            int row = (int) keys[p];
+            order[p] = row;
+            long high = keys[p] >> 32;
+            if (p == 0 || high != keys[p - 1] >> 32) {
+                groupStart = p;
+                dense++;
+            }
+            rank[p] = groupStart + 1;
+            denseRank[p] = dense;
+            int c = classCodes == null ? -1 : classCodes[row];
+            if (c >= 0) {
+                if (++classCount[c] == 1 || high != classLastKey[c]) {
+                    classGroupRank[c] = classCount[c];
+                    classLastKey[c] = high;
+                }
+                classRank[p] = classGroupRank[c];
+            }
+        }
+        int groupEnd = size;
+        for (int p = size - 1; p >= 0; p--) {
+            if (p < size - 1 && keys[p] >> 32 != keys[p + 1] >> 32) {
+                groupEnd = p + 1;
+            }
+            below[p] = size - groupEnd;
+        }
+        this.computeNanos = System.nanoTime() - start;
+    }
+
+    static int scaled(double score) {
+        double value = Math.rint(score * SCORE_SCALE);
+        return (int) Math.max(-Integer.MAX_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+
+    public String getTableName() { return tableName; }
+    /** 科目（null表示全部科目） */
+    public String getSubject() { return subject; }
+    /** 计算时的表版本号（见TableVersions） */
+    public long getVersion() { return version; }
+    public int size() { return size; }
+    /** 排序和计算排名的耗时（毫秒，不含读库） */
+    public double getComputeMillis() { return computeNanos / 1e6; }
+
+    /**
+     * 第position高的成绩（从0开始）
+     */
+    public Entry entryAt(int position) {
+        int row = order[position];
+        int c = classCodes == null ? -1 : classCodes[row];
+        return new Entry(position, studentIds[studentCodes[row]], c < 0 ? null : classNames[c], scores[row],
+                rank[position], denseRank[position], classRank[position], below[position] * 100.0 / size);
+    }
+
+    /**
+     * 前k名（排名<=k，与第k名并列的也包含在内）
+     */
+    public List<Entry> topK(int k) {
+        List<Entry> top = new ArrayList<>(Math.min(k, size));
+        for (int p = 0; p < size && rank[p] <= k; p++) {
+            top.add(entryAt(p));
+        }
+        return top;
+    }
+
+    /**
+     * 某班的前k名（班级排名<=k）
+     */
+    public List<Entry> topKInClass(String className, int k) {
+        int code = Arrays.asList(classNames).indexOf(className);
+        List<Entry> top = new ArrayList<>();
+        if (code < 0 || classCodes == null) return top;
+        for (int p = 0; p < size; p++) {
+            if (classCodes[order[p]] != code) continue;
+            if (classRank[p] > k) break;
+            top.add(entryAt(p));
+        }
+        return top;
+    }
+
+    /**
+     * 某学生的排名（同一学生有多条成绩时取最好的一条）
+     * @return 没有该学生时返回null
+     */
+    public Entry find(String studentId) {
+        Map<String, Integer> positions = positionOfStudent;
+        if (positions == null) {
+            positions = new HashMap<>(studentIds.length * 4 / 3 + 1);
+            for (int p = size - 1; p >= 0; p--) {
+                positions.put(studentIds[studentCodes[order[p]]], p);
+            }
+            positionOfStudent = positions;
+        }
+        Integer position = positions.get(studentId);
+        return position == null ? null : entryAt(position);
+    }
+
+    /**
+     * 分位数（线性插值），如quantile(0.5)为中位数
+     * @return 没有成绩时返回NaN
+     */
+    public double quantile(double q) {
+        if (size == 0) return Double.NaN;
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("分位数必须在0~1之间：" + q);
+        }
+        // 升序第i个 = 降序第size-1-i个
+        double h = (size - 1) * q;
+        int lo = (int) Math.floor(h);
+        int hi = Math.min(size - 1, lo + 1);
+        double low = scores[order[size - 1 - lo]];
+        double high = scores[order[size - 1 - hi]];
+        return low + (h - lo) * (high - low);
+    }
+
+    public List<String> getClassNames() {
+        return Arrays.asList(classNames.clone());
+    }
+
+    /**
+     * 排名中的一条成绩
+     */
+    public static class Entry {
+        private final int position;
+        private final String studentId;
+        private final String className;
+        private final double score;
+        private final int rank;
+        private final int denseRank;
+        private final int classRank;
+        private final double percentile;
+
+        Entry(int position, String studentId, String className, double score, int rank, int denseRank, int classRank, double percentile) {
+            this.position = position;
+            this.studentId = studentId;
+            this.className = className;
+            this.score = score;
+            this.rank = rank;
+            this.denseRank = denseRank;
+            this.classRank = classRank;
+            this.percentile = percentile;
+        }
+
+        public int getPosition() { return position; }
+        public String getStudentId() { return studentId; }
+        /** 班级（表中没有班级列时为null） */
+        public String getClassName() { return className; }
+        public double getScore() { return score; }
+        /** 排名（并列占用名次：1,2,2,4） */
+        public int getRank() { return rank; }
+        /** 密集排名（并列不占用名次：1,2,2,3） */
+        public int getDenseRank() { return denseRank; }
+        /** 班级内排名（没有班级时为0） */
+        public int getClassRank() { return classRank; }
+        /** 百分位：成绩低于该学生的人次占比（0~100） */
+        public double getPercentile() { return percentile; }
+
+        @Override
+        public String toString() {
+            return "第" + rank + "名 " + studentId + (className == null ? "" : "（" + className + "第" + classRank + "名）")
+                    + " " + score + "分，超过" + String.format("%.1f", percentile) + "%";
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.score.service;
+
+import com.score.dao.QueryPatternLog;
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.Metrics;
+import com.score.util.TableVersions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 排名引擎：从成绩表（导入生成的任意表，需有学号、成绩列）流式读出成绩到基本类型数组，计算年级/班级排名、百分位、分位数和前N名（见Ranking）
+ * 结果按"表 + 科目"缓存，表版本号（见TableVersions）变化后下次查询重新计算；最多缓存MAX_CACHED个结果（LRU）
+ * 班级排名依赖表中的"班级"列，没有该列时只有年级（全表）排名
+ */
+public class RankingEngine {
+    private static final Log LOG = Log.get(RankingEngine.class);
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("ranking.load");
+    private static final Metrics.Timer COMPUTE_TIMER = Metrics.timer("ranking.compute");
+    private static final int MAX_CACHED = 8;
+    private static final RankingEngine INSTANCE = new RankingEngine();
+
+    private final Map<String, Ranking> cache = new LinkedHashMap<String, Ranking>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Ranking> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+
+    public static RankingEngine getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 取排名（缓存未过期时直接返回，否则读库重新计算；同一时间只计算一个）
+     * @param subject 科目，null表示全部科目
+     */
+    public synchronized Ranking ranking(String tableName, String subject) throws SQLException {
+        String key = tableName.toLowerCase(Locale.ROOT) + "\u001F" + (subject == null ? "" : subject);
+        // 先取版本号再读库：读库期间有写入时缓存的是旧版本号，下次查询会重新计算
+        long version = TableVersions.get(tableName);
+        Ranking cached = cache.get(key);
+        if (cached != null && cached.getVersion() == version) {
+            return cached;
+        }
+        Ranking ranking = load(tableName, subject, version);
+        cache.put(key, ranking);
+        return ranking;
+    }
+
+    /**
+     * 对内存中的成绩计算排名（不缓存）
+     * @param classNames 每行的班级，可为null（不计算班级排名）
+     */
+    public static Ranking rank(String[] studentIds, double[] scores, String[] classNames) {
+        if (studentIds.length != scores.length || (classNames != null && classNames.length != scores.length)) {
+            throw new IllegalArgumentException("学号、成绩、班级的个数不一致！");
+        }
+        Columns columns = new Columns(scores.length, classNames != null);
+        for (int i = 0; i < scores.length; i++) {
+            columns.add(studentIds[i], scores[i], classNames == null ? null : classNames[i]);
+        }
+        return columns.toRanking(null, null, 0);
+    }
+
+    private Ranking load(String tableName, String subject, long version) throws SQLException {
+        long start = System.nanoTime();
+        Columns columns;
+        try (Connection conn = DBUtil.getConnection()) {
+            boolean classColumn;
+            try (Statement stmt = conn.createStatement()) {
+                classColumn = ScoreAnalytics.hasColumn(stmt, tableName, ScoreAnalytics.CLASS_COLUMN);
+            }
+            String sql = "SELECT `" + ScoreAnalytics.STUDENT_COLUMN + "`, `" + ScoreAnalytics.SCORE_COLUMN + "`"
+                    + (classColumn ? ", `" + ScoreAnalytics.CLASS_COLUMN + "`" : "") + " FROM " + tableName
+                    + (subject == null ? "" : " WHERE `" + ScoreAnalytics.SUBJECT_COLUMN + "` = ?");
+            if (subject != null) QueryPatternLog.record(tableName, ScoreAnalytics.SUBJECT_COLUMN);
+            columns = new Columns(1024, classColumn);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                DBUtil.applyFetchSize(pstmt);
+                if (subject != null) pstmt.setString(1, subject);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        double score = ScoreAnalytics.toScore(rs.getObject(2));
+                        if (Double.isNaN(score)) {
+                            columns.skipped++;
+                            continue;
+                        }
+                        columns.add(rs.getString(1), score, classColumn ? rs.getString(3) : null);
+                    }
+                }
+            }
+        }
+        LOAD_TIMER.stop(start);
+        long computeStart = System.nanoTime();
+        Ranking ranking = columns.toRanking(tableName, subject, version);
+        COMPUTE_TIMER.stop(computeStart);
+        LOG.info("排名计算完成：{}{}，{}条成绩（跳过{}条空成绩），读库{}ms，计算{}ms", tableName, subject == null ? "" : "/" + subject,
+                ranking.size(), columns.skipped, (computeStart - start) / 1_000_000, (System.nanoTime() - computeStart) / 1_000_000);
+        return ranking;
+    }
+
+    /**
+     * 读库时逐行追加的列数据：学号、班级按字典编码为int，成绩为double（数组按需扩容）
+     */
+    private static class Columns {
+        private final Map<String, Integer> studentDict = new HashMap<>();
+        private final Map<String, Integer> classDict;
+        private int[] studentCodes;
+        private double[] scores;
+        private int[] classCodes;
+        private int size;
+        private long skipped;
+
+        Columns(int capacity, boolean withClass) {
+            int initial = Math.max(16, capacity);
+            this.studentCodes = new int[initial];
+            this.scores = new double[initial];
+            this.classDict = withClass ? new HashMap<>() : null;
+            this.classCodes = withClass ? new int[initial] : null;
+        }
+
+        void add(String studentId, double score, String className) {
+            if (size == scores.length) {
+                int capacity = size * 2;
+                studentCodes = Arrays.copyOf(studentCodes, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+                if (classCodes != null) classCodes = Arrays.copyOf(classCodes, capacity);
+            }
+            String id = studentId == null ? "" : studentId.trim();
+            studentCodes[size] = studentDict.computeIfAbsent(id, k -> studentDict.size());
+            scores[size] = score;
+            if (classCodes != null) {
+                String name = className == null ? "" : className.trim();
+                classCodes[size] = name.isEmpty() ? -1 : classDict.computeIfAbsent(name, k -> classDict.size());
+            }
+            size++;
+        }
+
+        Ranking toRanking(String tableName, String subject, long version) {
+            return new Ranking(tableName, subject, version, size, studentCodes, dictionary(studentDict), scores,
+                    classCodes, classDict == null ? null : dictionary(classDict));
+        }
+
+        private static String[] dictionary(Map<String, Integer> dict) {
+            String[] values = new String[dict.size()];
+            for (Map.Entry<String, Integer> entry : dict.entrySet()) {
+                values[entry.getValue()] = entry.getKey();
+            }
+            return values;
+        }
+    }
+}
\ No newline at end of file
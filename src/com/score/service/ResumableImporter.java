@@ -0,0 +1,178 @@
+package com.score.service;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelReader;
+import com.alibaba.excel.read.metadata.ReadSheet;
+import com.score.dao.ImportDao;
+import com.score.dao.ImportJob;
+import com.score.dao.ImportJobDao;
+import com.score.util.BatchInserter;
+import com.score.util.ColumnarRowBuffer;
+import com.score.util.DBUtil;
+import com.score.util.ExcelDataListener;
+import com.score.util.Log;
+import com.score.util.SchemaEnforcer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 断点续传导入：单连接逐块写入，每块数据与检查点（import_jobs.last_row）在同一事务中提交
+ * 中途失败时只回滚当前块，任务记为FAILED；下次导入同一文件（按内容SHA-256识别）时可跳过已提交的行继续
+ * 跳过的行仍需解析（xlsx只能顺序读取），但不做类型检查和写库
+ */
+class ResumableImporter {
+    private static final Log LOG = Log.get(ResumableImporter.class);
+
+    private final ImportDao importDao;
+    private final ImportJobDao jobDao;
+    private final String tableName;
+    private final ImportOptions options;
+    private final ImportReport report;
+    private Connection conn;
+    private BatchInserter inserter;
+    private SchemaGuard guard;
+    // 已提交的数据行数（含续传时跳过的行），即当前检查点
+    private long committedRows;
+
+    ResumableImporter(ImportDao importDao, ImportJobDao jobDao, String tableName, ImportOptions options, ImportReport report) {
+        this.importDao = importDao;
+        this.jobDao = jobDao;
+        this.tableName = tableName;
+        this.options = options;
+        this.report = report;
+    }
+
+    /**
+     * 从job的检查点开始导入第一个工作表（job.lastRow为0时即从头导入）
+     * @return 解析监听器（供调用方检查表头校验结果）
+     */
+    ExcelDataListener<Map<Integer, String>> run(File file, Set<String> requiredHeaders, ImportJob job) throws Exception {
+        committedRows = job.getLastRow();
+        ExcelDataListener<Map<Integer, String>> listener = ExcelDataListener.columnar(requiredHeaders, options.getChunkSize(),
+                (headers, chunk) -> write(job, headers, chunk));
+        listener.setSkipRows(job.getLastRow());
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            EasyExcel.read(inputStream, listener)
+                    .sheet()
+                    .headRowNumber(1)
+                    .doRead();
+        } catch (Exception e) {
+            rollbackQuietly();
+            markFailedQuietly(job, e.getMessage());
+            throw e;
+        } finally {
+            if (inserter != null) inserter.close();
+            DBUtil.close(conn, (PreparedStatement) null);
+        }
+
+        if (!listener.isHeaderValid()) {
+            markFailedQuietly(job, "表头缺失");
+        } else if (committedRows == 0) {
+            markFailedQuietly(job, "无有效数据");
+        } else {
+            jobDao.markDone(job.getId(), committedRows);
+            LOG.info("断点续传导入完成：{}，共{}行", job, committedRows);
+        }
+        return listener;
+    }
+
+    /**
+     * 写入一块：类型检查 → 批量插入 → 更新检查点 → 提交（失败时由run回滚当前块）
+     */
+    private void write(ImportJob job, List<String> headers, ColumnarRowBuffer chunk) {
+        long start = System.currentTimeMillis();
+        long firstRow = committedRows + 1;
+        try {
+            if (conn == null) {
+                Connection newConn = DBUtil.getConnection();
+                try {
+                    newConn.setAutoCommit(false);
+                } catch (SQLException e) {
+                    DBUtil.close(newConn, (PreparedStatement) null);
+                    throw e;
+                }
+                conn = newConn;
+                guard = SchemaGuard.open(importDao, conn, tableName, headers, options.getMismatchPolicy());
+                inserter = importDao.newInserter(conn, tableName, headers, options.getInsertMode());
+            }
+            SchemaEnforcer.Result result = guard.apply(conn, chunk, firstRow);
+            int written = inserter.insert(result.getAccepted());
+            jobDao.checkpoint(conn, job.getId(), committedRows + chunk.rowCount());
+            conn.commit();
+            committedRows += chunk.rowCount();
+            report.recordSchemaIssues(result.getCoercedValues(), result.getMismatches().size());
+            report.recordChunk(written, System.currentTimeMillis() - start);
+            report.recordRows(headers, result.getAccepted(), false);
+        } catch (SQLException | RuntimeException e) {
+            throw new RuntimeException("第" + firstRow + "-" + (firstRow + chunk.rowCount() - 1) + "行写入失败：" + e.getMessage(), e);
+        }
+    }
+
+    private void rollbackQuietly() {
+        try {
+            if (conn != null) conn.rollback();
+        } catch (SQLException e) {
+            LOG.warn("回滚失败：{}", e.getMessage());
+        }
+    }
+
+    // 记录失败不能掩盖导入本身的异常
+    private void markFailedQuietly(ImportJob job, String error) {
+        try {
+            jobDao.markFailed(job.getId(), error);
+        } catch (SQLException e) {
+            LOG.warn("更新导入任务状态失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 文件内容的SHA-256（十六进制），文件被修改后与旧任务不再匹配
+     */
+    static String fileHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int n;
+            while ((n = inputStream.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        StringBuilder hex = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 第一个工作表的名称（单表导入读取的工作表）
+     */
+    static String firstSheetName(File file) {
+        ExcelReader reader = EasyExcel.read(file).build();
+        try {
+            List<ReadSheet> sheets = reader.excelExecutor().sheetList();
+            if (sheets.isEmpty()) {
+                throw new RuntimeException("工作簿中没有工作表！");
+            }
+            return MultiSheetImporter.sheetName(sheets.get(0), 0);
+        } finally {
+            reader.finish();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.score.service;
+
+import com.score.dao.ImportDao;
+import com.score.util.BatchInserter;
+import com.score.util.MismatchPolicy;
+import com.score.util.SchemaEnforcer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 导入写库前的类型检查：按目标表的实际列类型转换每块数据，类型不符的行按MismatchPolicy处理
+ * QUARANTINE时不符的行与正常数据在同一事务中写入隔离表
+ */
+class SchemaGuard {
+    private final ImportDao importDao;
+    private final String tableName;
+    private final List<String> headers;
+    private final SchemaEnforcer enforcer;
+
+    private SchemaGuard(ImportDao importDao, String tableName, List<String> headers, SchemaEnforcer enforcer) {
+        this.importDao = importDao;
+        this.tableName = tableName;
+        this.headers = headers;
+        this.enforcer = enforcer;
+    }
+
+    /**
+     * 读取目标表列类型；QUARANTINE时提前建好隔离表（建表会隐式提交，必须在写数据前完成）
+     */
+    static SchemaGuard open(ImportDao importDao, Connection conn, String tableName, List<String> headers,
+                            MismatchPolicy policy) throws SQLException {
+        if (policy == MismatchPolicy.QUARANTINE) {
+            importDao.createQuarantineTable(tableName, headers);
+        }
+        SchemaEnforcer enforcer = new SchemaEnforcer(headers, importDao.loadColumnTypes(conn, tableName, headers), policy);
+        return new SchemaGuard(importDao, tableName, headers, enforcer);
+    }
+
+    /**
+     * 转换一块数据，隔离的行写入隔离表
+     * @return 转换结果（getAccepted()交给BatchInserter写入）
+     * @throws IllegalArgumentException REJECT策略下存在类型不符的值
+     */
+    SchemaEnforcer.Result apply(Connection conn, BatchInserter.RowSource rows, long firstRow) throws SQLException {
+        SchemaEnforcer.Result result = enforcer.apply(rows, firstRow);
+        if (!result.getMismatches().isEmpty()) {
+            importDao.insertQuarantine(conn, tableName, headers, rows, result.getMismatches());
+        }
+        return result;
+    }
+}
\ No newline at end of file
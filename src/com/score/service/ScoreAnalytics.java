@@ -0,0 +1,399 @@
+package com.score.service;
+
+import com.score.dao.ScorePageDao;
+import com.score.util.BatchInserter;
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.TableVersions;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 成绩统计：在内存中维护主界面成绩表（score_data）按科目、班级、学生的汇总（见ScoreSummary），统计查询直接读汇总，不再对原始表GROUP BY
+ * 1. 首次使用时扫描一遍成绩表建立汇总（rebuild）
+ * 2. 之后每块导入数据提交后（见ImportReport.recordRows）、主界面修改/删除成绩后，把变化的行作为增量（Delta）合并进汇总
+ * 3. 增量在写库前记下汇总的版本号：写库期间汇总被重建过时不再合并（否则可能重复计入），改为标记"已过期"，下次查询前重建
+ * 无法得知旧值的写入（增量导入的更新、LOAD DATA跳过了部分行）直接标记过期
+ * 班级汇总依赖成绩表中的"班级"列，表中没有该列时为空
+ * 所有方法线程安全；查询返回汇总的副本
+ */
+public class ScoreAnalytics {
+    private static final Log LOG = Log.get(ScoreAnalytics.class);
+
+    public static final String STUDENT_COLUMN = "学号";
+    public static final String SUBJECT_COLUMN = "科目";
+    public static final String SCORE_COLUMN = "成绩";
+    public static final String CLASS_COLUMN = "班级";
+
+    private static final ScoreAnalytics INSTANCE = new ScoreAnalytics(ScorePageDao.DEFAULT_TABLE);
+
+    private final String tableName;
+    // 同一时间只做一次重建
+    private final Object rebuildLock = new Object();
+    private ScoreSummary overall = new ScoreSummary();
+    private Map<String, ScoreSummary> bySubject = new HashMap<>();
+    private Map<String, ScoreSummary> byClass = new HashMap<>();
+    private Map<String, ScoreSummary> byStudent = new HashMap<>();
+    // 成绩为空或不是数字、未计入汇总的行数
+    private long invalidRows;
+    private boolean hasClassColumn;
+    private boolean loaded;
+    private boolean rebuilding;
+    private boolean stale;
+    // 每次开始重建时递增
+    private long generation;
+
+    ScoreAnalytics(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 主界面成绩表的统计
+     */
+    public static ScoreAnalytics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 写入的目标表有统计时返回对应实例，否则返回null
+     */
+    public static ScoreAnalytics forTable(String tableName) {
+        return tableName != null && tableName.equalsIgnoreCase(INSTANCE.tableName) ? INSTANCE : null;
+    }
+
+    /**
+     * 目标表发生了无法增量计入的写入：有统计时标记过期（查找索引同样标记过期）
+     */
+    public static void tableChanged(String tableName) {
+        TableVersions.bump(tableName);
+        StudentSearchIndex.tableChanged(tableName);
+        ScoreAnalytics analytics = forTable(tableName);
+        if (analytics != null) analytics.invalidate();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 扫描成绩表重建全部汇总（成绩表很大时耗时较长，应在后台线程调用）
+     * 扫描期间到达的增量不合并，重建完成后仍标记为过期
+     */
+    public void rebuild() throws SQLException {
+        synchronized (rebuildLock) {
+            doRebuild();
+        }
+    }
+
+    private void doRebuild() throws SQLException {
+        synchronized (this) {
+            rebuilding = true;
+            stale = false;
+            generation++;
+        }
+        long start = System.currentTimeMillis();
+        Delta scan = new Delta(0);
+        boolean classColumn;
+        try (Connection conn = DBUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+            classColumn = hasColumn(stmt, tableName, CLASS_COLUMN);
+            String sql = "SELECT `" + STUDENT_COLUMN + "`, `" + SUBJECT_COLUMN + "`, `" + SCORE_COLUMN + "`"
+                    + (classColumn ? ", `" + CLASS_COLUMN + "`" : "") + " FROM " + tableName;
+            DBUtil.applyFetchSize(stmt);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    scan.addRow(rs.getString(1), rs.getString(2), classColumn ? rs.getString(4) : null, rs.getObject(3), 1);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            synchronized (this) {
+                rebuilding = false;
+                stale = true;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            overall = scan.overall;
+            bySubject = scan.bySubject;
+            byClass = scan.byClass;
+            byStudent = scan.byStudent;
+            invalidRows = scan.invalidRows;
+            hasClassColumn = classColumn;
+            loaded = true;
+            rebuilding = false;
+        }
+        LOG.info("成绩统计重建完成：{}，{}个科目，{}个班级，{}名学生，耗时{}ms", scan.overall, scan.bySubject.size(), scan.byClass.size(),
+                scan.byStudent.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 表中是否有该列（按列名忽略大小写比较）
+     */
+    static boolean hasColumn(Statement stmt, String tableName, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT * FROM " + tableName + " WHERE 1 = 0")) {
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int c = 1; c <= meta.getColumnCount(); c++) {
+                if (column.equalsIgnoreCase(meta.getColumnLabel(c))) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 新建增量：必须在写库之前创建（记下当前版本号）
+     */
+    public Delta newDelta() {
+        return new Delta(generation());
+    }
+
+    /**
+     * 新建增量（使用之前记下的版本号，如整个导入开始时的版本）
+     */
+    public Delta newDelta(long generation) {
+        return new Delta(generation);
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 合并已提交的增量；尚未建立汇总时忽略，版本号不符或正在重建时标记过期
+     */
+    public synchronized void apply(Delta delta) {
+        if (!loaded || delta.isEmpty()) return;
+        if (rebuilding || delta.generation != generation) {
+            stale = true;
+            return;
+        }
+        overall.merge(delta.overall);
+        mergeInto(bySubject, delta.bySubject);
+        mergeInto(byClass, delta.byClass);
+        mergeInto(byStudent, delta.byStudent);
+        invalidRows += delta.invalidRows;
+        for (Removal removal : delta.removals) {
+            overall.remove(removal.score);
+            removeFrom(bySubject, removal.subject, removal.score);
+            removeFrom(byClass, removal.className, removal.score);
+            removeFrom(byStudent, removal.student, removal.score);
+        }
+    }
+
+    private static void mergeInto(Map<String, ScoreSummary> target, Map<String, ScoreSummary> source) {
+        for (Map.Entry<String, ScoreSummary> entry : source.entrySet()) {
+            target.computeIfAbsent(entry.getKey(), k -> new ScoreSummary()).merge(entry.getValue());
+        }
+    }
+
+    private static void removeFrom(Map<String, ScoreSummary> target, String key, double score) {
+        if (key == null) return;
+        ScoreSummary summary = target.get(key);
+        if (summary == null) return;
+        summary.remove(score);
+        if (summary.getCount() == 0) target.remove(key);
+    }
+
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 查询前是否需要重建（从未建立或已过期）
+     */
+    public synchronized boolean needsRebuild() {
+        return !loaded || stale;
+    }
+
+    public synchronized boolean hasClassColumn() {
+        return hasClassColumn;
+    }
+
+    public synchronized long getInvalidRows() {
+        return invalidRows;
+    }
+
+    // ========== 查询（读汇总，不访问数据库） ==========
+
+    public synchronized ScoreSummary overall() {
+        return overall.copy();
+    }
+
+    /**
+     * @return 该科目的汇总；没有该科目时返回null
+     */
+    public synchronized ScoreSummary subject(String subject) {
+        return copyOf(bySubject.get(subject));
+    }
+
+    public synchronized ScoreSummary classSummary(String className) {
+        return copyOf(byClass.get(className));
+    }
+
+    public synchronized ScoreSummary student(String studentId) {
+        return copyOf(byStudent.get(studentId));
+    }
+
+    /**
+     * 全部科目的汇总（按科目名排序）
+     */
+    public synchronized Map<String, ScoreSummary> subjects() {
+        return copyAll(bySubject);
+    }
+
+    public synchronized Map<String, ScoreSummary> classes() {
+        return copyAll(byClass);
+    }
+
+    public synchronized int studentCount() {
+        return byStudent.size();
+    }
+
+    private static ScoreSummary copyOf(ScoreSummary summary) {
+        return summary == null ? null : summary.copy();
+    }
+
+    private static Map<String, ScoreSummary> copyAll(Map<String, ScoreSummary> source) {
+        Map<String, ScoreSummary> copy = new TreeMap<>();
+        for (Map.Entry<String, ScoreSummary> entry : source.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * 成绩值转为分数：数字直接取值，文本按数字解析；空值或不是数字时返回NaN
+     */
+    static double toScore(Object value) {
+        if (value instanceof Number) return ((Number) value).doubleValue();
+        if (value == null) return Double.NaN;
+        String text = value.toString().trim();
+        if (text.isEmpty()) return Double.NaN;
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String key(Object value) {
+        if (value == null) return null;
+        String text = value.toString().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    /**
+     * 一次写入带来的变化：新增的行先在本地按科目/班级/学生汇总，删除的行逐个记录，apply时一次合并
+     * 非线程安全，由一个线程填充
+     */
+    public static class Delta {
+        private final long generation;
+        private final ScoreSummary overall = new ScoreSummary();
+        private final Map<String, ScoreSummary> bySubject = new HashMap<>();
+        private final Map<String, ScoreSummary> byClass = new HashMap<>();
+        private final Map<String, ScoreSummary> byStudent = new HashMap<>();
+        private final List<Removal> removals = new ArrayList<>();
+        private long invalidRows;
+
+        Delta(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * 计入一批新增的行（按表头名找学号/科目/成绩/班级列，表中没有成绩列时忽略）
+         */
+        public void add(List<String> headers, BatchInserter.RowSource rows) {
+            int score = indexOf(headers, SCORE_COLUMN);
+            if (score < 0) return;
+            int student = indexOf(headers, STUDENT_COLUMN);
+            int subject = indexOf(headers, SUBJECT_COLUMN);
+            int className = indexOf(headers, CLASS_COLUMN);
+            for (int r = 0; r < rows.rowCount(); r++) {
+                addRow(student < 0 ? null : rows.value(r, student), subject < 0 ? null : rows.value(r, subject),
+                        className < 0 ? null : rows.value(r, className), rows.value(r, score), 1);
+            }
+        }
+
+        /**
+         * 计入一行新增的行（列名 → 值）
+         */
+        public void add(Map<String, Object> row) {
+            addRow(row.get(STUDENT_COLUMN), row.get(SUBJECT_COLUMN), row.get(CLASS_COLUMN), row.get(SCORE_COLUMN), 1);
+        }
+
+        /**
+         * 计入一行被删除的行（列名 → 删除前的值）
+         */
+        public void remove(Map<String, Object> row) {
+            addRow(row.get(STUDENT_COLUMN), row.get(SUBJECT_COLUMN), row.get(CLASS_COLUMN), row.get(SCORE_COLUMN), -1);
+        }
+
+        /**
+         * 合并另一个增量（同一导入的多块数据）
+         */
+        public void merge(Delta other) {
+            overall.merge(other.overall);
+            mergeInto(bySubject, other.bySubject);
+            mergeInto(byClass, other.byClass);
+            mergeInto(byStudent, other.byStudent);
+            removals.addAll(other.removals);
+            invalidRows += other.invalidRows;
+        }
+
+        boolean isEmpty() {
+            return overall.getCount() == 0 && removals.isEmpty() && invalidRows == 0;
+        }
+
+        private void addRow(Object student, Object subject, Object className, Object value, int sign) {
+            double score = toScore(value);
+            if (Double.isNaN(score)) {
+                invalidRows += sign;
+                return;
+            }
+            if (sign < 0) {
+                removals.add(new Removal(key(student), key(subject), key(className), score));
+                return;
+            }
+            overall.add(score);
+            addTo(bySubject, key(subject), score);
+            addTo(byClass, key(className), score);
+            addTo(byStudent, key(student), score);
+        }
+
+        private static void addTo(Map<String, ScoreSummary> target, String key, double score) {
+            if (key != null) target.computeIfAbsent(key, k -> new ScoreSummary()).add(score);
+        }
+
+        private static int indexOf(List<String> headers, String column) {
+            for (int i = 0; i < headers.size(); i++) {
+                if (headers.get(i) != null && headers.get(i).trim().equalsIgnoreCase(column)) return i;
+            }
+            return -1;
+        }
+    }
+
+    private static class Removal {
+        private final String student;
+        private final String subject;
+        private final String className;
+        private final double score;
+
+        Removal(String student, String subject, String className, double score) {
+            this.student = student;
+            this.subject = subject;
+            this.className = className;
+            this.score = score;
+        }
+    }
+}
\ No newline at end of file
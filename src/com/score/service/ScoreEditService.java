@@ -0,0 +1,64 @@
+package com.score.service;
+
+import com.score.dao.ScoreDao;
+import com.score.util.TableVersions;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 主界面成绩的修改、删除：写入先暂存在ScoreDao的工作单元中，save时批量写库
+ * 写库成功后把变化同步到成绩统计（减去旧值、计入新值）、查找索引和表版本号（排名缓存据此失效）
+ */
+public class ScoreEditService {
+    private final ScoreDao dao;
+
+    public ScoreEditService(ScoreDao dao) {
+        this.dao = dao;
+    }
+
+    public ScoreDao getDao() {
+        return dao;
+    }
+
+    /**
+     * 保存暂存的修改和删除（读写数据库，应在后台线程调用）
+     */
+    public ScoreDao.FlushResult save() throws SQLException {
+        String tableName = dao.getTableName();
+        ScoreAnalytics analytics = ScoreAnalytics.forTable(tableName);
+        // 增量在写库前取得统计的版本号，写库期间统计被重建时不再合并
+        ScoreAnalytics.Delta delta = analytics == null ? null : analytics.newDelta();
+        ScoreDao.FlushResult result = dao.flush();
+        if (result.isEmpty()) return result;
+
+        TableVersions.bump(tableName);
+        StudentSearchIndex searchIndex = tableName.equalsIgnoreCase(StudentSearchIndex.getInstance().getTableName())
+                ? StudentSearchIndex.getInstance() : null;
+        for (Map.Entry<Long, Map<String, Object>> entry : result.getBefore().entrySet()) {
+            long id = entry.getKey();
+            Map<String, Object> before = entry.getValue();
+            Map<String, Object> changed = result.getEdits().get(id);
+            boolean deleted = result.getDeletes().contains(id);
+            if (!deleted && changed == null) continue; // 该行的修改全部被拒绝
+            if (delta != null) delta.remove(before);
+            if (deleted) {
+                if (searchIndex != null) searchIndex.remove(id);
+                continue;
+            }
+            Map<String, Object> after = new LinkedHashMap<>(before);
+            after.putAll(changed);
+            if (delta != null) delta.add(after);
+            if (searchIndex != null) {
+                searchIndex.update(id, text(after.get(StudentSearchIndex.STUDENT_FIELD)), text(after.get(StudentSearchIndex.NAME_FIELD)),
+                        text(after.get(StudentSearchIndex.SUBJECT_FIELD)));
+            }
+        }
+        if (delta != null) analytics.apply(delta);
+        return result;
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+}
\ No newline at end of file
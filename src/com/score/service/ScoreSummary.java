@@ -0,0 +1,217 @@
+package com.score.service;
+
+import java.util.Arrays;
+
+/**
+ * 一组成绩的汇总：人次、总分、最高/最低分、平均分、方差（Welford算法逐个累加，合并时用并行公式）、分数段人数
+ * 支持删除单个成绩（修改/删除成绩时），不需要重新扫描原始数据
+ * 另外按分数保存每个不同分数的人次（有序数组），删除最高/最低分后仍能得到准确的最值；
+ * 不同分数超过MAX_DISTINCT个时不再保存，此后删除最值只能保留原值作为界限（isBoundsExact()为false，重建后恢复）
+ * 非线程安全：由ScoreAnalytics加锁访问，对外只返回副本
+ */
+public final class ScoreSummary {
+    // 分数段：0-9, 10-19, ..., 90-100（低于0计入第一段，高于100计入最后一段）
+    public static final int BUCKETS = 10;
+    private static final int BUCKET_WIDTH = 10;
+    private static final int MAX_DISTINCT = 256;
+
+    private long count;
+    private double sum;
+    private double mean;
+    // 离差平方和（方差 = m2 / count）
+    private double m2;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private boolean boundsExact = true;
+    private final long[] histogram = new long[BUCKETS];
+    // 不同分数（升序）及人次，超过MAX_DISTINCT后为null
+    private double[] distinct = new double[4];
+    private int[] distinctCounts = new int[4];
+    private int distinctSize;
+
+    /**
+     * 计入一个成绩
+     */
+    public void add(double score) {
+        count++;
+        sum += score;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        if (count == 1) {
+            min = score;
+            max = score;
+        } else {
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        histogram[bucket(score)]++;
+        addDistinct(score, 1);
+    }
+
+    /**
+     * 去掉一个成绩（必须是之前计入过的值）
+     */
+    public void remove(double score) {
+        if (count == 0) return;
+        if (count == 1) {
+            reset();
+            return;
+        }
+        double oldMean = mean;
+        count--;
+        sum -= score;
+        mean = (oldMean * (count + 1) - score) / count;
+        m2 = Math.max(0, m2 - (score - oldMean) * (score - mean));
+        int bucket = bucket(score);
+        if (histogram[bucket] > 0) histogram[bucket]--;
+        if (distinct != null) {
+            int index = Arrays.binarySearch(distinct, 0, distinctSize, score);
+            if (index >= 0 && --distinctCounts[index] == 0) {
+                System.arraycopy(distinct, index + 1, distinct, index, distinctSize - index - 1);
+                System.arraycopy(distinctCounts, index + 1, distinctCounts, index, distinctSize - index - 1);
+                distinctSize--;
+            }
+            min = distinct[0];
+            max = distinct[distinctSize - 1];
+        } else if (score <= min || score >= max) {
+            boundsExact = false;
+        }
+    }
+
+    /**
+     * 合并另一组汇总（Chan等人的并行方差公式）
+     */
+    public void merge(ScoreSummary other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            copyFrom(other);
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        boundsExact &= other.boundsExact;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+        if (distinct != null && other.distinct != null) {
+            for (int i = 0; i < other.distinctSize && distinct != null; i++) {
+                addDistinct(other.distinct[i], other.distinctCounts[i]);
+            }
+        } else {
+            distinct = null;
+            distinctCounts = null;
+        }
+    }
+
+    public ScoreSummary copy() {
+        ScoreSummary copy = new ScoreSummary();
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    private void copyFrom(ScoreSummary other) {
+        count = other.count;
+        sum = other.sum;
+        mean = other.mean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+        boundsExact = other.boundsExact;
+        System.arraycopy(other.histogram, 0, histogram, 0, BUCKETS);
+        distinct = other.distinct == null ? null : Arrays.copyOf(other.distinct, Math.max(4, other.distinctSize));
+        distinctCounts = other.distinctCounts == null ? null : Arrays.copyOf(other.distinctCounts, Math.max(4, other.distinctSize));
+        distinctSize = other.distinctSize;
+    }
+
+    private void reset() {
+        count = 0;
+        sum = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.NaN;
+        max = Double.NaN;
+        boundsExact = true;
+        Arrays.fill(histogram, 0);
+        distinct = new double[4];
+        distinctCounts = new int[4];
+        distinctSize = 0;
+    }
+
+    private void addDistinct(double score, int times) {
+        if (distinct == null) return;
+        int index = Arrays.binarySearch(distinct, 0, distinctSize, score);
+        if (index >= 0) {
+            distinctCounts[index] += times;
+            return;
+        }
+        if (distinctSize == MAX_DISTINCT) {
+            distinct = null;
+            distinctCounts = null;
+            return;
+        }
+        int insertAt = -index - 1;
+        if (distinctSize == distinct.length) {
+            distinct = Arrays.copyOf(distinct, distinctSize * 2);
+            distinctCounts = Arrays.copyOf(distinctCounts, distinctSize * 2);
+        }
+        System.arraycopy(distinct, insertAt, distinct, insertAt + 1, distinctSize - insertAt);
+        System.arraycopy(distinctCounts, insertAt, distinctCounts, insertAt + 1, distinctSize - insertAt);
+        distinct[insertAt] = score;
+        distinctCounts[insertAt] = times;
+        distinctSize++;
+    }
+
+    private static int bucket(double score) {
+        int bucket = (int) Math.floor(score / BUCKET_WIDTH);
+        return Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    /**
+     * 分数段名称，如"60-69"、"90-100"
+     */
+    public static String bucketLabel(int bucket) {
+        int from = bucket * BUCKET_WIDTH;
+        return from + "-" + (bucket == BUCKETS - 1 ? from + BUCKET_WIDTH : from + BUCKET_WIDTH - 1);
+    }
+
+    public long getCount() { return count; }
+    public double getSum() { return sum; }
+    /** 平均分（没有成绩时为NaN） */
+    public double getMean() { return count == 0 ? Double.NaN : mean; }
+    /** 总体方差（没有成绩时为NaN） */
+    public double getVariance() { return count == 0 ? Double.NaN : m2 / count; }
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    /** 删除成绩后最高/最低分是否仍是准确值（false时为界限值） */
+    public boolean isBoundsExact() { return boundsExact; }
+    public long[] getHistogram() { return histogram.clone(); }
+
+    /**
+     * 及格（>=60）人次：按分数段累加
+     */
+    public long getPassCount() {
+        long pass = 0;
+        for (int i = 6; i < BUCKETS; i++) {
+            pass += histogram[i];
+        }
+        return pass;
+    }
+
+    @Override
+    public String toString() {
+        if (count == 0) return "无成绩";
+        return String.format("%d人次，平均%.2f，最高%s，最低%s，标准差%.2f", count, getMean(), format(max), format(min), getStdDev());
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
\ No newline at end of file
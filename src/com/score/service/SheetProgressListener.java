@@ -0,0 +1,20 @@
+package com.score.service;
+
+/**
+ * 多工作表导入进度回调（在导入线程中调用，界面更新需自行切回EDT）
+ * sheetIndex为工作表在工作簿中的序号（从0开始）
+ */
+public interface SheetProgressListener {
+    void onSheetStarted(int sheetIndex, String sheetName, String tableName);
+
+    /**
+     * 每写完一块调用一次
+     * @param importedRows 该工作表累计已写入的行数
+     */
+    void onSheetProgress(int sheetIndex, String sheetName, long importedRows);
+
+    /**
+     * 工作表导入结束（成功或失败，失败原因见report.getErrors()）
+     */
+    void onSheetFinished(int sheetIndex, String sheetName, ImportReport report);
+}
\ No newline at end of file
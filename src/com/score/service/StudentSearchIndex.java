@@ -0,0 +1,582 @@
+package com.score.service;
+
+import com.score.dao.QueryPatternLog;
+import com.score.dao.ScorePageDao;
+import com.score.util.DBUtil;
+import com.score.util.Log;
+import com.score.util.Metrics;
+import com.score.util.PinyinInitials;
+import com.score.util.TableVersions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 成绩查找索引：在内存中为主界面成绩表（score_data）的学号、姓名（含拼音首字母）、科目建立倒排索引，查找不再对VARCHAR列做LIKE '%x%'全表扫描
+ * 1. 首次查找前扫描一遍成绩表建立索引；之后表版本号（见TableVersions）变化时只补读id大于已索引最大id的行（导入都是追加）
+ * 2. 主界面修改、删除成绩后调用update、remove；无法按追加处理的写入（增量导入的更新等，见ScoreAnalytics.tableChanged）标记过期，下次查找前重建
+ * 3. 查询按空格分为多个条件，条件之间为"且"；条件可写成"学号:xxx"、"姓名:xxx"、"科目:xxx"只匹配该字段，否则匹配任一字段：
+ *    学号按前缀；姓名按包含（汉字）或前缀、拼音首字母前缀（字母）；科目按包含或拼音首字母前缀
+ *    某个条件一个也匹配不上时，对学号、姓名按编辑距离不超过1做模糊匹配
+ * 每个字段的不同取值编码为int，每个取值记录所在的行（倒排表），查询只访问匹配取值的行；行按id顺序保存，结果为按id升序的主键
+ * 修改时行追加到新取值的倒排表，旧倒排表中的记录在查询时按行的当前编码跳过
+ * 所有方法线程安全
+ */
+public class StudentSearchIndex {
+    private static final Log LOG = Log.get(StudentSearchIndex.class);
+    private static final Metrics.Timer QUERY_TIMER = Metrics.timer("search.query");
+
+    public static final String STUDENT_FIELD = "学号";
+    public static final String NAME_FIELD = "姓名";
+    public static final String SUBJECT_FIELD = "科目";
+    // 模糊匹配的最短条件长度（太短时编辑距离1几乎匹配所有取值）
+    private static final int FUZZY_MIN_LENGTH = 3;
+
+    private static final StudentSearchIndex INSTANCE = new StudentSearchIndex(ScorePageDao.DEFAULT_TABLE);
+
+    private final String tableName;
+    // 同一时间只做一次刷新
+    private final Object refreshLock = new Object();
+    private Rows rows = new Rows();
+    private long indexedVersion = -1;
+    private boolean loaded;
+    private boolean stale;
+    // 刷新期间删除的id：刷新读到的数据可能还包含这些行，合并后再删一次
+    private List<Long> removedDuringRefresh;
+
+    public StudentSearchIndex(String tableName) {
+        this.tableName = tableName;
+    }
+
+    /**
+     * 主界面成绩表的索引
+     */
+    public static StudentSearchIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 目标表发生了无法按追加处理的写入：有索引时标记过期
+     */
+    public static void tableChanged(String tableName) {
+        if (tableName != null && tableName.equalsIgnoreCase(INSTANCE.tableName)) INSTANCE.invalidate();
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public synchronized void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * 查找前是否需要先刷新（索引未建立、已过期或表版本号已变化）
+     */
+    public synchronized boolean needsRefresh() {
+        return !loaded || stale || indexedVersion != TableVersions.get(tableName);
+    }
+
+    /**
+     * 使索引与成绩表一致（读库，应在后台线程调用）：未建立或已过期时全量重建，否则只补读新增的行
+     */
+    public void refresh() throws SQLException {
+        synchronized (refreshLock) {
+            boolean full;
+            long fromId;
+            long version;
+            synchronized (this) {
+                full = !loaded || stale;
+                fromId = full ? Long.MIN_VALUE : rows.maxId;
+                // 先取版本号再读库：读库期间有写入时版本号不一致，下次查找前再补读一次
+                version = TableVersions.get(tableName);
+                stale = false;
+                removedDuringRefresh = new ArrayList<>();
+            }
+            long start = System.currentTimeMillis();
+            Rows batch;
+            try {
+                batch = load(fromId);
+            } catch (SQLException | RuntimeException e) {
+                synchronized (this) {
+                    if (full) stale = true;
+                    removedDuringRefresh = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                if (full) {
+                    rows = batch;
+                } else {
+                    rows.appendAll(batch);
+                }
+                for (long id : removedDuringRefresh) {
+                    rows.remove(id);
+                }
+                removedDuringRefresh = null;
+                rows.prepare();
+                indexedVersion = version;
+                loaded = true;
+            }
+            LOG.info("查找索引{}完成：{}，读入{}行（共{}行，{}名学生），耗时{}ms", full ? "重建" : "补读", tableName, batch.size,
+                    size(), rows.students.size, System.currentTimeMillis() - start);
+        }
+    }
+
+    private Rows load(long fromId) throws SQLException {
+        String sql = "SELECT id, `" + STUDENT_FIELD + "`, `" + NAME_FIELD + "`, `" + SUBJECT_FIELD + "` FROM " + tableName
+                + " WHERE id > ? ORDER BY id";
+        QueryPatternLog.record(tableName, "id");
+        Rows batch = new Rows();
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            DBUtil.applyFetchSize(pstmt);
+            pstmt.setLong(1, fromId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    batch.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+                }
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * 追加一行（id必须大于已有的id），用于在内存中直接建立索引
+     */
+    public synchronized void add(long id, String studentId, String name, String subject) {
+        if (id <= rows.maxId) {
+            throw new IllegalArgumentException("id必须递增：" + id);
+        }
+        rows.add(id, studentId, name, subject);
+    }
+
+    /**
+     * 成绩已修改：更新该行的学号、姓名、科目（索引中没有该行时忽略，下次刷新会补读）
+     */
+    public synchronized void update(long id, String studentId, String name, String subject) {
+        rows.update(id, studentId, name, subject);
+    }
+
+    /**
+     * 成绩已从表中删除
+     */
+    public synchronized void remove(long id) {
+        rows.remove(id);
+        if (removedDuringRefresh != null) removedDuringRefresh.add(id);
+    }
+
+    /**
+     * 索引中的行数（不含已删除的行）
+     */
+    public synchronized int size() {
+        return rows.size - rows.deletedCount;
+    }
+
+    /**
+     * 查找（只读内存，不访问数据库；索引需要刷新时结果可能不含最新写入的行）
+     * @return 匹配行的主键（升序）；查询为空时返回全部行
+     */
+    public synchronized Result search(String query) {
+        long start = System.nanoTime();
+        Rows r = rows;
+        r.prepare();
+        List<Token> tokens = parse(query);
+        boolean fuzzy = false;
+        for (Token token : tokens) {
+            match(r, token, false);
+            if (token.isEmpty()) {
+                match(r, token, true);
+                fuzzy = true;
+            }
+            if (token.isEmpty()) {
+                QUERY_TIMER.stop(start);
+                return new Result(new long[0], fuzzy, System.nanoTime() - start);
+            }
+            token.estimate = r.students.postingTotal(token.students) + r.names.postingTotal(token.names)
+                    + r.subjects.postingTotal(token.subjects);
+        }
+
+        BitSet hits = new BitSet(r.size);
+        if (tokens.isEmpty()) {
+            hits.set(0, r.size);
+            hits.andNot(r.deleted);
+        } else {
+            // 从匹配行最少的条件出发，逐行检查其余条件
+            Token driver = tokens.get(0);
+            for (Token token : tokens) {
+                if (token.estimate < driver.estimate) driver = token;
+            }
+            collect(r, r.students, r.studentCodes, driver.students, tokens, hits);
+            collect(r, r.names, r.nameCodes, driver.names, tokens, hits);
+            collect(r, r.subjects, r.subjectCodes, driver.subjects, tokens, hits);
+        }
+        long[] ids = new long[hits.cardinality()];
+        int n = 0;
+        for (int row = hits.nextSetBit(0); row >= 0; row = hits.nextSetBit(row + 1)) {
+            ids[n++] = r.ids[row];
+        }
+        QUERY_TIMER.stop(start);
+        return new Result(ids, fuzzy, System.nanoTime() - start);
+    }
+
+    private static void collect(Rows r, Field field, int[] rowCodes, BitSet codes, List<Token> tokens, BitSet hits) {
+        for (int code = codes.nextSetBit(0); code >= 0; code = codes.nextSetBit(code + 1)) {
+            int[] posting = field.postings[code];
+            for (int i = 0, n = field.postingSizes[code]; i < n; i++) {
+                int row = posting[i];
+                if (rowCodes[row] == code && !r.deleted.get(row) && matchesAll(r, row, tokens)) hits.set(row);
+            }
+        }
+    }
+
+    private static boolean matchesAll(Rows r, int row, List<Token> tokens) {
+        for (Token token : tokens) {
+            if (!token.students.get(r.studentCodes[row]) && !token.names.get(r.nameCodes[row])
+                    && !token.subjects.get(r.subjectCodes[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void match(Rows r, Token token, boolean fuzzy) {
+        String value = token.value;
+        if (token.field == null || STUDENT_FIELD.equals(token.field)) {
+            if (fuzzy) {
+                r.students.matchFuzzy(value, token.students);
+            } else {
+                r.students.matchPrefix(value, token.students);
+            }
+        }
+        if (token.field == null || NAME_FIELD.equals(token.field)) {
+            if (fuzzy) {
+                r.names.matchFuzzy(value, token.names);
+            } else if (isAscii(value)) {
+                r.names.matchPrefix(value, token.names);
+                r.names.matchInitialsPrefix(value, token.names);
+            } else {
+                r.names.matchContains(value, token.names);
+            }
+        }
+        if ((token.field == null || SUBJECT_FIELD.equals(token.field)) && !fuzzy) {
+            r.subjects.matchContains(value, token.subjects);
+            if (isAscii(value)) r.subjects.matchInitialsPrefix(value, token.subjects);
+        }
+    }
+
+    private static List<Token> parse(String query) {
+        List<Token> tokens = new ArrayList<>();
+        if (query == null) return tokens;
+        for (String part : query.trim().split("[\\s　]+")) {
+            String field = null;
+            String value = part;
+            int colon = Math.max(part.indexOf(':'), part.indexOf('：'));
+            if (colon > 0) {
+                String prefix = part.substring(0, colon);
+                if (STUDENT_FIELD.equals(prefix) || NAME_FIELD.equals(prefix) || SUBJECT_FIELD.equals(prefix)) {
+                    field = prefix;
+                    value = part.substring(colon + 1);
+                }
+            }
+            value = normalize(value);
+            if (!value.isEmpty()) tokens.add(new Token(field, value));
+        }
+        return tokens;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    /**
+     * a、b之间的编辑距离是否不超过1（一次插入、删除或替换）
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int la = a.length();
+        int lb = b.length();
+        if (Math.abs(la - lb) > 1) return false;
+        if (la > lb) return withinOneEdit(b, a);
+        int i = 0;
+        while (i < la && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        if (i == la) return true;
+        if (la == lb) return a.regionMatches(i + 1, b, i + 1, la - i - 1);
+        return a.regionMatches(i, b, i + 1, la - i);
+    }
+
+    /**
+     * 查询结果
+     */
+    public static class Result {
+        private final long[] ids;
+        private final boolean fuzzy;
+        private final long nanos;
+
+        Result(long[] ids, boolean fuzzy, long nanos) {
+            this.ids = ids;
+            this.fuzzy = fuzzy;
+            this.nanos = nanos;
+        }
+
+        /** 匹配行的主键（升序） */
+        public long[] getIds() { return ids; }
+        /** 是否有条件使用了模糊匹配 */
+        public boolean isFuzzy() { return fuzzy; }
+        public double getMillis() { return nanos / 1e6; }
+    }
+
+    /**
+     * 一个查询条件：在各字段上匹配到的取值编码
+     */
+    private static class Token {
+        private final String field;
+        private final String value;
+        private final BitSet students = new BitSet();
+        private final BitSet names = new BitSet();
+        private final BitSet subjects = new BitSet();
+        private long estimate;
+
+        Token(String field, String value) {
+            this.field = field;
+            this.value = value;
+        }
+
+        boolean isEmpty() {
+            return students.isEmpty() && names.isEmpty() && subjects.isEmpty();
+        }
+    }
+
+    /**
+     * 按id顺序保存的行：每行为三个字段的取值编码
+     */
+    private static class Rows {
+        private final Field students = new Field(false);
+        private final Field names = new Field(true);
+        private final Field subjects = new Field(true);
+        private final BitSet deleted = new BitSet();
+        private long[] ids = new long[1024];
+        private int[] studentCodes = new int[1024];
+        private int[] nameCodes = new int[1024];
+        private int[] subjectCodes = new int[1024];
+        private int size;
+        private int deletedCount;
+        private long maxId = Long.MIN_VALUE;
+
+        void add(long id, String studentId, String name, String subject) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                studentCodes = Arrays.copyOf(studentCodes, capacity);
+                nameCodes = Arrays.copyOf(nameCodes, capacity);
+                subjectCodes = Arrays.copyOf(subjectCodes, capacity);
+            }
+            int row = size++;
+            ids[row] = id;
+            studentCodes[row] = students.add(studentId, row);
+            nameCodes[row] = names.add(name, row);
+            subjectCodes[row] = subjects.add(subject, row);
+            maxId = id;
+        }
+
+        void appendAll(Rows batch) {
+            for (int row = 0; row < batch.size; row++) {
+                if (batch.ids[row] <= maxId) continue;
+                add(batch.ids[row], batch.students.values[batch.studentCodes[row]], batch.names.values[batch.nameCodes[row]],
+                        batch.subjects.values[batch.subjectCodes[row]]);
+            }
+        }
+
+        void update(long id, String studentId, String name, String subject) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row < 0 || deleted.get(row)) return;
+            if (!students.values[studentCodes[row]].equals(normalize(studentId))) studentCodes[row] = students.add(studentId, row);
+            if (!names.values[nameCodes[row]].equals(normalize(name))) nameCodes[row] = names.add(name, row);
+            if (!subjects.values[subjectCodes[row]].equals(normalize(subject))) subjectCodes[row] = subjects.add(subject, row);
+        }
+
+        void remove(long id) {
+            int row = Arrays.binarySearch(ids, 0, size, id);
+            if (row >= 0 && !deleted.get(row)) {
+                deleted.set(row);
+                deletedCount++;
+            }
+        }
+
+        void prepare() {
+            students.prepare();
+            names.prepare();
+            subjects.prepare();
+        }
+    }
+
+    /**
+     * 一个字段：取值字典（已转小写）+ 每个取值的倒排表（所在行号，升序），以及按取值/首字母排序的视图（供前缀查找）
+     */
+    private static class Field {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final boolean withInitials;
+        private String[] values = new String[64];
+        private String[] initials;
+        private int[][] postings = new int[64][];
+        private int[] postingSizes = new int[64];
+        private int size;
+        // 排序视图，取值个数变化后下次查找前重建
+        private int preparedSize = -1;
+        private String[] sortedValues;
+        private int[] sortedValueCodes;
+        private String[] sortedInitials;
+        private int[] sortedInitialCodes;
+        // 汉字 → 含该字的取值编码
+        private Map<Character, int[]> charIndex;
+
+        Field(boolean withInitials) {
+            this.withInitials = withInitials;
+            this.initials = withInitials ? new String[64] : null;
+        }
+
+        int add(String value, int row) {
+            String key = normalize(value);
+            Integer code = codes.get(key);
+            if (code == null) {
+                code = size;
+                if (size == values.length) {
+                    int capacity = size * 2;
+                    values = Arrays.copyOf(values, capacity);
+                    postings = Arrays.copyOf(postings, capacity);
+                    postingSizes = Arrays.copyOf(postingSizes, capacity);
+                    if (initials != null) initials = Arrays.copyOf(initials, capacity);
+                }
+                values[size] = key;
+                if (initials != null) initials[size] = PinyinInitials.of(key);
+                postings[size] = new int[4];
+                codes.put(key, code);
+                size++;
+            }
+            int[] posting = postings[code];
+            if (postingSizes[code] == posting.length) {
+                posting = postings[code] = Arrays.copyOf(posting, posting.length * 2);
+            }
+            posting[postingSizes[code]++] = row;
+            return code;
+        }
+
+        void prepare() {
+            if (preparedSize == size) return;
+            sortedValueCodes = sortedCodes(values);
+            sortedValues = permute(values, sortedValueCodes);
+            if (withInitials) {
+                sortedInitialCodes = sortedCodes(initials);
+                sortedInitials = permute(initials, sortedInitialCodes);
+                Map<Character, List<Integer>> chars = new HashMap<>();
+                for (int code = 0; code < size; code++) {
+                    String value = values[code];
+                    for (int i = 0; i < value.length(); i++) {
+                        char c = value.charAt(i);
+                        if (c < 0x80 || value.indexOf(c) < i) continue;
+                        chars.computeIfAbsent(c, k -> new ArrayList<>()).add(code);
+                    }
+                }
+                charIndex = new HashMap<>(chars.size() * 4 / 3 + 1);
+                for (Map.Entry<Character, List<Integer>> entry : chars.entrySet()) {
+                    charIndex.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+            preparedSize = size;
+        }
+
+        private int[] sortedCodes(String[] keys) {
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> keys[a].compareTo(keys[b]));
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) {
+                sorted[i] = boxed[i];
+            }
+            return sorted;
+        }
+
+        private static String[] permute(String[] keys, int[] order) {
+            String[] sorted = new String[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sorted[i] = keys[order[i]];
+            }
+            return sorted;
+        }
+
+        void matchPrefix(String prefix, BitSet out) {
+            matchPrefix(sortedValues, sortedValueCodes, prefix, out);
+        }
+
+        void matchInitialsPrefix(String prefix, BitSet out) {
+            matchPrefix(sortedInitials, sortedInitialCodes, prefix, out);
+        }
+
+        private static void matchPrefix(String[] sorted, int[] sortedCodes, String prefix, BitSet out) {
+            int lo = 0;
+            int hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid].compareTo(prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo; i < sorted.length && sorted[i].startsWith(prefix); i++) {
+                out.set(sortedCodes[i]);
+            }
+        }
+
+        /**
+         * 取值包含token：token以汉字开头时只检查含该字的取值，否则逐个检查（只用于取值很少的字段）
+         */
+        void matchContains(String token, BitSet out) {
+            char first = token.charAt(0);
+            if (first >= 0x80 && charIndex != null) {
+                int[] candidates = charIndex.get(first);
+                if (candidates == null) return;
+                for (int code : candidates) {
+                    if (values[code].contains(token)) out.set(code);
+                }
+                return;
+            }
+            for (int code = 0; code < size; code++) {
+                if (values[code].contains(token)) out.set(code);
+            }
+        }
+
+        void matchFuzzy(String token, BitSet out) {
+            if (token.length() < FUZZY_MIN_LENGTH) return;
+            for (int code = 0; code < size; code++) {
+                if (withinOneEdit(values[code], token)) out.set(code);
+            }
+        }
+
+        long postingTotal(BitSet codes) {
+            long total = 0;
+            for (int code = codes.nextSetBit(0); code >= 0; code = codes.nextSetBit(code + 1)) {
+                total += postingSizes[code];
+            }
+            return total;
+        }
+    }
+}
\ No newline at end of file
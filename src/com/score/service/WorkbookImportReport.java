@@ -0,0 +1,88 @@
+package com.score.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 多工作表导入结果：每个工作表一份ImportReport（按工作表顺序），外加整体耗时
+ */
+public class WorkbookImportReport {
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<ImportReport> sheetReports = new ArrayList<>();
+    private long elapsedMillis;
+    private int parallelism;
+
+    public void addSheet(String sheetName, ImportReport report) {
+        sheetNames.add(sheetName);
+        sheetReports.add(report);
+    }
+
+    public List<String> getSheetNames() {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    public List<ImportReport> getSheetReports() {
+        return Collections.unmodifiableList(sheetReports);
+    }
+
+    public long getTotalRows() {
+        long total = 0;
+        for (ImportReport report : sheetReports) {
+            total += report.getTotalRows();
+        }
+        return total;
+    }
+
+    public boolean hasErrors() {
+        for (ImportReport report : sheetReports) {
+            if (report.hasErrors()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 各工作表耗时之和 / 整体耗时：约等于实际并行度
+     */
+    public double getSpeedup() {
+        long sum = 0;
+        for (ImportReport report : sheetReports) {
+            sum += report.getElapsedMillis();
+        }
+        return sum / (double) Math.max(1, elapsedMillis);
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("工作表数：%d（并行%d个）\n导入行数：%d\n总耗时：%d ms\n并行加速比：%.1fx",
+                sheetReports.size(), parallelism, getTotalRows(), elapsedMillis, getSpeedup()));
+        for (int i = 0; i < sheetReports.size(); i++) {
+            ImportReport report = sheetReports.get(i);
+            sb.append(String.format("\n[%s] → %s：%d 行，%d ms", sheetNames.get(i), report.getTableName(),
+                    report.getTotalRows(), report.getElapsedMillis()));
+            if (!report.getBuiltIndexes().isEmpty()) {
+                sb.append(String.format("\n  已建索引：%s（%d ms）", String.join("、", report.getBuiltIndexes()), report.getIndexBuildMillis()));
+            }
+            for (String message : report.getErrors()) {
+                sb.append("\n  ").append(message);
+            }
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
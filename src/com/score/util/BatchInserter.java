@@ -0,0 +1,276 @@
+package com.score.util;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.conf.RuntimeProperty;
+import com.mysql.cj.jdbc.JdbcConnection;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量插入执行器：按InsertMode把一批行写入指定表（不提交事务，由调用方控制）
+ * 同一个执行器可重复调用insert，预编译语句会被缓存复用，用完需close()
+ * 表名/列名由调用方负责过滤和加引号，这里原样拼接
+ * 指定键列时为"插入或更新"（增量导入）：键已存在的行覆盖其余列，语句由SqlDialect.buildUpsertSql按方言生成
+ */
+public class BatchInserter implements AutoCloseable {
+    private static final Log LOG = Log.get(BatchInserter.class);
+
+    /**
+     * 行数据来源：按(行号, 列号)取值，屏蔽List<Map>、List<Object[]>等不同的行结构
+     */
+    public interface RowSource {
+        int rowCount();
+
+        Object value(int row, int col);
+    }
+
+    // 单条语句占位符上限（MySQL协议限制65535个参数）
+    private static final int MAX_PLACEHOLDERS = 65535;
+    // 只用max_allowed_packet的75%，给SQL文本和协议开销留余量
+    private static final double PACKET_USAGE = 0.75;
+    private static final long DEFAULT_MAX_PACKET = 4L * 1024 * 1024;
+    // 估算行大小时抽样的行数
+    private static final int SAMPLE_ROWS = 50;
+
+    private final Connection conn;
+    private final String tableName;
+    private final List<String> columns;
+    private final InsertMode mode;
+    // 插入或更新的键列（null=普通插入）
+    private final List<String> upsertKeys;
+
+    private PreparedStatement singleRowStmt;
+    // 多行VALUES：满行数语句（缓存复用）及其行数
+    private PreparedStatement multiRowStmt;
+    private int multiRowCount;
+    private long maxPacket = -1;
+
+    /**
+     * @param columns 已过滤/加引号的列名
+     */
+    public BatchInserter(Connection conn, String tableName, List<String> columns, InsertMode mode) {
+        this(conn, tableName, columns, mode, null);
+    }
+
+    /**
+     * @param upsertKeys 已加引号的键列（须是columns的子集且表上有对应唯一键），null为普通插入
+     */
+    public BatchInserter(Connection conn, String tableName, List<String> columns, InsertMode mode, List<String> upsertKeys) {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("列名不能为空！");
+        }
+        if (upsertKeys != null && (upsertKeys.isEmpty() || !columns.containsAll(upsertKeys))) {
+            throw new IllegalArgumentException("键列必须是写入列的一部分！");
+        }
+        this.conn = conn;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.mode = mode == null ? InsertMode.MULTI_ROW_VALUES : mode;
+        this.upsertKeys = upsertKeys;
+    }
+
+    /**
+     * 写入一批行
+     * @return 写入的行数
+     */
+    public int insert(RowSource rows) throws SQLException {
+        int rowCount = rows.rowCount();
+        if (rowCount == 0) return 0;
+        switch (mode) {
+            case MULTI_ROW_VALUES:
+                insertMultiRow(rows, rowCount);
+                break;
+            case REWRITE_BATCHED:
+                insertRewriteBatched(rows, rowCount);
+                break;
+            default:
+                insertBatch(rows, 0, rowCount);
+                break;
+        }
+        return rowCount;
+    }
+
+    // ==================== 三种插入方式 ====================
+    private void insertBatch(RowSource rows, int from, int to) throws SQLException {
+        if (singleRowStmt == null) {
+            singleRowStmt = conn.prepareStatement(buildInsertSql(1));
+        }
+        int colCount = columns.size();
+        for (int r = from; r < to; r++) {
+            for (int c = 0; c < colCount; c++) {
+                singleRowStmt.setObject(c + 1, rows.value(r, c));
+            }
+            singleRowStmt.addBatch();
+        }
+        singleRowStmt.executeBatch();
+    }
+
+    /**
+     * 驱动改写：临时打开当前连接的rewriteBatchedStatements，执行完恢复原值（连接归还池后不影响他人）
+     * 非MySQL驱动不支持该开关，退化为普通批处理
+     */
+    private void insertRewriteBatched(RowSource rows, int rowCount) throws SQLException {
+        RuntimeProperty<Boolean> rewrite = conn.isWrapperFor(JdbcConnection.class)
+                ? conn.unwrap(JdbcConnection.class).getPropertySet().getBooleanProperty(PropertyKey.rewriteBatchedStatements)
+                : null;
+        Boolean original = rewrite == null ? null : rewrite.getValue();
+        try {
+            if (rewrite != null) rewrite.setValue(true);
+            insertBatch(rows, 0, rowCount);
+        } finally {
+            if (rewrite != null) rewrite.setValue(original);
+        }
+    }
+
+    /**
+     * 多行VALUES：按行大小和max_allowed_packet算出每条语句的行数，整块用缓存语句，尾部不足一块的单独拼一条
+     */
+    private void insertMultiRow(RowSource rows, int rowCount) throws SQLException {
+        int perStatement = rowsPerStatement(rows, rowCount);
+        if (multiRowStmt != null && perStatement >= multiRowCount) {
+            perStatement = multiRowCount; // 已缓存的语句仍在包大小限制内，直接复用
+        } else if (rowCount >= perStatement) {
+            if (multiRowStmt != null) multiRowStmt.close();
+            multiRowStmt = conn.prepareStatement(buildInsertSql(perStatement));
+            multiRowCount = perStatement;
+        }
+
+        int r = 0;
+        for (; r + perStatement <= rowCount; r += perStatement) {
+            bindRows(multiRowStmt, rows, r, perStatement);
+            multiRowStmt.executeUpdate();
+        }
+        int remaining = rowCount - r;
+        if (remaining > 0) {
+            try (PreparedStatement tail = conn.prepareStatement(buildInsertSql(remaining))) {
+                bindRows(tail, rows, r, remaining);
+                tail.executeUpdate();
+            }
+        }
+    }
+
+    private void bindRows(PreparedStatement pstmt, RowSource rows, int from, int count) throws SQLException {
+        int colCount = columns.size();
+        int index = 1;
+        for (int r = from; r < from + count; r++) {
+            for (int c = 0; c < colCount; c++) {
+                pstmt.setObject(index++, rows.value(r, c));
+            }
+        }
+    }
+
+    /**
+     * 计算每条多行INSERT包含的行数：受max_allowed_packet、占位符上限和配置项batch.maxRowsPerStatement共同约束
+     */
+    private int rowsPerStatement(RowSource rows, int rowCount) {
+        long rowBytes = estimateRowBytes(rows, rowCount);
+        long byPacket = (long) (getMaxPacket() * PACKET_USAGE) / Math.max(1, rowBytes);
+        // 单条多行INSERT的行数上限（过大时服务器解析SQL反而变慢）
+        long limit = Math.min(DbConfig.get().getMaxRowsPerStatement(), MAX_PLACEHOLDERS / columns.size());
+        return (int) Math.max(1, Math.min(limit, byPacket));
+    }
+
+    /**
+     * 抽样估算单行在SQL包中的字节数（UTF-8编码长度 + 每列的引号/逗号开销），取样本中的最大值留足余量
+     */
+    private long estimateRowBytes(RowSource rows, int rowCount) {
+        long max = 0;
+        int step = Math.max(1, rowCount / SAMPLE_ROWS);
+        for (int r = 0; r < rowCount; r += step) {
+            long bytes = 2; // 括号
+            for (int c = 0; c < columns.size(); c++) {
+                Object value = rows.value(r, c);
+                bytes += 4 + (value == null ? 4 : value.toString().getBytes(StandardCharsets.UTF_8).length * 2L); // 转义最坏翻倍
+            }
+            max = Math.max(max, bytes);
+        }
+        return max;
+    }
+
+    private long getMaxPacket() {
+        if (maxPacket < 0) {
+            maxPacket = DEFAULT_MAX_PACKET;
+            String query = DBUtil.getDialect().getMaxPacketQuery();
+            if (query == null) return maxPacket;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                if (rs.next()) maxPacket = rs.getLong(1);
+            } catch (SQLException e) {
+                LOG.warn("读取max_allowed_packet失败，按4MB计算：{}", e.getMessage());
+            }
+        }
+        return maxPacket;
+    }
+
+    /**
+     * 拼接插入SQL：rowCount=1时为普通单行INSERT，>1时为多行VALUES；指定了键列时为插入或更新语句（不访问数据库）
+     */
+    public String buildInsertSql(int rowCount) {
+        StringBuilder values = new StringBuilder();
+        StringBuilder group = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            group.append(i == 0 ? "?" : ", ?");
+        }
+        group.append(")");
+        for (int r = 0; r < rowCount; r++) {
+            if (r > 0) values.append(", ");
+            values.append(group);
+        }
+        if (upsertKeys != null) {
+            return DBUtil.getDialect().buildUpsertSql(tableName, columns, upsertKeys, values.toString());
+        }
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES " + values;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (singleRowStmt != null) singleRowStmt.close();
+            if (multiRowStmt != null) multiRowStmt.close();
+        } catch (SQLException e) {
+            LOG.warn("关闭语句失败：{}", e.getMessage());
+        }
+    }
+
+    // ==================== 常用行结构适配 ====================
+    /**
+     * Excel解析结果（列号→单元格文本），缺失的列按空字符串写入
+     */
+    public static RowSource ofMaps(List<Map<Integer, String>> rows) {
+        return new RowSource() {
+            @Override
+            public int rowCount() {
+                return rows.size();
+            }
+
+            @Override
+            public Object value(int row, int col) {
+                return rows.get(row).getOrDefault(col, "");
+            }
+        };
+    }
+
+    /**
+     * 二维数组行（越界按空字符串写入，null写入NULL）
+     */
+    public static RowSource ofArrays(List<Object[]> rows) {
+        return new RowSource() {
+            @Override
+            public int rowCount() {
+                return rows.size();
+            }
+
+            @Override
+            public Object value(int row, int col) {
+                Object[] data = rows.get(row);
+                return col < data.length ? data[col] : "";
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.score.util;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * LOAD DATA LOCAL INFILE批量加载：把CsvRowWriter生成的CSV流直接交给MySQL服务器解析入库
+ * 数据通过Connector/J的setLocalInfileInputStream传入，不依赖客户端文件路径
+ * 客户端能力在建立连接时由db.allowLoadLocalInfile开启（默认关闭，见MySqlDialect.getConnectionProperties），未开启时isLocalInfileEnabled为false，调用方改用批量插入
+ * 服务器关闭local_infile时抛出的异常可用isRefused判断，由调用方退回普通批量插入
+ */
+public class BulkLoader {
+    private static final Log LOG = Log.get(BulkLoader.class);
+
+    // 服务器拒绝本地文件加载的错误码：1148 命令不允许，3948 服务器端禁用，2068 客户端禁用
+    private static final int[] REFUSED_ERROR_CODES = {1148, 3948, 2068};
+    // 最多收集的服务器警告条数（LOAD DATA LOCAL遇到坏数据时只产生警告并跳过该行）
+    private static final int MAX_WARNINGS = 20;
+
+    private BulkLoader() {}
+
+    /**
+     * 连接和服务器是否都允许本地文件加载（当前方言不支持LOAD DATA或查询失败时按不允许处理）
+     */
+    public static boolean isLocalInfileEnabled(Connection conn) {
+        if (!DBUtil.getDialect().supportsLoadDataLocal()) return false;
+        try {
+            if (!conn.isWrapperFor(JdbcConnection.class) || !conn.unwrap(JdbcConnection.class).getPropertySet()
+                    .getBooleanProperty(PropertyKey.allowLoadLocalInfile).getValue()) {
+                LOG.info("连接未开启allowLoadLocalInfile（见配置项{}）", DbConfig.DB_ALLOW_LOCAL_INFILE);
+                return false;
+            }
+        } catch (SQLException e) {
+            LOG.warn("读取连接属性失败：{}", e.getMessage());
+            return false;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT @@local_infile")) {
+            return rs.next() && rs.getInt(1) == 1;
+        } catch (SQLException e) {
+            LOG.warn("查询local_infile失败：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 执行LOAD DATA LOCAL INFILE（不提交事务，由调用方控制）
+     * @param columns 已过滤/加引号的列名，顺序与CSV列一致
+     * @param csv CsvRowWriter格式的UTF-8数据
+     * @param warnings 接收服务器警告（可为null）
+     * @return 实际写入的行数
+     */
+    public static long load(Connection conn, String tableName, List<String> columns, InputStream csv,
+                            List<String> warnings) throws SQLException {
+        if (!conn.isWrapperFor(JdbcConnection.class)) {
+            throw new SQLException("当前驱动不支持LOAD DATA LOCAL INFILE");
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(csv);
+            long rows = stmt.executeLargeUpdate(buildLoadSql(tableName, columns));
+            if (warnings != null) {
+                collectWarnings(stmt.getWarnings(), warnings);
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * 判断异常是否为服务器/驱动拒绝本地文件加载（可回退到普通插入）
+     */
+    public static boolean isRefused(SQLException e) {
+        for (int code : REFUSED_ERROR_CODES) {
+            if (e.getErrorCode() == code) return true;
+        }
+        String message = e.getMessage();
+        return message != null && (message.contains("local infile") || message.contains("Loading local data is disabled"));
+    }
+
+    static String buildLoadSql(String tableName, List<String> columns) {
+        // 文件名只是占位，实际数据来自setLocalInfileInputStream
+        return "LOAD DATA LOCAL INFILE 'stream.csv' INTO TABLE " + tableName
+                + " CHARACTER SET utf8mb4"
+                + " FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+                + " LINES TERMINATED BY '\\n'"
+                + " (" + String.join(", ", columns) + ")";
+    }
+
+    private static void collectWarnings(SQLWarning warning, List<String> warnings) {
+        while (warning != null && warnings.size() < MAX_WARNINGS) {
+            warnings.add(warning.getMessage());
+            warning = warning.getNextWarning();
+        }
+    }
+}
\ No newline at end of file
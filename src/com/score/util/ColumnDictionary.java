@@ -0,0 +1,114 @@
+package com.score.util;
+
+import java.util.Arrays;
+
+/**
+ * 单列字符串字典：把重复出现的单元格文本映射为连续的整数编码，同一文本只保留一个String实例
+ * 用于科目、性别、班级、录入时间这类取值很少却重复几十万行的列（由ColumnarRowBuffer按列使用）
+ * 不同取值超过maxSize后视为高基数列，字典溢出：不再编码并释放已保存的取值，该列改回按字符存储
+ * 只由解析线程写入；已交给其他线程的块持有values()快照，快照中已有的下标不会再被修改
+ */
+public final class ColumnDictionary {
+    private static final int INITIAL_SLOTS = 64;
+
+    private final int maxSize;
+    // 开放寻址哈希表：槽位保存编码+1，0表示空槽
+    private int[] slots;
+    private String[] values;
+    private int size;
+    private boolean overflowed;
+
+    /**
+     * @param maxSize 最多保存的不同取值个数，超过后字典溢出
+     */
+    public ColumnDictionary(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("字典大小必须大于0！");
+        }
+        this.maxSize = maxSize;
+        this.slots = new int[INITIAL_SLOTS];
+        this.values = new String[Math.min(maxSize, INITIAL_SLOTS / 2)];
+    }
+
+    /**
+     * 每列一个字典
+     * @param maxSize 0表示不使用字典，返回null
+     */
+    public static ColumnDictionary[] forColumns(int columnCount, int maxSize) {
+        if (maxSize <= 0) return null;
+        ColumnDictionary[] dictionaries = new ColumnDictionary[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            dictionaries[c] = new ColumnDictionary(maxSize);
+        }
+        return dictionaries;
+    }
+
+    /**
+     * 取文本的编码（新文本追加到字典）
+     * @return 编码；字典已溢出（或本次追加导致溢出）时返回-1
+     */
+    public int encode(String value) {
+        if (overflowed) return -1;
+        int mask = slots.length - 1;
+        int slot = spread(value.hashCode()) & mask;
+        while (slots[slot] != 0) {
+            int code = slots[slot] - 1;
+            if (values[code].equals(value)) return code;
+            slot = (slot + 1) & mask;
+        }
+        if (size >= maxSize) {
+            overflow();
+            return -1;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.min(maxSize, size * 2));
+        }
+        int code = size++;
+        values[code] = value;
+        slots[slot] = code + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /**
+     * 当前取值数组（下标即编码，只读；长度可能大于size）
+     * 溢出后返回空数组，已有的快照仍然有效
+     */
+    public String[] values() {
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isOverflowed() {
+        return overflowed;
+    }
+
+    private void overflow() {
+        overflowed = true;
+        slots = new int[0];
+        values = new String[0];
+        size = 0;
+    }
+
+    private void rehash() {
+        int[] newSlots = new int[slots.length * 2];
+        int mask = newSlots.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = spread(values[code].hashCode()) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = code + 1;
+        }
+        slots = newSlots;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.score.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+
+/**
+ * 列类型：INT/BIGINT/DECIMAL(p,s)/DATE/VARCHAR(n)/TEXT
+ * 负责生成建表类型定义，以及把Excel单元格文本转换成对应的Java值（写库时按类型绑定参数）
+ */
+public final class ColumnType {
+    public enum Kind {
+        INT, BIGINT, DECIMAL, DATE, VARCHAR, TEXT
+    }
+
+    // 原有建表方式的默认类型
+    public static final ColumnType DEFAULT_VARCHAR = varchar(255);
+
+    // 支持的日期写法：2024-06-30、2024/6/30、2024.6.30
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+            DateTimeFormatter.ofPattern("uuuu-M-d").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuu/M/d").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuu.M.d").withResolverStyle(ResolverStyle.STRICT)
+    };
+
+    private final Kind kind;
+    // VARCHAR为最大字符数，DECIMAL为总位数
+    private final int length;
+    // DECIMAL小数位数
+    private final int scale;
+
+    private ColumnType(Kind kind, int length, int scale) {
+        this.kind = kind;
+        this.length = length;
+        this.scale = scale;
+    }
+
+    public static ColumnType ofInt() { return new ColumnType(Kind.INT, 0, 0); }
+    public static ColumnType ofBigint() { return new ColumnType(Kind.BIGINT, 0, 0); }
+    public static ColumnType decimal(int precision, int scale) { return new ColumnType(Kind.DECIMAL, precision, scale); }
+    public static ColumnType date() { return new ColumnType(Kind.DATE, 0, 0); }
+    public static ColumnType varchar(int length) { return new ColumnType(Kind.VARCHAR, length, 0); }
+    public static ColumnType text() { return new ColumnType(Kind.TEXT, 0, 0); }
+
+    /**
+     * 由JDBC元数据（DatabaseMetaData.getColumns的TYPE_NAME/COLUMN_SIZE/DECIMAL_DIGITS）还原列类型
+     * @return 不需要校验的类型（如DATETIME、BLOB）返回null
+     */
+    public static ColumnType fromJdbc(String typeName, int size, int digits) {
+        String name = typeName == null ? "" : typeName.toUpperCase();
+        if (name.startsWith("BIGINT")) return ofBigint();
+        if (name.startsWith("INT") || name.startsWith("MEDIUMINT") || name.startsWith("SMALLINT") || name.startsWith("TINYINT")) return ofInt();
+        if (name.startsWith("DECIMAL") || name.equals("NUMERIC")) return decimal(size, digits);
+        if (name.equals("DATE")) return date();
+        if (name.equals("VARCHAR") || name.equals("CHAR") || name.equals("CHARACTER VARYING") || name.equals("CHARACTER")) return varchar(size);
+        if (name.endsWith("TEXT") || name.equals("CLOB") || name.equals("CHARACTER LARGE OBJECT")) return text(); // 后两者为H2的类型名
+        return null;
+    }
+
+    public Kind getKind() { return kind; }
+    public int getLength() { return length; }
+    public int getScale() { return scale; }
+
+    /**
+     * 建表用的类型定义
+     */
+    public String toSql() {
+        switch (kind) {
+            case DECIMAL: return "DECIMAL(" + length + "," + scale + ")";
+            case VARCHAR: return "VARCHAR(" + length + ")";
+            default: return kind.name();
+        }
+    }
+
+    /**
+     * 严格转换：空白值在文本列保留原样、其他类型转为null；不符合类型时抛出IllegalArgumentException（message为原因）
+     */
+    public Object convert(String text) {
+        if (kind == Kind.VARCHAR || kind == Kind.TEXT) {
+            if (kind == Kind.VARCHAR && text != null && text.length() > length) {
+                throw new IllegalArgumentException("长度" + text.length() + "超过" + length);
+            }
+            return text;
+        }
+        if (text == null || text.trim().isEmpty()) return null;
+        String value = text.trim();
+        try {
+            switch (kind) {
+                case INT: return Integer.valueOf(value);
+                case BIGINT: return Long.valueOf(value);
+                case DECIMAL: {
+                    BigDecimal number = new BigDecimal(value);
+                    if (number.scale() > scale) {
+                        throw new IllegalArgumentException("小数位超过" + scale + "位");
+                    }
+                    if (number.precision() - number.scale() > length - scale) {
+                        throw new IllegalArgumentException("整数位超过" + (length - scale) + "位");
+                    }
+                    return number;
+                }
+                default: return java.sql.Date.valueOf(parseDate(value));
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("不是" + label());
+        }
+    }
+
+    /**
+     * 宽松转换：能修正的修正（文本截断、小数四舍五入），无法转换的返回null
+     */
+    public Object coerce(String text) {
+        if (kind == Kind.VARCHAR && text != null && text.length() > length) {
+            return text.substring(0, length);
+        }
+        try {
+            return convert(text);
+        } catch (IllegalArgumentException e) {
+            if (kind == Kind.DECIMAL) {
+                try {
+                    BigDecimal number = new BigDecimal(text.trim()).setScale(scale, RoundingMode.HALF_UP);
+                    if (number.precision() - number.scale() <= length - scale) return number;
+                } catch (NumberFormatException ignored) {
+                    // 不是数字，按null处理
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 按支持的日期写法解析，都不匹配时抛出DateTimeParseException
+     */
+    static LocalDate parseDate(String value) {
+        DateTimeParseException last = null;
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(value, format);
+            } catch (DateTimeParseException e) {
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    private String label() {
+        switch (kind) {
+            case INT:
+            case BIGINT: return "整数";
+            case DECIMAL: return "数字";
+            case DATE: return "日期";
+            default: return "文本";
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ColumnType)) return false;
+        ColumnType other = (ColumnType) o;
+        return kind == other.kind && length == other.length && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+        return (kind.hashCode() * 31 + length) * 31 + scale;
+    }
+
+    @Override
+    public String toString() {
+        return toSql();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.score.util;
+
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 列类型推断：扫描样本行，为每列选出能容纳所有非空样本值的最窄类型
+ * 优先级 INT → BIGINT → DECIMAL → DATE → VARCHAR(n) → TEXT；全空的列按VARCHAR(255)
+ * 以0开头的多位数字（如学号00123）按文本处理，避免丢失前导0
+ */
+public class ColumnTypeInferrer {
+    private static final Pattern INTEGER = Pattern.compile("-?(0|[1-9]\\d*)");
+    private static final Pattern DECIMAL = Pattern.compile("-?(0|[1-9]\\d*)\\.\\d+");
+    // 文本列长度：样本最大长度的2倍（样本外的值可能更长），按16取整，最小32
+    private static final int MIN_VARCHAR = 32;
+    private static final int MAX_VARCHAR = 255;
+    // DECIMAL整数位预留的余量
+    private static final int DECIMAL_HEADROOM = 2;
+
+    private ColumnTypeInferrer() {}
+
+    /**
+     * @param rows 样本行（值按toString()取文本）
+     * @param columnCount 列数
+     * @return 每列推断出的类型
+     */
+    public static List<ColumnType> infer(BatchInserter.RowSource rows, int columnCount) {
+        List<ColumnType> types = new ArrayList<>(columnCount);
+        for (int c = 0; c < columnCount; c++) {
+            ColumnStats stats = new ColumnStats();
+            for (int r = 0; r < rows.rowCount(); r++) {
+                Object value = rows.value(r, c);
+                stats.accept(value == null ? null : value.toString());
+            }
+            types.add(stats.toType());
+        }
+        return types;
+    }
+
+    private static class ColumnStats {
+        private int nonEmpty;
+        private boolean allInteger = true;
+        private boolean allDecimal = true;
+        private boolean allDate = true;
+        private boolean fitsInt = true;
+        private int maxIntDigits;
+        private int maxScale;
+        private int maxLength;
+
+        void accept(String raw) {
+            if (raw == null || raw.trim().isEmpty()) return;
+            String value = raw.trim();
+            nonEmpty++;
+            maxLength = Math.max(maxLength, raw.length());
+
+            boolean isInteger = INTEGER.matcher(value).matches();
+            boolean isDecimal = isInteger || DECIMAL.matcher(value).matches();
+            allInteger &= isInteger;
+            allDecimal &= isDecimal;
+            if (isInteger) {
+                int digits = value.startsWith("-") ? value.length() - 1 : value.length();
+                if (digits > 18) {
+                    allInteger = false; // 超出BIGINT范围
+                } else if (fitsInt) {
+                    long number = Long.parseLong(value);
+                    fitsInt = number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE;
+                }
+            }
+            if (isDecimal) {
+                String unsigned = value.startsWith("-") ? value.substring(1) : value;
+                int dot = unsigned.indexOf('.');
+                maxIntDigits = Math.max(maxIntDigits, dot < 0 ? unsigned.length() : dot);
+                maxScale = Math.max(maxScale, dot < 0 ? 0 : unsigned.length() - dot - 1);
+            }
+            if (allDate && !isDecimal) {
+                try {
+                    ColumnType.parseDate(value);
+                } catch (DateTimeParseException e) {
+                    allDate = false;
+                }
+            } else {
+                allDate = false;
+            }
+        }
+
+        ColumnType toType() {
+            if (nonEmpty == 0) return ColumnType.DEFAULT_VARCHAR;
+            if (allInteger) return fitsInt ? ColumnType.ofInt() : ColumnType.ofBigint();
+            if (allDecimal) {
+                int scale = Math.min(30, maxScale);
+                int precision = Math.min(65, maxIntDigits + DECIMAL_HEADROOM + scale);
+                return ColumnType.decimal(precision, scale);
+            }
+            if (allDate) return ColumnType.date();
+            if (maxLength > MAX_VARCHAR) return ColumnType.text();
+            int length = Math.max(MIN_VARCHAR, (maxLength * 2 + 15) / 16 * 16);
+            return ColumnType.varchar(Math.min(MAX_VARCHAR, length));
+        }
+    }
+}
\ No newline at end of file
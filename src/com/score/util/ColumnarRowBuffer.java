@@ -0,0 +1,236 @@
+package com.score.util;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 列式行缓冲：替代导入路径上的List<Map<Integer, String>>，一块数据只占每列两个数组
+ * 每列一个字符数组（该列所有单元格首尾相接）+ 一个int数组（每行单元格在字符数组中的结束位置，NULL记为-1-结束位置）
+ * Map方式每个单元格需要HashMap节点、Integer键、String对象和其内部数组，列式存储只保留字符本身和4字节偏移
+ * 作为RowSource直接交给SchemaEnforcer/BatchInserter，取值时才创建String（用完即可回收）
+ * 传入ColumnDictionary时，低基数列改为字典编码：每行只存4字节编码，取值直接返回字典中的同一String实例（不再创建新对象），
+ * 字典溢出（高基数列）时该列自动改回按字符存储
+ * 非线程安全：写满一块后交给其他线程只读使用
+ */
+public final class ColumnarRowBuffer implements BatchInserter.RowSource {
+    private static final String EMPTY = "";
+    // 未知列宽时每个单元格预估的字符数
+    private static final int DEFAULT_CHARS_PER_CELL = 8;
+
+    private final int columnCount;
+    private int rowCount;
+    private int rowCapacity;
+    private final char[][] chars;
+    private final int[] charCounts;
+    private final int[][] ends;
+    // 字典编码的列：dictionaries[c]非null，codes[c]为每行编码（NULL记为-1），dictValues[c]为最近一次编码后的取值数组快照
+    private final ColumnDictionary[] dictionaries;
+    private final int[][] codes;
+    private final String[][] dictValues;
+
+    public ColumnarRowBuffer(int columnCount, int rowCapacity) {
+        this(columnCount, rowCapacity, null, null);
+    }
+
+    /**
+     * @param dictionaries 每列的字典（数组或其中某列为null时该列按字符存储），同一导入的各块共用
+     */
+    public ColumnarRowBuffer(int columnCount, int rowCapacity, ColumnDictionary[] dictionaries) {
+        this(columnCount, rowCapacity, null, dictionaries);
+    }
+
+    /**
+     * @param charCapacities 每列预分配的字符数（null时按每格8个字符估算）
+     */
+    private ColumnarRowBuffer(int columnCount, int rowCapacity, int[] charCapacities, ColumnDictionary[] dictionaries) {
+        if (columnCount <= 0) {
+            throw new IllegalArgumentException("列数必须大于0！");
+        }
+        if (dictionaries != null && dictionaries.length < columnCount) {
+            throw new IllegalArgumentException("字典个数少于列数！");
+        }
+        this.columnCount = columnCount;
+        this.rowCapacity = Math.max(1, rowCapacity);
+        this.chars = new char[columnCount][];
+        this.charCounts = new int[columnCount];
+        this.ends = new int[columnCount][];
+        this.dictionaries = new ColumnDictionary[columnCount];
+        this.codes = new int[columnCount][];
+        this.dictValues = new String[columnCount][];
+        for (int c = 0; c < columnCount; c++) {
+            ColumnDictionary dictionary = dictionaries == null ? null : dictionaries[c];
+            if (dictionary != null && !dictionary.isOverflowed()) {
+                this.dictionaries[c] = dictionary;
+                codes[c] = new int[this.rowCapacity];
+                dictValues[c] = dictionary.values();
+            } else {
+                int capacity = charCapacities != null ? charCapacities[c] : this.rowCapacity * DEFAULT_CHARS_PER_CELL;
+                chars[c] = new char[Math.max(16, capacity)];
+                ends[c] = new int[this.rowCapacity];
+            }
+        }
+    }
+
+    /**
+     * 下一块的空缓冲：按本块各列实际用到的字符数（多留1/8）预分配，连续导入时基本不用再扩容
+     * 未溢出的字典继续用于下一块
+     */
+    public ColumnarRowBuffer nextBuffer() {
+        int[] capacities = new int[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            capacities[c] = chars[c] == null ? rowCapacity * DEFAULT_CHARS_PER_CELL : charCounts[c] + (charCounts[c] >> 3);
+        }
+        return new ColumnarRowBuffer(columnCount, Math.max(rowCapacity, rowCount), capacities, dictionaries);
+    }
+
+    /**
+     * 追加一行Excel解析结果（列号→单元格文本）：缺失的列按空字符串保存，值为null的列保存为NULL（与BatchInserter.ofMaps一致）
+     * 超出列数的单元格忽略
+     */
+    public void addRow(Map<Integer, String> row) {
+        ensureRowCapacity();
+        for (int c = 0; c < columnCount; c++) {
+            String value = row.get(c);
+            if (value == null && !row.containsKey(c)) value = EMPTY;
+            append(c, value);
+        }
+        rowCount++;
+    }
+
+    /**
+     * 追加一行（按列顺序，不足的列按空字符串保存）
+     */
+    public void addRow(String... values) {
+        ensureRowCapacity();
+        for (int c = 0; c < columnCount; c++) {
+            append(c, c < values.length ? values[c] : EMPTY);
+        }
+        rowCount++;
+    }
+
+    private void append(int col, String value) {
+        if (codes[col] != null) {
+            int code = value == null ? -1 : dictionaries[col].encode(value);
+            if (code >= 0 || value == null) {
+                codes[col][rowCount] = code;
+                dictValues[col] = dictionaries[col].values();
+                return;
+            }
+            toChars(col); // 字典溢出：本列已有的行转为按字符存储，之后的块也不再使用字典
+        }
+        int start = charCounts[col];
+        if (value == null) {
+            ends[col][rowCount] = -1 - start;
+            return;
+        }
+        int length = value.length();
+        if (start + length > chars[col].length) {
+            chars[col] = Arrays.copyOf(chars[col], Math.max(chars[col].length * 2, start + length));
+        }
+        value.getChars(0, length, chars[col], start);
+        charCounts[col] = start + length;
+        ends[col][rowCount] = start + length;
+    }
+
+    /**
+     * 把字典编码的列改为按字符存储（在写入当前行之前调用，前rowCount行已写完）
+     */
+    private void toChars(int col) {
+        int[] colCodes = codes[col];
+        String[] colValues = dictValues[col];
+        codes[col] = null;
+        dictValues[col] = null;
+        dictionaries[col] = null;
+        chars[col] = new char[Math.max(16, rowCapacity * DEFAULT_CHARS_PER_CELL)];
+        ends[col] = new int[rowCapacity];
+        int rows = rowCount;
+        for (int r = 0; r < rows; r++) {
+            rowCount = r;
+            append(col, colCodes[r] < 0 ? null : colValues[colCodes[r]]);
+        }
+        rowCount = rows;
+    }
+
+    private void ensureRowCapacity() {
+        if (rowCount < rowCapacity) return;
+        rowCapacity *= 2;
+        for (int c = 0; c < columnCount; c++) {
+            if (codes[c] != null) {
+                codes[c] = Arrays.copyOf(codes[c], rowCapacity);
+            } else {
+                ends[c] = Arrays.copyOf(ends[c], rowCapacity);
+            }
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return columnCount;
+    }
+
+    /**
+     * 单元格文本（NULL返回null，空单元格返回同一个空字符串实例，字典编码的列返回字典中的实例）
+     */
+    @Override
+    public String value(int row, int col) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界：" + row);
+        }
+        if (codes[col] != null) {
+            int code = codes[col][row];
+            return code < 0 ? null : dictValues[col][code];
+        }
+        int[] colEnds = ends[col];
+        int end = colEnds[row];
+        if (end < 0) return null;
+        int start = row == 0 ? 0 : decode(colEnds[row - 1]);
+        return end == start ? EMPTY : new String(chars[col], start, end - start);
+    }
+
+    public boolean isNull(int row, int col) {
+        return codes[col] != null ? codes[col][row] < 0 : ends[col][row] < 0;
+    }
+
+    /**
+     * 该列在本块中是否为字典编码
+     */
+    public boolean isDictionaryEncoded(int col) {
+        return codes[col] != null;
+    }
+
+    /**
+     * 字典编码列的单元格编码（NULL为-1），同一编码即同一文本，调用方可按编码缓存转换结果
+     */
+    public int dictionaryCode(int row, int col) {
+        if (codes[col] == null) {
+            throw new IllegalStateException("第" + col + "列不是字典编码");
+        }
+        return codes[col][row];
+    }
+
+    /**
+     * 字典编码列的编码上界（本块所有编码都小于该值）
+     */
+    public int dictionaryBound(int col) {
+        return codes[col] == null ? 0 : dictValues[col].length;
+    }
+
+    private static int decode(int end) {
+        return end < 0 ? -1 - end : end;
+    }
+
+    /**
+     * 已分配的堆内存估算（字节）：字符数组 + 偏移数组（字典编码列为编码数组，字典本身由各块共用，不计入）+ 数组对象头
+     */
+    public long heapBytes() {
+        long bytes = 64;
+        for (int c = 0; c < columnCount; c++) {
+            bytes += codes[c] != null ? 16 + 4L * codes[c].length : 16 + 2L * chars[c].length + 16 + 4L * ends[c].length;
+        }
+        return bytes;
+    }
+}
\ No newline at end of file
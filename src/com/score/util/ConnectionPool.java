@@ -0,0 +1,537 @@
+package com.score.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 数据库连接池（DBUtil内部使用）
+ * 功能：
+ * 1. 最小/最大连接数：启动时预建minSize个连接，并发高峰最多建到maxSize个
+ * 2. 借出校验：空闲超过validateAfterIdleMillis的连接借出前先ping一次，失效则重建
+ * 3. 空闲回收：后台线程定期关闭空闲过久的连接（保留minSize个）
+ * 4. 泄漏检测：借出超过leakThresholdMillis未归还的连接打印借出位置
+ * 5. 连接池指标：活跃数、空闲数、等待耗时等（见Stats）
+ * 借出的是代理连接：调用close()只是归还连接池，不会断开物理连接，
+ * 因此DBUtil.close(...)和try-with-resources的写法都无需修改。
+ */
+public class ConnectionPool {
+    private static final Log LOG = Log.get(ConnectionPool.class);
+
+    private final String url;
+    // 连接属性（user、password及方言需要的驱动参数）
+    private final Properties info;
+
+    // ========== 可调参数（setter修改后立即生效） ==========
+    private volatile int minSize = 2;
+    private volatile int maxSize = 10;
+    private volatile long borrowTimeoutMillis = 10_000;
+    private volatile long idleTimeoutMillis = 10 * 60_000;
+    private volatile long validateAfterIdleMillis = 1_000;
+    private volatile long leakThresholdMillis = 60_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30_000;
+
+    // ========== 池状态（均由lock保护） ==========
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    // 空闲连接：后进先出，优先复用刚归还的“热”连接
+    private final Deque<PooledEntry> idle = new ArrayDeque<>();
+    private final Set<PooledEntry> active = new HashSet<>();
+    // 物理连接总数（含正在创建中的）
+    private int totalCount = 0;
+    private int waitingThreads = 0;
+    private boolean shutdown = false;
+
+    // ========== 指标 ==========
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    private final ScheduledExecutorService housekeeper;
+
+    public ConnectionPool(String url, String user, String password) {
+        this(url, credentials(user, password));
+    }
+
+    public ConnectionPool(String url, Properties info) {
+        this.url = url;
+        this.info = info;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        // 首次立即执行：后台预建minSize个连接，不阻塞调用方
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                0, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 借出连接：优先复用空闲连接，不足时新建，达到上限则等待borrowTimeoutMillis
+     */
+    public Connection borrow() throws SQLException {
+        long waitStart = System.nanoTime();
+        long deadline = waitStart + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledEntry entry = null;
+            boolean createNew = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("连接池已关闭");
+                    }
+                    entry = idle.pollFirst();
+                    if (entry != null) {
+                        break;
+                    }
+                    if (totalCount < maxSize) {
+                        totalCount++; // 先占位，在锁外创建物理连接
+                        createNew = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLException("获取数据库连接超时（" + borrowTimeoutMillis + "ms），连接池已满：" + maxSize);
+                    }
+                    waitingThreads++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("等待数据库连接被中断", e);
+                    } finally {
+                        waitingThreads--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (createNew) {
+                try {
+                    entry = new PooledEntry(createPhysical());
+                } catch (SQLException e) {
+                    discardReservation();
+                    throw e;
+                }
+            } else if (!validate(entry)) {
+                discard(entry);
+                continue; // 失效连接已丢弃，重新借
+            }
+
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowTrace = leakThresholdMillis > 0 ? new Throwable("连接借出位置") : null;
+            entry.leakReported = false;
+            lock.lock();
+            try {
+                active.add(entry);
+            } finally {
+                lock.unlock();
+            }
+            recordWait(System.nanoTime() - waitStart);
+            return entry.newProxy();
+        }
+    }
+
+    /**
+     * 归还连接：重置事务状态后放回空闲队列；重置失败或超出maxSize则直接关闭
+     */
+    private void release(PooledEntry entry) {
+        boolean healthy = resetState(entry.physical);
+        lock.lock();
+        try {
+            active.remove(entry);
+            if (healthy && !shutdown && totalCount <= maxSize) {
+                entry.lastUsedAt = System.currentTimeMillis();
+                idle.addFirst(entry);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(entry);
+    }
+
+    /**
+     * 恢复连接默认状态：未提交的事务回滚，自动提交改回true
+     */
+    private boolean resetState(Connection physical) {
+        try {
+            if (physical.isClosed()) {
+                return false;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            LOG.warn("归还连接时重置状态失败，丢弃该连接：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 借出校验：刚用过的连接跳过校验，避免每次借出都多一次网络往返
+     */
+    private boolean validate(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastUsedAt < validateAfterIdleMillis) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection createPhysical() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, info);
+        createdCount.incrementAndGet();
+        LOG.info("新建物理连接：{}", url);
+        return conn;
+    }
+
+    private static Properties credentials(String user, String password) {
+        Properties info = new Properties();
+        info.setProperty("user", user);
+        info.setProperty("password", password);
+        return info;
+    }
+
+    private void discard(PooledEntry entry) {
+        closeQuietly(entry.physical);
+        discardReservation();
+    }
+
+    private void discardReservation() {
+        lock.lock();
+        try {
+            totalCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get())) {
+            if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 后台维护：回收空闲过久的连接、补足最小连接数、检测连接泄漏
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            List<PooledEntry> expired = new ArrayList<>();
+            List<PooledEntry> leaked = new ArrayList<>();
+            int toCreate;
+
+            lock.lock();
+            try {
+                if (shutdown) return;
+                Iterator<PooledEntry> it = idle.descendingIterator(); // 从最久未用的开始
+                while (it.hasNext() && totalCount - expired.size() > minSize) {
+                    PooledEntry entry = it.next();
+                    if (now - entry.lastUsedAt > idleTimeoutMillis) {
+                        it.remove();
+                        expired.add(entry);
+                    }
+                }
+                if (leakThresholdMillis > 0) {
+                    for (PooledEntry entry : active) {
+                        if (!entry.leakReported && now - entry.borrowedAt > leakThresholdMillis) {
+                            entry.leakReported = true;
+                            leaked.add(entry);
+                        }
+                    }
+                }
+                toCreate = Math.max(0, minSize - (totalCount - expired.size()));
+                totalCount += toCreate; // 占位
+            } finally {
+                lock.unlock();
+            }
+
+            for (PooledEntry entry : expired) {
+                evictedCount.incrementAndGet();
+                discard(entry);
+            }
+            for (PooledEntry entry : leaked) {
+                leakCount.incrementAndGet();
+                // 借出堆栈作为最后一个参数，日志中会打印借出位置
+                LOG.warn("疑似连接泄漏：连接已借出 {}ms 未归还", now - entry.borrowedAt, entry.borrowTrace);
+            }
+            for (int i = 0; i < toCreate; i++) {
+                try {
+                    PooledEntry entry = new PooledEntry(createPhysical());
+                    lock.lock();
+                    try {
+                        idle.addLast(entry);
+                        available.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (SQLException e) {
+                    discardReservation();
+                    LOG.warn("补充最小连接失败：{}", e.getMessage());
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error("连接池维护任务异常：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 关闭连接池：关闭所有空闲连接，借出中的连接归还时直接关闭
+     */
+    public void shutdown() {
+        List<PooledEntry> toClose;
+        lock.lock();
+        try {
+            if (shutdown) return;
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        housekeeper.shutdownNow();
+        for (PooledEntry entry : toClose) {
+            discard(entry);
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // 物理连接已不可用，忽略
+        }
+    }
+
+    // ==================== 参数设置 ====================
+    public void setMinSize(int minSize) {
+        if (minSize < 0) throw new IllegalArgumentException("最小连接数不能为负数");
+        this.minSize = minSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 1) throw new IllegalArgumentException("最大连接数必须大于0");
+        this.maxSize = maxSize;
+        List<PooledEntry> surplus = new ArrayList<>();
+        lock.lock();
+        try {
+            // 缩容：多出的空闲连接立即关闭，借出中的连接归还时再关闭
+            while (totalCount - surplus.size() > maxSize && !idle.isEmpty()) {
+                surplus.add(idle.pollLast());
+            }
+            available.signalAll(); // 扩容后唤醒等待线程
+        } finally {
+            lock.unlock();
+        }
+        for (PooledEntry entry : surplus) {
+            discard(entry);
+        }
+    }
+
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) {
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public void setValidateAfterIdleMillis(long validateAfterIdleMillis) {
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+    }
+
+    /**
+     * @param leakThresholdMillis 泄漏判定阈值，<=0表示关闭泄漏检测（不再记录借出堆栈）
+     */
+    public void setLeakThresholdMillis(long leakThresholdMillis) {
+        this.leakThresholdMillis = leakThresholdMillis;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    // ==================== 指标 ====================
+    /**
+     * 获取连接池当前指标快照
+     */
+    public Stats getStats() {
+        lock.lock();
+        try {
+            return new Stats(active.size(), idle.size(), totalCount, waitingThreads,
+                    borrowCount.get(), totalWaitNanos.get(), maxWaitNanos.get(),
+                    createdCount.get(), evictedCount.get(), timeoutCount.get(), leakCount.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 连接池指标快照（不可变）
+     */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int waiting;
+        private final long borrowCount;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+        private final long createdCount;
+        private final long evictedCount;
+        private final long timeoutCount;
+        private final long leakCount;
+
+        Stats(int active, int idle, int total, int waiting, long borrowCount, long totalWaitNanos, long maxWaitNanos,
+              long createdCount, long evictedCount, long timeoutCount, long leakCount) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.waiting = waiting;
+            this.borrowCount = borrowCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.createdCount = createdCount;
+            this.evictedCount = evictedCount;
+            this.timeoutCount = timeoutCount;
+            this.leakCount = leakCount;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public int getWaiting() { return waiting; }
+        public long getBorrowCount() { return borrowCount; }
+        public long getCreatedCount() { return createdCount; }
+        public long getEvictedCount() { return evictedCount; }
+        public long getTimeoutCount() { return timeoutCount; }
+        public long getLeakCount() { return leakCount; }
+
+        // 平均等待耗时（毫秒）
+        public double getAvgWaitMillis() {
+            return borrowCount == 0 ? 0 : totalWaitNanos / 1e6 / borrowCount;
+        }
+
+        // 最大等待耗时（毫秒）
+        public double getMaxWaitMillis() {
+            return maxWaitNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("活跃=%d, 空闲=%d, 总数=%d, 等待线程=%d, 借出次数=%d, 平均等待=%.2fms, 最大等待=%.2fms, "
+                            + "新建=%d, 回收=%d, 超时=%d, 疑似泄漏=%d",
+                    active, idle, total, waiting, borrowCount, getAvgWaitMillis(), getMaxWaitMillis(),
+                    createdCount, evictedCount, timeoutCount, leakCount);
+        }
+    }
+
+    // ==================== 池化连接 ====================
+    /**
+     * 池中的一个物理连接及其借出信息
+     */
+    private class PooledEntry {
+        private final Connection physical;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * 每次借出生成一个新代理：归还后旧代理失效，防止调用方归还后继续使用
+         */
+        Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new ProxyHandler(this));
+        }
+    }
+
+    /**
+     * 代理连接：close()改为归还连接池，其余方法转发给物理连接
+     */
+    private class ProxyHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean closed = false;
+
+        ProxyHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("连接已归还连接池，不能继续使用");
+                    }
+                    try {
+                        return method.invoke(entry.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
\ No newline at end of file
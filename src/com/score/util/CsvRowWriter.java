@@ -0,0 +1,114 @@
+package com.score.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV行写入器，两种格式：
+ * 1. MySQL LOAD DATA格式（构造函数）：字段用双引号包裹，逗号分隔，\n换行
+ *    字段内的反斜杠、双引号、换行按LOAD DATA的ESCAPED BY '\\'规则转义，null写为\N
+ * 2. 通用CSV格式（forExport，RFC 4180）：含逗号、双引号、换行的字段用双引号包裹，字段内双引号写两次，null写为空，\r\n换行
+ * 只负责格式化，不关闭也不缓冲底层Writer（调用方传入BufferedWriter）
+ */
+public class CsvRowWriter {
+    private final Writer out;
+    private final int columnCount;
+    private final boolean loadData;
+    private long rowCount;
+
+    public CsvRowWriter(Writer out, int columnCount) {
+        this(out, columnCount, true);
+    }
+
+    private CsvRowWriter(Writer out, int columnCount, boolean loadData) {
+        this.out = out;
+        this.columnCount = columnCount;
+        this.loadData = loadData;
+    }
+
+    /**
+     * 导出用的通用CSV格式（Excel、WPS可直接打开）
+     */
+    public static CsvRowWriter forExport(Writer out, int columnCount) {
+        return new CsvRowWriter(out, columnCount, false);
+    }
+
+    /**
+     * 写入一行（表头等），不计入行数
+     */
+    public void writeHeader(Object[] values) throws IOException {
+        for (int c = 0; c < columnCount; c++) {
+            if (c > 0) out.write(',');
+            writeField(values[c]);
+        }
+        out.write(loadData ? "\n" : "\r\n");
+    }
+
+    /**
+     * 写入一批行（列数以构造时的columnCount为准）
+     */
+    public void writeRows(BatchInserter.RowSource rows) throws IOException {
+        int count = rows.rowCount();
+        for (int r = 0; r < count; r++) {
+            for (int c = 0; c < columnCount; c++) {
+                if (c > 0) out.write(',');
+                writeField(rows.value(r, c));
+            }
+            out.write(loadData ? "\n" : "\r\n");
+            rowCount++;
+        }
+    }
+
+    private void writeField(Object value) throws IOException {
+        if (!loadData) {
+            writeQuoted(value);
+            return;
+        }
+        if (value == null) {
+            out.write("\\N");
+            return;
+        }
+        String text = value.toString();
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '\\': out.write("\\\\"); break;
+                case '"': out.write("\\\""); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\0': out.write("\\0"); break;
+                default: out.write(ch);
+            }
+        }
+        out.write('"');
+    }
+
+    private void writeQuoted(Object value) throws IOException {
+        if (value == null) return;
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char ch = text.charAt(i);
+            quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+        }
+        if (!quote) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '"') out.write('"');
+            out.write(ch);
+        }
+        out.write('"');
+    }
+
+    /**
+     * 已写入的行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+}
\ No newline at end of file
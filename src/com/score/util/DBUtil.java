@@ -1,62 +1,181 @@
 package com.score.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 /**
  * 数据库连接工具类（统一配置，适配所有场景）
  * 合并功能：
- * 1. 基础数据库连接/关闭资源
+ * 1. 基础数据库连接/关闭资源（连接来自内置连接池，close即归还）
  * 2. 自定义建表（支持用户输入表名/列名，自动处理重复列名）
  * 3. 批量插入数据到自定义表
  * 4. 检查表名是否存在
+ * 5. 按URL选择数据库方言（MySQL/H2嵌入式）
+ * 连接、连接池参数来自DbConfig（db.properties/环境变量/系统属性），连接池参数修改配置文件后自动生效
+ * 指标：getConnection、createCustomTable、batchInsertData的耗时分布及连接池状态，见Metrics（JMX/HTTP导出）
  */
 public class DBUtil {
-    // ========== 核心配置（根据你的实际MySQL配置修改） ==========
-    private static final String URL = "jdbc:mysql://localhost:3306/java";
-    private static final String USER = "root";
-    private static final String PASSWORD = "root"; // 你的MySQL密码
+    private static final Log LOG = Log.get(DBUtil.class);
 
-    // 加载MySQL驱动（仅执行一次）
+    // 连接配置只在启动时读取一次（修改URL/用户名/密码需重启）
+    private static final DbConfig STARTUP_CONFIG = DbConfig.get();
+    private static final SqlDialect DIALECT = SqlDialect.forUrl(STARTUP_CONFIG.getUrl());
+    private static final ConnectionPool POOL;
+
+    // ========== 指标 ==========
+    private static final Metrics.Timer GET_CONNECTION_TIMER = Metrics.timer("db.getConnection");
+    private static final Metrics.Counter GET_CONNECTION_ERRORS = Metrics.counter("db.getConnection.errors");
+    private static final Metrics.Timer CREATE_TABLE_TIMER = Metrics.timer("db.createCustomTable");
+    private static final Metrics.Timer BATCH_INSERT_TIMER = Metrics.timer("db.batchInsertData");
+    private static final Metrics.Counter BATCH_INSERT_ROWS = Metrics.counter("db.batchInsertData.rows");
+
+    // 加载数据库驱动并初始化连接池（仅执行一次）
     static {
         try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("[DBUtil] MySQL驱动加载成功");
+            Class.forName(DIALECT.getDriverClass());
+            LOG.info("{}驱动加载成功", DIALECT.getName());
         } catch (ClassNotFoundException e) {
-            System.err.println("[DBUtil] MySQL驱动加载失败：" + e.getMessage());
+            LOG.error("{}驱动加载失败（请确认lib目录中有对应的驱动jar）：{}", DIALECT.getName(), e.getMessage());
             throw new RuntimeException("驱动加载失败，无法连接数据库", e);
         }
+        Properties info = DIALECT.getConnectionProperties(STARTUP_CONFIG);
+        info.setProperty("user", STARTUP_CONFIG.getUser());
+        info.setProperty("password", STARTUP_CONFIG.getPassword());
+        POOL = new ConnectionPool(STARTUP_CONFIG.getUrl(), info);
+        applyPoolSettings(STARTUP_CONFIG);
+        DbConfig.addListener((oldConfig, newConfig) -> applyPoolSettings(newConfig));
+        initSchema();
+        registerMetrics();
+        // 程序退出时关闭所有物理连接
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::shutdown, "db-pool-shutdown"));
+    }
+
+    /**
+     * 把配置中的连接池参数应用到连接池（先调上限再调下限，避免中间状态下min>max）
+     */
+    private static void applyPoolSettings(DbConfig config) {
+        if (config.getPoolMaxSize() >= POOL.getMaxSize()) {
+            POOL.setMaxSize(config.getPoolMaxSize());
+            POOL.setMinSize(config.getPoolMinSize());
+        } else {
+            POOL.setMinSize(config.getPoolMinSize());
+            POOL.setMaxSize(config.getPoolMaxSize());
+        }
+        POOL.setBorrowTimeoutMillis(config.getBorrowTimeoutMillis());
+        POOL.setIdleTimeoutMillis(config.getIdleTimeoutMillis());
+        POOL.setValidateAfterIdleMillis(config.getValidateAfterIdleMillis());
+        POOL.setLeakThresholdMillis(config.getLeakThresholdMillis());
+    }
+
+    /**
+     * 执行方言的建表语句（表已存在时跳过）；失败只记日志，登录等操作会再报出具体的数据库错误
+     */
+    private static void initSchema() {
+        List<String> statements = DIALECT.getInitSchema();
+        if (statements.isEmpty()) return;
+        try (Connection conn = POOL.borrow();
+             Statement stmt = conn.createStatement()) {
+            for (String sql : statements) {
+                stmt.executeUpdate(sql);
+            }
+            LOG.info("{}建表检查完成：{}条语句", DIALECT.getName(), statements.size());
+        } catch (SQLException e) {
+            LOG.error("{}建表失败：{}", DIALECT.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 连接池状态注册为瞬时值，并按配置启动JMX/HTTP指标导出
+     */
+    private static void registerMetrics() {
+        Metrics.gauge("db.pool.active", () -> POOL.getStats().getActive());
+        Metrics.gauge("db.pool.idle", () -> POOL.getStats().getIdle());
+        Metrics.gauge("db.pool.waiting", () -> POOL.getStats().getWaiting());
+        Metrics.gauge("db.pool.timeouts", () -> POOL.getStats().getTimeoutCount());
+        Metrics.gauge("db.pool.leaks", () -> POOL.getStats().getLeakCount());
+        Metrics.gauge("log.dropped", Log::getDroppedCount);
+        Metrics.registerJmx();
+        Metrics.startHttpExporter(STARTUP_CONFIG.getMetricsHttpPort());
     }
 
     /**
      * 获取数据库连接（抛出运行时异常，上层无需捕获）
+     * 连接从连接池借出，用完后调用close(...)或conn.close()归还，不会断开物理连接
      */
     public static Connection getConnection() {
+        long start = System.nanoTime();
         try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
-            System.out.println("[DBUtil] 数据库连接成功：" + URL);
-            return conn;
+            return POOL.borrow();
         } catch (SQLException e) {
-            System.err.println("[DBUtil] 数据库连接失败：" + e.getMessage());
+            GET_CONNECTION_ERRORS.inc();
+            LOG.error("数据库连接失败：{}", e.getMessage());
             // 优化：区分不同连接错误，给出更明确的提示
             String errorMsg = "数据库连接失败：";
             if (e.getMessage().contains("Access denied")) {
                 errorMsg += "用户名/密码错误，请检查配置";
             } else if (e.getMessage().contains("Unknown database")) {
-                errorMsg += "数据库不存在，请确认数据库名是否正确（当前配置：java）";
+                errorMsg += "数据库不存在，请确认数据库名是否正确（当前配置：" + STARTUP_CONFIG.getUrl() + "）";
             } else {
                 errorMsg += e.getMessage();
             }
             throw new RuntimeException(errorMsg, e);
+        } finally {
+            GET_CONNECTION_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * 获取连接池指标（活跃/空闲连接数、等待耗时等）
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+
+    /**
+     * 当前配置（配置文件修改后返回新值）
+     */
+    public static DbConfig getConfig() {
+        return DbConfig.get();
+    }
+
+    /**
+     * 按配置设置大结果集查询的fetchSize（配置为0时保持驱动默认值）
+     */
+    public static void applyFetchSize(Statement stmt) throws SQLException {
+        int fetchSize = DbConfig.get().getFetchSize();
+        if (fetchSize > 0) {
+            stmt.setFetchSize(fetchSize);
         }
     }
 
+    /**
+     * 按流式读取设置fetchSize（导出等需要遍历整张表的查询）：配置了jdbc.fetchSize时按配置，否则按方言的流式读取值
+     */
+    public static void applyStreaming(Statement stmt) throws SQLException {
+        int fetchSize = DbConfig.get().getFetchSize();
+        stmt.setFetchSize(fetchSize > 0 ? fetchSize : DIALECT.getStreamingFetchSize());
+    }
+
+    /**
+     * 当前数据库方言
+     */
+    public static SqlDialect getDialect() {
+        return DIALECT;
+    }
+
+    /**
+     * 连接池最大连接数（并发写库的任务数不宜超过该值，否则只会排队等连接）
+     */
+    public static int getPoolMaxSize() {
+        return POOL.getMaxSize();
+    }
+
     // ==================== 关闭资源方法（重载） ====================
     /**
      * 关闭数据库资源（重载1：支持PreparedStatement+ResultSet）
@@ -66,9 +185,9 @@ public class DBUtil {
             if (rs != null) rs.close();
             if (stmt != null) stmt.close();
             if (conn != null) conn.close();
-            System.out.println("[DBUtil] 资源关闭成功");
+            LOG.debug("资源关闭成功");
         } catch (SQLException e) {
-            System.err.println("[DBUtil] 关闭资源失败：" + e.getMessage());
+            LOG.warn("关闭资源失败：{}", e.getMessage());
         }
     }
 
@@ -87,9 +206,9 @@ public class DBUtil {
             if (rs != null) rs.close();
             if (stmt != null) stmt.close();
             if (conn != null) conn.close();
-            System.out.println("[DBUtil] Statement资源关闭成功");
+            LOG.debug("Statement资源关闭成功");
         } catch (SQLException e) {
-            System.err.println("[DBUtil] 关闭Statement资源失败：" + e.getMessage());
+            LOG.warn("关闭Statement资源失败：{}", e.getMessage());
         }
     }
 
@@ -108,7 +227,7 @@ public class DBUtil {
             rs = conn.getMetaData().getTables(null, null, tableName, new String[]{"TABLE"});
             return rs.next(); // 存在则返回true
         } catch (SQLException e) {
-            System.err.println("[DBUtil] 检查表名失败：" + e.getMessage());
+            LOG.warn("检查表名失败：{}", e.getMessage());
             return false;
         } finally {
             close(conn, (Statement) null, rs);
@@ -123,14 +242,60 @@ public class DBUtil {
      * @return 是否创建成功
      */
     public static boolean createCustomTable(String tableName, List<String> columnNames) {
+        return createCustomTable(tableName, columnNames, null);
+    }
+
+    /**
+     * 创建自定义数据表（指定列类型）
+     * @param columnTypes 与columnNames一一对应的列类型（为null或某列为null时按VARCHAR(255)）
+     * @return 是否创建成功
+     */
+    public static boolean createCustomTable(String tableName, List<String> columnNames, List<ColumnType> columnTypes) {
+        long start = System.nanoTime();
+        try {
+            return doCreateCustomTable(tableName, columnNames, columnTypes);
+        } finally {
+            CREATE_TABLE_TIMER.stop(start);
+        }
+    }
+
+    private static boolean doCreateCustomTable(String tableName, List<String> columnNames, List<ColumnType> columnTypes) {
         // 1. 表名安全过滤（仅保留字母、数字、下划线）
         String safeTableName = tableName.replaceAll("[^a-zA-Z0-9_]", "");
         if (safeTableName.isEmpty()) {
-            System.err.println("[DBUtil] 表名过滤后为空，创建失败");
+            LOG.warn("表名过滤后为空，创建失败");
             return false;
         }
 
         // 2. 列名处理：安全过滤 + 自动去重（解决Duplicate column问题）
+        List<String> uniqueColumns = sanitizeColumnNames(columnNames);
+
+        // 3. 构建建表SQL（未指定类型的列默认VARCHAR(255)，新增主键id）
+        String createSql = buildCreateTableSql(safeTableName, uniqueColumns, columnTypes);
+
+        // 4. 执行建表操作
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        try {
+            conn = getConnection();
+            pstmt = conn.prepareStatement(createSql);
+            pstmt.executeUpdate();
+            LOG.info("表创建成功：{}", safeTableName);
+            LOG.debug("最终列名：{}", uniqueColumns); // 打印最终列名，方便调试
+            return true;
+        } catch (Exception e) {
+            LOG.error("创建表失败：{}", e.getMessage(), e);
+            return false;
+        } finally {
+            close(conn, pstmt); // 关闭资源
+        }
+    }
+
+    /**
+     * 列名安全过滤 + 自动去重：只保留字母、数字、下划线，过滤后为空的列命名为col_序号，重复列名依次加_1、_2后缀
+     * @return 与columnNames一一对应的最终列名
+     */
+    public static List<String> sanitizeColumnNames(List<String> columnNames) {
         List<String> uniqueColumns = new ArrayList<>();
         for (String col : columnNames) {
             // 列名安全过滤
@@ -147,51 +312,61 @@ public class DBUtil {
             }
             uniqueColumns.add(finalCol);
         }
+        return uniqueColumns;
+    }
 
-        // 3. 构建建表SQL（所有列默认VARCHAR(255)，新增主键id）
+    /**
+     * 拼接建表SQL（表名、列名需已过滤）
+     * @param columnTypes 与columns一一对应的列类型（为null或某列为null时按VARCHAR(255)）
+     */
+    public static String buildCreateTableSql(String safeTableName, List<String> columns, List<ColumnType> columnTypes) {
         StringBuilder createSql = new StringBuilder();
         createSql.append("CREATE TABLE IF NOT EXISTS ").append(safeTableName).append(" (");
         createSql.append("id INT AUTO_INCREMENT PRIMARY KEY, "); // 主键列，保证数据唯一性
 
-        for (int i = 0; i < uniqueColumns.size(); i++) {
-            String colName = uniqueColumns.get(i);
-            createSql.append(colName).append(" VARCHAR(255)");
-            if (i < uniqueColumns.size() - 1) {
+        for (int i = 0; i < columns.size(); i++) {
+            String colName = columns.get(i);
+            ColumnType type = columnTypes == null || columnTypes.get(i) == null ? ColumnType.DEFAULT_VARCHAR : columnTypes.get(i);
+            createSql.append(colName).append(" ").append(type.toSql());
+            if (i < columns.size() - 1) {
                 createSql.append(", ");
             }
         }
-        createSql.append(") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;");
-
-        // 4. 执行建表操作
-        Connection conn = null;
-        PreparedStatement pstmt = null;
-        try {
-            conn = getConnection();
-            pstmt = conn.prepareStatement(createSql.toString());
-            pstmt.executeUpdate();
-            System.out.println("[DBUtil] 表创建成功：" + safeTableName);
-            System.out.println("[DBUtil] 最终列名：" + uniqueColumns); // 打印最终列名，方便调试
-            return true;
-        } catch (Exception e) {
-            System.err.println("[DBUtil] 创建表失败：" + e.getMessage());
-            e.printStackTrace();
-            return false;
-        } finally {
-            close(conn, pstmt); // 关闭资源
-        }
+        createSql.append(")").append(DIALECT.getTableOptions());
+        return createSql.toString();
     }
 
     /**
-     * 批量插入数据到自定义表
+     * 批量插入数据到自定义表（默认多行VALUES方式）
      * @param tableName 表名
      * @param columnNames 列名列表
      * @param dataRows 数据行（二维数组）
      * @return 插入成功的行数
      */
     public static int batchInsertData(String tableName, List<String> columnNames, List<Object[]> dataRows) {
+        return batchInsertData(tableName, columnNames, dataRows, InsertMode.MULTI_ROW_VALUES);
+    }
+
+    /**
+     * 批量插入数据到自定义表（指定插入方式）
+     * @param insertMode 插入方式（多行VALUES/驱动改写/逐行）
+     * @return 插入成功的行数
+     */
+    public static int batchInsertData(String tableName, List<String> columnNames, List<Object[]> dataRows, InsertMode insertMode) {
+        long start = System.nanoTime();
+        try {
+            int count = doBatchInsertData(tableName, columnNames, dataRows, insertMode);
+            BATCH_INSERT_ROWS.add(count);
+            return count;
+        } finally {
+            BATCH_INSERT_TIMER.stop(start);
+        }
+    }
+
+    private static int doBatchInsertData(String tableName, List<String> columnNames, List<Object[]> dataRows, InsertMode insertMode) {
         // 空数据校验
         if (dataRows.isEmpty() || columnNames.isEmpty()) {
-            System.out.println("[DBUtil] 无有效数据/列名，无需插入");
+            LOG.info("无有效数据/列名，无需插入");
             return 0;
         }
 
@@ -205,64 +380,32 @@ public class DBUtil {
             }
         }
         if (safeColumnNames.isEmpty()) {
-            System.err.println("[DBUtil] 列名过滤后为空，插入失败");
+            LOG.warn("列名过滤后为空，插入失败");
             return 0;
         }
 
-        // 构建插入SQL
-        StringBuilder insertSql = new StringBuilder();
-        insertSql.append("INSERT INTO ").append(safeTableName).append(" (");
-        for (int i = 0; i < safeColumnNames.size(); i++) {
-            insertSql.append(safeColumnNames.get(i));
-            if (i < safeColumnNames.size() - 1) {
-                insertSql.append(", ");
-            }
-        }
-        insertSql.append(") VALUES (");
-        for (int i = 0; i < safeColumnNames.size(); i++) {
-            insertSql.append("?");
-            if (i < safeColumnNames.size() - 1) {
-                insertSql.append(", ");
-            }
-        }
-        insertSql.append(")");
-
         // 执行批量插入
         Connection conn = null;
-        PreparedStatement pstmt = null;
         try {
             conn = getConnection();
             conn.setAutoCommit(false); // 开启事务，保证批量插入原子性
-            pstmt = conn.prepareStatement(insertSql.toString());
-
-            // 批量添加数据
-            int count = 0;
-            for (Object[] row : dataRows) {
-                for (int i = 0; i < safeColumnNames.size(); i++) {
-                    // 防止数组越界，空值兜底为空字符串
-                    Object value = i < row.length ? row[i] : "";
-                    pstmt.setObject(i + 1, value == null ? "" : value);
-                }
-                pstmt.addBatch();
-                count++;
+            int count;
+            try (BatchInserter inserter = new BatchInserter(conn, safeTableName, safeColumnNames, insertMode)) {
+                count = inserter.insert(BatchInserter.ofArrays(dataRows));
             }
-
-            // 执行批量插入
-            pstmt.executeBatch();
             conn.commit(); // 提交事务
-            System.out.println("[DBUtil] 批量插入成功，共插入 " + count + " 行");
+            LOG.debug("批量插入成功（{}），共插入 {} 行", insertMode, count);
             return count;
         } catch (Exception e) {
             try {
                 if (conn != null) conn.rollback(); // 失败回滚
             } catch (SQLException ex) {
-                ex.printStackTrace();
+                LOG.warn("回滚失败：{}", ex.getMessage());
             }
-            System.err.println("[DBUtil] 批量插入失败：" + e.getMessage());
-            e.printStackTrace();
+            LOG.error("批量插入失败：{}", e.getMessage(), e);
             return 0;
         } finally {
-            close(conn, pstmt); // 关闭资源
+            close(conn, (PreparedStatement) null); // 关闭资源
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,364 @@
+package com.score.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库/连接池/批量写入配置（不可变快照）
+ * 配置来源（后者覆盖前者）：
+ * 1. 内置默认值（与原先写死在代码里的值相同）
+ * 2. 配置文件：系统属性score.config或环境变量SCORE_CONFIG指定的路径，默认为工作目录下的db.properties，
+ *    不存在时再找classpath根目录的db.properties（格式见项目根目录db.properties.example）
+ * 3. 环境变量：SCORE_ + 键名大写、点换成下划线，如SCORE_DB_PASSWORD、SCORE_POOL_MAXSIZE
+ * 4. 系统属性：score. + 键名，如-Dscore.db.url=jdbc:h2:./data/score
+ * 启动时校验全部配置项，有错误则列出所有错误并拒绝启动；
+ * 配置文件修改后（每reload.intervalMillis检查一次）自动重新加载，校验失败时保留原配置。
+ * 连接池参数、批量大小、fetchSize、任务超时、日志级别重新加载后立即生效；数据库URL/用户名/密码、本地文件加载开关、指标端口需重启程序才生效。
+ */
+public final class DbConfig {
+    private static final Log LOG = Log.get(DbConfig.class);
+
+    // ========== 配置键 ==========
+    public static final String DB_URL = "db.url";
+    public static final String DB_USER = "db.user";
+    public static final String DB_PASSWORD = "db.password";
+    public static final String DB_ALLOW_LOCAL_INFILE = "db.allowLoadLocalInfile";
+    public static final String POOL_MIN_SIZE = "pool.minSize";
+    public static final String POOL_MAX_SIZE = "pool.maxSize";
+    public static final String POOL_BORROW_TIMEOUT = "pool.borrowTimeoutMillis";
+    public static final String POOL_IDLE_TIMEOUT = "pool.idleTimeoutMillis";
+    public static final String POOL_VALIDATE_AFTER_IDLE = "pool.validateAfterIdleMillis";
+    public static final String POOL_LEAK_THRESHOLD = "pool.leakThresholdMillis";
+    public static final String BATCH_CHUNK_SIZE = "batch.chunkSize";
+    public static final String BATCH_MAX_ROWS_PER_STATEMENT = "batch.maxRowsPerStatement";
+    public static final String BATCH_DICTIONARY_MAX_SIZE = "batch.dictionaryMaxSize";
+    public static final String JDBC_FETCH_SIZE = "jdbc.fetchSize";
+    public static final String TASK_TIMEOUT = "task.timeoutMillis";
+    public static final String EDIT_FLUSH_INTERVAL = "edit.flushIntervalMillis";
+    public static final String RELOAD_INTERVAL = "reload.intervalMillis";
+    public static final String LOG_LEVEL = "log.level";
+    public static final String METRICS_HTTP_PORT = "metrics.httpPort";
+
+    private static final String DEFAULT_FILE = "db.properties";
+    private static final String[][] DEFAULTS = {
+            {DB_URL, "jdbc:mysql://localhost:3306/java"},
+            {DB_USER, "root"},
+            {DB_PASSWORD, "root"},
+            {DB_ALLOW_LOCAL_INFILE, "false"},
+            {POOL_MIN_SIZE, "2"},
+            {POOL_MAX_SIZE, "10"},
+            {POOL_BORROW_TIMEOUT, "10000"},
+            {POOL_IDLE_TIMEOUT, "600000"},
+            {POOL_VALIDATE_AFTER_IDLE, "1000"},
+            {POOL_LEAK_THRESHOLD, "60000"},
+            {BATCH_CHUNK_SIZE, "5000"},
+            {BATCH_MAX_ROWS_PER_STATEMENT, "1000"},
+            {BATCH_DICTIONARY_MAX_SIZE, "4096"},
+            {JDBC_FETCH_SIZE, "0"},
+            {TASK_TIMEOUT, "30000"},
+            {EDIT_FLUSH_INTERVAL, "3000"},
+            {RELOAD_INTERVAL, "5000"},
+            {LOG_LEVEL, "INFO"},
+            {METRICS_HTTP_PORT, "0"},
+    };
+
+    /**
+     * 配置重新加载监听器（在配置检查线程上回调）
+     */
+    public interface Listener {
+        void onReload(DbConfig oldConfig, DbConfig newConfig);
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+    private static volatile DbConfig current;
+    private static ScheduledExecutorService watcher;
+    // 上次加载失败的配置文件修改时间（文件未再修改前不重复加载、重复报错）
+    private static volatile long failedModified = -1;
+
+    // ========== 配置值 ==========
+    private final File source;
+    private final long sourceModified;
+    private final String url;
+    private final String user;
+    private final String password;
+    private final boolean allowLoadLocalInfile;
+    private final int poolMinSize;
+    private final int poolMaxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final long leakThresholdMillis;
+    private final int chunkSize;
+    private final int maxRowsPerStatement;
+    private final int dictionaryMaxSize;
+    private final int fetchSize;
+    private final long taskTimeoutMillis;
+    private final long editFlushIntervalMillis;
+    private final long reloadIntervalMillis;
+    private final Log.Level logLevel;
+    private final int metricsHttpPort;
+
+    private DbConfig(File source, long sourceModified, Properties props, List<String> errors) {
+        this.source = source;
+        this.sourceModified = sourceModified;
+        this.url = props.getProperty(DB_URL).trim();
+        this.user = props.getProperty(DB_USER).trim();
+        this.password = props.getProperty(DB_PASSWORD);
+        this.allowLoadLocalInfile = parseBoolean(props, DB_ALLOW_LOCAL_INFILE, errors);
+        this.poolMinSize = (int) parse(props, POOL_MIN_SIZE, 0, 1000, errors);
+        this.poolMaxSize = (int) parse(props, POOL_MAX_SIZE, 1, 1000, errors);
+        this.borrowTimeoutMillis = parse(props, POOL_BORROW_TIMEOUT, 1, Long.MAX_VALUE, errors);
+        this.idleTimeoutMillis = parse(props, POOL_IDLE_TIMEOUT, 1000, Long.MAX_VALUE, errors);
+        this.validateAfterIdleMillis = parse(props, POOL_VALIDATE_AFTER_IDLE, 0, Long.MAX_VALUE, errors);
+        this.leakThresholdMillis = parse(props, POOL_LEAK_THRESHOLD, 0, Long.MAX_VALUE, errors);
+        this.chunkSize = (int) parse(props, BATCH_CHUNK_SIZE, 1, 1_000_000, errors);
+        this.maxRowsPerStatement = (int) parse(props, BATCH_MAX_ROWS_PER_STATEMENT, 1, 65535, errors);
+        this.dictionaryMaxSize = (int) parse(props, BATCH_DICTIONARY_MAX_SIZE, 0, 1_000_000, errors);
+        this.fetchSize = (int) parse(props, JDBC_FETCH_SIZE, 0, Integer.MAX_VALUE, errors);
+        this.taskTimeoutMillis = parse(props, TASK_TIMEOUT, 0, Long.MAX_VALUE, errors);
+        this.editFlushIntervalMillis = parse(props, EDIT_FLUSH_INTERVAL, 0, Integer.MAX_VALUE, errors);
+        this.reloadIntervalMillis = parse(props, RELOAD_INTERVAL, 0, Long.MAX_VALUE, errors);
+        this.logLevel = Log.parseLevel(props.getProperty(LOG_LEVEL), null);
+        this.metricsHttpPort = (int) parse(props, METRICS_HTTP_PORT, 0, 65535, errors);
+
+        if (!url.startsWith("jdbc:")) {
+            errors.add(DB_URL + " 必须以jdbc:开头，当前值：" + url);
+        }
+        if (logLevel == null) {
+            errors.add(LOG_LEVEL + " 只能是DEBUG/INFO/WARN/ERROR/OFF，当前值：" + props.getProperty(LOG_LEVEL));
+        }
+        if (user.isEmpty()) {
+            errors.add(DB_USER + " 不能为空");
+        }
+        if (errors.isEmpty() && poolMinSize > poolMaxSize) {
+            errors.add(POOL_MIN_SIZE + "（" + poolMinSize + "）不能大于" + POOL_MAX_SIZE + "（" + poolMaxSize + "）");
+        }
+    }
+
+    // ==================== 全局配置 ====================
+    /**
+     * 当前配置（首次调用时加载并校验，校验失败抛出IllegalStateException）
+     */
+    public static DbConfig get() {
+        DbConfig config = current;
+        if (config != null) return config;
+        synchronized (DbConfig.class) {
+            if (current == null) {
+                current = load();
+                Log.setLevel(current.logLevel);
+                LOG.info("配置加载成功：{}", current);
+                startWatcher(current.reloadIntervalMillis);
+            }
+            return current;
+        }
+    }
+
+    /**
+     * 重新读取配置文件；校验通过则替换当前配置并通知监听器，否则保留原配置
+     * @return 是否已替换为新配置
+     */
+    public static boolean reload() {
+        DbConfig oldConfig = get();
+        DbConfig newConfig;
+        try {
+            newConfig = load();
+        } catch (RuntimeException e) {
+            LOG.warn("重新加载配置失败，继续使用原配置：{}", e.getMessage());
+            return false;
+        }
+        synchronized (DbConfig.class) {
+            current = newConfig;
+        }
+        Log.setLevel(newConfig.logLevel);
+        if (!newConfig.url.equals(oldConfig.url) || !newConfig.user.equals(oldConfig.user)
+                || !newConfig.password.equals(oldConfig.password)) {
+            LOG.warn("数据库URL/用户名/密码已修改，需重启程序才能生效");
+        }
+        LOG.info("配置已重新加载：{}", newConfig);
+        for (Listener listener : LISTENERS) {
+            try {
+                listener.onReload(oldConfig, newConfig);
+            } catch (RuntimeException e) {
+                LOG.warn("应用新配置失败：{}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * 后台检查配置文件的修改时间，变化时重新加载（intervalMillis<=0时不检查）
+     */
+    private static void startWatcher(long intervalMillis) {
+        if (intervalMillis <= 0 || watcher != null) return;
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-config-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(() -> {
+            DbConfig config = current;
+            File file = resolveFile();
+            long modified = file.isFile() ? file.lastModified() : 0;
+            if ((!file.equals(config.source) || modified != config.sourceModified) && modified != failedModified) {
+                failedModified = reload() ? -1 : modified;
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== 加载与校验 ====================
+    /**
+     * 按“默认值 → 配置文件 → 环境变量 → 系统属性”的顺序合并配置并校验
+     * @throws IllegalStateException 配置文件无法读取或有配置项不合法（消息中列出所有错误）
+     */
+    public static DbConfig load() {
+        Properties props = new Properties();
+        for (String[] entry : DEFAULTS) {
+            props.setProperty(entry[0], entry[1]);
+        }
+
+        File file = resolveFile();
+        long modified = 0;
+        if (file.isFile()) {
+            modified = file.lastModified();
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                props.load(reader);
+            } catch (IOException e) {
+                throw new IllegalStateException("读取配置文件失败：" + file.getAbsolutePath() + "，" + e.getMessage(), e);
+            }
+        } else {
+            try (InputStream in = DbConfig.class.getResourceAsStream("/" + DEFAULT_FILE)) {
+                if (in != null) {
+                    props.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("读取classpath中的" + DEFAULT_FILE + "失败：" + e.getMessage(), e);
+            }
+        }
+
+        Map<String, String> env = System.getenv();
+        for (String[] entry : DEFAULTS) {
+            String key = entry[0];
+            String envValue = env.get("SCORE_" + key.replace('.', '_').toUpperCase(Locale.ROOT));
+            if (envValue != null) props.setProperty(key, envValue);
+            String sysValue = System.getProperty("score." + key);
+            if (sysValue != null) props.setProperty(key, sysValue);
+        }
+
+        List<String> errors = new ArrayList<>();
+        DbConfig config = new DbConfig(file, modified, props, errors);
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("配置不合法（" + file.getPath() + "）：" + String.join("；", errors));
+        }
+        return config;
+    }
+
+    private static File resolveFile() {
+        String path = System.getProperty("score.config");
+        if (path == null || path.trim().isEmpty()) path = System.getenv("SCORE_CONFIG");
+        if (path == null || path.trim().isEmpty()) path = DEFAULT_FILE;
+        return new File(path.trim());
+    }
+
+    /**
+     * 解析整数配置项并检查范围；不合法时记录错误并返回最小值（调用方随后会因errors非空而放弃该配置）
+     */
+    private static long parse(Properties props, String key, long min, long max, List<String> errors) {
+        String value = props.getProperty(key).trim();
+        try {
+            long parsed = Long.parseLong(value.replace("_", ""));
+            if (parsed < min || parsed > max) {
+                errors.add(key + " 超出范围[" + min + ", " + (max == Long.MAX_VALUE ? "∞" : String.valueOf(max))
+                        + "]，当前值：" + value);
+                return min;
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            errors.add(key + " 不是整数：" + value);
+            return min;
+        }
+    }
+
+    /**
+     * 解析true/false配置项（不区分大小写）；不合法时记录错误并返回false
+     */
+    private static boolean parseBoolean(Properties props, String key, List<String> errors) {
+        String value = props.getProperty(key).trim();
+        if (value.equalsIgnoreCase("true")) return true;
+        if (!value.equalsIgnoreCase("false")) {
+            errors.add(key + " 只能是true/false，当前值：" + value);
+        }
+        return false;
+    }
+
+    // ==================== getter ====================
+    public String getUrl() { return url; }
+    public String getUser() { return user; }
+    public String getPassword() { return password; }
+    /** MySQL连接建立时是否声明支持LOAD DATA LOCAL INFILE（握手时协商，修改后需重启；默认关闭：开启后连接池中所有连接都允许服务器请求读取客户端文件） */
+    public boolean isAllowLoadLocalInfile() { return allowLoadLocalInfile; }
+    public int getPoolMinSize() { return poolMinSize; }
+    public int getPoolMaxSize() { return poolMaxSize; }
+    public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+    public long getIdleTimeoutMillis() { return idleTimeoutMillis; }
+    public long getValidateAfterIdleMillis() { return validateAfterIdleMillis; }
+    public long getLeakThresholdMillis() { return leakThresholdMillis; }
+    /** 导入时每块的行数（每块一次写库/提交） */
+    public int getChunkSize() { return chunkSize; }
+    /** 单条多行INSERT的行数上限 */
+    public int getMaxRowsPerStatement() { return maxRowsPerStatement; }
+    /** 导入时每列字典最多保存的不同取值个数（超过后该列不再字典编码），0表示不使用字典 */
+    public int getDictionaryMaxSize() { return dictionaryMaxSize; }
+    /** 大结果集查询的fetchSize，0表示使用驱动默认值 */
+    public int getFetchSize() { return fetchSize; }
+    /** 数据库后台任务的默认超时，0表示不限时 */
+    public long getTaskTimeoutMillis() { return taskTimeoutMillis; }
+    /** 主界面修改/删除成绩后自动保存的间隔，0表示只在手动保存时写库 */
+    public long getEditFlushIntervalMillis() { return editFlushIntervalMillis; }
+    public long getReloadIntervalMillis() { return reloadIntervalMillis; }
+    public Log.Level getLogLevel() { return logLevel; }
+    /** 指标HTTP端点端口（仅监听127.0.0.1），0表示不启动；修改后需重启 */
+    public int getMetricsHttpPort() { return metricsHttpPort; }
+
+    /**
+     * 配置摘要（不含密码）
+     */
+    @Override
+    public String toString() {
+        return "url=" + url + "，用户=" + user
+                + "，本地文件加载=" + allowLoadLocalInfile
+                + "，连接池=" + poolMinSize + "~" + poolMaxSize
+                + "，借出超时=" + borrowTimeoutMillis + "ms"
+                + "，空闲回收=" + idleTimeoutMillis + "ms"
+                + "，泄漏阈值=" + leakThresholdMillis + "ms"
+                + "，每块行数=" + chunkSize
+                + "，每条INSERT行数上限=" + maxRowsPerStatement
+                + "，列字典上限=" + dictionaryMaxSize
+                + "，fetchSize=" + fetchSize
+                + "，任务超时=" + taskTimeoutMillis + "ms"
+                + "，自动保存间隔=" + editFlushIntervalMillis + "ms"
+                + "，日志级别=" + logLevel
+                + "，来源=" + (source.isFile() ? source.getPath() : "默认值/环境变量");
+    }
+}
\ No newline at end of file
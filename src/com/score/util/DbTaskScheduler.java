@@ -0,0 +1,362 @@
+package com.score.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * 全局数据库任务调度器：界面上所有访问数据库的操作都提交到这里，不在事件调度线程上执行
+ * 1. 运行在支持虚拟线程的JDK（21+）上时每个任务一个虚拟线程，排队的任务几乎不占资源；否则退化为固定大小的平台线程池
+ * 2. 许可按连接计数（Semaphore，总数为连接池上限）：普通任务占1个，导入等同时使用多个连接的任务提交时声明连接数，
+ *    一次占用相应数量的许可（不超过上限），许可不足时排队等待；配置重新加载后随连接池上限调整
+ * 3. 记录每个任务的排队/执行耗时，超过SLOW_TASK_MILLIS的任务打印日志；getQueueDepth()为当前排队任务数
+ * 4. 任务可设超时；超时或被cancel(true)时中断执行中的任务，尚未开始的任务直接跳过
+ */
+public final class DbTaskScheduler {
+    private static final Log LOG = Log.get(DbTaskScheduler.class);
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+    // 不限时（导入等长任务）
+    public static final long NO_TIMEOUT = 0;
+    private static final long SLOW_TASK_MILLIS = 1000;
+
+    /**
+     * 在事件调度线程上执行回调的Executor（配合thenAcceptAsync/whenCompleteAsync使用）
+     */
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final Metrics.Timer WAIT_TIMER = Metrics.timer("scheduler.wait");
+    private static final Metrics.Timer RUN_TIMER = Metrics.timer("scheduler.run");
+
+    private static final DbTaskScheduler INSTANCE = new DbTaskScheduler(DBUtil.getPoolMaxSize());
+
+    private volatile int maxConcurrency;
+    private final ResizableSemaphore permits;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    // 运行状态
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitMillis = new AtomicLong();
+    private final AtomicLong totalRunMillis = new AtomicLong();
+    private final AtomicLong maxRunMillis = new AtomicLong();
+
+    private DbTaskScheduler(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new ResizableSemaphore(this.maxConcurrency);
+        ExecutorService virtual = newVirtualExecutor();
+        this.virtualThreads = virtual != null;
+        if (virtual != null) {
+            this.executor = virtual;
+        } else {
+            AtomicInteger seq = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.maxConcurrency, r -> {
+                Thread t = new Thread(r, "db-task-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        DbConfig.addListener((oldConfig, newConfig) -> setMaxConcurrency(newConfig.getPoolMaxSize()));
+        Metrics.gauge("scheduler.queueDepth", queued::get);
+        Metrics.gauge("scheduler.running", running::get);
+        Metrics.gauge("scheduler.failed", failed::get);
+        LOG.info("已启动：{}，最大并发 {}", virtualThreads ? "虚拟线程" : "平台线程池", this.maxConcurrency);
+    }
+
+    public static DbTaskScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 调整最大并发数：扩大时立即放行排队任务；缩小时执行中的任务不受影响，结束后不再归还多出的许可
+     */
+    public synchronized void setMaxConcurrency(int newMax) {
+        newMax = Math.max(1, newMax);
+        int delta = newMax - maxConcurrency;
+        if (delta == 0) return;
+        if (executor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            if (delta > 0) {
+                pool.setMaximumPoolSize(newMax);
+                pool.setCorePoolSize(newMax);
+            } else {
+                pool.setCorePoolSize(newMax);
+                pool.setMaximumPoolSize(newMax);
+            }
+        }
+        if (delta > 0) {
+            permits.release(delta);
+        } else {
+            permits.reducePermits(-delta);
+        }
+        maxConcurrency = newMax;
+        LOG.info("最大并发调整为 {}", newMax);
+    }
+
+    /**
+     * 提交数据库任务（超时取配置项task.timeoutMillis，默认DEFAULT_TIMEOUT_MILLIS）
+     * @param name 任务名（用于慢任务日志）
+     */
+    public <T> CompletableFuture<T> submit(String name, Callable<T> task) {
+        return submit(name, task, DbConfig.get().getTaskTimeoutMillis());
+    }
+
+    /**
+     * 提交数据库任务
+     * @param timeoutMillis 超时毫秒数（从提交时开始计，含排队时间），NO_TIMEOUT表示不限时
+     */
+    public <T> CompletableFuture<T> submit(String name, Callable<T> task, long timeoutMillis) {
+        return submit(name, task, timeoutMillis, 1);
+    }
+
+    /**
+     * 提交同时使用多个连接的数据库任务（如流水线导入：每个写入线程一个连接，另有建表/建索引的控制连接）
+     * @param connections 任务执行期间最多同时占用的连接数，按此数量占用许可（超过最大并发数时按最大并发数占用）
+     */
+    public <T> CompletableFuture<T> submit(String name, Callable<T> task, long timeoutMillis, int connections) {
+        if (connections <= 0) throw new IllegalArgumentException("连接数必须大于0！");
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long submittedAt = System.currentTimeMillis();
+        submitted.incrementAndGet();
+        peakQueued.accumulateAndGet(queued.incrementAndGet(), Math::max);
+        Future<?> handle;
+        try {
+            handle = executor.submit(() -> execute(name, task, connections, result, submittedAt));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            failed.incrementAndGet();
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (timeoutMillis > NO_TIMEOUT) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        result.whenComplete((value, ex) -> {
+            if (ex instanceof CancellationException || ex instanceof TimeoutException) {
+                handle.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 提交无返回值的数据库任务
+     */
+    public CompletableFuture<Void> run(String name, Runnable task) {
+        return submit(name, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private <T> void execute(String name, Callable<T> task, int connections, CompletableFuture<T> result, long submittedAt) {
+        boolean acquired = false;
+        int weight = Math.min(connections, maxConcurrency);
+        try {
+            if (!result.isDone()) { // 排队期间已超时/取消的任务不再获取许可
+                permits.acquire(weight);
+                acquired = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+        }
+        if (!acquired) return;
+
+        long start = System.currentTimeMillis();
+        long waitMillis = start - submittedAt;
+        running.incrementAndGet();
+        try {
+            if (!result.isDone()) {
+                result.complete(task.call());
+                completed.incrementAndGet();
+            }
+        } catch (Throwable e) {
+            failed.incrementAndGet();
+            result.completeExceptionally(e);
+        } finally {
+            running.decrementAndGet();
+            permits.release(weight);
+            long runMillis = System.currentTimeMillis() - start;
+            totalWaitMillis.addAndGet(waitMillis);
+            totalRunMillis.addAndGet(runMillis);
+            maxRunMillis.accumulateAndGet(runMillis, Math::max);
+            WAIT_TIMER.record(TimeUnit.MILLISECONDS.toNanos(waitMillis));
+            RUN_TIMER.record(TimeUnit.MILLISECONDS.toNanos(runMillis));
+            if (runMillis + waitMillis >= SLOW_TASK_MILLIS) {
+                LOG.warn("慢任务 {}：排队 {} ms，执行 {} ms", name, waitMillis, runMillis);
+            }
+        }
+    }
+
+    /**
+     * 当前排队（已提交、尚未开始执行）的任务数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public Stats getStats() {
+        return new Stats(submitted.get(), completed.get(), failed.get(), queued.get(), peakQueued.get(), running.get(),
+                totalWaitMillis.get(), totalRunMillis.get(), maxRunMillis.get());
+    }
+
+    /**
+     * 关闭调度器（中断执行中的任务），应用退出时调用
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==================== 界面辅助方法 ====================
+    /**
+     * 在EDT上接收结果：成功调用onSuccess，失败（含超时）调用onError；被取消时两者都不调用
+     * @return 传入的future本身（窗口关闭时对它cancel(true)即可取消后台任务）
+     */
+    public static <T> CompletableFuture<T> onEdt(CompletableFuture<T> future, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        future.whenCompleteAsync((result, ex) -> {
+            if (ex == null) {
+                onSuccess.accept(result);
+                return;
+            }
+            Throwable cause = unwrap(ex);
+            if (!(cause instanceof CancellationException)) {
+                onError.accept(cause);
+            }
+        }, EDT);
+        return future;
+    }
+
+    /**
+     * 把异步失败原因转成给用户看的提示
+     */
+    public static String describeFailure(Throwable ex) {
+        Throwable cause = unwrap(ex);
+        if (cause instanceof TimeoutException) {
+            return "数据库响应超时，请稍后重试";
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return "数据库繁忙，请稍后重试";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    /**
+     * 虚拟线程执行器（JDK 21+，通过反射调用以兼容低版本编译），不支持时返回null
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 可缩小的信号量（reducePermits在Semaphore中为protected）
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    /**
+     * 调度器运行统计
+     */
+    public static class Stats {
+        private final long submitted;
+        private final long completed;
+        private final long failed;
+        private final int queueDepth;
+        private final int peakQueueDepth;
+        private final int running;
+        private final long totalWaitMillis;
+        private final long totalRunMillis;
+        private final long maxRunMillis;
+
+        Stats(long submitted, long completed, long failed, int queueDepth, int peakQueueDepth, int running,
+              long totalWaitMillis, long totalRunMillis, long maxRunMillis) {
+            this.submitted = submitted;
+            this.completed = completed;
+            this.failed = failed;
+            this.queueDepth = queueDepth;
+            this.peakQueueDepth = peakQueueDepth;
+            this.running = running;
+            this.totalWaitMillis = totalWaitMillis;
+            this.totalRunMillis = totalRunMillis;
+            this.maxRunMillis = maxRunMillis;
+        }
+
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getFailed() { return failed; }
+        public int getQueueDepth() { return queueDepth; }
+        public int getPeakQueueDepth() { return peakQueueDepth; }
+        public int getRunning() { return running; }
+        public long getMaxRunMillis() { return maxRunMillis; }
+
+        public double getAvgWaitMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : totalWaitMillis / (double) finished;
+        }
+
+        public double getAvgRunMillis() {
+            long finished = completed + failed;
+            return finished == 0 ? 0 : totalRunMillis / (double) finished;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("已提交 %d，完成 %d，失败 %d，执行中 %d，排队 %d（峰值 %d），平均排队 %.1f ms，平均执行 %.1f ms，最长执行 %d ms",
+                    submitted, completed, failed, running, queueDepth, peakQueueDepth, getAvgWaitMillis(), getAvgRunMillis(), maxRunMillis);
+        }
+    }
+}
\ No newline at end of file
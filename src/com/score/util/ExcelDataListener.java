@@ -2,6 +2,7 @@ package com.score.util;
 
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.event.AnalysisEventListener;
+import com.alibaba.excel.exception.ExcelAnalysisStopException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -10,20 +11,99 @@ import java.util.Set;
 /**
  * Excel解析监听器：负责表头校验 + 数据读取
  * 泛型T：Excel每行数据的类型（Map<String, Object> 或自定义实体类）
+ * 两种模式：
+ * 1. 全量模式（默认）：所有行保存在dataList中，解析完成后统一取出
+ * 2. 流式模式：每攒满chunkSize行就交给ChunkHandler处理并释放，内存占用与文件大小无关
+ * 3. 列式流式模式（见columnar）：每行解析出的Map立即写入ColumnarRowBuffer后丢弃，块数据只占字符数组和偏移数组
+ *    低基数列按列字典编码，重复的单元格文本只保留一个实例
+ * 全量模式可用setRowLimit只读前N行（如推断列类型时抽样），setHeaderOnly只读表头（如多工作表导入前核对表头）
+ * 断点续传可用setSkipRows跳过前N行已导入的数据（仍需解析，但不缓存、不交给回调）
+ * 指标：excel.parse（整个文件）、excel.chunkParse（解析一块的耗时，不含回调）、excel.chunkHandler（分块回调耗时）、excel.rows
  */
 public class ExcelDataListener<T> extends AnalysisEventListener<T> {
-    // 存储读取到的Excel数据
-    private final List<T> dataList = new ArrayList<>();
+    private static final Log LOG = Log.get(ExcelDataListener.class);
+    private static final Metrics.Timer PARSE_TIMER = Metrics.timer("excel.parse");
+    private static final Metrics.Timer CHUNK_PARSE_TIMER = Metrics.timer("excel.chunkParse");
+    private static final Metrics.Timer CHUNK_HANDLER_TIMER = Metrics.timer("excel.chunkHandler");
+    private static final Metrics.Counter ROWS = Metrics.counter("excel.rows");
+
+    /**
+     * 分块回调：流式模式下每攒满一块数据就调用一次（如写入数据库）
+     * 回调返回后监听器不再持有该块数据，实现方可以直接保留或丢弃
+     * headers为解析到的实际表头（按Excel列顺序）
+     */
+    public interface ChunkHandler<T> {
+        void handle(List<String> headers, List<T> chunk) throws Exception;
+    }
+
+    /**
+     * 列式分块回调：块数据以ColumnarRowBuffer（可直接作为BatchInserter.RowSource）交给回调
+     */
+    public interface ColumnarChunkHandler {
+        void handle(List<String> headers, ColumnarRowBuffer chunk) throws Exception;
+    }
+
+    // 存储读取到的Excel数据（流式模式下仅存放当前未提交的一块）
+    private List<T> dataList = new ArrayList<>();
+    // 流式模式：每块行数（<=0表示全量模式）
+    private final int chunkSize;
+    // 流式模式：分块回调
+    private final ChunkHandler<T> chunkHandler;
+    // 列式流式模式：分块回调和当前块
+    private final ColumnarChunkHandler columnarHandler;
+    private ColumnarRowBuffer columnarBuffer;
+    // 累计读取的有效行数（流式模式下dataList.size()不再等于总行数）
+    private int totalRows = 0;
+    // 最多读取的行数（<=0不限制），读满后停止解析
+    private int rowLimit = 0;
+    // true=读到表头后立即停止解析
+    private boolean headerOnly = false;
+    // 跳过前skipRows行有效数据（断点续传），已跳过的行数
+    private long skipRows = 0;
+    private long skippedRows = 0;
     // 必填表头（用于校验）
     private final Set<String> expectedHeaders;
     // 实际读取到的表头
     private List<String> actualHeaders;
     // 表头校验结果（true=通过，false=不通过）
     private boolean headerValid = false;
+    // 计时：解析开始时间、上一块交给回调后的时间
+    private long parseStartNanos;
+    private long chunkStartNanos;
 
     // 构造方法：传入必填表头（可为null，null则不校验表头）
     public ExcelDataListener(Set<String> expectedHeaders) {
+        this(expectedHeaders, 0, null);
+    }
+
+    // 构造方法（流式模式）：每读满chunkSize行调用一次chunkHandler
+    public ExcelDataListener(Set<String> expectedHeaders, int chunkSize, ChunkHandler<T> chunkHandler) {
+        this(expectedHeaders, chunkSize, chunkHandler, null);
+    }
+
+    private ExcelDataListener(Set<String> expectedHeaders, int chunkSize, ChunkHandler<T> chunkHandler,
+                              ColumnarChunkHandler columnarHandler) {
+        if ((chunkHandler != null || columnarHandler != null) && chunkSize <= 0) {
+            throw new IllegalArgumentException("分块行数必须大于0！");
+        }
         this.expectedHeaders = expectedHeaders;
+        this.chunkSize = chunkSize;
+        this.chunkHandler = chunkHandler;
+        this.columnarHandler = columnarHandler;
+        if (chunkHandler != null) {
+            this.dataList = new ArrayList<>(chunkSize);
+        }
+    }
+
+    /**
+     * 列式流式模式：每读满chunkSize行，以ColumnarRowBuffer调用一次handler（缺失的列按空字符串，与BatchInserter.ofMaps一致）
+     */
+    public static ExcelDataListener<Map<Integer, String>> columnar(Set<String> expectedHeaders, int chunkSize,
+                                                                   ColumnarChunkHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("分块回调不能为空！");
+        }
+        return new ExcelDataListener<>(expectedHeaders, chunkSize, null, handler);
     }
 
     /**
@@ -31,6 +111,8 @@ public class ExcelDataListener<T> extends AnalysisEventListener<T> {
      */
     @Override
     public void invokeHeadMap(Map<Integer, String> headMap, AnalysisContext context) {
+        parseStartNanos = System.nanoTime();
+        chunkStartNanos = parseStartNanos;
         // 将表头Map转换为有序列表（按Excel列顺序）
         actualHeaders = new ArrayList<>(headMap.values());
 
@@ -41,6 +123,9 @@ public class ExcelDataListener<T> extends AnalysisEventListener<T> {
             // 未传入必填表头，默认校验通过
             headerValid = true;
         }
+        if (headerOnly) {
+            throw new ExcelAnalysisStopException("已读取表头，停止解析");
+        }
     }
 
     /**
@@ -50,19 +135,109 @@ public class ExcelDataListener<T> extends AnalysisEventListener<T> {
     public void invoke(T data, AnalysisContext context) {
         // 仅当表头校验通过时，才存储数据
         if (headerValid) {
-            dataList.add(data);
+            if (skippedRows < skipRows) {
+                skippedRows++;
+                return;
+            }
+            if (columnarHandler != null) {
+                appendColumnar(data);
+            } else {
+                dataList.add(data);
+            }
+            totalRows++;
+            ROWS.inc();
+            if (pendingRows() >= chunkSize && (chunkHandler != null || columnarHandler != null)) {
+                flushChunk();
+            }
+            if (rowLimit > 0 && totalRows >= rowLimit) {
+                // EasyExcel收到该异常后正常结束解析（不会调用doAfterAllAnalysed）
+                throw new ExcelAnalysisStopException("已读取" + rowLimit + "行，停止解析");
+            }
         }
     }
 
     /**
-     * 所有数据解析完成后执行（可留空，也可添加收尾逻辑）
+     * 所有数据解析完成后执行：流式模式下提交最后一块不满chunkSize的数据
      */
     @Override
     public void doAfterAllAnalysed(AnalysisContext context) {
-        System.out.println("Excel解析完成！");
-        System.out.println("实际表头：" + actualHeaders);
-        System.out.println("表头校验结果：" + (headerValid ? "通过" : "不通过"));
-        System.out.println("读取到的数据行数：" + dataList.size());
+        if ((chunkHandler != null || columnarHandler != null) && pendingRows() > 0) {
+            flushChunk();
+        }
+        if (parseStartNanos > 0) PARSE_TIMER.stop(parseStartNanos);
+        if (skippedRows > 0) {
+            LOG.info("Excel解析完成：表头{}，校验{}，跳过{}行，读取{}行", actualHeaders, headerValid ? "通过" : "不通过", skippedRows, totalRows);
+        } else {
+            LOG.info("Excel解析完成：表头{}，校验{}，共{}行", actualHeaders, headerValid ? "通过" : "不通过", totalRows);
+        }
+    }
+
+    /**
+     * 把当前块交给回调，并换一个新列表继续接收（旧列表不再被监听器引用，可被GC回收）
+     */
+    private void flushChunk() {
+        long handlerStart = System.nanoTime();
+        if (chunkStartNanos > 0) CHUNK_PARSE_TIMER.record(handlerStart - chunkStartNanos);
+        try {
+            if (columnarHandler != null) {
+                ColumnarRowBuffer chunk = columnarBuffer;
+                columnarBuffer = chunk.nextBuffer();
+                columnarHandler.handle(actualHeaders, chunk);
+            } else {
+                List<T> chunk = dataList;
+                dataList = new ArrayList<>(chunkSize);
+                chunkHandler.handle(actualHeaders, chunk);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("分块处理失败：" + e.getMessage(), e);
+        } finally {
+            chunkStartNanos = System.nanoTime();
+            CHUNK_HANDLER_TIMER.record(chunkStartNanos - handlerStart);
+        }
+    }
+
+    /**
+     * 列式模式：把一行Map写入当前块（Map随即可被回收）；columnar()保证此时T为Map<Integer, String>
+     * 每列的字典在第一块创建，之后各块共用（见batch.dictionaryMaxSize）
+     */
+    @SuppressWarnings("unchecked")
+    private void appendColumnar(T data) {
+        if (columnarBuffer == null) {
+            int columnCount = Math.max(1, actualHeaders.size());
+            columnarBuffer = new ColumnarRowBuffer(columnCount, chunkSize,
+                    ColumnDictionary.forColumns(columnCount, DbConfig.get().getDictionaryMaxSize()));
+        }
+        columnarBuffer.addRow((Map<Integer, String>) data);
+    }
+
+    private int pendingRows() {
+        if (columnarHandler != null) {
+            return columnarBuffer == null ? 0 : columnarBuffer.rowCount();
+        }
+        return dataList.size();
+    }
+
+    /**
+     * 只读取前rowLimit行（仅用于全量模式，流式模式下最后不满一块的数据不会交给回调）
+     */
+    public void setRowLimit(int rowLimit) {
+        this.rowLimit = rowLimit;
+    }
+
+    /**
+     * 只读取表头，不读数据行（getActualHeaders为表头；工作表为空时为null）
+     */
+    public void setHeaderOnly(boolean headerOnly) {
+        this.headerOnly = headerOnly;
+    }
+
+    /**
+     * 跳过前skipRows行有效数据（不计入totalRows），用于从检查点续传
+     */
+    public void setSkipRows(long skipRows) {
+        this.skipRows = Math.max(0, skipRows);
     }
 
     // ========== Getter方法（供外部调用） ==========
@@ -77,4 +252,12 @@ public class ExcelDataListener<T> extends AnalysisEventListener<T> {
     public List<T> getDataList() {
         return dataList;
     }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public long getSkippedRows() {
+        return skippedRows;
+    }
 }
\ No newline at end of file
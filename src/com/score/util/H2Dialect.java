@@ -0,0 +1,97 @@
+package com.score.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * H2嵌入式数据库方言：进程内运行，无需安装MySQL（测试、基准测试、单机离线使用）
+ * URL需开启MySQL兼容模式，反引号、AUTO_INCREMENT、LIMIT等写法与MySQL一致，例如：
+ * jdbc:h2:./data/score;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE
+ * （内存库：jdbc:h2:mem:score;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1）
+ * 运行时需把H2驱动（com.h2database:h2，2.x版本，如h2-2.2.224.jar）放入lib目录并加入classpath，仓库中不附带
+ * 首次连接时自动创建登录、反馈和主界面成绩表（见getInitSchema），注册账号后即可登录
+ */
+public class H2Dialect implements SqlDialect {
+    @Override
+    public String getName() {
+        return "H2";
+    }
+
+    @Override
+    public String getDriverClass() {
+        return "org.h2.Driver";
+    }
+
+    @Override
+    public String getTableOptions() {
+        return "";
+    }
+
+    @Override
+    public String getMaxPacketQuery() {
+        return null; // 进程内执行，没有网络包大小限制，按默认值分批
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        return 1000;
+    }
+
+    @Override
+    public boolean supportsLoadDataLocal() {
+        return false;
+    }
+
+    @Override
+    public boolean isTextCaseInsensitive() {
+        return false; // MODE=MySQL不改变文本比较，除非URL加IGNORECASE=TRUE
+    }
+
+    @Override
+    public String quoteIdentifier(String name) {
+        // 标准双引号写法，不依赖MySQL兼容模式；区分大小写，名字应取自元数据（DATABASE_TO_LOWER时为小写）
+        return "\"" + name.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public Properties getConnectionProperties(DbConfig config) {
+        return new Properties();
+    }
+
+    @Override
+    public List<String> getInitSchema() {
+        return Arrays.asList(
+                "CREATE TABLE IF NOT EXISTS user_data ("
+                        + "id INT AUTO_INCREMENT PRIMARY KEY, "
+                        + "username VARCHAR(50) NOT NULL UNIQUE, "
+                        + "password VARCHAR(100) NOT NULL, "
+                        + "title VARCHAR(20), "
+                        + "name VARCHAR(50), "
+                        + "sex VARCHAR(10), "
+                        + "tel VARCHAR(20), "
+                        + "email VARCHAR(100))",
+                feedbackTable("add_supplement"),
+                feedbackTable("report_problem"),
+                feedbackTable("put_suggestions"),
+                "CREATE TABLE IF NOT EXISTS score_data ("
+                        + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                        + "`学号` VARCHAR(50), "
+                        + "`姓名` VARCHAR(50), "
+                        + "`科目` VARCHAR(50), "
+                        + "`成绩` INT, "
+                        + "`录入时间` VARCHAR(50))");
+    }
+
+    // 反馈表：id为提交人的用户id（可重复），内容列与表同名
+    private static String feedbackTable(String table) {
+        return "CREATE TABLE IF NOT EXISTS " + table + " (id INT, name VARCHAR(50), " + table + " VARCHAR(2000))";
+    }
+
+    @Override
+    public String buildUpsertSql(String tableName, List<String> columns, List<String> keyColumns, String valueGroups) {
+        // 标准MERGE ... KEY写法，不依赖MySQL兼容模式
+        return "MERGE INTO " + tableName + " (" + String.join(", ", columns) + ") KEY (" + String.join(", ", keyColumns)
+                + ") VALUES " + valueGroups;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.score.util;
+
+/**
+ * 批量插入方式（每次导入可单独选择）
+ */
+public enum InsertMode {
+    // 多行VALUES：INSERT ... VALUES (...),(...)，每条语句的行数按max_allowed_packet自动计算
+    MULTI_ROW_VALUES("多行VALUES合并"),
+    // 驱动改写：开启Connector/J的rewriteBatchedStatements，由驱动把addBatch合并成多行INSERT
+    REWRITE_BATCHED("驱动批量改写"),
+    // 逐行：addBatch/executeBatch但不改写，每行一次服务器往返（原有方式）
+    PER_ROW("逐行插入");
+
+    private final String label;
+
+    InsertMode(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.score.util;
+
+import java.io.PrintStream;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按级别过滤的异步日志（替代各类中的System.out/err.println）
+ * 1. 低于当前级别的日志直接返回，不拼接字符串；消息用{}占位，参数在后台线程上才格式化
+ * 2. 日志事件放入有界队列，由后台线程写到控制台（DEBUG/INFO写stdout，WARN/ERROR写stderr），调用方不等待控制台输出
+ * 3. 队列满时丢弃DEBUG/INFO并计数（见getDroppedCount），WARN/ERROR改为在调用线程上直接输出
+ * 4. 最后一个参数是Throwable时打印其堆栈（不占用{}）
+ * 级别：系统属性score.log.level或环境变量SCORE_LOG_LEVEL（默认INFO），也可用配置项log.level在运行时修改
+ * 用法：private static final Log LOG = Log.get(Xxx.class); LOG.info("导入完成：{}行", rows);
+ */
+public final class Log {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+    private static volatile Level level = parseLevel(firstNonEmpty(System.getProperty("score.log.level"),
+            System.getenv("SCORE_LOG_LEVEL")), Level.INFO);
+    private static final BlockingQueue<Event> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    static {
+        Thread writer = new Thread(Log::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        // 退出前把队列中剩余的日志写完
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::drain, "log-flush"));
+    }
+
+    private final String tag;
+
+    private Log(String tag) {
+        this.tag = tag;
+    }
+
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    // ==================== 记录日志 ====================
+    public boolean isDebugEnabled() {
+        return level.ordinal() <= Level.DEBUG.ordinal();
+    }
+
+    public void debug(String message, Object... args) {
+        log(Level.DEBUG, message, args);
+    }
+
+    public void info(String message, Object... args) {
+        log(Level.INFO, message, args);
+    }
+
+    public void warn(String message, Object... args) {
+        log(Level.WARN, message, args);
+    }
+
+    public void error(String message, Object... args) {
+        log(Level.ERROR, message, args);
+    }
+
+    private void log(Level eventLevel, String message, Object[] args) {
+        if (eventLevel.ordinal() < level.ordinal()) return;
+        Event event = new Event(eventLevel, tag, message, args, Thread.currentThread().getName());
+        if (!QUEUE.offer(event)) {
+            if (eventLevel.ordinal() >= Level.WARN.ordinal()) {
+                write(event); // 警告/错误不丢弃
+            } else {
+                DROPPED.incrementAndGet();
+            }
+        }
+    }
+
+    // ==================== 级别设置与统计 ====================
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel == null ? Level.INFO : newLevel;
+    }
+
+    /**
+     * 解析级别名（不区分大小写），无法识别时返回defaultLevel
+     */
+    public static Level parseLevel(String name, Level defaultLevel) {
+        if (name == null || name.trim().isEmpty()) return defaultLevel;
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+
+    /**
+     * 因队列已满而丢弃的DEBUG/INFO日志条数
+     */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    // ==================== 后台输出 ====================
+    private static void writeLoop() {
+        while (true) {
+            try {
+                write(QUEUE.take());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // 单条日志格式化失败（如参数的toString抛异常）不影响后续日志
+            }
+        }
+    }
+
+    /**
+     * 把队列中剩余的日志写完（最多等待1秒，避免退出时卡住）
+     */
+    private static void drain() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        Event event;
+        while (System.nanoTime() < deadline && (event = QUEUE.poll()) != null) {
+            write(event);
+        }
+    }
+
+    private static void write(Event event) {
+        PrintStream out = event.level.ordinal() >= Level.WARN.ordinal() ? System.err : System.out;
+        Throwable thrown = event.args.length > 0 && event.args[event.args.length - 1] instanceof Throwable
+                ? (Throwable) event.args[event.args.length - 1] : null;
+        String line = TIME_FORMAT.format(event.time) + " " + event.level + " (" + event.thread + ") [" + event.tag + "] "
+                + format(event.message, event.args, thrown != null ? event.args.length - 1 : event.args.length);
+        synchronized (out) {
+            out.println(line);
+            if (thrown != null) thrown.printStackTrace(out);
+        }
+    }
+
+    /**
+     * 依次用参数替换消息中的{}，多余的参数忽略，不足时保留{}
+     */
+    static String format(String message, Object[] args, int argCount) {
+        if (argCount == 0 || message == null) return message;
+        StringBuilder sb = new StringBuilder(message.length() + 16 * argCount);
+        int from = 0;
+        int argIndex = 0;
+        int at;
+        while (argIndex < argCount && (at = message.indexOf("{}", from)) >= 0) {
+            sb.append(message, from, at).append(args[argIndex++]);
+            from = at + 2;
+        }
+        return sb.append(message, from, message.length()).toString();
+    }
+
+    private static String firstNonEmpty(String a, String b) {
+        return a != null && !a.trim().isEmpty() ? a : b;
+    }
+
+    private static class Event {
+        final Level level;
+        final String tag;
+        final String message;
+        final Object[] args;
+        final String thread;
+        final LocalTime time = LocalTime.now();
+
+        Event(Level level, String tag, String message, Object[] args, String thread) {
+            this.level = level;
+            this.tag = tag;
+            this.message = message;
+            this.args = args;
+            this.thread = thread;
+        }
+    }
+}
\ No newline at end of file
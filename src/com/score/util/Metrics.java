@@ -0,0 +1,354 @@
+package com.score.util;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 轻量指标注册表：计数器、瞬时值、计时器（带延迟分布直方图）
+ * 1. 记录只有几次原子操作，无锁、不分配对象，可放在getConnection、DAO方法等热点路径上
+ * 2. 计时器的直方图按HDR方式分桶（每个2的幂区间再等分8份），相对误差约12.5%，覆盖1ns~1小时
+ * 3. 导出：JMX（com.score:type=Metrics，可在JConsole/VisualVM中查看）；
+ *    可选本机HTTP端点（仅监听127.0.0.1），GET /metrics返回Prometheus文本格式
+ * 指标名用点分隔，如db.getConnection、userDao.login、excel.parse
+ */
+public final class Metrics {
+    private static final ConcurrentMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+    private static final Log LOG = Log.get(Metrics.class);
+
+    private static boolean jmxRegistered;
+    private static HttpServer httpServer;
+
+    private Metrics() {}
+
+    // ==================== 注册/获取指标 ====================
+    /**
+     * 获取（不存在则创建）计数器；热点路径上应把返回值保存为static final字段，避免每次查表
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /**
+     * 注册瞬时值（导出时才调用supplier取值，如连接池活跃连接数），同名覆盖
+     */
+    public static void gauge(String name, LongSupplier supplier) {
+        GAUGES.put(name, supplier);
+    }
+
+    /**
+     * 清零所有计数器和计时器（瞬时值不受影响）
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        TIMERS.values().forEach(Timer::reset);
+    }
+
+    // ==================== 导出 ====================
+    /**
+     * 所有指标的扁平快照：计数器/瞬时值原样输出，计时器展开为count、mean_ms、p50_ms、p90_ms、p99_ms、max_ms
+     */
+    public static Map<String, Double> snapshot() {
+        Map<String, Double> values = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> values.put(name, (double) counter.get()));
+        GAUGES.forEach((name, gauge) -> {
+            try {
+                values.put(name, (double) gauge.getAsLong());
+            } catch (RuntimeException e) {
+                // 取值失败（如连接池尚未初始化）时跳过
+            }
+        });
+        TIMERS.forEach((name, timer) -> {
+            values.put(name + ".count", (double) timer.getCount());
+            values.put(name + ".mean_ms", timer.getMeanMillis());
+            values.put(name + ".p50_ms", timer.getPercentileMillis(50));
+            values.put(name + ".p90_ms", timer.getPercentileMillis(90));
+            values.put(name + ".p99_ms", timer.getPercentileMillis(99));
+            values.put(name + ".max_ms", timer.getMaxMillis());
+        });
+        return values;
+    }
+
+    /**
+     * Prometheus文本格式：指标名中的点换成下划线并加score_前缀，计时器输出为summary（单位秒）
+     */
+    public static String toPrometheus() {
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(COUNTERS).forEach((name, counter) -> {
+            String metric = promName(name) + "_total";
+            sb.append("# TYPE ").append(metric).append(" counter\n");
+            sb.append(metric).append(' ').append(counter.get()).append('\n');
+        });
+        new TreeMap<>(GAUGES).forEach((name, gauge) -> {
+            long value;
+            try {
+                value = gauge.getAsLong();
+            } catch (RuntimeException e) {
+                return;
+            }
+            String metric = promName(name);
+            sb.append("# TYPE ").append(metric).append(" gauge\n");
+            sb.append(metric).append(' ').append(value).append('\n');
+        });
+        new TreeMap<>(TIMERS).forEach((name, timer) -> {
+            String metric = promName(name) + "_seconds";
+            sb.append("# TYPE ").append(metric).append(" summary\n");
+            for (double q : new double[]{0.5, 0.9, 0.99}) {
+                sb.append(metric).append("{quantile=\"").append(q).append("\"} ")
+                        .append(seconds(timer.getPercentileNanos(q * 100))).append('\n');
+            }
+            sb.append(metric).append("_sum ").append(seconds(timer.getTotalNanos())).append('\n');
+            sb.append(metric).append("_count ").append(timer.getCount()).append('\n');
+        });
+        return sb.toString();
+    }
+
+    /**
+     * 注册JMX MXBean（重复调用只注册一次）
+     */
+    public static synchronized void registerJmx() {
+        if (jmxRegistered) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), new ObjectName("com.score:type=Metrics"));
+            jmxRegistered = true;
+        } catch (JMException e) {
+            LOG.warn("注册JMX指标失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 启动本机HTTP导出端点（port<=0或已启动时忽略）
+     */
+    public static synchronized void startHttpExporter(int port) {
+        if (port <= 0 || httpServer != null) return;
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.setExecutor(null); // 使用HttpServer自带的单个后台线程
+            server.start();
+            httpServer = server;
+            LOG.info("指标HTTP端点已启动：http://127.0.0.1:{}/metrics", port);
+        } catch (IOException e) {
+            LOG.warn("指标HTTP端点启动失败（端口{}）：{}", port, e.getMessage());
+        }
+    }
+
+    public static synchronized void stopHttpExporter() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+    }
+
+    private static String promName(String name) {
+        return "score_" + name.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private static String seconds(double nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1e9);
+    }
+
+    // ==================== 指标类型 ====================
+    /**
+     * 计数器（LongAdder，多线程高频累加无竞争）
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void add(long n) {
+            value.add(n);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * 计时器：次数、总耗时、最大耗时 + 延迟分布直方图
+     * 用法：long start = System.nanoTime(); try { ... } finally { TIMER.stop(start); }
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final Histogram histogram = new Histogram();
+
+        /**
+         * 记录从start（System.nanoTime()）到现在的耗时
+         */
+        public void stop(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) nanos = 0;
+            count.increment();
+            totalNanos.add(nanos);
+            histogram.record(nanos);
+            long max;
+            while (nanos > (max = maxNanos.get())) {
+                if (maxNanos.compareAndSet(max, nanos)) break;
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        /**
+         * @param percentile 0~100
+         */
+        public double getPercentileMillis(double percentile) {
+            return getPercentileNanos(percentile) / 1e6;
+        }
+
+        public long getPercentileNanos(double percentile) {
+            return Math.min(histogram.percentile(percentile), maxNanos.get());
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            histogram.reset();
+        }
+    }
+
+    /**
+     * 对数-线性分桶直方图：值v落在[2^e, 2^(e+1))时再按高3位细分为8个桶，小于8的值各占一个桶
+     * 桶数固定（320个），记录是一次数组下标计算+一次原子自增
+     */
+    static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_EXPONENT = 41; // 2^42ns约73分钟，更大的值计入最后一个桶
+        private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long value) {
+            buckets.incrementAndGet(indexOf(value));
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) return (int) Math.max(0, value);
+            if (value >= 1L << (MAX_EXPONENT + 1)) return BUCKET_COUNT - 1;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        /**
+         * 桶的上界（含），百分位取桶上界，偏保守
+         */
+        static long upperBoundOf(int index) {
+            if (index < SUB_BUCKETS) return index;
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int sub = index % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return ((long) (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+        }
+
+        long percentile(double percentile) {
+            long[] snapshot = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) return upperBoundOf(i);
+            }
+            return upperBoundOf(BUCKET_COUNT - 1);
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets.set(i, 0);
+            }
+        }
+    }
+
+    // ==================== JMX ====================
+    /**
+     * JMX接口：Values为全部指标的扁平快照（同snapshot()），PrometheusText为文本格式
+     */
+    public interface MetricsMXBean {
+        Map<String, Double> getValues();
+
+        String getPrometheusText();
+
+        void reset();
+    }
+
+    private static final class MetricsBean implements MetricsMXBean {
+        @Override
+        public Map<String, Double> getValues() {
+            return snapshot();
+        }
+
+        @Override
+        public String getPrometheusText() {
+            return toPrometheus();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
\ No newline at end of file
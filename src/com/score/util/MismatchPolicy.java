@@ -0,0 +1,28 @@
+package com.score.util;
+
+/**
+ * 导入时值与列类型不符的处理方式
+ */
+public enum MismatchPolicy {
+    // 拒绝：该批数据整体失败（按提交方式回滚），错误信息给出第一处不符的行和列
+    REJECT("拒绝整批"),
+    // 修正：能修正的修正（截断/四舍五入），无法转换的写入NULL
+    COERCE("修正（无法转换置空）"),
+    // 隔离：不符的行原样写入"表名_quarantine"并注明原因，其余行正常写入
+    QUARANTINE("隔离到_quarantine表");
+
+    private final String label;
+
+    MismatchPolicy(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.score.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * MySQL方言（默认）
+ */
+public class MySqlDialect implements SqlDialect {
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+
+    @Override
+    public String getDriverClass() {
+        return "com.mysql.cj.jdbc.Driver";
+    }
+
+    @Override
+    public String getTableOptions() {
+        return " ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+    }
+
+    @Override
+    public int getStreamingFetchSize() {
+        // Connector/J默认把整个结果集读入内存；Integer.MIN_VALUE表示逐行流式读取（读完或关闭前该连接不能执行其他语句）
+        return Integer.MIN_VALUE;
+    }
+
+    @Override
+    public String getMaxPacketQuery() {
+        return "SELECT @@max_allowed_packet";
+    }
+
+    @Override
+    public boolean supportsLoadDataLocal() {
+        return true;
+    }
+
+    @Override
+    public boolean isTextCaseInsensitive() {
+        return true; // 默认排序规则（utf8mb4_general_ci、utf8mb4_0900_ai_ci）都不区分大小写
+    }
+
+    @Override
+    public String quoteIdentifier(String name) {
+        return "`" + name.replace("`", "``") + "`";
+    }
+
+    @Override
+    public Properties getConnectionProperties(DbConfig config) {
+        Properties info = new Properties();
+        // CLIENT_LOCAL_FILES在握手时协商，连接建立后再修改allowLoadLocalInfile不起作用
+        if (config.isAllowLoadLocalInfile() && !config.getUrl().contains("allowLoadLocalInfile=")) {
+            info.setProperty("allowLoadLocalInfile", "true");
+        }
+        return info;
+    }
+
+    @Override
+    public String buildUpsertSql(String tableName, List<String> columns, List<String> keyColumns, String valueGroups) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (")
+                .append(String.join(", ", columns)).append(") VALUES ").append(valueGroups);
+        String separator = " ON DUPLICATE KEY UPDATE ";
+        for (String column : columns) {
+            if (keyColumns.contains(column)) continue;
+            sql.append(separator).append(column).append(" = VALUES(").append(column).append(")");
+            separator = ", ";
+        }
+        if (separator.startsWith(" ON")) {
+            // 只有键列时没有可更新的列，用键列自身赋值代替（相当于INSERT IGNORE但不吞掉其他错误）
+            sql.append(separator).append(keyColumns.get(0)).append(" = ").append(keyColumns.get(0));
+        }
+        return sql.toString();
+    }
+
+    @Override
+    public List<String> getInitSchema() {
+        return Collections.emptyList(); // MySQL库由部署时建好（user_data等表已有数据），不自动建表
+    }
+}
\ No newline at end of file
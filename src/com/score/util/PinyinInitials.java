@@ -0,0 +1,54 @@
+package com.score.util;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.Locale;
+
+/**
+ * 汉字拼音首字母（如"张三" → "zs"），用于按姓名首字母查找
+ * GB2312一级汉字（3755个常用字）按拼音排序，由区位码所在区间即可得到首字母，不需要拼音字库
+ * 二级汉字、生僻字和多音字的其他读音不支持：二级汉字原样保留；字母转为小写，数字等其他字符原样保留
+ */
+public final class PinyinInitials {
+    // 每个首字母在GB2312中第一个字的区位码（I、U、V没有汉字），最后一个值为一级汉字的结束位置
+    private static final int[] BOUNDS = {1601, 1637, 1833, 2078, 2274, 2302, 2433, 2594, 2787, 3106, 3212, 3472, 3635,
+            3722, 3730, 3858, 4027, 4086, 4390, 4558, 4684, 4925, 5249, 5590};
+    private static final char[] LETTERS = "abcdefghjklmnopqrstwxyz".toCharArray();
+    private static final Charset GB2312 = Charset.forName("GB2312");
+
+    private PinyinInitials() {
+    }
+
+    public static String of(String text) {
+        if (text == null) return "";
+        CharsetEncoder encoder = GB2312.newEncoder();
+        ByteBuffer bytes = ByteBuffer.allocate(2);
+        StringBuilder initials = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                initials.append(Character.toLowerCase(c));
+                continue;
+            }
+            bytes.clear();
+            char initial = c;
+            if (!encoder.encode(CharBuffer.wrap(new char[]{c}), bytes, true).isError() && bytes.position() == 2) {
+                int code = ((bytes.get(0) & 0xFF) - 0xA0) * 100 + (bytes.get(1) & 0xFF) - 0xA0;
+                initial = letter(code, c);
+            }
+            encoder.reset();
+            initials.append(initial);
+        }
+        return initials.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static char letter(int code, char fallback) {
+        if (code < BOUNDS[0] || code >= BOUNDS[BOUNDS.length - 1]) return fallback;
+        for (int i = LETTERS.length - 1; i >= 0; i--) {
+            if (code >= BOUNDS[i]) return LETTERS[i];
+        }
+        return fallback;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package com.score.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按列类型转换一批行，并按MismatchPolicy处理类型不符的值
+ * 转换后的行以RowSource形式交给BatchInserter（数字/日期按对应Java类型绑定，空值为NULL）
+ * 输入为ColumnarRowBuffer时，字典编码的列按编码缓存转换结果：每块中同一取值只转换一次，各行绑定同一个对象
+ */
+public class SchemaEnforcer {
+    // REJECT时错误信息最多列出的不符项
+    private static final int MAX_REPORTED = 3;
+    // 转换缓存中"尚未转换"的标记（转换结果本身可能为null）
+    private static final Object NOT_CONVERTED = new Object();
+
+    private final List<String> headers;
+    // 每列类型（null表示不校验，原样写入）
+    private final List<ColumnType> types;
+    private final MismatchPolicy policy;
+
+    public SchemaEnforcer(List<String> headers, List<ColumnType> types, MismatchPolicy policy) {
+        this.headers = headers;
+        this.types = types;
+        this.policy = policy == null ? MismatchPolicy.REJECT : policy;
+    }
+
+    /**
+     * 转换一批行
+     * @param firstRowNumber 第一行在文件中的行号（用于错误信息）
+     * @throws IllegalArgumentException REJECT策略下存在不符的值
+     */
+    public Result apply(BatchInserter.RowSource rows, long firstRowNumber) {
+        int rowCount = rows.rowCount();
+        int colCount = types.size();
+        List<Object[]> accepted = new ArrayList<>(rowCount);
+        List<Mismatch> mismatches = new ArrayList<>();
+        int coerced = 0;
+        Object[][] cache = conversionCache(rows, colCount);
+        for (int r = 0; r < rowCount; r++) {
+            Object[] converted = new Object[colCount];
+            Mismatch rowMismatch = null;
+            for (int c = 0; c < colCount; c++) {
+                Object raw = rows.value(r, c);
+                ColumnType type = types.get(c);
+                if (type == null) {
+                    converted[c] = raw;
+                    continue;
+                }
+                int code = cache != null && cache[c] != null ? ((ColumnarRowBuffer) rows).dictionaryCode(r, c) : -1;
+                if (code >= 0 && cache[c][code] != NOT_CONVERTED) {
+                    converted[c] = cache[c][code];
+                    continue;
+                }
+                String text = raw == null ? null : raw.toString();
+                try {
+                    converted[c] = type.convert(text);
+                    if (code >= 0) cache[c][code] = converted[c];
+                } catch (IllegalArgumentException e) {
+                    Mismatch mismatch = new Mismatch(r, firstRowNumber + r, headers.get(c), text, e.getMessage());
+                    if (policy == MismatchPolicy.COERCE) {
+                        converted[c] = type.coerce(text);
+                        coerced++;
+                    } else if (rowMismatch == null) {
+                        rowMismatch = mismatch;
+                    }
+                }
+            }
+            if (rowMismatch == null) {
+                accepted.add(converted);
+            } else {
+                mismatches.add(rowMismatch);
+                if (policy == MismatchPolicy.REJECT && mismatches.size() >= MAX_REPORTED) break;
+            }
+        }
+        if (policy == MismatchPolicy.REJECT && !mismatches.isEmpty()) {
+            StringBuilder message = new StringBuilder("类型不符：");
+            for (int i = 0; i < mismatches.size(); i++) {
+                if (i > 0) message.append("；");
+                message.append(mismatches.get(i));
+            }
+            throw new IllegalArgumentException(message.toString());
+        }
+        return new Result(toRowSource(accepted), mismatches, coerced);
+    }
+
+    /**
+     * 字典编码列的转换缓存（按编码下标，不符的值不缓存，每次都按原逻辑处理）
+     * @return 输入不是ColumnarRowBuffer时返回null；不需要缓存的列为null
+     */
+    private Object[][] conversionCache(BatchInserter.RowSource rows, int colCount) {
+        if (!(rows instanceof ColumnarRowBuffer)) return null;
+        ColumnarRowBuffer buffer = (ColumnarRowBuffer) rows;
+        Object[][] cache = new Object[colCount][];
+        for (int c = 0; c < colCount; c++) {
+            if (types.get(c) != null && c < buffer.columnCount() && buffer.isDictionaryEncoded(c)) {
+                cache[c] = new Object[buffer.dictionaryBound(c)];
+                Arrays.fill(cache[c], NOT_CONVERTED);
+            }
+        }
+        return cache;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public List<ColumnType> getTypes() {
+        return types;
+    }
+
+    public MismatchPolicy getPolicy() {
+        return policy;
+    }
+
+    private static BatchInserter.RowSource toRowSource(List<Object[]> rows) {
+        return new BatchInserter.RowSource() {
+            @Override
+            public int rowCount() {
+                return rows.size();
+            }
+
+            @Override
+            public Object value(int row, int col) {
+                return rows.get(row)[col];
+            }
+        };
+    }
+
+    /**
+     * 转换结果：通过的行 + 被隔离的行（QUARANTINE）+ 被修正的值个数（COERCE）
+     */
+    public static class Result {
+        private final BatchInserter.RowSource accepted;
+        private final List<Mismatch> mismatches;
+        private final int coercedValues;
+
+        Result(BatchInserter.RowSource accepted, List<Mismatch> mismatches, int coercedValues) {
+            this.accepted = accepted;
+            this.mismatches = mismatches;
+            this.coercedValues = coercedValues;
+        }
+
+        public BatchInserter.RowSource getAccepted() { return accepted; }
+        public List<Mismatch> getMismatches() { return mismatches; }
+        public int getCoercedValues() { return coercedValues; }
+    }
+
+    /**
+     * 一处类型不符（每行只记录第一处）
+     */
+    public static class Mismatch {
+        private final int rowIndex;
+        private final long rowNumber;
+        private final String column;
+        private final String value;
+        private final String reason;
+
+        Mismatch(int rowIndex, long rowNumber, String column, String value, String reason) {
+            this.rowIndex = rowIndex;
+            this.rowNumber = rowNumber;
+            this.column = column;
+            this.value = value;
+            this.reason = reason;
+        }
+
+        // 在本批中的下标（用于取出原始行）
+        public int getRowIndex() { return rowIndex; }
+        public long getRowNumber() { return rowNumber; }
+        public String getColumn() { return column; }
+        public String getValue() { return value; }
+        public String getReason() { return reason; }
+
+        @Override
+        public String toString() {
+            return "第" + rowNumber + "行[" + column + "]=\"" + value + "\"" + reason;
+        }
+    }
+}
\ No newline at end of file
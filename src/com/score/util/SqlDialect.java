@@ -0,0 +1,82 @@
+package com.score.util;
+
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * 数据库方言：屏蔽MySQL与嵌入式数据库在建表选项、服务器变量、批量加载等方面的差异
+ * 由DBUtil按连接URL选定（见forUrl），业务代码通过DBUtil.getDialect()获取
+ */
+public interface SqlDialect {
+    /**
+     * 方言名称（用于日志）
+     */
+    String getName();
+
+    /**
+     * JDBC驱动类名
+     */
+    String getDriverClass();
+
+    /**
+     * CREATE TABLE语句末尾的表选项（含前导空格，没有时返回空字符串）
+     */
+    String getTableOptions();
+
+    /**
+     * 查询单条SQL包大小上限的语句（不支持时返回null，调用方按默认值处理）
+     */
+    String getMaxPacketQuery();
+
+    /**
+     * 给表名/列名加引号（名字中的引号字符转义），用于拼接来自元数据或用户输入的标识符
+     */
+    String quoteIdentifier(String name);
+
+    /**
+     * 文本比较是否不区分大小写（MySQL默认的_ci排序规则下'ABC' = 'abc'，唯一键也视为重复）
+     * 在Java中按键比对时据此统一大小写，与数据库的判断保持一致
+     */
+    boolean isTextCaseInsensitive();
+
+    /**
+     * 是否支持LOAD DATA LOCAL INFILE批量加载
+     */
+    boolean supportsLoadDataLocal();
+
+    /**
+     * 建立物理连接时额外传给驱动的属性（如MySQL的allowLoadLocalInfile，只能在握手时协商）
+     * URL中写了同名参数时以URL为准
+     */
+    Properties getConnectionProperties(DbConfig config);
+
+    /**
+     * 逐行读取大结果集（导出）时使用的fetchSize：驱动按此分批从服务器取行，不把整个结果集读入内存
+     * 语句需为TYPE_FORWARD_ONLY、CONCUR_READ_ONLY
+     */
+    int getStreamingFetchSize();
+
+    /**
+     * 多行"插入或更新"语句：keyColumns上有唯一键，键已存在的行用新值覆盖其余列，否则插入
+     * @param columns 已加引号的全部列（含键列）
+     * @param keyColumns 已加引号的键列
+     * @param valueGroups "(?, ?), (?, ?)"形式的多行占位符
+     */
+    String buildUpsertSql(String tableName, List<String> columns, List<String> keyColumns, String valueGroups);
+
+    /**
+     * 连接池初始化后执行的建表语句（CREATE TABLE IF NOT EXISTS，表已存在时跳过）
+     * 新建的空库（如嵌入式H2）靠它建好登录、反馈和主界面成绩表；没有需要自动创建的表时返回空列表
+     */
+    List<String> getInitSchema();
+
+    /**
+     * 按JDBC URL选择方言：jdbc:h2:开头为H2，其余按MySQL处理
+     */
+    static SqlDialect forUrl(String url) {
+        if (url != null && url.startsWith("jdbc:h2:")) {
+            return new H2Dialect();
+        }
+        return new MySqlDialect();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.score.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 表版本号：本程序每次写入某张表（导入提交一块、删除/修改成绩）后递增，供按表缓存的计算结果判断是否过期
+ * 只统计本进程内的写入；其他程序直接改库不会使缓存失效
+ */
+public final class TableVersions {
+    private static final Map<String, AtomicLong> VERSIONS = new ConcurrentHashMap<>();
+
+    private TableVersions() {
+    }
+
+    /**
+     * 当前版本号（从未写入过为0）
+     */
+    public static long get(String tableName) {
+        AtomicLong version = VERSIONS.get(key(tableName));
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * 表已被修改
+     */
+    public static void bump(String tableName) {
+        VERSIONS.computeIfAbsent(key(tableName), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static String key(String tableName) {
+        return tableName.toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
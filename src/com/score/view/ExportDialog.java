@@ -0,0 +1,270 @@
+package com.score.view;
+
+import com.score.service.ExportFormat;
+import com.score.service.ExportProgressListener;
+import com.score.service.ExportService;
+import com.score.util.DbTaskScheduler;
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 成绩导出：勾选要导出的表和格式，一张表导出为单个文件，多张表并行导出后打包为ZIP
+ * 每张表一行显示状态和已导出行数，底部进度条按总行数显示整体进度；导出在后台进行，可随时取消
+ */
+public class ExportDialog extends JDialog implements ExportProgressListener {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"导出", "表名", "状态", "已导出行数", "总行数"};
+    private static final int PROGRESS_MAX = 1000;
+
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public Class<?> getColumnClass(int column) {
+            return column == 0 ? Boolean.class : Object.class;
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return column == 0 && service == null;
+        }
+    };
+    private final JComboBox<ExportFormat> formatBox = new JComboBox<>(ExportFormat.values());
+    private final JProgressBar progressBar = new JProgressBar(0, PROGRESS_MAX);
+    private final JLabel statusLabel = new JLabel("正在读取数据库中的表…");
+    private final JButton startBtn = new JButton("开始导出");
+    private final JButton cancelBtn = new JButton("取消导出");
+    private final String defaultTable;
+    // 正在进行的导出（没有导出时为null）
+    private ExportService service;
+    // 用户点了取消（ZIP导出中一张表失败时服务也会取消其余的表，需要区分）
+    private boolean cancelRequested;
+    // 本次导出的表序号 → 表格行号、总行数、已导出行数
+    private int[] rowOfTable = new int[0];
+    private long[] totalRows = new long[0];
+    private long[] exportedRows = new long[0];
+
+    public ExportDialog(Window owner, String defaultTable) {
+        super(owner, "导出成绩", ModalityType.MODELESS);
+        this.defaultTable = defaultTable;
+        setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        setSize(620, 400);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout(10, 10));
+
+        JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        top.add(new JLabel("格式："));
+        top.add(formatBox);
+        JButton allBtn = new JButton("全选");
+        allBtn.addActionListener(e -> checkAll(true));
+        JButton noneBtn = new JButton("全不选");
+        noneBtn.addActionListener(e -> checkAll(false));
+        top.add(allBtn);
+        top.add(noneBtn);
+        add(top, BorderLayout.NORTH);
+
+        JTable table = new JTable(model);
+        table.getColumnModel().getColumn(0).setMaxWidth(50);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JPanel bottom = new JPanel(new BorderLayout(5, 5));
+        bottom.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        progressBar.setStringPainted(true);
+        progressBar.setString("");
+        bottom.add(progressBar, BorderLayout.NORTH);
+        bottom.add(statusLabel, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        startBtn.setEnabled(false);
+        startBtn.addActionListener(e -> startExport());
+        cancelBtn.setEnabled(false);
+        cancelBtn.addActionListener(e -> cancelExport());
+        JButton closeBtn = new JButton("关闭");
+        closeBtn.addActionListener(e -> close());
+        buttons.add(startBtn);
+        buttons.add(cancelBtn);
+        buttons.add(closeBtn);
+        bottom.add(buttons, BorderLayout.SOUTH);
+        add(bottom, BorderLayout.SOUTH);
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                close();
+            }
+        });
+        loadTables();
+    }
+
+    /**
+     * 后台列出可导出的表，默认勾选当前成绩表
+     */
+    private void loadTables() {
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("列出可导出的表", () -> new ExportService().listTables()), tables -> {
+            for (String table : tables) {
+                model.addRow(new Object[]{table.equalsIgnoreCase(defaultTable), table, "", "", ""});
+            }
+            startBtn.setEnabled(!tables.isEmpty());
+            statusLabel.setText(tables.isEmpty() ? "数据库中没有可导出的表" : "勾选要导出的表（多张表打包为ZIP）");
+        }, e -> statusLabel.setText("读取表失败：" + DbTaskScheduler.describeFailure(e)));
+    }
+
+    private void checkAll(boolean checked) {
+        if (service != null) return;
+        for (int row = 0; row < model.getRowCount(); row++) {
+            model.setValueAt(checked, row, 0);
+        }
+    }
+
+    private void startExport() {
+        List<String> tables = new ArrayList<>();
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < model.getRowCount(); row++) {
+            if (Boolean.TRUE.equals(model.getValueAt(row, 0))) {
+                tables.add((String) model.getValueAt(row, 1));
+                rows.add(row);
+            }
+        }
+        if (tables.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请勾选要导出的表！");
+            return;
+        }
+        ExportFormat format = (ExportFormat) formatBox.getSelectedItem();
+        boolean zip = tables.size() > 1;
+        File target = chooseTarget(zip ? "成绩导出.zip" : tables.get(0) + format.getExtension(), zip ? ".zip" : format.getExtension());
+        if (target == null) return;
+
+        rowOfTable = new int[tables.size()];
+        totalRows = new long[tables.size()];
+        exportedRows = new long[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            rowOfTable[i] = rows.get(i);
+        }
+        for (int row = 0; row < model.getRowCount(); row++) {
+            boolean selected = rows.contains(row);
+            model.setValueAt(selected ? "等待" : "", row, 2);
+            model.setValueAt(selected ? 0L : "", row, 3);
+            model.setValueAt("", row, 4);
+        }
+        progressBar.setValue(0);
+        progressBar.setString("");
+        statusLabel.setText("正在导出到" + target + "…");
+        ExportService export = new ExportService();
+        service = export;
+        cancelRequested = false;
+        startBtn.setEnabled(false);
+        cancelBtn.setEnabled(true);
+        formatBox.setEnabled(false);
+
+        long start = System.currentTimeMillis();
+        // 多张表并行导出时每个导出线程一个连接，按线程数占用调度器许可
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int connections = zip ? ExportService.zipThreads(tables.size(), parallelism) : 1;
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("导出成绩", () -> zip
+                ? export.exportToZip(tables, target, format, parallelism, this)
+                : export.exportTable(tables.get(0), target, format, this), DbTaskScheduler.NO_TIMEOUT, connections), total -> {
+            finish();
+            progressBar.setValue(PROGRESS_MAX);
+            statusLabel.setText("导出完成：" + tables.size() + "张表，" + total + "行，耗时"
+                    + (System.currentTimeMillis() - start) + "ms → " + target);
+        }, e -> {
+            finish();
+            statusLabel.setText(cancelRequested ? "导出已取消" : "导出失败：" + DbTaskScheduler.describeFailure(e));
+        });
+    }
+
+    /**
+     * 选择保存位置：补全扩展名，文件已存在时确认覆盖
+     */
+    private File chooseTarget(String defaultName, String extension) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter(extension.substring(1).toUpperCase() + "文件", extension.substring(1)));
+        chooser.setSelectedFile(new File(defaultName));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return null;
+        File file = chooser.getSelectedFile();
+        if (!file.getName().toLowerCase().endsWith(extension)) {
+            file = new File(file.getParentFile(), file.getName() + extension);
+        }
+        if (file.exists() && JOptionPane.showConfirmDialog(this, file.getName() + "已存在，是否覆盖？", "确认",
+                JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return null;
+        }
+        return file;
+    }
+
+    private void cancelExport() {
+        if (service == null) return;
+        cancelRequested = true;
+        service.cancel();
+        cancelBtn.setEnabled(false);
+        statusLabel.setText("正在取消…");
+    }
+
+    private void finish() {
+        service = null;
+        startBtn.setEnabled(true);
+        cancelBtn.setEnabled(false);
+        formatBox.setEnabled(true);
+    }
+
+    /**
+     * 关闭窗口：导出进行中时先确认并取消
+     */
+    private void close() {
+        if (service != null) {
+            if (JOptionPane.showConfirmDialog(this, "导出尚未完成，是否取消导出并关闭？", "确认",
+                    JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+            service.cancel();
+        }
+        dispose();
+    }
+
+    @Override
+    public void onTableStarted(int tableIndex, String tableName, long total) {
+        SwingUtilities.invokeLater(() -> {
+            totalRows[tableIndex] = total;
+            model.setValueAt("导出中", rowOfTable[tableIndex], 2);
+            model.setValueAt(total, rowOfTable[tableIndex], 4);
+            updateProgress();
+        });
+    }
+
+    @Override
+    public void onTableProgress(int tableIndex, String tableName, long exported) {
+        SwingUtilities.invokeLater(() -> {
+            exportedRows[tableIndex] = exported;
+            model.setValueAt(exported, rowOfTable[tableIndex], 3);
+            updateProgress();
+        });
+    }
+
+    @Override
+    public void onTableFinished(int tableIndex, String tableName, long exported, Exception error) {
+        SwingUtilities.invokeLater(() -> {
+            exportedRows[tableIndex] = exported;
+            model.setValueAt(error == null ? "完成" : "失败：" + error.getMessage(), rowOfTable[tableIndex], 2);
+            model.setValueAt(exported, rowOfTable[tableIndex], 3);
+            updateProgress();
+        });
+    }
+
+    /**
+     * 整体进度 = 已导出行数之和 / 已开始的表的总行数之和（导出期间新增的行会让进度略超总数，按100%显示）
+     */
+    private void updateProgress() {
+        long exported = 0;
+        long total = 0;
+        for (int i = 0; i < totalRows.length; i++) {
+            exported += exportedRows[i];
+            total += totalRows[i];
+        }
+        progressBar.setValue(total == 0 ? 0 : (int) Math.min(PROGRESS_MAX, exported * PROGRESS_MAX / total));
+        progressBar.setString("已导出 " + exported + " / " + total + " 行");
+    }
+}
\ No newline at end of file
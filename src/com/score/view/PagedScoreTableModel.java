@@ -0,0 +1,256 @@
+package com.score.view;
+
+import com.score.dao.ScoreDao;
+import com.score.dao.ScorePageDao;
+import com.score.util.DbTaskScheduler;
+import com.score.util.Log;
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 成绩表分页表格模型：数据按页从数据库懒加载，内存中只保留最近访问的若干页（LRU）
+ * 1. 加载时先读页目录（每页首行id + 总行数），表格立即按总行数显示滚动条
+ * 2. 表格绘制到某行时，所在页不在缓存中则提交后台读取并先显示占位符，读完后在EDT刷新这一页
+ * 3. 同时预取相邻页；读取任务提交到DbTaskScheduler，但执行时总是取本模型最新的请求（后进先出），
+ *    快速拖动滚动条时优先加载当前可见的页，太久没被访问的旧请求直接丢弃
+ * 4. 查找时可设置过滤（setFilter）：只显示给定主键的行，页内容按主键批量读取，页的读取和缓存方式不变
+ * 5. 设置了ScoreDao时，尚未保存的修改直接显示新值，尚未保存的删除在学号前标注
+ * 除后台读取外，所有字段只在EDT上访问
+ */
+public class PagedScoreTableModel extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+    private static final Log LOG = Log.get(PagedScoreTableModel.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 50;
+    private static final String LOADING = "加载中…";
+    private static final String DELETED = "（已删除）";
+    private static final String PENDING_DELETE = "（待删除）";
+    // 请求序号落后当前序号超过该值的页视为已滚出视野，不再读取
+    private static final long STALE_REQUESTS = 64;
+
+    private final ScorePageDao dao;
+    private final int pageSize;
+    // 页号 → 该页数据（访问顺序，超出上限时淘汰最久未访问的页）
+    private final LinkedHashMap<Integer, List<Object[]>> pages;
+    // 页号 → 最近一次请求该页时的序号（用于判断后台请求是否已过期）
+    private final Map<Integer, Long> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong requestSeq = new AtomicLong();
+    // 待执行的页读取（后进先出）；每提交一次调度任务，执行时从队头取一个
+    private final ConcurrentLinkedDeque<Runnable> pendingLoads = new ConcurrentLinkedDeque<>();
+    private final DbTaskScheduler scheduler = DbTaskScheduler.getInstance();
+    private volatile boolean shutdown = false;
+    // 未保存的修改/删除（为null时只显示库中的值）
+    private ScoreDao pendingChanges;
+
+    private long[] firstIds = new long[0];
+    // 过滤时只显示的行的主键（升序），为null时显示全表
+    private long[] filterIds;
+    private int rowCount = 0;
+    // 每次重新加载目录后递增，丢弃旧目录下发出的页数据
+    private int generation = 0;
+
+    public PagedScoreTableModel(ScorePageDao dao) {
+        this(dao, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    public PagedScoreTableModel(ScorePageDao dao, int pageSize, int maxCachedPages) {
+        this.dao = dao;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<Integer, List<Object[]>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+                return size() > maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * 只显示给定主键的行（查找结果）；立即生效，各页在显示时再读取
+     */
+    public void setFilter(long[] ids) {
+        generation++;
+        filterIds = ids;
+        rowCount = ids.length;
+        pages.clear();
+        inFlight.clear();
+        fireTableDataChanged();
+    }
+
+    public boolean isFiltered() {
+        return filterIds != null;
+    }
+
+    /**
+     * （重新）加载页目录，完成后在EDT上回调onLoaded（失败时传入异常，成功为null）；会取消过滤
+     */
+    public void reload(Consumer<Exception> onLoaded) {
+        int gen = ++generation;
+        if (filterIds != null) {
+            // 过滤时缓存的是查找结果的页，目录加载完成前先清空
+            filterIds = null;
+            rowCount = 0;
+            pages.clear();
+            inFlight.clear();
+            fireTableDataChanged();
+        }
+        scheduler.run("分页目录", () -> {
+            try {
+                ScorePageDao.PageDirectory directory = dao.loadPageDirectory(pageSize);
+                SwingUtilities.invokeLater(() -> {
+                    if (gen != generation) return;
+                    firstIds = directory.getFirstIds();
+                    rowCount = (int) Math.min(Integer.MAX_VALUE, directory.getRowCount());
+                    pages.clear();
+                    inFlight.clear();
+                    fireTableDataChanged();
+                    if (onLoaded != null) onLoaded.accept(null);
+                });
+            } catch (Exception e) {
+                LOG.warn("加载页目录失败：{}", e.getMessage());
+                if (onLoaded != null) SwingUtilities.invokeLater(() -> onLoaded.accept(e));
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return ScorePageDao.COLUMNS.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return ScorePageDao.COLUMNS.get(column);
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    /**
+     * 显示该ScoreDao中尚未保存的修改和删除
+     */
+    public void setPendingChanges(ScoreDao dao) {
+        this.pendingChanges = dao;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Object[] row = getRow(rowIndex);
+        if (row == null) return LOADING;
+        Object value = row[columnIndex + 1];
+        if (pendingChanges == null || row[1] == DELETED) return value;
+        long id = (Long) row[0];
+        if (pendingChanges.isPendingDelete(id)) {
+            return columnIndex == 0 ? PENDING_DELETE + value : value;
+        }
+        Object pending = pendingChanges.pendingValue(id, getColumnName(columnIndex));
+        return pending == ScoreDao.NO_CHANGE ? value : pending;
+    }
+
+    /**
+     * 行对应的数据库主键id（所在页尚未加载时返回-1）
+     */
+    public long getRowId(int rowIndex) {
+        Object[] row = getRow(rowIndex);
+        return row == null || row[1] == DELETED ? -1 : (Long) row[0];
+    }
+
+    private Object[] getRow(int rowIndex) {
+        int page = rowIndex / pageSize;
+        List<Object[]> data = pages.get(page);
+        if (data == null) {
+            requestPage(page);
+            // 预取前后页，滚动时下一页通常已就绪
+            requestPage(page + 1);
+            requestPage(page - 1);
+            return null;
+        }
+        int offset = rowIndex % pageSize;
+        // 页目录之后有行被删除时这一页读到的行数不足，缺的行显示为已删除（重新加载目录后消失）
+        return offset < data.size() ? data.get(offset) : deletedRow(-1);
+    }
+
+    private void requestPage(int page) {
+        int pageCount = filterIds == null ? firstIds.length : (filterIds.length + pageSize - 1) / pageSize;
+        if (page < 0 || page >= pageCount || pages.containsKey(page)) return;
+        long seq = requestSeq.incrementAndGet();
+        if (inFlight.put(page, seq) != null) return; // 已在队列中，只刷新请求序号
+        long fromId = filterIds == null ? firstIds[page] : 0;
+        long toId = filterIds == null && page + 1 < firstIds.length ? firstIds[page + 1] : Long.MAX_VALUE;
+        long[] pageIds = filterIds == null ? null
+                : Arrays.copyOfRange(filterIds, page * pageSize, Math.min(filterIds.length, (page + 1) * pageSize));
+        int gen = generation;
+        pendingLoads.addFirst(() -> {
+            Long lastRequested = inFlight.get(page);
+            if (lastRequested == null || requestSeq.get() - lastRequested > STALE_REQUESTS) {
+                inFlight.remove(page); // 早已滚出视野
+                return;
+            }
+            try {
+                List<Object[]> rows = pageIds == null ? dao.fetchPage(fromId, toId, pageSize) : alignToIds(dao.fetchByIds(pageIds), pageIds);
+                SwingUtilities.invokeLater(() -> {
+                    inFlight.remove(page);
+                    if (gen != generation) return;
+                    pages.put(page, rows);
+                    int first = page * pageSize;
+                    fireTableRowsUpdated(first, Math.min(rowCount, first + pageSize) - 1);
+                });
+            } catch (Exception e) {
+                inFlight.remove(page);
+                LOG.warn("读取第{}页失败：{}", page + 1, e.getMessage());
+            }
+        });
+        scheduler.run("分页读取", () -> {
+            Runnable load = pendingLoads.pollFirst();
+            if (load != null && !shutdown) load.run();
+        });
+    }
+
+    /**
+     * 过滤模式下按主键读出的行与主键一一对应：查找后被删除的行显示为"已删除"，不影响其余行的位置
+     */
+    private static List<Object[]> alignToIds(List<Object[]> fetched, long[] ids) {
+        List<Object[]> rows = new ArrayList<>(ids.length);
+        int next = 0;
+        for (long id : ids) {
+            if (next < fetched.size() && (Long) fetched.get(next)[0] == id) {
+                rows.add(fetched.get(next++));
+            } else {
+                rows.add(deletedRow(id));
+            }
+        }
+        return rows;
+    }
+
+    private static Object[] deletedRow(long id) {
+        Object[] row = new Object[ScorePageDao.COLUMNS.size() + 1];
+        row[0] = id;
+        row[1] = DELETED;
+        return row;
+    }
+
+    /**
+     * 停止后台读取（窗口关闭时调用），已排队的读取请求直接丢弃
+     */
+    public void shutdown() {
+        shutdown = true;
+        pendingLoads.clear();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package com.score.view;
+
+import com.score.service.Ranking;
+import com.score.service.RankingEngine;
+import com.score.service.ScoreAnalytics;
+import com.score.service.ScoreSummary;
+import com.score.util.DbTaskScheduler;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 成绩统计面板：总体、按科目、按班级的人次/平均分/最高最低分/标准差/及格率/分数段，按学号查单个学生
+ * 数据全部来自ScoreAnalytics的汇总；汇总尚未建立或已过期时先在后台重建（只扫描一遍成绩表）
+ * "排名"页按科目显示前N名和分位数，排名由RankingEngine在后台计算（表未变化时直接用缓存）
+ */
+public class ScoreDashboardDialog extends JDialog {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"名称", "人次", "平均分", "最高分", "最低分", "标准差", "及格率", "<60", "60-69", "70-79", "80-89", "90-100"};
+    private static final String[] RANK_COLUMNS = {"排名", "学号", "班级", "成绩", "班级排名", "超过"};
+    private static final String ALL_SUBJECTS = "全部科目";
+    private static final int TOP_N = 100;
+
+    private final ScoreAnalytics analytics = ScoreAnalytics.getInstance();
+    private final DefaultTableModel subjectModel = newModel(COLUMNS);
+    private final DefaultTableModel classModel = newModel(COLUMNS);
+    private final JLabel overallLabel = new JLabel(" ");
+    private final JLabel statusLabel = new JLabel(" ");
+    private final JTextField studentField = new JTextField(12);
+    private final JLabel studentLabel = new JLabel(" ");
+    private final JButton refreshBtn = new JButton("重新统计");
+    private final DefaultTableModel rankModel = newModel(RANK_COLUMNS);
+    private final JComboBox<String> subjectBox = new JComboBox<>();
+    private final JLabel rankLabel = new JLabel(" ");
+
+    public ScoreDashboardDialog(Window owner) {
+        super(owner, "成绩统计", ModalityType.MODELESS);
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        setSize(900, 480);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout(10, 10));
+
+        JPanel top = new JPanel(new BorderLayout(10, 0));
+        top.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        overallLabel.setFont(new Font("微软雅黑", Font.BOLD, 13));
+        top.add(overallLabel, BorderLayout.CENTER);
+        refreshBtn.addActionListener(e -> rebuild());
+        top.add(refreshBtn, BorderLayout.EAST);
+        add(top, BorderLayout.NORTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("按科目", new JScrollPane(new JTable(subjectModel)));
+        tabs.addTab("按班级", new JScrollPane(new JTable(classModel)));
+        tabs.addTab("排名", createRankPanel());
+        add(tabs, BorderLayout.CENTER);
+
+        JPanel bottom = new JPanel(new GridLayout(2, 1));
+        JPanel studentPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        studentPanel.add(new JLabel("学号："));
+        studentPanel.add(studentField);
+        JButton queryBtn = new JButton("查询学生");
+        queryBtn.addActionListener(e -> showStudent());
+        studentField.addActionListener(e -> showStudent());
+        studentPanel.add(queryBtn);
+        studentPanel.add(studentLabel);
+        bottom.add(studentPanel);
+        bottom.add(statusLabel);
+        add(bottom, BorderLayout.SOUTH);
+
+        if (analytics.needsRebuild()) {
+            rebuild();
+        } else {
+            showSummaries();
+        }
+    }
+
+    /**
+     * 后台扫描成绩表重建汇总，完成后刷新显示
+     */
+    private void rebuild() {
+        refreshBtn.setEnabled(false);
+        statusLabel.setText("正在统计成绩表" + analytics.getTableName() + "…");
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("成绩统计", () -> {
+            analytics.rebuild();
+            return null;
+        }, DbTaskScheduler.NO_TIMEOUT), ignored -> {
+            refreshBtn.setEnabled(true);
+            showSummaries();
+        }, e -> {
+            refreshBtn.setEnabled(true);
+            statusLabel.setText("统计失败：" + DbTaskScheduler.describeFailure(e));
+        });
+    }
+
+    private void showSummaries() {
+        overallLabel.setText("全部成绩：" + analytics.overall() + "，学生" + analytics.studentCount() + "名");
+        Map<String, ScoreSummary> subjects = analytics.subjects();
+        fill(subjectModel, subjects);
+        Object selected = subjectBox.getSelectedItem();
+        subjectBox.removeAllItems();
+        subjectBox.addItem(ALL_SUBJECTS);
+        for (String subject : subjects.keySet()) {
+            subjectBox.addItem(subject);
+        }
+        if (selected != null) subjectBox.setSelectedItem(selected);
+        fill(classModel, analytics.classes());
+        String status = analytics.hasClassColumn() ? "" : "成绩表中没有" + ScoreAnalytics.CLASS_COLUMN + "列，无法按班级统计；";
+        long invalid = analytics.getInvalidRows();
+        if (invalid > 0) status += invalid + "行成绩为空或不是数字，未计入统计；";
+        statusLabel.setText(status.isEmpty() ? "统计随导入、删除成绩自动更新" : status);
+        if (!studentField.getText().trim().isEmpty()) showStudent();
+    }
+
+    private void showStudent() {
+        String studentId = studentField.getText().trim();
+        if (studentId.isEmpty()) return;
+        ScoreSummary summary = analytics.student(studentId);
+        studentLabel.setText(summary == null ? "没有该学生的成绩" : summary.toString());
+    }
+
+    private JPanel createRankPanel() {
+        JPanel panel = new JPanel(new BorderLayout(0, 5));
+        JPanel header = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        header.add(new JLabel("科目："));
+        subjectBox.addItem(ALL_SUBJECTS);
+        header.add(subjectBox);
+        JButton rankBtn = new JButton("计算排名");
+        rankBtn.addActionListener(e -> loadRanking());
+        header.add(rankBtn);
+        header.add(rankLabel);
+        panel.add(header, BorderLayout.NORTH);
+        panel.add(new JScrollPane(new JTable(rankModel)), BorderLayout.CENTER);
+        return panel;
+    }
+
+    /**
+     * 后台取所选科目的排名（表未变化时直接用缓存），显示前TOP_N名和分位数
+     */
+    private void loadRanking() {
+        Object selected = subjectBox.getSelectedItem();
+        String subject = selected == null || ALL_SUBJECTS.equals(selected) ? null : selected.toString();
+        rankLabel.setText("正在计算排名…");
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("成绩排名",
+                () -> RankingEngine.getInstance().ranking(analytics.getTableName(), subject), DbTaskScheduler.NO_TIMEOUT), ranking -> {
+            rankModel.setRowCount(0);
+            List<Ranking.Entry> top = ranking.topK(TOP_N);
+            for (Ranking.Entry entry : top) {
+                rankModel.addRow(new Object[]{
+                        entry.getRank(), entry.getStudentId(), entry.getClassName() == null ? "" : entry.getClassName(),
+                        entry.getScore(), entry.getClassName() == null ? "" : entry.getClassRank(),
+                        String.format("%.1f%%", entry.getPercentile())
+                });
+            }
+            rankLabel.setText(ranking.size() == 0 ? "没有成绩" : String.format("%d人次，P10=%.1f P25=%.1f 中位数=%.1f P75=%.1f P90=%.1f",
+                    ranking.size(), ranking.quantile(0.1), ranking.quantile(0.25), ranking.quantile(0.5),
+                    ranking.quantile(0.75), ranking.quantile(0.9)));
+        }, e -> rankLabel.setText("排名失败：" + DbTaskScheduler.describeFailure(e)));
+    }
+
+    private static void fill(DefaultTableModel model, Map<String, ScoreSummary> summaries) {
+        model.setRowCount(0);
+        for (Map.Entry<String, ScoreSummary> entry : summaries.entrySet()) {
+            ScoreSummary s = entry.getValue();
+            long[] histogram = s.getHistogram();
+            long below60 = 0;
+            for (int i = 0; i < 6; i++) {
+                below60 += histogram[i];
+            }
+            model.addRow(new Object[]{
+                    entry.getKey(), s.getCount(), round(s.getMean()),
+                    s.isBoundsExact() ? s.getMax() : "≤" + s.getMax(), s.isBoundsExact() ? s.getMin() : "≥" + s.getMin(),
+                    round(s.getStdDev()), String.format("%.1f%%", s.getPassCount() * 100.0 / s.getCount()),
+                    below60, histogram[6], histogram[7], histogram[8], histogram[9]
+            });
+        }
+    }
+
+    private static String round(double value) {
+        return String.format("%.2f", value);
+    }
+
+    private static DefaultTableModel newModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+}
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.score.view;
 
+import com.score.dao.ScorePageDao;
 import com.score.dao.User;
+import com.score.dao.ScoreDao;
+import com.score.service.ScoreEditService;
+import com.score.service.StudentSearchIndex;
 import com.score.util.DBUtil;
+import com.score.util.DbConfig;
+import com.score.util.DbTaskScheduler;
+import com.score.util.Log;
 import com.score.view.menu_right.FeedbackWindow;
 import com.score.view.menu_right.PersonalInfoWindow;
 import com.score.view.menu_right.resetPassword;
@@ -11,8 +18,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.ListSelectionModel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 学生成绩管理系统主界面
@@ -24,18 +42,38 @@ import javax.swing.ListSelectionModel;
  * 5. 补充表格数据加载逻辑
  */
 public class ScoreSystemMainFrame extends JFrame {
+    private static final Log LOG = Log.get(ScoreSystemMainFrame.class);
+
     // 常量定义：提升可维护性
     private static final String TITLE = "学生成绩管理系统";
     private static final int WIDTH = 1000;
     private static final int HEIGHT = 600;
     private static final String DEFAULT_PANEL_KEY = "default";
     private static final String BATCH_IMPORT_PANEL_KEY = "batchImport";
+    // 查找框停止输入多久后开始查找（毫秒）
+    private static final int SEARCH_DELAY_MILLIS = 150;
 
     // 界面组件
     private CardLayout cardLayout;
     private JPanel cardPanel;
     private JTable dataTable;
     private DefaultTableModel tableModel;
+    // 数据库中有成绩表时使用的分页模型（为null时表格显示模拟数据）
+    private PagedScoreTableModel pagedModel;
+    // 查找栏（"查找"菜单打开）：边输入边查找，结果通过分页模型的过滤显示在主表格中
+    private JPanel searchPanel;
+    private JTextField searchField;
+    private JLabel searchStatus;
+    private Timer searchTimer;
+    private boolean indexing;
+    // 修改/删除成绩的工作单元，定时（edit.flushIntervalMillis）或手动保存时批量写库
+    private final ScoreEditService editService = new ScoreEditService(new ScoreDao(ScorePageDao.DEFAULT_TABLE));
+    private Timer flushTimer;
+    private boolean saving;
+    private boolean saveFailed;
+    // 等待全部修改写库的回调（成功时参数为null，失败时为异常）
+    private final List<Consumer<Throwable>> saveWaiters = new ArrayList<>();
+    private boolean exiting;
     private User loginUser;
     // 批量导入面板单例：避免重复创建
     private score_table batchImportPanel;
@@ -59,6 +97,17 @@ public class ScoreSystemMainFrame extends JFrame {
         initMainLayout();
         initTableModel();
         loadInitialTableData(); // 新增：加载初始表格数据
+        startFlushTimer();
+    }
+
+    /**
+     * 按配置的间隔定时保存修改（间隔为0时只手动保存）
+     */
+    private void startFlushTimer() {
+        long interval = DbConfig.get().getEditFlushIntervalMillis();
+        if (interval <= 0) return;
+        flushTimer = new Timer((int) interval, e -> saveChanges(false));
+        flushTimer.start();
     }
 
     /**
@@ -69,8 +118,15 @@ public class ScoreSystemMainFrame extends JFrame {
         this.setTitle(TITLE);
         this.setSize(WIDTH, HEIGHT);
         this.setLocationRelativeTo(null);
-        this.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // 关闭窗口时先保存未写库的修改，保存成功（或用户选择放弃修改）后才退出
+        this.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         this.setResizable(true); // 改为可调整大小，提升用户体验
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                requestExit();
+            }
+        });
         // 设置窗口图标（可选，提升美观度）
         try {
             this.setIconImage(Toolkit.getDefaultToolkit().getImage(getClass().getResource("/icon.png")));
@@ -125,7 +181,7 @@ public class ScoreSystemMainFrame extends JFrame {
 
         // 修改成绩
         JMenuItem changeScoreItem = new JMenuItem("修改成绩");
-        changeScoreItem.addActionListener(e -> showTip("修改成绩功能待实现"));
+        changeScoreItem.addActionListener(e -> editSelectedScore());
         scoreMenu.add(changeScoreItem);
 
         // 删除成绩
@@ -135,48 +191,359 @@ public class ScoreSystemMainFrame extends JFrame {
 
         // 查找成绩
         JMenuItem findScoreItem = new JMenuItem("查找成绩");
-        findScoreItem.addActionListener(e -> showTip("查找成绩功能待实现"));
+        findScoreItem.addActionListener(e -> showSearchBar());
         scoreMenu.add(findScoreItem);
 
+        // 刷新成绩列表（导入数据后重新加载）
+        JMenuItem refreshItem = new JMenuItem("刷新成绩列表");
+        refreshItem.addActionListener(e -> loadInitialTableData());
+        scoreMenu.add(refreshItem);
+
+        // 成绩统计（按科目/班级/学生的汇总）
+        JMenuItem dashboardItem = new JMenuItem("成绩统计");
+        dashboardItem.addActionListener(e ->
+                SwingUtilities.invokeLater(() -> new ScoreDashboardDialog(ScoreSystemMainFrame.this).setVisible(true))
+        );
+        scoreMenu.add(dashboardItem);
+
+        // 导出成绩（Excel/CSV，多张表打包为ZIP）；导出读的是数据库，未写库的修改保存成功后再打开导出窗口
+        JMenuItem exportItem = new JMenuItem("导出成绩");
+        exportItem.addActionListener(e -> saveChanges(false, error -> {
+            if (error != null) {
+                showTip("未保存的修改写库失败，请保存成功后再导出：" + DbTaskScheduler.describeFailure(error));
+                return;
+            }
+            new ExportDialog(ScoreSystemMainFrame.this, ScorePageDao.DEFAULT_TABLE).setVisible(true);
+        }));
+        scoreMenu.add(exportItem);
+
         return scoreMenu;
     }
 
     /**
-     * 新增：删除选中的成绩行
+     * 删除选中的成绩行（可多选）
      */
     private void deleteSelectedScore() {
-        int selectedRow = dataTable.getSelectedRow();
-        if (selectedRow == -1) {
+        int[] selectedRows = dataTable.getSelectedRows();
+        if (selectedRows.length == 0) {
             showTip("请先选中要删除的成绩行！");
             return;
         }
 
-        int confirm = JOptionPane.showConfirmDialog(this, "确定要删除选中的成绩吗？", "确认删除", JOptionPane.YES_NO_OPTION);
+        if (pagedModel != null && dataTable.getModel() == pagedModel) {
+            deleteSelectedScoreFromDb(selectedRows);
+            return;
+        }
+
+        int confirm = JOptionPane.showConfirmDialog(this, "确定要删除选中的" + selectedRows.length + "条成绩吗？", "确认删除", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
-            tableModel.removeRow(selectedRow);
+            for (int i = selectedRows.length - 1; i >= 0; i--) {
+                tableModel.removeRow(selectedRows[i]);
+            }
             showTip("成绩删除成功！");
-            // 此处可补充：调用DAO层删除数据库中的数据
         }
     }
 
+    /**
+     * 分页模式：选中行记入工作单元，随下一次保存一起写库（多行删除合并为一条DELETE）
+     */
+    private void deleteSelectedScoreFromDb(int[] selectedRows) {
+        long[] ids = selectedIds(selectedRows);
+        if (ids == null) return;
+        int confirm = JOptionPane.showConfirmDialog(this, "确定要删除选中的" + ids.length + "条成绩吗？保存后不可恢复！", "确认删除", JOptionPane.YES_NO_OPTION);
+        if (confirm != JOptionPane.YES_OPTION) return;
+        editService.getDao().delete(ids);
+        dataTable.repaint();
+    }
+
+    /**
+     * 选中行的主键；有行尚未加载完成时提示并返回null
+     */
+    private long[] selectedIds(int[] selectedRows) {
+        long[] ids = new long[selectedRows.length];
+        for (int i = 0; i < selectedRows.length; i++) {
+            ids[i] = pagedModel.getRowId(selectedRows[i]);
+            if (ids[i] < 0) {
+                showTip("选中的行尚未全部加载完成（或已被删除），请稍后再试！");
+                return null;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 修改选中的成绩：选中一行时显示该行的值；选中多行时取值相同的列显示该值，其余留空；只修改改动过且不为空的列
+     * 分页模式下修改记入工作单元（同一单元格多次修改只保留最后一次），随下一次保存批量写库
+     */
+    private void editSelectedScore() {
+        int[] selectedRows = dataTable.getSelectedRows();
+        if (selectedRows.length == 0) {
+            showTip("请先选中要修改的成绩行！");
+            return;
+        }
+        boolean paged = pagedModel != null && dataTable.getModel() == pagedModel;
+        long[] ids = paged ? selectedIds(selectedRows) : null;
+        if (paged && ids == null) return;
+
+        List<String> columns = ScoreDao.EDITABLE_COLUMNS;
+        String[] current = new String[columns.size()];
+        JTextField[] fields = new JTextField[columns.size()];
+        JPanel form = new JPanel(new GridLayout(columns.size(), 2, 5, 5));
+        for (int c = 0; c < columns.size(); c++) {
+            int column = ScorePageDao.COLUMNS.indexOf(columns.get(c));
+            String common = null;
+            for (int row : selectedRows) {
+                Object value = dataTable.getModel().getValueAt(row, column);
+                String text = value == null ? "" : value.toString();
+                if (common == null) {
+                    common = text;
+                } else if (!common.equals(text)) {
+                    common = "";
+                    break;
+                }
+            }
+            current[c] = common;
+            fields[c] = new JTextField(common, 20);
+            form.add(new JLabel(columns.get(c) + "："));
+            form.add(fields[c]);
+        }
+        String title = selectedRows.length == 1 ? "修改成绩" : "修改选中的" + selectedRows.length + "条成绩（留空的列不修改）";
+        if (JOptionPane.showConfirmDialog(this, form, title, JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (int c = 0; c < columns.size(); c++) {
+            String text = fields[c].getText().trim();
+            if (!text.isEmpty() && !text.equals(current[c])) changes.put(columns.get(c), text);
+        }
+        if (changes.isEmpty()) return;
+        // 成绩列为整数：按四舍五入取整后以Integer写入（"95.5"、"1e3"等原样写库会被INT列拒绝）
+        Integer score = null;
+        if (changes.containsKey("成绩")) {
+            try {
+                double parsed = Double.parseDouble(changes.get("成绩"));
+                if (Double.isNaN(parsed) || Math.abs(parsed) > Integer.MAX_VALUE) throw new NumberFormatException();
+                score = (int) Math.round(parsed);
+            } catch (NumberFormatException e) {
+                showTip("成绩必须是数字！");
+                return;
+            }
+        }
+
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            int column = ScorePageDao.COLUMNS.indexOf(change.getKey());
+            Object value = change.getKey().equals("成绩") ? score : change.getValue();
+            for (int i = 0; i < selectedRows.length; i++) {
+                if (paged) {
+                    editService.getDao().update(ids[i], change.getKey(), value);
+                } else {
+                    tableModel.setValueAt(value, selectedRows[i], column);
+                }
+            }
+        }
+        dataTable.repaint();
+    }
+
+    /**
+     * 把暂存的修改和删除写库（定时或"保存修改"触发），完成后重新加载表格
+     * @param explicit 手动保存：提示结果；定时保存只在第一次失败时提示
+     */
+    private void saveChanges(boolean explicit) {
+        saveChanges(explicit, null);
+    }
+
+    /**
+     * @param onDone 全部修改写库后在EDT上回调（没有未保存的修改时立即回调）；保存失败时以异常回调，由onDone负责提示
+     */
+    private void saveChanges(boolean explicit, Consumer<Throwable> onDone) {
+        if (onDone != null) saveWaiters.add(onDone);
+        if (saving) return; // 上一次保存尚未完成：完成后接着保存期间的新修改，再回调onDone
+        if (!editService.getDao().hasPendingChanges()) {
+            if (explicit) showTip("没有需要保存的修改！");
+            notifySaveWaiters(null);
+            return;
+        }
+        saving = true;
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("保存成绩", editService::save, DbTaskScheduler.NO_TIMEOUT), result -> {
+            saving = false;
+            saveFailed = false;
+            if (!result.getRejected().isEmpty()) {
+                showTip("保存完成，但以下修改被数据库拒绝，已放弃：" + describeRejected(result.getRejected()));
+            } else if (explicit) {
+                showTip("保存成功：修改" + result.getEdits().size() + "行，删除" + result.getDeletedRows() + "行");
+            }
+            if (pagedModel != null) refreshPagedTable();
+            if (!saveWaiters.isEmpty()) saveChanges(false, null);
+        }, e -> {
+            saving = false;
+            String reason = DbTaskScheduler.describeFailure(e);
+            LOG.warn("保存成绩失败：{}", reason);
+            if (saveWaiters.isEmpty() && (explicit || !saveFailed)) showTip("保存失败（修改仍保留，稍后会重试）：" + reason);
+            saveFailed = true;
+            notifySaveWaiters(e);
+        });
+    }
+
+    // 被拒绝的修改：最多列出前5个单元格
+    private static String describeRejected(Map<Long, Map<String, String>> rejected) {
+        StringBuilder sb = new StringBuilder();
+        int shown = 0;
+        int total = 0;
+        for (Map.Entry<Long, Map<String, String>> row : rejected.entrySet()) {
+            for (Map.Entry<String, String> cell : row.getValue().entrySet()) {
+                if (shown++ < 5) {
+                    sb.append("\nid=").append(row.getKey()).append("，").append(cell.getKey()).append("：").append(cell.getValue());
+                }
+                total++;
+            }
+        }
+        if (total > 5) sb.append("\n……共").append(total).append("个单元格");
+        return sb.toString();
+    }
+
+    private void notifySaveWaiters(Throwable error) {
+        List<Consumer<Throwable>> waiters = new ArrayList<>(saveWaiters);
+        saveWaiters.clear();
+        for (Consumer<Throwable> waiter : waiters) {
+            waiter.accept(error);
+        }
+    }
+
+    /**
+     * 关闭窗口：在后台保存尚未写库的修改，成功后退出；失败时由用户选择放弃修改退出或留在程序中
+     */
+    private void requestExit() {
+        if (exiting) return; // 正在保存，等待结果
+        exiting = true;
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        saveChanges(false, error -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (error != null) {
+                int choice = JOptionPane.showConfirmDialog(this,
+                        "未保存的修改写库失败：" + DbTaskScheduler.describeFailure(error) + "\n是否放弃这些修改并退出？",
+                        "保存失败", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
+                if (choice != JOptionPane.YES_OPTION) {
+                    exiting = false;
+                    return;
+                }
+                LOG.warn("放弃{}行未保存的修改并退出", editService.getDao().getPendingCount());
+            }
+            if (flushTimer != null) flushTimer.stop();
+            dispose();
+            System.exit(0);
+        });
+    }
+
     /**
      * 子方法：创建查找菜单（解耦原有逻辑）
      */
     private JMenu createFindMenu() {
         JMenu findMenu = new JMenu("查找");
         JMenuItem findScoreItem = new JMenuItem("按条件查找");
-        findScoreItem.addActionListener(e -> showTip("按条件查找功能待实现"));
+        findScoreItem.addActionListener(e -> showSearchBar());
         findMenu.add(findScoreItem);
         return findMenu;
     }
 
+    /**
+     * 显示查找栏并聚焦输入框
+     */
+    private void showSearchBar() {
+        cardLayout.show(cardPanel, DEFAULT_PANEL_KEY);
+        searchPanel.setVisible(true);
+        searchPanel.revalidate();
+        searchField.requestFocusInWindow();
+    }
+
+    private JPanel createSearchPanel() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        panel.add(new JLabel("查找："));
+        searchField = new JTextField(30);
+        searchField.setToolTipText("学号前缀、姓名或拼音首字母、科目，多个条件用空格分隔；可写成 学号:2024 姓名:zs 科目:数学");
+        panel.add(searchField);
+        JButton closeBtn = new JButton("关闭");
+        closeBtn.addActionListener(e -> {
+            searchField.setText("");
+            panel.setVisible(false);
+        });
+        panel.add(closeBtn);
+        searchStatus = new JLabel(" ");
+        panel.add(searchStatus);
+        panel.setVisible(false);
+
+        searchTimer = new Timer(SEARCH_DELAY_MILLIS, e -> runSearch());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            runSearch();
+        });
+        return panel;
+    }
+
+    /**
+     * 按查找框内容过滤主表格：查找只读内存索引（见StudentSearchIndex），索引未建立或表有变化时先在后台刷新
+     */
+    private void runSearch() {
+        String query = searchField.getText().trim();
+        if (pagedModel == null) {
+            searchStatus.setText(query.isEmpty() ? " " : "数据库中没有成绩表，无法查找");
+            return;
+        }
+        if (query.isEmpty()) {
+            searchStatus.setText(" ");
+            if (pagedModel.isFiltered()) pagedModel.reload(null);
+            return;
+        }
+        StudentSearchIndex index = StudentSearchIndex.getInstance();
+        if (index.needsRefresh()) {
+            if (indexing) return; // 刷新完成后会按最新的输入再查一次
+            indexing = true;
+            searchStatus.setText("正在建立查找索引…");
+            DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("建立查找索引", () -> {
+                index.refresh();
+                return null;
+            }, DbTaskScheduler.NO_TIMEOUT), ignored -> {
+                indexing = false;
+                runSearch();
+            }, e -> {
+                indexing = false;
+                searchStatus.setText("建立查找索引失败：" + DbTaskScheduler.describeFailure(e));
+            });
+            return;
+        }
+        StudentSearchIndex.Result result = index.search(query);
+        pagedModel.setFilter(result.getIds());
+        searchStatus.setText(String.format("找到%d条%s（%.2fms）", result.getIds().length,
+                result.isFuzzy() ? "，含模糊匹配" : "", result.getMillis()));
+    }
+
+    /**
+     * 分页表格重新加载：正在查找时重新查找，否则重新读取页目录
+     */
+    private void refreshPagedTable() {
+        if (!searchField.getText().trim().isEmpty()) {
+            runSearch();
+        } else {
+            pagedModel.reload(null);
+        }
+    }
+
     /**
      * 子方法：创建修改菜单（解耦原有逻辑）
      */
     private JMenu createChangeMenu() {
         JMenu changeMenu = new JMenu("修改");
         JMenuItem changeScoreItem = new JMenuItem("修改选中成绩");
-        changeScoreItem.addActionListener(e -> showTip("修改选中成绩功能待实现"));
+        changeScoreItem.addActionListener(e -> editSelectedScore());
         changeMenu.add(changeScoreItem);
         return changeMenu;
     }
@@ -245,8 +612,12 @@ public class ScoreSystemMainFrame extends JFrame {
         JMenuItem redoItem = new JMenuItem("重做");
         undoItem.addActionListener(e -> showTip("撤销操作功能待实现"));
         redoItem.addActionListener(e -> showTip("重做操作功能待实现"));
+        JMenuItem saveItem = new JMenuItem("保存修改");
+        saveItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S, InputEvent.CTRL_DOWN_MASK));
+        saveItem.addActionListener(e -> saveChanges(true));
         editMenu.add(undoItem);
         editMenu.add(redoItem);
+        editMenu.add(saveItem);
         return editMenu;
     }
 
@@ -331,6 +702,9 @@ public class ScoreSystemMainFrame extends JFrame {
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
         panel.add(scrollPane, BorderLayout.CENTER);
 
+        searchPanel = createSearchPanel();
+        panel.add(searchPanel, BorderLayout.NORTH);
+
         return panel;
     }
 
@@ -361,17 +735,42 @@ public class ScoreSystemMainFrame extends JFrame {
         };
 
         dataTable = new JTable(tableModel);
-        dataTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        dataTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         dataTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         dataTable.setRowHeight(30);
     }
 
     /**
-     * 新增：加载初始表格数据
-     * 模拟从数据库加载数据，可替换为实际DAO调用
+     * 加载表格数据：数据库中存在成绩表（score_data）时切换为分页模型按需加载，否则显示模拟数据
+     * 检查和加载都在后台进行，不阻塞界面
      */
     private void loadInitialTableData() {
-        // 模拟数据：实际项目中应从DBUtil/DAO层获取
+        if (pagedModel != null) {
+            refreshPagedTable();
+            return;
+        }
+        loadMockData();
+
+        ScorePageDao dao = new ScorePageDao(ScorePageDao.DEFAULT_TABLE);
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("检查成绩表", dao::tableExists), exists -> {
+            if (!exists) return;
+            PagedScoreTableModel model = new PagedScoreTableModel(dao);
+            model.reload(error -> {
+                if (error == null) {
+                    model.setPendingChanges(editService.getDao());
+                    pagedModel = model;
+                    dataTable.setModel(model);
+                }
+            });
+        }, e -> {
+            // 数据库不可用时保留模拟数据
+        });
+    }
+
+    /**
+     * 模拟数据（数据库中没有成绩表时显示）
+     */
+    private void loadMockData() {
         Object[][] mockData = {
                 {"2024001", "张三", "数学", 95, "2024-01-01"},
                 {"2024002", "李四", "语文", 88, "2024-01-02"},
@@ -421,7 +820,7 @@ public class ScoreSystemMainFrame extends JFrame {
                 new ScoreSystemMainFrame(testUser).setVisible(true);
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(null, "程序启动失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                e.printStackTrace();
+                LOG.error("程序启动失败：{}", e.getMessage(), e);
             }
         });
     }
@@ -1,13 +1,14 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.UserDaoFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 忘记密码/重置密码界面（最终版）
@@ -20,7 +21,9 @@ public class ForgetPwdFrame extends JDialog {
     // 界面组件：新密码、确认新密码输入框（密码框，输入内容隐藏）
     private JPasswordField newPwdField, confirmPwdField;
     // 数据访问层对象：用于操作数据库
-    private UserDao userDao = new UserDaoImpl();
+    private AsyncUserDao userDao = UserDaoFactory.getAsyncUserDao();
+    // 正在进行的数据库请求（关闭窗口时取消）
+    private CompletableFuture<?> pending;
     // 身份验证标记：true=验证通过，false=未通过
     private boolean isAuthSuccess = false;
 
@@ -194,27 +197,36 @@ public class ForgetPwdFrame extends JDialog {
                     return;
                 }
 
-                // 4. 调用DAO的三重验证方法，查询数据库
-                User user = userDao.getUserByUsernameEmailTel(username, email, tel);
-                if (user != null) {
-                    // 验证成功
-                    isAuthSuccess = true;
-                    authTipLabel.setForeground(Color.GREEN); // 字体改为绿色
-                    authTipLabel.setText("验证成功！请设置新密码");
-                    pwdResetPanel.setVisible(true); // 显示密码重置区域
-                    resetBtn.setEnabled(true); // 启用确认重置按钮
-                    // 锁定输入框：防止用户篡改验证信息
-                    usernameField.setEditable(false);
-                    emailField.setEditable(false);
-                    telField.setEditable(false);
-                } else {
-                    // 验证失败
-                    isAuthSuccess = false;
-                    authTipLabel.setForeground(Color.RED); // 字体改为红色
-                    authTipLabel.setText("用户名/邮箱/手机号不匹配！");
-                    pwdResetPanel.setVisible(false); // 隐藏密码重置区域
-                    resetBtn.setEnabled(false); // 禁用确认重置按钮
-                }
+                // 4. 调用DAO的三重验证方法，查询数据库（后台线程执行，结果回到EDT处理）
+                authBtn.setEnabled(false);
+                authTipLabel.setForeground(Color.GRAY);
+                authTipLabel.setText("正在验证...");
+                pending = AsyncUserDao.onEdt(userDao.getUserByUsernameEmailTel(username, email, tel), user -> {
+                    authBtn.setEnabled(true);
+                    if (user != null) {
+                        // 验证成功
+                        isAuthSuccess = true;
+                        authTipLabel.setForeground(Color.GREEN); // 字体改为绿色
+                        authTipLabel.setText("验证成功！请设置新密码");
+                        pwdResetPanel.setVisible(true); // 显示密码重置区域
+                        resetBtn.setEnabled(true); // 启用确认重置按钮
+                        // 锁定输入框：防止用户篡改验证信息
+                        usernameField.setEditable(false);
+                        emailField.setEditable(false);
+                        telField.setEditable(false);
+                    } else {
+                        // 验证失败
+                        isAuthSuccess = false;
+                        authTipLabel.setForeground(Color.RED); // 字体改为红色
+                        authTipLabel.setText("用户名/邮箱/手机号不匹配！");
+                        pwdResetPanel.setVisible(false); // 隐藏密码重置区域
+                        resetBtn.setEnabled(false); // 禁用确认重置按钮
+                    }
+                }, ex -> {
+                    authBtn.setEnabled(true);
+                    authTipLabel.setForeground(Color.RED);
+                    authTipLabel.setText("验证失败：" + AsyncUserDao.describeFailure(ex));
+                });
             }
         });
 
@@ -255,20 +267,27 @@ public class ForgetPwdFrame extends JDialog {
                     return;
                 }
 
-                // 5. 调用DAO重置密码（更新数据库）
-                boolean isSuccess = userDao.resetPassword(username, newPwd);
-                if (isSuccess) {
-                    // 重置成功：提示用户，关闭窗口，跳转到登录界面
-                    JOptionPane.showMessageDialog(ForgetPwdFrame.this,
-                            "密码重置成功！新密码已同步到数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose(); // 关闭当前窗口
-                    // 可选：打开登录界面（需确保LoginFrame类存在）
-                    new LoginFrame().setVisible(true);
-                } else {
-                    // 重置失败：提示用户检查数据库
+                // 5. 调用DAO重置密码（更新数据库，后台线程执行）
+                resetBtn.setEnabled(false);
+                pending = AsyncUserDao.onEdt(userDao.resetPassword(username, newPwd), isSuccess -> {
+                    resetBtn.setEnabled(true);
+                    if (isSuccess) {
+                        // 重置成功：提示用户，关闭窗口，跳转到登录界面
+                        JOptionPane.showMessageDialog(ForgetPwdFrame.this,
+                                "密码重置成功！新密码已同步到数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
+                        dispose(); // 关闭当前窗口
+                        // 可选：打开登录界面（需确保LoginFrame类存在）
+                        new LoginFrame().setVisible(true);
+                    } else {
+                        // 重置失败：提示用户检查数据库
+                        JOptionPane.showMessageDialog(ForgetPwdFrame.this,
+                                "密码重置失败！请检查数据库连接或重试", "错误", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, ex -> {
+                    resetBtn.setEnabled(true);
                     JOptionPane.showMessageDialog(ForgetPwdFrame.this,
-                            "密码重置失败！请检查数据库连接或重试", "错误", JOptionPane.ERROR_MESSAGE);
-                }
+                            "密码重置失败：" + AsyncUserDao.describeFailure(ex), "错误", JOptionPane.ERROR_MESSAGE);
+                });
             }
         });
 
@@ -289,4 +308,15 @@ public class ForgetPwdFrame extends JDialog {
         // Swing组件需在事件调度线程中运行，避免线程安全问题
         SwingUtilities.invokeLater(() -> new ForgetPwdFrame().setVisible(true));
     }
+
+    /**
+     * 关闭窗口时取消尚未完成的数据库请求
+     */
+    @Override
+    public void dispose() {
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        super.dispose();
+    }
 }
\ No newline at end of file
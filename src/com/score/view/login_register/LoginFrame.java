@@ -1,14 +1,16 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.UserDaoFactory;
+import com.score.util.Log;
 import com.score.view.ScoreSystemMainFrame;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 登录界面（适配user_data表+增强验证逻辑）
@@ -18,9 +20,13 @@ import java.awt.event.ActionListener;
  * 3. 跳转注册/忘记密码界面
  */
 public class LoginFrame extends JFrame {
+    private static final Log LOG = Log.get(LoginFrame.class);
+
     private JTextField usernameField;
     private JPasswordField passwordField;
-    private UserDao userDao = new UserDaoImpl();
+    private AsyncUserDao userDao = UserDaoFactory.getAsyncUserDao();
+    // 正在进行的登录请求（关闭窗口时取消）
+    private CompletableFuture<?> pending;
 
     public LoginFrame() {
         initFrame();
@@ -124,36 +130,46 @@ public class LoginFrame extends JFrame {
                         return;
                     }
 
-                    // 3. 调试：打印输入的用户名密码（方便排查，上线时删除）
-                    System.out.println("尝试登录 - 用户名：" + username + "，密码：" + password);
-
-                    // 4. 数据库验证
-                    User loginUser = userDao.login(username, password);
-
-                    // 5. 结果处理
-                    if (loginUser != null) {
-                        JOptionPane.showMessageDialog(
-                                LoginFrame.this,
-                                "登录成功！欢迎你，" + loginUser.getName(),
-                                "成功",
-                                JOptionPane.INFORMATION_MESSAGE
-                        );
-                        dispose();
-                        // 确保主界面类存在，若不存在可先注释或创建空的ScoreSystemMainFrame
-                        new ScoreSystemMainFrame(loginUser).setVisible(true);
-                    } else {
+                    // 3. 调试日志（不记录密码）
+                    LOG.debug("尝试登录：用户名={}", username);
+
+                    // 4. 数据库验证（后台线程执行，结果回到EDT处理；等待期间禁用登录按钮防止重复提交）
+                    loginBtn.setEnabled(false);
+                    pending = AsyncUserDao.onEdt(userDao.login(username, password), loginUser -> {
+                        loginBtn.setEnabled(true);
+                        // 5. 结果处理
+                        if (loginUser != null) {
+                            JOptionPane.showMessageDialog(
+                                    LoginFrame.this,
+                                    "登录成功！欢迎你，" + loginUser.getName(),
+                                    "成功",
+                                    JOptionPane.INFORMATION_MESSAGE
+                            );
+                            dispose();
+                            // 确保主界面类存在，若不存在可先注释或创建空的ScoreSystemMainFrame
+                            new ScoreSystemMainFrame(loginUser).setVisible(true);
+                        } else {
+                            JOptionPane.showMessageDialog(
+                                    LoginFrame.this,
+                                    "用户名或密码错误！\n请检查：\n1. 用户名密码是否正确\n2. 是否有多余空格",
+                                    "错误",
+                                    JOptionPane.ERROR_MESSAGE
+                            );
+                            // 清空输入框
+                            usernameField.setText("");
+                            passwordField.setText("");
+                            // 聚焦用户名输入框，提升体验
+                            usernameField.requestFocus();
+                        }
+                    }, ex -> {
+                        loginBtn.setEnabled(true);
                         JOptionPane.showMessageDialog(
                                 LoginFrame.this,
-                                "用户名或密码错误！\n请检查：\n1. 用户名密码是否正确\n2. 是否有多余空格",
-                                "错误",
+                                "登录出错：" + AsyncUserDao.describeFailure(ex),
+                                "系统错误",
                                 JOptionPane.ERROR_MESSAGE
                         );
-                        // 清空输入框
-                        usernameField.setText("");
-                        passwordField.setText("");
-                        // 聚焦用户名输入框，提升体验
-                        usernameField.requestFocus();
-                    }
+                    });
                 } catch (Exception ex) {
                     // 关键修改：捕获所有异常并提示，方便定位问题
                     JOptionPane.showMessageDialog(
@@ -162,7 +178,7 @@ public class LoginFrame extends JFrame {
                             "系统错误",
                             JOptionPane.ERROR_MESSAGE
                     );
-                    ex.printStackTrace(); // 打印异常栈，方便调试
+                    LOG.error("登录出错：{}", ex.getMessage(), ex);
                 }
             }
         });
@@ -190,4 +206,15 @@ public class LoginFrame extends JFrame {
             new LoginFrame().setVisible(true);
         });
     }
+
+    /**
+     * 关闭窗口时取消尚未完成的登录请求
+     */
+    @Override
+    public void dispose() {
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        super.dispose();
+    }
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.score.view.login_register;
 
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.UserDaoFactory;
 
 import javax.swing.*;
 import java.awt.*;
@@ -10,7 +10,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 注册界面（最终适配数据库版：tel为11位字符串）
@@ -18,7 +18,9 @@ import java.sql.SQLException;
 public class RegisterFrame extends JFrame {
     private JTextField usernameField, nameField, sexField, telField, emailField;
     private JPasswordField passwordField, confirmPwdField;
-    private UserDao userDao = new UserDaoImpl();
+    private AsyncUserDao userDao = UserDaoFactory.getAsyncUserDao();
+    // 正在进行的注册请求（关闭窗口时取消）
+    private CompletableFuture<?> pending;
 
     public RegisterFrame() {
         initFrame();
@@ -232,25 +234,31 @@ public class RegisterFrame extends JFrame {
                     user.setPassword(password);
                     user.setTitle("普通用户");
 
-                    // 6. 写入数据库
-                    if (userDao.addUser(user)) {
+                    // 6. 写入数据库（后台线程执行，结果回到EDT处理）
+                    registerBtn.setEnabled(false);
+                    pending = AsyncUserDao.onEdt(userDao.addUser(user), added -> {
+                        registerBtn.setEnabled(true);
+                        if (added) {
+                            JOptionPane.showMessageDialog(RegisterFrame.this,
+                                    "注册成功！数据已写入数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
+                            dispose(); // 关闭注册窗口
+                            new LoginFrame().setVisible(true); // 跳转到登录界面
+                        } else {
+                            // 数据库错误提示
+                            JOptionPane.showMessageDialog(RegisterFrame.this,
+                                    "用户名已存在，注册失败", "数据库错误", JOptionPane.ERROR_MESSAGE);
+                            usernameField.setText(""); // 清空重复的用户名
+                        }
+                    }, ex -> {
+                        registerBtn.setEnabled(true);
                         JOptionPane.showMessageDialog(RegisterFrame.this,
-                                "注册成功！数据已写入数据库", "成功", JOptionPane.INFORMATION_MESSAGE);
-                        dispose(); // 关闭注册窗口
-                        new LoginFrame().setVisible(true); // 跳转到登录界面
-                    } else {
-                        throw new SQLException("用户名已存在，注册失败");
-                    }
+                                "注册失败：" + AsyncUserDao.describeFailure(ex), "数据库错误", JOptionPane.ERROR_MESSAGE);
+                    });
 
                 } catch (IllegalArgumentException ex) {
                     // 输入格式错误提示
                     JOptionPane.showMessageDialog(RegisterFrame.this,
                             ex.getMessage(), "输入错误", JOptionPane.WARNING_MESSAGE);
-                } catch (SQLException ex) {
-                    // 数据库错误提示
-                    JOptionPane.showMessageDialog(RegisterFrame.this,
-                            ex.getMessage(), "数据库错误", JOptionPane.ERROR_MESSAGE);
-                    usernameField.setText(""); // 清空重复的用户名
                 } catch (Exception ex) {
                     // 其他未知错误
                     JOptionPane.showMessageDialog(RegisterFrame.this,
@@ -273,4 +281,15 @@ public class RegisterFrame extends JFrame {
     public static void main(String[] args) {
         SwingUtilities.invokeLater(() -> new RegisterFrame().setVisible(true));
     }
+
+    /**
+     * 关闭窗口时取消尚未完成的注册请求
+     */
+    @Override
+    public void dispose() {
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        super.dispose();
+    }
 }
\ No newline at end of file
@@ -1,19 +1,23 @@
 package com.score.view.menu_right;
 
+import com.score.dao.User;
+import com.score.entity.UserDaoFactory;
 import com.score.util.DBUtil;
+import com.score.util.DbTaskScheduler;
+import com.score.util.Log;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 /**
  * 反馈窗口工具类（提取用户id、name，分表插入对应反馈表）
  */
 public class FeedbackWindow {
+    private static final Log LOG = Log.get(FeedbackWindow.class);
 
     /**
      * 打开反馈提交窗口
@@ -85,15 +89,7 @@ public class FeedbackWindow {
                 }
 
 
-                // （2）先查询当前用户的id和name（从user_data表）
-                UserInfo userInfo = getUserInfoByUsername(username);
-                if (userInfo == null) {
-                    JOptionPane.showMessageDialog(feedbackDialog, "获取用户信息失败！", "错误", JOptionPane.ERROR_MESSAGE);
-                    return;
-                }
-
-
-                // （3）根据选择的分类，确定要插入的表和SQL（完全匹配表名/字段名）
+                // （2）根据选择的分类，确定要插入的表和SQL（完全匹配表名/字段名）
                 String sql = "";
                 if (rbSupplement.isSelected()) {
                     // 修正：表名add_supplement，字段名add_supplement（下划线格式，无空格）
@@ -110,27 +106,22 @@ public class FeedbackWindow {
                 }
 
 
-                // （4）执行插入操作（分表插入）
-                Connection conn = null;
-                PreparedStatement pstmt = null;
-                try {
-                    conn = DBUtil.getConnection();
-                    pstmt = conn.prepareStatement(sql);
-                    pstmt.setInt(1, userInfo.getId());      // 填充用户id
-                    pstmt.setString(2, userInfo.getName()); // 填充用户名
-                    pstmt.setString(3, content);            // 填充反馈内容
-                    pstmt.executeUpdate();
-
+                // （3）后台查询当前用户的id和name，再执行插入操作（分表插入），结果回到EDT提示
+                String insertSql = sql;
+                btnSubmit.setEnabled(false);
+                DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().run("提交反馈", () -> {
+                    UserInfo userInfo = getUserInfoByUsername(username);
+                    if (userInfo == null) {
+                        throw new IllegalStateException("获取用户信息失败！");
+                    }
+                    insertFeedback(insertSql, userInfo, content);
+                }), v -> {
                     JOptionPane.showMessageDialog(feedbackDialog, "反馈提交成功！", "提示", JOptionPane.INFORMATION_MESSAGE);
                     feedbackDialog.dispose();
-                } catch (RuntimeException ex) {
-                    JOptionPane.showMessageDialog(feedbackDialog, "反馈提交失败：" + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                } catch (SQLException ex) {
-                    ex.printStackTrace();
-                    JOptionPane.showMessageDialog(feedbackDialog, "反馈提交失败：" + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                } finally {
-                    DBUtil.close(conn, pstmt);
-                }
+                }, ex -> {
+                    btnSubmit.setEnabled(true);
+                    JOptionPane.showMessageDialog(feedbackDialog, "反馈提交失败：" + DbTaskScheduler.describeFailure(ex), "错误", JOptionPane.ERROR_MESSAGE);
+                });
             }
         });
 
@@ -161,33 +152,32 @@ public class FeedbackWindow {
 
 
     /**
-     * 根据username查询用户的id和name（从user_data表）
+     * 根据username查询用户的id和name（走带缓存的UserDao，登录后通常直接命中；在后台线程调用）
+     * @return 用户不存在时返回null
      */
     private static UserInfo getUserInfoByUsername(String username) {
-        String sql = "SELECT id, name FROM user_data WHERE username = ?";
+        User user = UserDaoFactory.getUserDao().getUserByUsername(username);
+        return user == null ? null : new UserInfo(user.getId(), user.getName());
+    }
+
+    /**
+     * 向反馈分表插入一条反馈（在后台线程调用）
+     */
+    private static void insertFeedback(String sql, UserInfo userInfo, String content) {
         Connection conn = null;
         PreparedStatement pstmt = null;
-        ResultSet rs = null;
-
         try {
             conn = DBUtil.getConnection();
             pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, username);
-            rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                int userId = rs.getInt("id");
-                String userName = rs.getString("name");
-                return new UserInfo(userId, userName);
-            } else {
-                JOptionPane.showMessageDialog(null, "当前用户不存在！", "错误", JOptionPane.ERROR_MESSAGE);
-                return null;
-            }
+            pstmt.setInt(1, userInfo.getId());      // 填充用户id
+            pstmt.setString(2, userInfo.getName()); // 填充用户名
+            pstmt.setString(3, content);            // 填充反馈内容
+            pstmt.executeUpdate();
         } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(null, "查询用户信息失败：" + ex.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-            return null;
+            LOG.error("提交反馈失败：{}", ex.getMessage(), ex);
+            throw new RuntimeException(ex.getMessage(), ex);
         } finally {
-            DBUtil.close(conn, pstmt, rs);
+            DBUtil.close(conn, pstmt);
         }
     }
 
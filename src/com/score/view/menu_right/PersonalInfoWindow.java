@@ -1,7 +1,7 @@
 package com.score.view.menu_right;
 import com.score.dao.User;
-import com.score.entity.UserDao;
-import com.score.entity.UserDaoImpl;
+import com.score.entity.AsyncUserDao;
+import com.score.entity.UserDaoFactory;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -10,7 +10,7 @@ import java.awt.event.ActionListener;
 public class PersonalInfoWindow {
 
         // 数据访问对象（操作数据库）
-        private static final UserDao userDao = new UserDaoImpl();
+        private static final AsyncUserDao userDao = UserDaoFactory.getAsyncUserDao();
 
         /**
          * 打开个人信息窗口（支持修改）
@@ -151,12 +151,18 @@ public class PersonalInfoWindow {
                         user.setEmail(newValue);
                         break;
                 }
-                // 调用DAO更新数据库（需确保UserDao有updateUser方法）
-                userDao.updateUser(user);
-                JOptionPane.showMessageDialog(null, fieldName + "修改成功！", "成功", JOptionPane.INFORMATION_MESSAGE);
+                // 调用DAO更新数据库（后台线程执行，结果回到EDT提示）
+                AsyncUserDao.onEdt(userDao.updateUser(user), updated -> {
+                    if (updated) {
+                        JOptionPane.showMessageDialog(null, fieldName + "修改成功！", "成功", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(null, fieldName + "修改失败：数据库未更新", "错误", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, ex -> JOptionPane.showMessageDialog(null, fieldName + "修改失败：" + AsyncUserDao.describeFailure(ex),
+                        "错误", JOptionPane.ERROR_MESSAGE));
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(null, fieldName + "修改失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
             }
         }
 
-}
+}
\ No newline at end of file
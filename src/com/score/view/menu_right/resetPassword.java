@@ -10,11 +10,15 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import com.score.util.DBUtil;
+import com.score.util.DbTaskScheduler;
 
 /**
  * 密码修改窗口（适配PersonalInfoWindow风格 + 仅验证数据库原密码）
  */
 public class resetPassword extends JDialog {
+    // 后台校验+更新的结果
+    private enum PwdResult { WRONG_OLD, UPDATED, FAILED }
+
     // 当前登录用户名（从User对象提取）
     private final String currentUsername;
 
@@ -120,24 +124,31 @@ public class resetPassword extends JDialog {
                     return;
                 }
 
-                // 3. 核心：仅验证数据库中的原密码
-                if (!checkOldPwdFromDB(oldPwd)) {
-                    JOptionPane.showMessageDialog(resetPassword.this,
-                            "原密码错误！", "错误", JOptionPane.ERROR_MESSAGE);
-                    oldPwdField.setText("");
-                    oldPwdField.requestFocus();
-                    return;
-                }
-
-                // 4. 仅更新数据库密码
-                if (updatePwdToDB(newPwd)) {
+                // 3. 核心：后台验证数据库中的原密码，通过后更新密码，结果回到EDT提示
+                confirmBtn.setEnabled(false);
+                DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("修改密码", () -> {
+                    if (!checkOldPwdFromDB(oldPwd)) return PwdResult.WRONG_OLD;
+                    return updatePwdToDB(newPwd) ? PwdResult.UPDATED : PwdResult.FAILED;
+                }), result -> {
+                    confirmBtn.setEnabled(true);
+                    if (result == PwdResult.WRONG_OLD) {
+                        JOptionPane.showMessageDialog(resetPassword.this,
+                                "原密码错误！", "错误", JOptionPane.ERROR_MESSAGE);
+                        oldPwdField.setText("");
+                        oldPwdField.requestFocus();
+                    } else if (result == PwdResult.UPDATED) {
+                        JOptionPane.showMessageDialog(resetPassword.this,
+                                "密码修改成功！", "成功", JOptionPane.INFORMATION_MESSAGE);
+                        dispose(); // 关闭密码修改窗口
+                    } else {
+                        JOptionPane.showMessageDialog(resetPassword.this,
+                                "密码修改失败！", "失败", JOptionPane.ERROR_MESSAGE);
+                    }
+                }, ex -> {
+                    confirmBtn.setEnabled(true);
                     JOptionPane.showMessageDialog(resetPassword.this,
-                            "密码修改成功！", "成功", JOptionPane.INFORMATION_MESSAGE);
-                    dispose(); // 关闭密码修改窗口
-                } else {
-                    JOptionPane.showMessageDialog(resetPassword.this,
-                            "密码修改失败！", "失败", JOptionPane.ERROR_MESSAGE);
-                }
+                            "密码修改失败：" + DbTaskScheduler.describeFailure(ex), "数据库错误", JOptionPane.ERROR_MESSAGE);
+                });
             }
         });
 
@@ -146,15 +157,15 @@ public class resetPassword extends JDialog {
     }
 
     /**
-     * 核心方法：仅从数据库验证原密码
+     * 核心方法：仅从数据库验证原密码（在后台线程调用）
      * @param inputOldPwd 用户输入的原密码
      * @return 匹配返回true，否则false
+     * @throws SQLException 用户名为空/不存在或数据库错误
      */
-    private boolean checkOldPwdFromDB(String inputOldPwd) {
-        // 防空：用户名为空直接返回false
+    private boolean checkOldPwdFromDB(String inputOldPwd) throws SQLException {
+        // 防空：用户名为空直接报错
         if (currentUsername.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "用户名不能为空！", "错误", JOptionPane.ERROR_MESSAGE);
-            return false;
+            throw new SQLException("用户名不能为空！");
         }
 
         String sql = "SELECT password FROM user_data WHERE username = ?";
@@ -172,14 +183,8 @@ public class resetPassword extends JDialog {
                 // 仅对比数据库存储的密码（精准匹配）
                 String dbPwd = rs.getString("password");
                 return inputOldPwd.equals(dbPwd);
-            } else {
-                JOptionPane.showMessageDialog(this, "用户名不存在！", "错误", JOptionPane.ERROR_MESSAGE);
-                return false;
             }
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "原密码验证失败：" + ex.getMessage(), "数据库错误", JOptionPane.ERROR_MESSAGE);
-            return false;
+            throw new SQLException("用户名不存在！");
         } finally {
             // 调用DBUtil统一关闭资源（与项目规范一致）
             DBUtil.close(conn, pstmt, rs);
@@ -187,11 +192,11 @@ public class resetPassword extends JDialog {
     }
 
     /**
-     * 核心方法：仅更新数据库中的密码
+     * 核心方法：仅更新数据库中的密码（在后台线程调用）
      * @param newPwd 新密码
      * @return 更新成功返回true
      */
-    private boolean updatePwdToDB(String newPwd) {
+    private boolean updatePwdToDB(String newPwd) throws SQLException {
         if (currentUsername.isEmpty()) {
             return false;
         }
@@ -209,10 +214,6 @@ public class resetPassword extends JDialog {
             // 仅判断是否有数据行被更新
             int affectedRows = pstmt.executeUpdate();
             return affectedRows > 0;
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "密码更新失败：" + ex.getMessage(), "数据库错误", JOptionPane.ERROR_MESSAGE);
-            return false;
         } finally {
             DBUtil.close(conn, pstmt);
         }
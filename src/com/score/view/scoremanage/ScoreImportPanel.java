@@ -1,6 +1,13 @@
 package com.score.view.scoremanage;
 
+import com.score.util.BatchInserter;
+import com.score.util.ColumnType;
+import com.score.util.ColumnTypeInferrer;
 import com.score.util.DBUtil;
+import com.score.util.DbTaskScheduler;
+import com.score.util.Log;
+import com.score.util.MismatchPolicy;
+import com.score.util.SchemaEnforcer;
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
@@ -8,11 +15,14 @@ import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 成绩单个导入面板（支持自定义表格名称、列名，数据存入数据库）
  */
 public class ScoreImportPanel extends JPanel {
+    private static final Log LOG = Log.get(ScoreImportPanel.class);
+
     // 组件常量
     private static final String DEFAULT_TABLE_PREFIX = "score_import_";
     private static final List<String> MYSQL_KEYWORDS = Arrays.asList(
@@ -28,7 +38,9 @@ public class ScoreImportPanel extends JPanel {
     private final CardLayout parentCardLayout;
     private final JPanel parentCardPanel;
     private final List<String> columnNames = new ArrayList<>();
+    // 表名（重名检查完成前为null，此时不能保存）
     private String tableName;
+    private JLabel tableNameLabel;
     private boolean hasUnsavedChanges = false;
 
     // 按钮组件
@@ -40,14 +52,14 @@ public class ScoreImportPanel extends JPanel {
     public ScoreImportPanel(CardLayout cardLayout, JPanel cardPanel) {
         this.parentCardLayout = cardLayout;
         this.parentCardPanel = cardPanel;
-        initTableName();
         initPanel();
         initTableStatus();
         registerShortcuts();
+        initTableName();
     }
 
 
-    /** 初始化表格名称（含重复/关键字检测） */
+    /** 初始化表格名称（含关键字检测；重名检测在数据库任务调度器上执行，完成后才确定表名） */
     private void initTableName() {
         while (true) {
             String inputName = JOptionPane.showInputDialog(
@@ -58,9 +70,9 @@ public class ScoreImportPanel extends JPanel {
             );
 
             if (inputName == null) {
-                this.tableName = DEFAULT_TABLE_PREFIX + System.currentTimeMillis();
+                setTableName(DEFAULT_TABLE_PREFIX + System.currentTimeMillis());
                 JOptionPane.showMessageDialog(this, "已使用默认表名：" + this.tableName, "提示", JOptionPane.INFORMATION_MESSAGE);
-                break;
+                return;
             }
 
             inputName = inputName.trim();
@@ -76,19 +88,35 @@ public class ScoreImportPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "表名\"" + filteredTableName + "\"是MySQL关键字，请修改！\n推荐：" + recommendedName, "提示", JOptionPane.WARNING_MESSAGE);
                 continue;
             }
-            // 表名重复检测
-            if (DBUtil.isTableExists(filteredTableName)) {
-                int choice = JOptionPane.showConfirmDialog(this, "表名\"" + filteredTableName + "\"已存在！\n1. 追加时间戳后缀\n2. 重新输入", "表名重复", JOptionPane.YES_NO_OPTION);
-                if (choice == JOptionPane.YES_OPTION) {
-                    filteredTableName += "_" + System.currentTimeMillis();
-                } else {
-                    continue;
-                }
+            checkTableName(filteredTableName);
+            return;
+        }
+    }
+
+    /** 表名重复检测：后台查询表是否存在，已存在时让用户选择追加时间戳后缀或重新输入 */
+    private void checkTableName(String name) {
+        tableNameLabel.setText("当前数据库表名：" + name + "（检查中…）");
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit("检查表名" + name, () -> DBUtil.isTableExists(name)), exists -> {
+            if (!exists) {
+                setTableName(name);
+                return;
+            }
+            int choice = JOptionPane.showConfirmDialog(this, "表名\"" + name + "\"已存在！\n1. 追加时间戳后缀\n2. 重新输入", "表名重复", JOptionPane.YES_NO_OPTION);
+            if (choice == JOptionPane.YES_OPTION) {
+                setTableName(name + "_" + System.currentTimeMillis());
+            } else {
+                initTableName();
             }
+        }, ex -> {
+            JOptionPane.showMessageDialog(this, "检查表名失败：" + DbTaskScheduler.describeFailure(ex) + "\n请重新输入！", "提示", JOptionPane.WARNING_MESSAGE);
+            initTableName();
+        });
+    }
 
-            this.tableName = filteredTableName;
-            break;
-        }
+    private void setTableName(String name) {
+        this.tableName = name;
+        tableNameLabel.setText("当前数据库表名：" + name);
+        updateButtonStatus();
     }
 
 
@@ -105,7 +133,7 @@ public class ScoreImportPanel extends JPanel {
     /** 创建顶部面板（表名+功能按钮） */
     private JPanel createTopPanel() {
         // 表名标签
-        JLabel tableNameLabel = new JLabel("当前数据库表名：" + tableName);
+        tableNameLabel = new JLabel("当前数据库表名：");
         tableNameLabel.setFont(new Font("微软雅黑", Font.BOLD, 14));
         tableNameLabel.setForeground(new Color(0, 80, 160));
 
@@ -317,7 +345,7 @@ public class ScoreImportPanel extends JPanel {
 
         addRowBtn.setEnabled(hasColumn);
         batchAddRowBtn.setEnabled(hasColumn);
-        saveBtn.setEnabled(hasColumn && hasData && hasUnsavedChanges);
+        saveBtn.setEnabled(tableName != null && hasColumn && hasData && hasUnsavedChanges);
         importTable.getActionMap().get("delete").setEnabled(hasSelectedRow);
 
         // 列操作按钮状态
@@ -565,6 +593,10 @@ public class ScoreImportPanel extends JPanel {
     /** 保存数据到数据库 */
     private void saveToDatabase() {
         // 基础校验
+        if (tableName == null) {
+            JOptionPane.showMessageDialog(this, "正在检查表名，请稍候再保存！", "提示", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         if (columnNames.isEmpty()) {
             JOptionPane.showMessageDialog(this, "请先添加列后再保存！", "提示", JOptionPane.WARNING_MESSAGE);
             return;
@@ -583,89 +615,108 @@ public class ScoreImportPanel extends JPanel {
             validColumnNames.add(filteredCol);
         }
 
-        // 最终确认
-        int confirm = JOptionPane.showConfirmDialog(this, String.format("即将保存数据到数据库：\n表名：%s\n列数：%d\n数据行数：%d\n\n确定继续吗？", tableName, validColumnNames.size(), importTableModel.getRowCount() - 1), "保存确认", JOptionPane.YES_NO_OPTION);
-        if (confirm != JOptionPane.YES_OPTION) return;
-
-        // 后台保存（避免UI卡顿）
-        new SwingWorker<Boolean, Integer>() {
-            private JDialog progressDialog;
-            private JProgressBar progressBar;
+        // 按表格中的数据推断列类型，让用户确认
+        List<ColumnType> inferredTypes = ColumnTypeInferrer.infer(new BatchInserter.RowSource() {
+            @Override
+            public int rowCount() {
+                return importTableModel.getRowCount() - 1; // 第0行是列名配置行
+            }
 
             @Override
-            protected Boolean doInBackground() {
-                // 显示进度对话框
-                SwingUtilities.invokeLater(() -> {
-                    progressDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(ScoreImportPanel.this), "保存中...", true);
-                    progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
-                    progressDialog.setSize(300, 100);
-                    progressDialog.setLocationRelativeTo(ScoreImportPanel.this);
-                    progressDialog.setLayout(new BorderLayout(10, 10));
-                    progressBar = new JProgressBar(0, 100);
-                    progressBar.setStringPainted(true);
-                    progressDialog.add(new JLabel("正在保存数据，请稍候..."), BorderLayout.NORTH);
-                    progressDialog.add(progressBar, BorderLayout.CENTER);
-                    progressDialog.setVisible(true);
-                });
-
-                try {
-                    // 步骤1：创建表（20%）
-                    publish(20);
-                    if (!DBUtil.createCustomTable(tableName, validColumnNames)) {
-                        throw new RuntimeException("创建数据表失败");
-                    }
+            public Object value(int row, int col) {
+                return importTableModel.getValueAt(row + 1, col);
+            }
+        }, validColumnNames.size());
+        StringBuilder typeInfo = new StringBuilder();
+        for (int i = 0; i < validColumnNames.size(); i++) {
+            typeInfo.append("\n  ").append(validColumnNames.get(i)).append(" → ").append(inferredTypes.get(i));
+        }
+
+        // 最终确认
+        Object[] choices = {"按推断类型保存", "全部按文本保存", "取消"};
+        int confirm = JOptionPane.showOptionDialog(this, String.format("即将保存数据到数据库：\n表名：%s\n列数：%d\n数据行数：%d\n推断的列类型：%s\n\n按推断类型保存时，无法转换的值将置空。确定继续吗？",
+                tableName, validColumnNames.size(), importTableModel.getRowCount() - 1, typeInfo), "保存确认",
+                JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (confirm != 0 && confirm != 1) return;
+        List<ColumnType> columnTypes = confirm == 0 ? inferredTypes : null;
+
+        // 在EDT上取出表格数据（表格模型只能在EDT访问）
+        int dataRowCount = importTableModel.getRowCount() - 1;
+        List<Object[]> tableRows = new ArrayList<>(dataRowCount);
+        for (int row = 1; row < importTableModel.getRowCount(); row++) {
+            Object[] rowData = new Object[validColumnNames.size()];
+            for (int col = 0; col < validColumnNames.size(); col++) {
+                Object value = importTableModel.getValueAt(row, col);
+                rowData[col] = value == null ? "" : value;
+            }
+            tableRows.add(rowData);
+        }
 
-                    // 步骤2：准备数据（50%）
-                    publish(50);
-                    List<Object[]> dataRows = new ArrayList<>();
-                    for (int row = 1; row < importTableModel.getRowCount(); row++) {
+        // 进度对话框（模态，稍后显示，避免阻塞当前事件）
+        JDialog progressDialog = new JDialog((Frame) SwingUtilities.getWindowAncestor(ScoreImportPanel.this), "保存中...", true);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        progressDialog.setSize(300, 100);
+        progressDialog.setLocationRelativeTo(ScoreImportPanel.this);
+        progressDialog.setLayout(new BorderLayout(10, 10));
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressDialog.add(new JLabel("正在保存数据，请稍候..."), BorderLayout.NORTH);
+        progressDialog.add(progressBar, BorderLayout.CENTER);
+        SwingUtilities.invokeLater(() -> progressDialog.setVisible(true));
+
+        // 后台保存（提交到全局数据库任务调度器，不限时）；返回{插入行数, 被置空/修正的值个数}
+        CompletableFuture<int[]> save = DbTaskScheduler.getInstance().submit("保存成绩表" + tableName, () -> {
+            try {
+                // 步骤1：创建表（20%）
+                SwingUtilities.invokeLater(() -> progressBar.setValue(20));
+                if (!DBUtil.createCustomTable(tableName, validColumnNames, columnTypes)) {
+                    throw new RuntimeException("创建数据表失败");
+                }
+
+                // 步骤2：按类型转换数据（50%）
+                SwingUtilities.invokeLater(() -> progressBar.setValue(50));
+                List<Object[]> dataRows = tableRows;
+                int coercedValues = 0;
+                if (columnTypes != null) {
+                    SchemaEnforcer.Result typed = new SchemaEnforcer(validColumnNames, columnTypes, MismatchPolicy.COERCE)
+                            .apply(BatchInserter.ofArrays(dataRows), 1);
+                    coercedValues = typed.getCoercedValues();
+                    BatchInserter.RowSource rows = typed.getAccepted();
+                    dataRows = new ArrayList<>(rows.rowCount());
+                    for (int row = 0; row < rows.rowCount(); row++) {
                         Object[] rowData = new Object[validColumnNames.size()];
-                        for (int col = 0; col < validColumnNames.size(); col++) {
-                            Object value = importTableModel.getValueAt(row, col);
-                            rowData[col] = value == null ? "" : value;
+                        for (int col = 0; col < rowData.length; col++) {
+                            rowData[col] = rows.value(row, col);
                         }
                         dataRows.add(rowData);
-                        publish(50 + (row * 40) / (importTableModel.getRowCount() - 1));
                     }
-
-                    // 步骤3：批量插入（100%）
-                    publish(100);
-                    int insertCount = DBUtil.batchInsertData(tableName, validColumnNames, dataRows);
-                    return insertCount > 0;
-                } catch (Exception e) {
-                    System.err.println("保存数据失败：" + e.getMessage());
-                    e.printStackTrace();
-                    throw new RuntimeException("保存失败：" + e.getMessage());
-                } finally {
-                    SwingUtilities.invokeLater(() -> {
-                        if (progressDialog != null) progressDialog.dispose();
-                    });
                 }
-            }
 
-            @Override
-            protected void process(List<Integer> chunks) {
-                if (progressBar != null && !chunks.isEmpty()) {
-                    progressBar.setValue(chunks.get(chunks.size() - 1));
-                }
+                // 步骤3：批量插入（100%）
+                SwingUtilities.invokeLater(() -> progressBar.setValue(100));
+                int insertCount = DBUtil.batchInsertData(tableName, validColumnNames, dataRows);
+                return new int[]{insertCount, coercedValues};
+            } catch (Exception e) {
+                LOG.error("保存数据失败：{}", e.getMessage(), e);
+                throw new RuntimeException("保存失败：" + e.getMessage());
             }
+        }, DbTaskScheduler.NO_TIMEOUT);
 
-            @Override
-            protected void done() {
-                try {
-                    Boolean result = get();
-                    if (result) {
-                        hasUnsavedChanges = false;
-                        JOptionPane.showMessageDialog(ScoreImportPanel.this, String.format("数据保存成功！\n表名：%s\n共插入 %d 行数据", tableName, importTableModel.getRowCount() - 1), "成功", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        JOptionPane.showMessageDialog(ScoreImportPanel.this, "保存成功，但无有效数据可插入！", "提示", JOptionPane.INFORMATION_MESSAGE);
-                    }
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(ScoreImportPanel.this, "保存数据失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                }
-                updateButtonStatus();
+        DbTaskScheduler.onEdt(save, result -> {
+            progressDialog.dispose();
+            if (result[0] > 0) {
+                hasUnsavedChanges = false;
+                String coercedInfo = result[1] > 0 ? "\n类型不符已置空/修正 " + result[1] + " 个值" : "";
+                JOptionPane.showMessageDialog(ScoreImportPanel.this, String.format("数据保存成功！\n表名：%s\n共插入 %d 行数据%s", tableName, dataRowCount, coercedInfo), "成功", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(ScoreImportPanel.this, "保存成功，但无有效数据可插入！", "提示", JOptionPane.INFORMATION_MESSAGE);
             }
-        }.execute();
+            updateButtonStatus();
+        }, e -> {
+            progressDialog.dispose();
+            JOptionPane.showMessageDialog(ScoreImportPanel.this, "保存数据失败：" + DbTaskScheduler.describeFailure(e), "错误", JOptionPane.ERROR_MESSAGE);
+            updateButtonStatus();
+        });
     }
 
 
@@ -0,0 +1,74 @@
+package com.score.view.scoremanage;
+
+import com.score.service.ImportReport;
+import com.score.service.SheetProgressListener;
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 多工作表导入进度窗口：每个工作表一行，显示目标表、状态和已导入行数
+ * 回调来自导入线程，这里统一切回EDT更新表格
+ */
+public class SheetProgressDialog extends JDialog implements SheetProgressListener {
+    private static final long serialVersionUID = 1L;
+    private static final String[] COLUMNS = {"工作表", "目标表", "状态", "已导入行数", "耗时(ms)"};
+
+    private final DefaultTableModel model = new DefaultTableModel(COLUMNS, 0) {
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false;
+        }
+    };
+    // 工作表序号 → 表格行号（工作表并行开始，顺序不固定）
+    private final Map<Integer, Integer> rowOfSheet = new HashMap<>();
+    private final JLabel summaryLabel = new JLabel("正在读取工作表...");
+
+    public SheetProgressDialog(Window owner) {
+        super(owner, "多工作表导入进度", ModalityType.MODELESS);
+        setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        setSize(560, 300);
+        setLocationRelativeTo(owner);
+        setLayout(new BorderLayout(10, 10));
+        add(new JScrollPane(new JTable(model)), BorderLayout.CENTER);
+        add(summaryLabel, BorderLayout.SOUTH);
+    }
+
+    @Override
+    public void onSheetStarted(int sheetIndex, String sheetName, String tableName) {
+        SwingUtilities.invokeLater(() -> {
+            rowOfSheet.put(sheetIndex, model.getRowCount());
+            model.addRow(new Object[]{sheetName, tableName, "导入中", 0L, ""});
+            summaryLabel.setText("已开始 " + model.getRowCount() + " 个工作表");
+        });
+    }
+
+    @Override
+    public void onSheetProgress(int sheetIndex, String sheetName, long importedRows) {
+        SwingUtilities.invokeLater(() -> {
+            Integer row = rowOfSheet.get(sheetIndex);
+            if (row != null) model.setValueAt(importedRows, row, 3);
+        });
+    }
+
+    @Override
+    public void onSheetFinished(int sheetIndex, String sheetName, ImportReport report) {
+        SwingUtilities.invokeLater(() -> {
+            Integer row = rowOfSheet.get(sheetIndex);
+            if (row == null) return;
+            model.setValueAt(report.hasErrors() ? "失败：" + report.getErrors().get(0) : "完成", row, 2);
+            model.setValueAt(report.getTotalRows(), row, 3);
+            model.setValueAt(report.getElapsedMillis(), row, 4);
+        });
+    }
+
+    /**
+     * 全部结束：允许关闭窗口
+     */
+    public void finish(String summary) {
+        summaryLabel.setText(summary);
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+    }
+}
\ No newline at end of file
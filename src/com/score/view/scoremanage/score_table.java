@@ -1,20 +1,41 @@
 package com.score.view.scoremanage;
 
+import com.score.dao.ImportJob;
+import com.score.dao.IndexManager;
+import com.score.service.ImportOptions;
 import com.score.service.ImportService;
+import com.score.util.ColumnType;
+import com.score.util.DbConfig;
+import com.score.util.DbTaskScheduler;
+import com.score.util.InsertMode;
+import com.score.util.MismatchPolicy;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.File;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 public class score_table extends JPanel {
     private final ImportService importService = new ImportService();
     private JTextField tableNameField;
     private JTextField headersField;
     private JTextField requiredHeadersField;
+    private JTextField chunkSizeField;
+    private JTextField workerCountField;
+    private JComboBox<String> commitModeBox;
+    private JComboBox<InsertMode> insertModeBox;
+    private JCheckBox bulkLoadBox;
+    private JComboBox<String> sheetTargetBox;
+    private JComboBox<MismatchPolicy> mismatchPolicyBox;
+    private JCheckBox inferTypesBox;
+    private JTextField keyColumnsField;
+    private JTextField upsertKeysField;
     private JFileChooser fileChooser;
     private File selectedFile;
 
@@ -27,7 +48,7 @@ public class score_table extends JPanel {
         setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
         // 输入面板
-        JPanel inputPanel = new JPanel(new GridLayout(4, 2, 10, 10));
+        JPanel inputPanel = new JPanel(new GridLayout(14, 2, 10, 10));
         inputPanel.add(new JLabel("表单名称："));
         tableNameField = new JTextField();
         inputPanel.add(tableNameField);
@@ -40,6 +61,47 @@ public class score_table extends JPanel {
         requiredHeadersField = new JTextField();
         inputPanel.add(requiredHeadersField);
 
+        inputPanel.add(new JLabel("每批写入行数："));
+        chunkSizeField = new JTextField(String.valueOf(DbConfig.get().getChunkSize()));
+        inputPanel.add(chunkSizeField);
+
+        inputPanel.add(new JLabel("写入线程数："));
+        workerCountField = new JTextField("2");
+        inputPanel.add(workerCountField);
+
+        inputPanel.add(new JLabel("提交方式："));
+        commitModeBox = new JComboBox<>(new String[]{"逐批提交（失败批次跳过）", "全部成功才提交"});
+        inputPanel.add(commitModeBox);
+
+        inputPanel.add(new JLabel("插入方式："));
+        insertModeBox = new JComboBox<>(InsertMode.values());
+        inputPanel.add(insertModeBox);
+
+        inputPanel.add(new JLabel("批量加载："));
+        bulkLoadBox = new JCheckBox("优先LOAD DATA（服务器不支持时自动回退）");
+        inputPanel.add(bulkLoadBox);
+
+        inputPanel.add(new JLabel("多工作表写入："));
+        sheetTargetBox = new JComboBox<>(new String[]{"每个工作表单独建表", "合并到一张表（含sheet_name列）"});
+        inputPanel.add(sheetTargetBox);
+
+        inputPanel.add(new JLabel("类型不符的行："));
+        mismatchPolicyBox = new JComboBox<>(MismatchPolicy.values());
+        inputPanel.add(mismatchPolicyBox);
+
+        inputPanel.add(new JLabel("列类型推断："));
+        inferTypesBox = new JCheckBox("导入时新建的表按数据推断列类型");
+        inputPanel.add(inferTypesBox);
+
+        inputPanel.add(new JLabel("关键列（导入后建索引，逗号分隔）："));
+        keyColumnsField = new JTextField();
+        inputPanel.add(keyColumnsField);
+
+        inputPanel.add(new JLabel("增量导入键列（逗号分隔，留空为追加）："));
+        upsertKeysField = new JTextField();
+        upsertKeysField.setToolTipText("如：学号,科目。已存在的键只在内容变化时更新，未变化的行跳过");
+        inputPanel.add(upsertKeysField);
+
         inputPanel.add(new JLabel("选择Excel："));
         JButton chooseBtn = new JButton("选择文件");
         chooseBtn.addActionListener(this::chooseFile);
@@ -51,8 +113,20 @@ public class score_table extends JPanel {
         createBtn.addActionListener(this::createTable);
         JButton importBtn = new JButton("导入数据");
         importBtn.addActionListener(this::importData);
+        JButton inferCreateBtn = new JButton("推断类型建表");
+        inferCreateBtn.addActionListener(this::inferAndCreateTable);
         btnPanel.add(createBtn);
+        btnPanel.add(inferCreateBtn);
+        JButton importAllBtn = new JButton("导入全部工作表");
+        importAllBtn.addActionListener(this::importAllSheets);
+        JButton resumableImportBtn = new JButton("断点续传导入");
+        resumableImportBtn.addActionListener(this::importDataResumable);
         btnPanel.add(importBtn);
+        btnPanel.add(resumableImportBtn);
+        btnPanel.add(importAllBtn);
+        JButton suggestIndexBtn = new JButton("索引建议");
+        suggestIndexBtn.addActionListener(this::suggestIndexes);
+        btnPanel.add(suggestIndexBtn);
 
         add(inputPanel, BorderLayout.CENTER);
         add(btnPanel, BorderLayout.SOUTH);
@@ -84,12 +158,77 @@ public class score_table extends JPanel {
             if (!trimH.isEmpty()) headers.add(trimH);
         }
 
-        try {
+        runInBackground(e, "创建表单", () -> {
             importService.createFormTable(tableName, headers);
-            JOptionPane.showMessageDialog(this, "表单创建成功！");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "创建失败：" + ex.getMessage());
+            return null;
+        }, ok -> JOptionPane.showMessageDialog(this, "表单创建成功！"), "创建失败：");
+    }
+
+    // 按所选Excel的样本行推断列类型，确认后建表
+    private void inferAndCreateTable(ActionEvent e) {
+        String tableName = tableNameField.getText().trim();
+        if (tableName.isEmpty() || selectedFile == null) {
+            JOptionPane.showMessageDialog(this, "请填写表单名称并选择文件！");
+            return;
+        }
+
+        File file = selectedFile;
+        runInBackground(e, "推断列类型", () -> importService.inferColumnTypes(file, ImportService.DEFAULT_SAMPLE_ROWS), inferred -> {
+            StringBuilder typeInfo = new StringBuilder();
+            for (Map.Entry<String, ColumnType> entry : inferred.entrySet()) {
+                typeInfo.append("\n  ").append(entry.getKey()).append(" → ").append(entry.getValue());
+            }
+            int confirm = JOptionPane.showConfirmDialog(this, "根据前" + ImportService.DEFAULT_SAMPLE_ROWS + "行推断的列类型："
+                    + typeInfo + "\n\n按以上类型创建表单吗？", "推断列类型", JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) return;
+
+            runInBackground(e, "创建表单", () -> {
+                importService.createFormTable(tableName, new ArrayList<>(inferred.keySet()), new ArrayList<>(inferred.values()));
+                return null;
+            }, ok -> {
+                headersField.setText(String.join(",", inferred.keySet()));
+                JOptionPane.showMessageDialog(this, "表单创建成功！");
+            }, "创建失败：");
+        }, "创建失败：");
+    }
+
+    // 根据查询模式给出索引建议，勾选后创建
+    private void suggestIndexes(ActionEvent e) {
+        String tableName = tableNameField.getText().trim();
+        if (tableName.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "请先填写表单名称！");
+            return;
         }
+
+        runInBackground(e, "索引建议", () -> importService.suggestIndexes(tableName), suggestions -> {
+            if (suggestions.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "现有索引已覆盖常用查询，无需新建索引！");
+                return;
+            }
+            JPanel panel = new JPanel(new GridLayout(suggestions.size() + 1, 1, 5, 5));
+            panel.add(new JLabel("建议为表 " + tableName + " 创建以下索引（勾选后确定）："));
+            List<JCheckBox> boxes = new ArrayList<>();
+            for (IndexManager.IndexSuggestion suggestion : suggestions) {
+                JCheckBox box = new JCheckBox(suggestion.toString(), suggestion.getQueryCount() > 0 || suggestion.getSelectivity() >= 0.1);
+                boxes.add(box);
+                panel.add(box);
+            }
+            if (JOptionPane.showConfirmDialog(this, panel, "索引建议", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+
+            List<IndexManager.IndexSuggestion> selected = new ArrayList<>();
+            for (int i = 0; i < suggestions.size(); i++) {
+                if (boxes.get(i).isSelected()) selected.add(suggestions.get(i));
+            }
+            if (selected.isEmpty()) return;
+            runInBackground(e, "创建索引", () -> {
+                StringBuilder result = new StringBuilder();
+                for (IndexManager.IndexSuggestion suggestion : selected) {
+                    IndexManager.IndexBuild build = importService.createIndex(tableName, suggestion);
+                    result.append("\n").append(build);
+                }
+                return result;
+            }, result -> JOptionPane.showMessageDialog(this, "索引创建成功：" + result), "");
+        }, "");
     }
 
     // 导入Excel数据
@@ -101,17 +240,130 @@ public class score_table extends JPanel {
             return;
         }
 
-        Set<String> requiredHeaders = new HashSet<>();
+        Set<String> requiredHeaders = parseRequiredHeaders(requiredStr);
+        ImportOptions options = buildOptions();
+        if (options == null) return;
+
+        // 流水线导入：边解析边分批写库，解析与写库并行，大文件不会撑爆内存
+        File file = selectedFile;
+        runInBackground(e, "导入" + tableName, options.getConnectionCount(), () -> importService.importExcelData(file, tableName, requiredHeaders, options), report -> {
+            String title = report.hasErrors() ? "数据导入完成（部分批次失败）！\n" : "数据导入成功！\n";
+            JOptionPane.showMessageDialog(this, title + report);
+        }, "导入失败：");
+    }
+
+    // 断点续传导入：先查找该文件上次中断的任务，询问是否从断点继续
+    private void importDataResumable(ActionEvent e) {
+        String tableName = tableNameField.getText().trim();
+        String requiredStr = requiredHeadersField.getText().trim();
+        if (tableName.isEmpty() || requiredStr.isEmpty() || selectedFile == null) {
+            JOptionPane.showMessageDialog(this, "请填写完整信息并选择文件！");
+            return;
+        }
+
+        Set<String> requiredHeaders = parseRequiredHeaders(requiredStr);
+        ImportOptions options = buildOptions();
+        if (options == null) return;
+
+        File file = selectedFile;
+        runInBackground(e, "查找导入任务", () -> importService.findResumableJob(file, tableName), job -> {
+            ImportJob resumeFrom = null;
+            if (job != null) {
+                int choice = JOptionPane.showConfirmDialog(this, "上次导入在第" + job.getLastRow() + "行后中断（" + job.getUpdatedAt()
+                                + "），是否从断点继续？\n选\"否\"将从头导入，已提交的" + job.getLastRow() + "行会重复写入！",
+                        "断点续传", JOptionPane.YES_NO_CANCEL_OPTION);
+                if (choice == JOptionPane.YES_OPTION) {
+                    resumeFrom = job;
+                } else if (choice != JOptionPane.NO_OPTION) {
+                    return;
+                }
+            }
+            ImportJob from = resumeFrom;
+            runInBackground(e, "导入" + tableName, () -> importService.importExcelDataResumable(file, tableName, requiredHeaders, options, from),
+                    report -> JOptionPane.showMessageDialog(this, "数据导入成功！\n" + report), "");
+        }, "导入失败：");
+    }
+
+    // 读取界面上的导入参数（输入不合法时提示并返回null）
+    private ImportOptions buildOptions() {
+        ImportOptions options = new ImportOptions();
+        try {
+            options.setChunkSize(Integer.parseInt(chunkSizeField.getText().trim()));
+            options.setWorkerCount(Integer.parseInt(workerCountField.getText().trim()));
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "每批写入行数/写入线程数必须是整数！");
+            return null;
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage());
+            return null;
+        }
+        options.setCommitMode(commitModeBox.getSelectedIndex() == 0
+                ? ImportOptions.CommitMode.PER_CHUNK : ImportOptions.CommitMode.ALL_OR_NOTHING);
+        options.setInsertMode((InsertMode) insertModeBox.getSelectedItem());
+        options.setBulkLoad(bulkLoadBox.isSelected());
+        options.setSheetTarget(sheetTargetBox.getSelectedIndex() == 0
+                ? ImportOptions.SheetTarget.PER_SHEET_TABLE : ImportOptions.SheetTarget.SHARED_TABLE);
+        options.setMismatchPolicy((MismatchPolicy) mismatchPolicyBox.getSelectedItem());
+        options.setInferTypes(inferTypesBox.isSelected());
+        options.setKeyColumns(new ArrayList<>(parseRequiredHeaders(keyColumnsField.getText().trim())));
+        options.setUpsertKeys(new ArrayList<>(parseRequiredHeaders(upsertKeysField.getText().trim())));
+        return options;
+    }
+
+    private Set<String> parseRequiredHeaders(String requiredStr) {
+        Set<String> requiredHeaders = new LinkedHashSet<>();
         for (String h : requiredStr.split(",")) {
             String trimH = h.trim();
             if (!trimH.isEmpty()) requiredHeaders.add(trimH);
         }
+        return requiredHeaders;
+    }
 
-        try {
-            importService.importExcelData(selectedFile, tableName, requiredHeaders);
-            JOptionPane.showMessageDialog(this, "数据导入成功！");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "导入失败：" + ex.getMessage());
+    // 导入工作簿中的全部工作表（后台并行导入，进度窗口逐表显示）
+    private void importAllSheets(ActionEvent e) {
+        String tableName = tableNameField.getText().trim();
+        String requiredStr = requiredHeadersField.getText().trim();
+        if (tableName.isEmpty() || requiredStr.isEmpty() || selectedFile == null) {
+            JOptionPane.showMessageDialog(this, "请填写完整信息并选择文件！");
+            return;
         }
+        Set<String> requiredHeaders = parseRequiredHeaders(requiredStr);
+        ImportOptions options = buildOptions();
+        if (options == null) return;
+
+        SheetProgressDialog progressDialog = new SheetProgressDialog(SwingUtilities.getWindowAncestor(this));
+        progressDialog.setVisible(true);
+        File file = selectedFile;
+        runInBackground(e, "导入工作簿" + tableName, options.getWorkbookConnectionCount(), () -> importService.importWorkbook(file, tableName, requiredHeaders, options, progressDialog), report -> {
+            progressDialog.finish("全部完成：" + report.getTotalRows() + " 行，" + report.getElapsedMillis() + " ms");
+            String title = report.hasErrors() ? "多工作表导入完成（部分工作表失败）！\n" : "多工作表导入成功！\n";
+            JOptionPane.showMessageDialog(score_table.this, title + report);
+        }, ex -> {
+            progressDialog.finish("导入失败");
+            JOptionPane.showMessageDialog(score_table.this, "导入失败：" + DbTaskScheduler.describeFailure(ex));
+        });
+    }
+
+    // 在全局数据库任务调度器上执行（导入等长任务不限时），执行期间禁用触发按钮，结果回到EDT处理
+    private <T> void runInBackground(ActionEvent e, String name, Callable<T> task, Consumer<T> onSuccess, String failurePrefix) {
+        runInBackground(e, name, 1, task, onSuccess, failurePrefix);
+    }
+
+    // connections：任务同时占用的连接数（多线程导入按写入连接数占用调度器许可，避免几个导入并行时耗尽连接池）
+    private <T> void runInBackground(ActionEvent e, String name, int connections, Callable<T> task, Consumer<T> onSuccess, String failurePrefix) {
+        runInBackground(e, name, connections, task, onSuccess,
+                ex -> JOptionPane.showMessageDialog(this, failurePrefix + DbTaskScheduler.describeFailure(ex)));
+    }
+
+    private <T> void runInBackground(ActionEvent e, String name, int connections, Callable<T> task, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+        JButton source = (JButton) e.getSource();
+        source.setEnabled(false);
+        DbTaskScheduler.onEdt(DbTaskScheduler.getInstance().submit(name, task, DbTaskScheduler.NO_TIMEOUT, connections), result -> {
+            source.setEnabled(true);
+            onSuccess.accept(result);
+        }, ex -> {
+            source.setEnabled(true);
+            onError.accept(ex);
+        });
     }
 }
\ No newline at end of file